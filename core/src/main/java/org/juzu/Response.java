@@ -295,8 +295,100 @@ public abstract class Response
    public static abstract class Resource extends Content
    {
 
+      /** . */
+      private String etag;
+
+      /** . */
+      private long lastModified = -1;
+
+      /** . */
+      private String cacheControl;
+
+      /** . */
+      private boolean digest;
+
       public abstract int getStatus();
 
+      /**
+       * Returns the entity tag of the resource.
+       *
+       * @return the entity tag or null
+       */
+      public String getETag()
+      {
+         return etag;
+      }
+
+      /**
+       * Set the entity tag of the resource, the value is the opaque tag without quotes. A request providing the same
+       * tag with the <code>If-None-Match</code> header is answered with a <i>304 Not Modified</i> response.
+       *
+       * @param etag the entity tag
+       * @return this object
+       */
+      public Resource setETag(String etag)
+      {
+         this.etag = etag;
+         return this;
+      }
+
+      /**
+       * Returns the last modification date of the resource.
+       *
+       * @return the last modification date in milliseconds or <code>-1</code> when it is not set
+       */
+      public long getLastModified()
+      {
+         return lastModified;
+      }
+
+      /**
+       * Set the last modification date of the resource, a request providing a later or equal date with the
+       * <code>If-Modified-Since</code> header is answered with a <i>304 Not Modified</i> response.
+       *
+       * @param lastModified the last modification date in milliseconds
+       * @return this object
+       */
+      public Resource setLastModified(long lastModified)
+      {
+         this.lastModified = lastModified;
+         return this;
+      }
+
+      public String getCacheControl()
+      {
+         return cacheControl;
+      }
+
+      /**
+       * Set the value of the <code>Cache-Control</code> header of the resource.
+       *
+       * @param cacheControl the cache control
+       * @return this object
+       */
+      public Resource setCacheControl(String cacheControl)
+      {
+         this.cacheControl = cacheControl;
+         return this;
+      }
+
+      public boolean getDigest()
+      {
+         return digest;
+      }
+
+      /**
+       * When no entity tag is set, the digest mode computes an entity tag by hashing the resource content.
+       *
+       * @param digest true to compute the entity tag from the content
+       * @return this object
+       */
+      public Resource setDigest(boolean digest)
+      {
+         this.digest = digest;
+         return this;
+      }
+
       @Override
       public String toString()
       {
@@ -25,6 +25,7 @@ import org.juzu.View;
 import org.juzu.impl.application.metadata.ApplicationDescriptor;
 import org.juzu.impl.controller.descriptor.ControllerDescriptor;
 import org.juzu.impl.inject.BeanFilter;
+import org.juzu.impl.inject.BeanIndex;
 import org.juzu.inject.Binding;
 import org.juzu.inject.Bindings;
 import org.juzu.impl.inject.Export;
@@ -100,6 +101,13 @@ public class ApplicationBootstrap
          }
       });
 
+      // The beans indexed at compilation time
+      BeanIndex beans = descriptor.getBeans();
+      if (beans != null)
+      {
+         bootstrap.setBeanIndex(beans);
+      }
+
       // Bind the scopes
       for (Scope scope : Scope.values())
       {
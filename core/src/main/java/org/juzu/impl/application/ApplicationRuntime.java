@@ -25,10 +25,13 @@ import org.juzu.impl.asset.Router;
 import org.juzu.impl.asset.Server;
 import org.juzu.impl.compiler.*;
 import org.juzu.impl.compiler.Compiler;
+import org.juzu.impl.compiler.file.PackageIndex;
+import org.juzu.impl.controller.descriptor.ControllerDescriptor;
 import org.juzu.impl.fs.Change;
-import org.juzu.impl.fs.FileSystemScanner;
+import org.juzu.impl.fs.FileSystemWatcher;
 import org.juzu.impl.model.processor.MainProcessor;
 import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.SimpleFileSystem;
 import org.juzu.impl.spi.fs.classloader.ClassLoaderFileSystem;
 import org.juzu.impl.spi.fs.jar.JarFileSystem;
 import org.juzu.impl.spi.fs.ram.RAMFileSystem;
@@ -36,6 +39,8 @@ import org.juzu.impl.spi.fs.ram.RAMPath;
 import org.juzu.impl.spi.inject.InjectBuilder;
 import org.juzu.impl.spi.inject.InjectImplementation;
 import org.juzu.impl.spi.inject.spring.SpringBuilder;
+import org.juzu.impl.spi.request.RequestBridge;
+import org.juzu.impl.template.metadata.TemplateDescriptor;
 import org.juzu.impl.utils.DevClassLoader;
 import org.juzu.impl.utils.JSON;
 import org.juzu.impl.utils.Logger;
@@ -44,6 +49,7 @@ import org.juzu.impl.utils.Tools;
 import javax.portlet.PortletException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.net.URL;
@@ -52,8 +58,19 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.JarFile;
 
 /**
@@ -67,6 +84,9 @@ public abstract class ApplicationRuntime<P, R, L>
    /** . */
    private static final String[] CONFIG_PATH = {"org", "juzu", "config.json"};
 
+   /** . */
+   private static final String BOOTSTRAP_PATH = "org/juzu/impl/application/ApplicationBootstrap.class";
+
    /** . */
    protected final Logger logger;
 
@@ -82,18 +102,19 @@ public abstract class ApplicationRuntime<P, R, L>
    /** . */
    protected ReadFileSystem<R> resources;
 
-   /** . */
-   protected ApplicationContext context;
-
    /** . */
    protected Server assetServer;
 
    /** . */
-   protected Registration<Router> applicationAssets;
+   protected boolean warmUp;
+
+   /** The deployment serving the requests. */
+   private final AtomicReference<Deployment> current;
 
    ApplicationRuntime(Logger logger)
    {
       this.logger = logger;
+      this.current = new AtomicReference<Deployment>();
    }
 
    public ReadFileSystem<L> getLibs()
@@ -138,7 +159,8 @@ public abstract class ApplicationRuntime<P, R, L>
 
    public ApplicationContext getContext()
    {
-      return context;
+      Deployment deployment = current.get();
+      return deployment != null ? deployment.context : null;
    }
 
    public Server getAssetServer()
@@ -151,12 +173,86 @@ public abstract class ApplicationRuntime<P, R, L>
       this.assetServer = assetServer;
    }
 
+   public boolean getWarmUp()
+   {
+      return warmUp;
+   }
+
+   /**
+    * Enables the warm-up of the application: after the inject container is started, the controller classes are
+    * initialized and the template stubs are initialized concurrently before the application is published.
+    *
+    * @param warmUp true to warm up the application
+    */
+   public void setWarmUp(boolean warmUp)
+   {
+      this.warmUp = warmUp;
+   }
+
+   /**
+    * Returns true when an application is published and can serve the requests. When the warm-up is enabled, a
+    * published application is warmed up.
+    *
+    * @return true when the runtime is ready
+    */
+   public boolean isReady()
+   {
+      return current.get() != null;
+   }
+
    protected abstract ClassLoader getClassLoader();
 
    protected abstract ReadFileSystem<P> getClasses();
 
    public abstract Collection<CompilationError> boot() throws Exception;
 
+   /**
+    * Invokes the current application context. The context cannot be released while it is used by the invocation
+    * even when a new context is published concurrently.
+    *
+    * @param bridge the request bridge
+    * @throws ApplicationException any application exception
+    * @throws IllegalStateException if no application is booted
+    */
+   public void invoke(RequestBridge bridge) throws ApplicationException, IllegalStateException
+   {
+      Deployment deployment;
+      while (true)
+      {
+         deployment = current.get();
+         if (deployment == null)
+         {
+            throw new IllegalStateException("No application booted");
+         }
+         else if (deployment.acquire())
+         {
+            break;
+         }
+      }
+      try
+      {
+         deployment.context.invoke(bridge);
+      }
+      finally
+      {
+         deployment.release();
+      }
+   }
+
+   /**
+    * Publishes a deployment, the previous deployment is released when its pending invocations are done.
+    *
+    * @param deployment the deployment to publish or null
+    */
+   protected final void publish(Deployment deployment)
+   {
+      Deployment previous = current.getAndSet(deployment);
+      if (previous != null)
+      {
+         previous.retire();
+      }
+   }
+
    public static class Static<P, R, L> extends ApplicationRuntime<P, R, L>
    {
 
@@ -195,9 +291,15 @@ public abstract class ApplicationRuntime<P, R, L>
       @Override
       public Collection<CompilationError> boot() throws Exception
       {
-         if (context == null)
+         if (getContext() == null)
          {
-            doBoot();
+            synchronized (this)
+            {
+               if (getContext() == null)
+               {
+                  publish(deploy());
+               }
+            }
          }
 
          //
@@ -205,35 +307,103 @@ public abstract class ApplicationRuntime<P, R, L>
       }
    }
 
+   /**
+    * The dynamic runtime compiles the application sources. The compilation and the boot of the application happen in
+    * a background thread and the new application is published when it is ready, the requests are served by the
+    * previous application meanwhile. A request waits for a build only when there is no application to serve it.
+    */
    public static class Dynamic<R, L, S> extends ApplicationRuntime<RAMPath, R, L>
    {
 
       /** . */
-      private FileSystemScanner<S> devScanner;
+      private FileSystemWatcher<S> devWatcher;
 
       /** . */
       private ClassLoaderFileSystem classLoaderFS;
 
+      /** The index of the class path packages, it is shared by the builds. */
+      private PackageIndex<String> classPathIndex;
+
       /** . */
-      private ReadFileSystem<RAMPath> classes;
+      private RAMFileSystem classes;
 
       /** . */
       private ClassLoader classLoader;
 
+      /** Executes the builds sequentially. */
+      private ExecutorService builder;
+
+      /** The changes not yet built, guarded by this object. */
+      private Map<String, Change> pending;
+
+      /** The build in progress, guarded by this object. */
+      private Future<Collection<CompilationError>> build;
+
+      /** The errors of the last build or null when it succeeded. */
+      private volatile Collection<CompilationError> errors;
+
+      /** True when an application was published and no request observed it yet. */
+      private final AtomicBoolean published;
+
+      /** The directory of the compilation cache or null. */
+      private File cacheDir;
+
+      /** . */
+      private CompilationCache cache;
+
       public Dynamic(Logger logger)
       {
          super(logger);
+
+         //
+         this.pending = new LinkedHashMap<String, Change>();
+         this.published = new AtomicBoolean();
+      }
+
+      public File getCacheDir()
+      {
+         return cacheDir;
+      }
+
+      /**
+       * Sets the directory of the compilation cache, it must be set before the runtime is initialized. The full builds
+       * reuse the output cached in this directory when the sources and the class path did not change.
+       *
+       * @param cacheDir the cache directory or null
+       */
+      public void setCacheDir(File cacheDir)
+      {
+         this.cacheDir = cacheDir;
       }
 
       public void init(ClassLoader baseClassLoader, ReadFileSystem<S> fss) throws Exception
       {
-         devScanner = new FileSystemScanner<S>(fss);
-         devScanner.scan();
-         logger.log("Dev mode scanner monitoring " + fss.getFile(fss.getRoot()));
+         devWatcher = new FileSystemWatcher<S>(fss);
+         devWatcher.start();
+         logger.log("Dev mode watcher monitoring " + fss.getFile(fss.getRoot()) + " every " + devWatcher.getInterval() + "ms");
 
          // We load it once as it is an expensive resource
          ClassLoader devCL = new DevClassLoader(baseClassLoader);
          classLoaderFS = new ClassLoaderFileSystem(devCL);
+         classPathIndex = new PackageIndex<String>(classLoaderFS);
+
+         //
+         if (cacheDir != null)
+         {
+            cache = new CompilationCache(cacheDir, CompilationCache.fingerprint(baseClassLoader), logger);
+            logger.log("Dev mode compilation cache in " + cacheDir);
+         }
+
+         //
+         builder = Executors.newSingleThreadExecutor(new ThreadFactory()
+         {
+            public Thread newThread(Runnable r)
+            {
+               Thread thread = new Thread(r, "juzu-dev-builder");
+               thread.setDaemon(true);
+               return thread;
+            }
+         });
       }
 
       @Override
@@ -242,50 +412,155 @@ public abstract class ApplicationRuntime<P, R, L>
          return classes;
       }
 
+      FileSystemWatcher<S> getDevWatcher()
+      {
+         return devWatcher;
+      }
+
+      /**
+       * Schedules a build when changes are detected and returns the outcome of the builds that completed since the
+       * last invocation. When no application was ever booted, the invocation waits for the build to complete.
+       *
+       * @return the compilation errors, an empty collection when a new application was published or null
+       * @throws Exception any exception
+       */
       public Collection<CompilationError> boot() throws Exception
       {
-         Map<String, Change> changes =  devScanner.scan();
-         if (context != null)
+         Future<Collection<CompilationError>> future;
+         Map<String, Change> changes = devWatcher.poll();
+         synchronized (this)
          {
             if (changes.size() > 0)
             {
                logger.log("Detected changes : " + changes);
-               context = null;
+               FileSystemWatcher.merge(pending, changes);
             }
-            else
+            if (build == null && (pending.size() > 0 || (getContext() == null && errors == null)))
             {
-               logger.log("No changes detected");
+               build = builder.submit(new Callable<Collection<CompilationError>>()
+               {
+                  public Collection<CompilationError> call() throws Exception
+                  {
+                     return build();
+                  }
+               });
             }
+            future = build;
          }
-         
+
          //
-         if (context == null)
+         if (getContext() == null && future != null)
          {
-            logger.log("Building application");
-            RAMFileSystem classes = new RAMFileSystem();
-            Compiler compiler = new Compiler(devScanner.getFileSystem(), classLoaderFS, classes, classes);
-            compiler.addAnnotationProcessor(new MainProcessor());
-            List<CompilationError> res = compiler.compile();
+            try
+            {
+               future.get();
+            }
+            catch (ExecutionException e)
+            {
+               Throwable cause = e.getCause();
+               throw cause instanceof Exception ? (Exception)cause : e;
+            }
+         }
+
+         //
+         if (published.compareAndSet(true, false))
+         {
+            // Return empty to signal compilation occured
+            return Collections.emptyList();
+         }
+         else
+         {
+            return errors;
+         }
+      }
+
+      private Collection<CompilationError> build() throws Exception
+      {
+         Map<String, Change> changes;
+         synchronized (this)
+         {
+            changes = pending;
+            pending = new LinkedHashMap<String, Change>();
+         }
+         try
+         {
+            List<CompilationError> res = compile(changes);
             if (res.isEmpty())
             {
-               this.classLoader = new URLClassLoader(new URL[]{classes.getURL()}, classLoaderFS.getClassLoader());
-               this.classes = classes;
-               
-               //
-               doBoot();
-
-               // Return empty to signal compilation occured
-               return Collections.emptyList();
+               publish(deploy());
+               errors = null;
+               published.set(true);
             }
             else
             {
-               return res;
+               errors = res;
+            }
+            return res;
+         }
+         catch (Exception e)
+         {
+            // The output may be in any state
+            classes = null;
+            logger.log("Could not build application", e);
+            throw e;
+         }
+         finally
+         {
+            synchronized (this)
+            {
+               build = null;
             }
          }
+      }
+
+      /**
+       * Compiles the changes, the whole source path is compiled when the changes cannot be compiled incrementally
+       * or when the previous build failed.
+       *
+       * @param changes the changes
+       * @return the compilation errors
+       * @throws Exception any exception
+       */
+      List<CompilationError> compile(Map<String, Change> changes) throws Exception
+      {
+         ReadFileSystem<S> fs = devWatcher.getFileSystem();
+         Set<String> units = classes != null ? IncrementalCompilation.getCompilationUnits(fs, changes) : null;
+         RAMFileSystem classes;
+         Compiler compiler;
+         if (units != null)
+         {
+            // Compile against a copy of the previous output that also holds the passivated model, the previous
+            // output remains untouched as the class loader of the current application may still load from it
+            logger.log("Building application incrementally " + units);
+            classes = new RAMFileSystem();
+            ReadFileSystem.copy(this.classes, classes);
+            List<SimpleFileSystem<?>> classPath = new ArrayList<SimpleFileSystem<?>>();
+            classPath.add(classLoaderFS);
+            classPath.add(classes);
+            compiler = new Compiler(fs, classPath, classes, classes);
+         }
          else
          {
-            return null;
+            logger.log("Building application");
+            classes = new RAMFileSystem();
+            compiler = new Compiler(fs, classLoaderFS, classes, classes);
+            compiler.setCache(cache);
          }
+         compiler.addClassPathIndex(classPathIndex);
+         compiler.addAnnotationProcessor(new MainProcessor());
+         List<CompilationError> res = units != null ? compiler.compile(units.toArray(new String[units.size()])) : compiler.compile();
+         logger.log("Class path " + classPathIndex);
+         if (res.isEmpty())
+         {
+            this.classLoader = new URLClassLoader(new URL[]{classes.getURL()}, classLoaderFS.getClassLoader());
+            this.classes = classes;
+         }
+         else
+         {
+            // The changes are consumed, the next build must be a full one
+            this.classes = null;
+         }
+         return res;
       }
 
       @Override
@@ -293,11 +568,69 @@ public abstract class ApplicationRuntime<P, R, L>
       {
          return classLoader;
       }
+
+      @Override
+      public void shutdown()
+      {
+         if (devWatcher != null)
+         {
+            devWatcher.stop();
+         }
+         if (builder != null)
+         {
+            builder.shutdownNow();
+         }
+         super.shutdown();
+      }
+   }
+
+   /**
+    * Registers a new asset router for an application. The router replaces the router of the previous deployment of
+    * the application, which keeps serving the requests of the previous deployment until it is released.
+    *
+    * @param applicationName the application name
+    * @return the router registration
+    */
+   Registration<Router> registerAssets(String applicationName)
+   {
+      return assetServer.getApplicationRouter().replace(applicationName, Router.class);
+   }
+
+   /**
+    * Creates the deployment of the application, it boots the application.
+    *
+    * @return the deployment
+    * @throws Exception any exception
+    */
+   Deployment deploy() throws Exception
+   {
+      return doBoot();
    }
 
-   protected final void doBoot() throws Exception
+   /**
+    * Boots the application, the returned deployment is not published. The independent boot stages run concurrently
+    * and the duration of each stage is logged.
+    *
+    * @return the deployment
+    * @throws Exception any exception
+    */
+   protected final Deployment doBoot() throws Exception
    {
-      List<URL> jarURLs = new ArrayList<URL>();
+      BootPipeline pipeline = new BootPipeline();
+      try
+      {
+         return doBoot(pipeline);
+      }
+      finally
+      {
+         pipeline.shutdown();
+         logger.log("Boot stages " + pipeline.getReport());
+      }
+   }
+
+   private Deployment doBoot(BootPipeline pipeline) throws Exception
+   {
+      final List<URL> jarURLs = new ArrayList<URL>();
       for (Iterator<L> i = libs.getChildren(libs.getRoot());i.hasNext();)
       {
          L s = i.next();
@@ -305,7 +638,210 @@ public abstract class ApplicationRuntime<P, R, L>
          jarURLs.add(url);
       }
 
+      // Find and index the juzu jar
+      Future<JarFileSystem> libsFuture = pipeline.submit("libs", new Callable<JarFileSystem>()
+      {
+         public JarFileSystem call() throws Exception
+         {
+            URL mainURL = findJuzuJar(jarURLs);
+            return new JarFileSystem(new JarFile(new File(mainURL.toURI())));
+         }
+      });
+
       // Find an application
+      final String fqn = pipeline.run("config", new Callable<String>()
+      {
+         public String call() throws Exception
+         {
+            return findApplication();
+         }
+      });
+
+      // Load the controller and template classes while the descriptor is loaded
+      pipeline.submit("classes", getDescriptorClasses(fqn));
+
+      // The static initializer of the application class creates the descriptor
+      ApplicationDescriptor descriptor = pipeline.run("descriptor", new Callable<ApplicationDescriptor>()
+      {
+         public ApplicationDescriptor call() throws Exception
+         {
+            Class<?> clazz = getClassLoader().loadClass(fqn);
+            Field field = clazz.getDeclaredField("DESCRIPTOR");
+            return (ApplicationDescriptor)field.get(null);
+         }
+      });
+
+      //
+      InjectBuilder injectBootstrap = injectImplementation.bootstrap();
+      injectBootstrap.addFileSystem(getClasses());
+      injectBootstrap.setClassLoader(getClassLoader());
+
+      //
+      if (injectBootstrap instanceof SpringBuilder)
+      {
+         R springName = resources.getPath("spring.xml");
+         if (springName != null)
+         {
+            URL configurationURL = resources.getURL(springName);
+            ((SpringBuilder)injectBootstrap).setConfigurationURL(configurationURL);
+         }
+      }
+
+      //
+      final ApplicationBootstrap bootstrap = new ApplicationBootstrap(
+         injectBootstrap,
+         descriptor
+      );
+
+      //
+      Registration<Router> applicationAssets = null;
+      if (assetServer != null)
+      {
+         final String applicationName = descriptor.getName();
+         applicationAssets = pipeline.run("assets", new Callable<Registration<Router>>()
+         {
+            public Registration<Router> call() throws Exception
+            {
+               return registerAssets(applicationName);
+            }
+         });
+         injectBootstrap.bindBean(Router.class, Collections.<Annotation>singleton(Server.APPLICATION), applicationAssets.getRoute());
+         injectBootstrap.bindBean(Router.class, Collections.<Annotation>singleton(Server.PLUGIN), assetServer.getPluginRouter());
+      }
+
+      //
+      logger.log("Starting " + descriptor.getName());
+      try
+      {
+         injectBootstrap.addFileSystem(BootPipeline.get(libsFuture));
+         pipeline.run("container", new Callable<Void>()
+         {
+            public Void call() throws Exception
+            {
+               bootstrap.start();
+               return null;
+            }
+         });
+      }
+      catch (Exception e)
+      {
+         if (applicationAssets != null)
+         {
+            applicationAssets.cancel();
+         }
+         throw e;
+      }
+
+      // Warm up before the application is published
+      InternalApplicationContext context = bootstrap.getContext();
+      warmUp(pipeline, context);
+
+      //
+      logger.log("Application " + descriptor.getName() + " ready");
+      return new Deployment(context, applicationAssets);
+   }
+
+   /**
+    * Warms up the application context when the warm up is enabled.
+    *
+    * @param pipeline the boot pipeline
+    * @param context the application context
+    * @throws Exception any exception
+    */
+   void warmUp(BootPipeline pipeline, InternalApplicationContext context) throws Exception
+   {
+      if (warmUp)
+      {
+         for (Future<Void> future : pipeline.submit("warmup", getWarmUpTasks(context)))
+         {
+            BootPipeline.get(future);
+         }
+      }
+   }
+
+   /**
+    * Returns the tasks warming up an application: each controller class is initialized and each template stub is
+    * loaded and initialized, which compiles the template script. A task failure is logged, it does not prevent the
+    * application to boot.
+    *
+    * @param context the application context
+    * @return the tasks
+    */
+   private List<Callable<Void>> getWarmUpTasks(final InternalApplicationContext context)
+   {
+      final ClassLoader classLoader = context.getClassLoader();
+      List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+      for (final ControllerDescriptor controller : context.getDescriptor().getControllers())
+      {
+         tasks.add(new WarmUpTask(classLoader, "controller " + controller.getTypeName())
+         {
+            @Override
+            protected void warmUp() throws Exception
+            {
+               Class.forName(controller.getTypeName(), true, classLoader);
+            }
+         });
+      }
+      for (final TemplateDescriptor template : context.getDescriptor().getTemplates())
+      {
+         tasks.add(new WarmUpTask(classLoader, "template " + template.getPath())
+         {
+            @Override
+            protected void warmUp() throws Exception
+            {
+               context.resolveTemplateStub(template.getPath());
+            }
+         });
+      }
+      return tasks;
+   }
+
+   private abstract class WarmUpTask implements Callable<Void>
+   {
+
+      /** . */
+      private final ClassLoader classLoader;
+
+      /** . */
+      private final String description;
+
+      private WarmUpTask(ClassLoader classLoader, String description)
+      {
+         this.classLoader = classLoader;
+         this.description = description;
+      }
+
+      protected abstract void warmUp() throws Exception;
+
+      public Void call()
+      {
+         Thread thread = Thread.currentThread();
+         ClassLoader oldCL = thread.getContextClassLoader();
+         try
+         {
+            thread.setContextClassLoader(classLoader);
+            warmUp();
+         }
+         catch (Throwable t)
+         {
+            logger.log("Could not warm up " + description, t);
+         }
+         finally
+         {
+            thread.setContextClassLoader(oldCL);
+         }
+         return null;
+      }
+   }
+
+   /**
+    * Returns the fully qualified name of the application class to boot.
+    *
+    * @return the application class name
+    * @throws Exception any exception
+    */
+   private String findApplication() throws Exception
+   {
       P f = getClasses().getPath(CONFIG_PATH);
       URL url = getClasses().getURL(f);
       String s = Tools.read(url);
@@ -338,77 +874,188 @@ public abstract class ApplicationRuntime<P, R, L>
       }
 
       //
-      Class<?> clazz = getClassLoader().loadClass(fqn);
-      Field field = clazz.getDeclaredField("DESCRIPTOR");
-      ApplicationDescriptor descriptor = (ApplicationDescriptor)field.get(null);
+      return fqn;
+   }
+
+   /**
+    * Returns the tasks loading the controller and template classes the application descriptor will load. The classes
+    * are not initialized, so the initialization order remains the one of the booting thread. A class that cannot be
+    * loaded is ignored, the descriptor will report it.
+    *
+    * @param fqn the application class name
+    * @return the tasks
+    * @throws Exception any exception
+    */
+   private List<Callable<Class<?>>> getDescriptorClasses(String fqn) throws Exception
+   {
+      List<Callable<Class<?>>> tasks = new ArrayList<Callable<Class<?>>>();
+      URL url = getClassLoader().getResource(fqn.substring(0, fqn.lastIndexOf('.') + 1).replace('.', '/') + "config.json");
+      if (url != null)
+      {
+         JSON config = (JSON)JSON.parse(Tools.read(url));
+         final ClassLoader classLoader = getClassLoader();
+         for (String key : new String[]{"controllers", "templates"})
+         {
+            List<? extends String> names = config.getList(key, String.class);
+            if (names != null)
+            {
+               for (final String name : names)
+               {
+                  tasks.add(new Callable<Class<?>>()
+                  {
+                     public Class<?> call() throws Exception
+                     {
+                        try
+                        {
+                           return Class.forName(name, false, classLoader);
+                        }
+                        catch (Throwable ignore)
+                        {
+                           return null;
+                        }
+                     }
+                  });
+               }
+            }
+         }
+      }
+      return tasks;
+   }
+
+   /**
+    * Finds the juzu jar among the application jars: the jar providing the juzu classes to the application class
+    * loader is looked up first, otherwise each jar is probed.
+    *
+    * @param jarURLs the application jars
+    * @return the juzu jar
+    * @throws Exception when the juzu jar cannot be found
+    */
+   private URL findJuzuJar(List<URL> jarURLs) throws Exception
+   {
+      URL resource = getClassLoader().getResource(BOOTSTRAP_PATH);
+      if (resource != null && "jar".equals(resource.getProtocol()))
+      {
+         String path = resource.getPath();
+         int pos = path.indexOf("!/");
+         if (pos != -1)
+         {
+            String jar = path.substring(0, pos);
+            for (URL jarURL : jarURLs)
+            {
+               if (jarURL.toString().equals(jar))
+               {
+                  return jarURL;
+               }
+            }
+         }
+      }
 
-      // Find the juzu jar
-      URL mainURL = null;
+      //
       for (URL jarURL : jarURLs)
       {
-         URL configURL = new URL("jar:" + jarURL.toString() + "!/org/juzu/impl/application/ApplicationBootstrap.class");
+         URL configURL = new URL("jar:" + jarURL.toString() + "!/" + BOOTSTRAP_PATH);
+         InputStream in = null;
          try
          {
-            configURL.openStream();
-            mainURL = jarURL;
-            break;
+            in = configURL.openStream();
+            return jarURL;
          }
          catch (IOException ignore)
          {
          }
+         finally
+         {
+            Tools.safeClose(in);
+         }
       }
-      if (mainURL == null)
-      {
-         throw new PortletException("Cannot find juzu jar among " + jarURLs);
-      }
-      JarFileSystem libs = new JarFileSystem(new JarFile(new File(mainURL.toURI())));
 
       //
-      InjectBuilder injectBootstrap = injectImplementation.bootstrap();
-      injectBootstrap.addFileSystem(getClasses());
-      injectBootstrap.addFileSystem(libs);
-      injectBootstrap.setClassLoader(getClassLoader());
+      throw new PortletException("Cannot find juzu jar among " + jarURLs);
+   }
 
-      //
-      if (injectBootstrap instanceof SpringBuilder)
+   public void shutdown()
+   {
+      publish(null);
+   }
+
+   /**
+    * A booted application. A deployment is retired when another one replaces it and is released when the last
+    * invocation using it is done: the inject manager is shut down and the asset routes are cancelled.
+    */
+   protected final class Deployment
+   {
+
+      /** . */
+      private final ApplicationContext context;
+
+      /** . */
+      private final Registration<Router> assets;
+
+      /** The number of pending invocations or <code>-1</code> once released. */
+      private final AtomicInteger count;
+
+      /** . */
+      private volatile boolean retired;
+
+      Deployment(ApplicationContext context, Registration<Router> assets)
       {
-         R springName = resources.getPath("spring.xml");
-         if (springName != null)
+         this.context = context;
+         this.assets = assets;
+         this.count = new AtomicInteger();
+         this.retired = false;
+      }
+
+      private boolean acquire()
+      {
+         while (true)
          {
-            URL configurationURL = resources.getURL(springName);
-            ((SpringBuilder)injectBootstrap).setConfigurationURL(configurationURL);
+            int value = count.get();
+            if (value < 0)
+            {
+               return false;
+            }
+            else if (count.compareAndSet(value, value + 1))
+            {
+               return true;
+            }
          }
       }
 
-      //
-      ApplicationBootstrap bootstrap = new ApplicationBootstrap(
-         injectBootstrap,
-         descriptor
-      );
-
-      //
-      Registration<Router> applicationAssets =null;
-      if (assetServer != null)
+      private void release()
       {
-         applicationAssets = assetServer.getApplicationRouter().register(descriptor.getName(), Router.class);
-         injectBootstrap.bindBean(Router.class, Collections.<Annotation>singleton(Server.APPLICATION), applicationAssets.getRoute());
-         injectBootstrap.bindBean(Router.class, Collections.<Annotation>singleton(Server.PLUGIN), assetServer.getPluginRouter());
+         if (count.decrementAndGet() == 0 && retired)
+         {
+            tryRelease();
+         }
       }
 
-      //
-      logger.log("Starting " + descriptor.getName());
-      bootstrap.start();
-
-      //
-      this.context = bootstrap.getContext();
-      this.applicationAssets = applicationAssets;
-   }
+      private void retire()
+      {
+         retired = true;
+         tryRelease();
+      }
 
-   public void shutdown()
-   {
-      if (applicationAssets != null)
+      private void tryRelease()
       {
-         applicationAssets.cancel();
+         if (count.compareAndSet(0, -1))
+         {
+            logger.log("Releasing application context");
+            try
+            {
+               context.getInjectManager().shutdown();
+            }
+            catch (Exception e)
+            {
+               logger.log("Could not shutdown application context", e);
+            }
+            finally
+            {
+               if (assets != null)
+               {
+                  assets.cancel();
+               }
+            }
+         }
       }
    }
 }
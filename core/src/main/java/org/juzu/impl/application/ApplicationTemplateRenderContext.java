@@ -32,6 +32,9 @@ public class ApplicationTemplateRenderContext extends TemplateRenderContext
    /** . */
    private final InternalApplicationContext applicationContext;
 
+   /** The bean instances obtained during the render, indexed by slot. */
+   private Object[] beans;
+
    public ApplicationTemplateRenderContext(InternalApplicationContext applicationContext, TemplateStub stub, Map<String, ?> attributes, Locale locale)
    {
       super(stub, attributes, locale);
@@ -49,6 +52,35 @@ public class ApplicationTemplateRenderContext extends TemplateRenderContext
    @Override
    public Object resolveBean(String name) throws ApplicationException
    {
-      return applicationContext.resolveBean(name);
+      NamedBeanRegistry registry = applicationContext.getNamedBeans();
+      NamedBeanRegistry.Slot slot = registry.resolveSlot(name);
+      if (!slot.isBean())
+      {
+         return null;
+      }
+
+      //
+      int index = slot.getIndex();
+      if (beans == null || index >= beans.length)
+      {
+         Object[] tmp = new Object[Math.max(index + 1, registry.getSize())];
+         if (beans != null)
+         {
+            System.arraycopy(beans, 0, tmp, 0, beans.length);
+         }
+         beans = tmp;
+      }
+      Object bean = beans[index];
+      if (bean == null)
+      {
+         beans[index] = bean = registry.get(slot);
+      }
+      return bean;
+   }
+
+   @Override
+   public FragmentCache getFragmentCache()
+   {
+      return applicationContext.getFragmentCache();
    }
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the stages of an application boot: independent stages are submitted to a bounded pool of daemon threads,
+ * the other stages run in the booting thread. The duration of each stage is recorded for the boot report.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class BootPipeline
+{
+
+   /** The maximum number of boot threads, there are at least two threads. */
+   static final int MAX_THREADS = 4;
+
+   /** . */
+   private final ExecutorService executor;
+
+   /** The stage durations in milliseconds or -1 while the stage is running, guarded by this object. */
+   private final LinkedHashMap<String, Long> timings;
+
+   /** . */
+   private final long start;
+
+   BootPipeline()
+   {
+      final AtomicInteger count = new AtomicInteger();
+      int size = Math.max(2, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+      this.executor = Executors.newFixedThreadPool(size, new ThreadFactory()
+      {
+         public Thread newThread(Runnable r)
+         {
+            Thread thread = new Thread(r, "juzu-boot-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+         }
+      });
+      this.timings = new LinkedHashMap<String, Long>();
+      this.start = System.nanoTime();
+   }
+
+   /**
+    * Submits a stage that runs concurrently with the booting thread.
+    *
+    * @param name the stage name
+    * @param stage the stage
+    * @param <T> the stage result type
+    * @return the stage future
+    */
+   <T> Future<T> submit(String name, Callable<T> stage)
+   {
+      return executor.submit(timed(name, stage));
+   }
+
+   /**
+    * Submits a stage made of tasks that run concurrently with each other and with the booting thread, the stage
+    * lasts until its last task is done.
+    *
+    * @param name the stage name
+    * @param tasks the stage tasks
+    * @param <T> the task result type
+    * @return the task futures
+    */
+   <T> List<Future<T>> submit(final String name, Collection<? extends Callable<T>> tasks)
+   {
+      final long time = System.nanoTime();
+      final AtomicInteger remaining = new AtomicInteger(tasks.size());
+      synchronized (this)
+      {
+         timings.put(name, tasks.isEmpty() ? 0L : -1L);
+      }
+      List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+      for (final Callable<T> task : tasks)
+      {
+         futures.add(executor.submit(new Callable<T>()
+         {
+            public T call() throws Exception
+            {
+               try
+               {
+                  return task.call();
+               }
+               finally
+               {
+                  if (remaining.decrementAndGet() == 0)
+                  {
+                     done(name, time);
+                  }
+               }
+            }
+         }));
+      }
+      return futures;
+   }
+
+   /**
+    * Runs a stage in the booting thread.
+    *
+    * @param name the stage name
+    * @param stage the stage
+    * @param <T> the stage result type
+    * @return the stage result
+    * @throws Exception any exception thrown by the stage
+    */
+   <T> T run(String name, Callable<T> stage) throws Exception
+   {
+      return timed(name, stage).call();
+   }
+
+   /**
+    * Waits for a stage submitted with {@link #submit(String, java.util.concurrent.Callable)}, the exception thrown
+    * by the stage is rethrown.
+    *
+    * @param future the stage future
+    * @param <T> the stage result type
+    * @return the stage result
+    * @throws Exception any exception thrown by the stage
+    */
+   static <T> T get(Future<T> future) throws Exception
+   {
+      try
+      {
+         return future.get();
+      }
+      catch (ExecutionException e)
+      {
+         Throwable cause = e.getCause();
+         if (cause instanceof Exception)
+         {
+            throw (Exception)cause;
+         }
+         else if (cause instanceof Error)
+         {
+            throw (Error)cause;
+         }
+         else
+         {
+            throw e;
+         }
+      }
+   }
+
+   /**
+    * Returns the duration of a stage.
+    *
+    * @param name the stage name
+    * @return the duration in milliseconds, <code>-1</code> if the stage is running or null if there is no such stage
+    */
+   synchronized Long getTiming(String name)
+   {
+      return timings.get(name);
+   }
+
+   /**
+    * Returns the boot report: the duration of each stage in the order they were started and the total duration.
+    *
+    * @return the report
+    */
+   synchronized String getReport()
+   {
+      StringBuilder sb = new StringBuilder();
+      for (Map.Entry<String, Long> timing : timings.entrySet())
+      {
+         sb.append(timing.getKey()).append('=');
+         if (timing.getValue() < 0)
+         {
+            sb.append("running");
+         }
+         else
+         {
+            sb.append(timing.getValue()).append("ms");
+         }
+         sb.append(", ");
+      }
+      sb.append("total=").append((System.nanoTime() - start) / 1000000).append("ms");
+      return sb.toString();
+   }
+
+   /**
+    * Shuts down the pool, the stages still running are interrupted.
+    */
+   void shutdown()
+   {
+      executor.shutdownNow();
+   }
+
+   private <T> Callable<T> timed(final String name, final Callable<T> stage)
+   {
+      synchronized (this)
+      {
+         timings.put(name, -1L);
+      }
+      return new Callable<T>()
+      {
+         public T call() throws Exception
+         {
+            long time = System.nanoTime();
+            try
+            {
+               return stage.call();
+            }
+            finally
+            {
+               done(name, time);
+            }
+         }
+      };
+   }
+
+   private synchronized void done(String name, long time)
+   {
+      timings.put(name, (System.nanoTime() - time) / 1000000);
+   }
+}
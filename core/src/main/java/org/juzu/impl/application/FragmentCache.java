@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.impl.inject.Scoped;
+import org.juzu.text.CharArray;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The per application cache of rendered template fragments. The cache retains the most recently used fragments
+ * up to a maximum number of characters, a fragment can also expire after a time to live.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class FragmentCache
+{
+
+   /** The default maximum number of cached characters. */
+   public static final int DEFAULT_MAX_SIZE = 1024 * 1024;
+
+   /** . */
+   private final int maxSize;
+
+   /** . */
+   private final LinkedHashMap<Key, Entry> entries;
+
+   /** . */
+   private int size;
+
+   /** . */
+   private long hitCount;
+
+   /** . */
+   private long missCount;
+
+   /** . */
+   private long evictionCount;
+
+   public FragmentCache()
+   {
+      this(DEFAULT_MAX_SIZE);
+   }
+
+   public FragmentCache(int maxSize) throws IllegalArgumentException
+   {
+      if (maxSize < 0)
+      {
+         throw new IllegalArgumentException("Max size cannot be negative " + maxSize);
+      }
+
+      //
+      this.maxSize = maxSize;
+      this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+      this.size = 0;
+   }
+
+   /**
+    * Returns a cached fragment.
+    *
+    * @param key the fragment key
+    * @return the fragment or null when it is not cached or has expired
+    */
+   public synchronized CharArray get(Key key)
+   {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.expiration != 0 && entry.expiration <= System.currentTimeMillis())
+      {
+         remove(key);
+         entry = null;
+      }
+      if (entry != null)
+      {
+         hitCount++;
+         return entry.fragment;
+      }
+      else
+      {
+         missCount++;
+         return null;
+      }
+   }
+
+   /**
+    * Cache a fragment, the least recently used fragments are evicted until the cache size fits its maximum
+    * size. A fragment larger than the maximum size is not cached.
+    *
+    * @param key the fragment key
+    * @param fragment the fragment
+    * @param ttl the fragment time to live in milliseconds or zero when it does not expire
+    */
+   public synchronized void put(Key key, CharArray fragment, long ttl)
+   {
+      remove(key);
+      int length = fragment.getLength();
+      if (length <= maxSize)
+      {
+         entries.put(key, new Entry(fragment, ttl > 0 ? System.currentTimeMillis() + ttl : 0));
+         size += length;
+         for (Iterator<Map.Entry<Key, Entry>> i = entries.entrySet().iterator();size > maxSize && i.hasNext();)
+         {
+            size -= i.next().getValue().fragment.getLength();
+            i.remove();
+            evictionCount++;
+         }
+      }
+   }
+
+   /**
+    * Evict the fragments cached for a scope value.
+    *
+    * @param scope the scope value
+    */
+   public synchronized void evict(Object scope)
+   {
+      for (Iterator<Map.Entry<Key, Entry>> i = entries.entrySet().iterator();i.hasNext();)
+      {
+         Map.Entry<Key, Entry> entry = i.next();
+         if (entry.getKey().scope == scope)
+         {
+            size -= entry.getValue().fragment.getLength();
+            i.remove();
+         }
+      }
+   }
+
+   public synchronized void clear()
+   {
+      entries.clear();
+      size = 0;
+   }
+
+   private void remove(Key key)
+   {
+      Entry entry = entries.remove(key);
+      if (entry != null)
+      {
+         size -= entry.fragment.getLength();
+      }
+   }
+
+   /**
+    * Returns the number of cached characters.
+    *
+    * @return the number of cached characters
+    */
+   public synchronized int getSize()
+   {
+      return size;
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize;
+   }
+
+   /**
+    * Returns the number of cached fragments.
+    *
+    * @return the number of cached fragments
+    */
+   public synchronized int getCount()
+   {
+      return entries.size();
+   }
+
+   public synchronized long getHitCount()
+   {
+      return hitCount;
+   }
+
+   public synchronized long getMissCount()
+   {
+      return missCount;
+   }
+
+   public synchronized long getEvictionCount()
+   {
+      return evictionCount;
+   }
+
+   /**
+    * Create a session scope value, the fragments cached for this value are evicted when the session is destroyed.
+    *
+    * @return the scope value
+    */
+   public Scoped createSessionScope()
+   {
+      return new Scoped()
+      {
+         public Object get()
+         {
+            return this;
+         }
+         public void destroy()
+         {
+            evict(this);
+         }
+      };
+   }
+
+   /**
+    * The key of a fragment made of the fragment name and an optional scope value.
+    */
+   public static class Key
+   {
+
+      /** . */
+      private final String name;
+
+      /** . */
+      private final Object scope;
+
+      public Key(String name, Object scope) throws NullPointerException
+      {
+         if (name == null)
+         {
+            throw new NullPointerException("No null name accepted");
+         }
+
+         //
+         this.name = name;
+         this.scope = scope;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return name.hashCode() ^ (scope != null ? scope.hashCode() : 0);
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (obj == this)
+         {
+            return true;
+         }
+         if (obj instanceof Key)
+         {
+            Key that = (Key)obj;
+            return name.equals(that.name) && (scope == null ? that.scope == null : scope.equals(that.scope));
+         }
+         return false;
+      }
+
+      @Override
+      public String toString()
+      {
+         return "Key[name=" + name + ",scope=" + scope + "]";
+      }
+   }
+
+   private static class Entry
+   {
+
+      /** . */
+      private final CharArray fragment;
+
+      /** The expiration time or zero when the fragment does not expire. */
+      private final long expiration;
+
+      private Entry(CharArray fragment, long expiration)
+      {
+         this.fragment = fragment;
+         this.expiration = expiration;
+      }
+   }
+}
@@ -30,18 +30,17 @@ import org.juzu.impl.inject.ScopeController;
 import org.juzu.impl.spi.inject.InjectManager;
 import org.juzu.impl.spi.request.ActionBridge;
 import org.juzu.impl.spi.request.RenderBridge;
+import org.juzu.impl.request.ControllerInvoker;
 import org.juzu.impl.request.Request;
 import org.juzu.impl.spi.request.RequestBridge;
 import org.juzu.impl.spi.request.ResourceBridge;
 import org.juzu.request.RequestContext;
 import org.juzu.impl.spi.template.TemplateStub;
-import org.juzu.impl.utils.Spliterator;
 import org.juzu.template.Template;
 import org.juzu.template.TemplateRenderContext;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -69,6 +68,18 @@ public class InternalApplicationContext extends ApplicationContext
    /** . */
    private final ControllerResolver controllerResolver;
 
+   /** . */
+   private final TemplateStubRegistry templateStubs;
+
+   /** . */
+   private final NamedBeanRegistry namedBeans;
+
+   /** . */
+   private final FragmentCache fragmentCache;
+
+   /** The invoker of each controller method. */
+   private final Map<ControllerMethod, ControllerInvoker<?, ?>> invokers;
+
    /** . */
    static final ThreadLocal<Request> current = new ThreadLocal<Request>();
 
@@ -81,7 +92,29 @@ public class InternalApplicationContext extends ApplicationContext
       this.descriptor = descriptor;
       this.injectManager = injectManager;
       this.controllerResolver = new ControllerResolver(descriptor);
+      this.templateStubs = new TemplateStubRegistry(injectManager.getClassLoader(), descriptor.getTemplatesPackageName());
+      this.namedBeans = new NamedBeanRegistry(injectManager);
+      this.fragmentCache = new FragmentCache();
       this.plugins = getPlugins(injectManager);
+      this.invokers = getInvokers(injectManager, descriptor);
+   }
+
+   static <B, I> Map<ControllerMethod, ControllerInvoker<?, ?>> getInvokers(InjectManager<B, I> manager, ApplicationDescriptor descriptor)
+   {
+      // Controller methods of the same type share the resolved bean
+      Map<Class<?>, B> beans = new HashMap<Class<?>, B>();
+      Map<ControllerMethod, ControllerInvoker<?, ?>> invokers = new HashMap<ControllerMethod, ControllerInvoker<?, ?>>();
+      for (ControllerMethod method : descriptor.getControllerMethods())
+      {
+         Class<?> type = method.getType();
+         B bean = beans.get(type);
+         if (bean == null && !beans.containsKey(type))
+         {
+            beans.put(type, bean = manager.resolveBean(type));
+         }
+         invokers.put(method, new ControllerInvoker<B, I>(manager, method, bean));
+      }
+      return invokers;
    }
    
    private <B, I> ArrayList<Plugin> getPlugins(InjectManager<B, I> manager) throws Exception
@@ -180,7 +213,7 @@ public class InternalApplicationContext extends ApplicationContext
 
       //
       Object[] args = getArgs(method, parameters);
-      Request request = new Request(this, method, parameters, args, bridge);
+      Request request = new Request(this, invokers.get(method), parameters, args, bridge);
 
       //
       ClassLoader oldCL = Thread.currentThread().getContextClassLoader();
@@ -204,7 +237,12 @@ public class InternalApplicationContext extends ApplicationContext
 
    public Object resolveBean(String name) throws ApplicationException
    {
-      return resolveBean(injectManager, name);
+      return namedBeans.resolve(name);
+   }
+
+   public NamedBeanRegistry getNamedBeans()
+   {
+      return namedBeans;
    }
 
    private Object[] getArgs(ControllerMethod method, Map<String, String[]> parameterMap)
@@ -244,50 +282,19 @@ public class InternalApplicationContext extends ApplicationContext
       return args;
    }
 
-   private <B, I> Object resolveBean(InjectManager<B, I> manager, String name) throws ApplicationException
+   public TemplateStub resolveTemplateStub(String path)
    {
-      B bean = manager.resolveBean(name);
-      if (bean != null)
-      {
-         try
-         {
-            I cc = manager.create(bean);
-            return manager.get(bean, cc);
-         }
-         catch (InvocationTargetException e)
-         {
-            throw new ApplicationException(e.getCause());
-         }
-      }
-      else
-      {
-         return null;
-      }
+      return templateStubs.resolve(path);
    }
 
-   public TemplateStub resolveTemplateStub(String path)
+   public TemplateStubRegistry getTemplateStubs()
    {
-      try
-      {
-         StringBuilder id = new StringBuilder(descriptor.getTemplatesPackageName());
-         String relativePath = path.substring(0, path.indexOf('.'));
-         for (String name : Spliterator.split(relativePath, '/'))
-         {
-            if (id.length() > 0)
-            {
-               id.append('.');
-            }
-            id.append(name);
-         }
-         id.append("_");
-         ClassLoader cl = injectManager.getClassLoader();
-         Class<?> stubClass = cl.loadClass(id.toString());
-         return(TemplateStub)stubClass.newInstance();
-      }
-      catch (Exception e)
-      {
-         throw new UnsupportedOperationException("handle me gracefully", e);
-      }
+      return templateStubs;
+   }
+
+   public FragmentCache getFragmentCache()
+   {
+      return fragmentCache;
    }
 
    @Override
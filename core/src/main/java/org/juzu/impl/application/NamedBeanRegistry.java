@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.impl.spi.inject.InjectManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The per application registry of the beans resolved by name from templates. The bean resolved for a name is
+ * looked up once in the inject manager and retained with a slot index, including when the name does not resolve
+ * to any bean. The instances are still obtained from the inject manager so the request, session and flash scoped
+ * beans are resolved against the scopes of the current request, the slot index allows a render to retain the
+ * instances it obtained in an array.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class NamedBeanRegistry
+{
+
+   /** . */
+   private final InjectManager manager;
+
+   /** . */
+   private final ConcurrentHashMap<String, Slot> slots;
+
+   /** . */
+   private int size;
+
+   public NamedBeanRegistry(InjectManager manager)
+   {
+      this.manager = manager;
+      this.slots = new ConcurrentHashMap<String, Slot>();
+      this.size = 0;
+   }
+
+   /**
+    * Returns the number of slots.
+    *
+    * @return the number of slots
+    */
+   public synchronized int getSize()
+   {
+      return size;
+   }
+
+   /**
+    * Resolve the slot of a bean name, the bean is resolved the first time the name is seen.
+    *
+    * @param name the bean name
+    * @return the slot
+    */
+   public Slot resolveSlot(String name)
+   {
+      Slot slot = slots.get(name);
+      if (slot == null)
+      {
+         Object bean = manager.resolveBean(name);
+         synchronized (this)
+         {
+            slot = slots.get(name);
+            if (slot == null)
+            {
+               slots.put(name, slot = new Slot(name, size++, bean));
+            }
+         }
+      }
+      return slot;
+   }
+
+   /**
+    * Resolve a bean instance by its name.
+    *
+    * @param name the bean name
+    * @return the bean instance or null if no bean is found
+    * @throws ApplicationException wraps any exception thrown when the bean is created
+    */
+   public Object resolve(String name) throws ApplicationException
+   {
+      return get(resolveSlot(name));
+   }
+
+   /**
+    * Obtain the bean instance of a slot from the inject manager.
+    *
+    * @param slot the slot
+    * @return the bean instance or null if the slot has no bean
+    * @throws ApplicationException wraps any exception thrown when the bean is created
+    */
+   public Object get(Slot slot) throws ApplicationException
+   {
+      return slot.bean != null ? get(manager, slot.bean) : null;
+   }
+
+   private static <B, I> Object get(InjectManager<B, I> manager, Object bean) throws ApplicationException
+   {
+      @SuppressWarnings("unchecked") B b = (B)bean;
+      try
+      {
+         I cc = manager.create(b);
+         return manager.get(b, cc);
+      }
+      catch (InvocationTargetException e)
+      {
+         throw new ApplicationException(e.getCause());
+      }
+   }
+
+   public static class Slot
+   {
+
+      /** . */
+      private final String name;
+
+      /** . */
+      private final int index;
+
+      /** . */
+      private final Object bean;
+
+      private Slot(String name, int index, Object bean)
+      {
+         this.name = name;
+         this.index = index;
+         this.bean = bean;
+      }
+
+      public String getName()
+      {
+         return name;
+      }
+
+      public int getIndex()
+      {
+         return index;
+      }
+
+      /**
+       * Returns true when the name resolves to a bean.
+       *
+       * @return true when the name resolves to a bean
+       */
+      public boolean isBean()
+      {
+         return bean != null;
+      }
+   }
+}
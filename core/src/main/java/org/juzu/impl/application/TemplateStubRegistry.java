@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.impl.utils.Spliterator;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The per application registry of template stubs. Each stub is loaded and initialized once, the same stub instance
+ * is then shared by all the renderings of the template so its compiled form is shared across threads.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class TemplateStubRegistry
+{
+
+   /** . */
+   private final ClassLoader classLoader;
+
+   /** . */
+   private final String templatesPackageName;
+
+   /** . */
+   private final ConcurrentHashMap<String, Entry> entries;
+
+   /** . */
+   private final AtomicLong hitCount;
+
+   /** . */
+   private final AtomicLong missCount;
+
+   /** . */
+   private final AtomicLong compileTime;
+
+   public TemplateStubRegistry(ClassLoader classLoader, String templatesPackageName)
+   {
+      this.classLoader = classLoader;
+      this.templatesPackageName = templatesPackageName;
+      this.entries = new ConcurrentHashMap<String, Entry>();
+      this.hitCount = new AtomicLong();
+      this.missCount = new AtomicLong();
+      this.compileTime = new AtomicLong();
+   }
+
+   /**
+    * Resolve the stub of a template.
+    *
+    * @param path the template path relative to the templates package
+    * @return the template stub
+    */
+   public TemplateStub resolve(String path)
+   {
+      Entry entry = entries.get(path);
+      if (entry == null)
+      {
+         Entry previous = entries.putIfAbsent(path, entry = new Entry(path));
+         if (previous != null)
+         {
+            entry = previous;
+         }
+      }
+      return entry.get();
+   }
+
+   /**
+    * Returns the number of resolutions served by an already initialized stub.
+    *
+    * @return the hit count
+    */
+   public long getHitCount()
+   {
+      return hitCount.get();
+   }
+
+   /**
+    * Returns the number of resolutions that required to load and initialize a stub.
+    *
+    * @return the miss count
+    */
+   public long getMissCount()
+   {
+      return missCount.get();
+   }
+
+   /**
+    * Returns the cumulated time spent initializing stubs in milliseconds.
+    *
+    * @return the compile time
+    */
+   public long getCompileTime()
+   {
+      return compileTime.get() / 1000000;
+   }
+
+   /**
+    * Returns the number of initialized stubs.
+    *
+    * @return the size
+    */
+   public int getSize()
+   {
+      int size = 0;
+      for (Entry entry : entries.values())
+      {
+         if (entry.stub != null)
+         {
+            size++;
+         }
+      }
+      return size;
+   }
+
+   private String getStubClassName(String path)
+   {
+      StringBuilder id = new StringBuilder(templatesPackageName);
+      String relativePath = path.substring(0, path.indexOf('.'));
+      for (String name : Spliterator.split(relativePath, '/'))
+      {
+         if (id.length() > 0)
+         {
+            id.append('.');
+         }
+         id.append(name);
+      }
+      id.append("_");
+      return id.toString();
+   }
+
+   private class Entry
+   {
+
+      /** . */
+      private final String path;
+
+      /** . */
+      private volatile TemplateStub stub;
+
+      private Entry(String path)
+      {
+         this.path = path;
+      }
+
+      private TemplateStub get()
+      {
+         TemplateStub stub = this.stub;
+         if (stub != null)
+         {
+            hitCount.incrementAndGet();
+            return stub;
+         }
+         synchronized (this)
+         {
+            stub = this.stub;
+            if (stub != null)
+            {
+               hitCount.incrementAndGet();
+            }
+            else
+            {
+               missCount.incrementAndGet();
+               try
+               {
+                  Class<?> stubClass = classLoader.loadClass(getStubClassName(path));
+                  stub = (TemplateStub)stubClass.newInstance();
+                  long time = -System.nanoTime();
+                  stub.init(classLoader);
+                  time += System.nanoTime();
+                  compileTime.addAndGet(time);
+               }
+               catch (Exception e)
+               {
+                  throw new UnsupportedOperationException("handle me gracefully", e);
+               }
+               this.stub = stub;
+            }
+            return stub;
+         }
+      }
+   }
+}
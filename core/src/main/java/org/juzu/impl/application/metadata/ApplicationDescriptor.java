@@ -21,6 +21,7 @@ package org.juzu.impl.application.metadata;
 
 import org.juzu.impl.controller.descriptor.ControllerDescriptor;
 import org.juzu.impl.controller.descriptor.ControllerMethod;
+import org.juzu.impl.inject.BeanIndex;
 import org.juzu.impl.template.metadata.TemplateDescriptor;
 import org.juzu.impl.utils.JSON;
 import org.juzu.impl.utils.Tools;
@@ -70,6 +71,9 @@ public class ApplicationDescriptor
    /** . */
    private final Class<?> packageClass;
 
+   /** . */
+   private final BeanIndex beans;
+
    public ApplicationDescriptor(
       Class<?> applicationClass,
       Class<?> defaultController,
@@ -141,6 +145,10 @@ public class ApplicationDescriptor
          throw ae;
       }
 
+      // Load the bean index
+      List<?> beans = props.getList("beans");
+      BeanIndex index = beans != null ? BeanIndex.create(beans) : null;
+
       //
       this.applicationClass = applicationClass;
       this.name = applicationClass.getSimpleName();
@@ -153,6 +161,7 @@ public class ApplicationDescriptor
       this.templates = templates;
       this.plugins = plugins;
       this.packageClass = packageClass;
+      this.beans = index;
    }
 
    public Class<?> getPackageClass()
@@ -160,6 +169,16 @@ public class ApplicationDescriptor
       return packageClass;
    }
 
+   /**
+    * Returns the bean index computed at compilation time.
+    *
+    * @return the bean index or null when the application was compiled without it
+    */
+   public BeanIndex getBeans()
+   {
+      return beans;
+   }
+
    public Class<?> getApplicationClass()
    {
       return applicationClass;
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.asset;
+
+import org.juzu.impl.utils.Tools;
+
+import javax.inject.Provider;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * <p>The asset pipeline turns the assets declared by an application into bundles served by a {@link Router}. The
+ * local assets are loaded from the web application, concatenated and minified, each run of consecutive local
+ * assets becomes a {@link Bundle} registered under the name <code>hash.js</code> or <code>hash.css</code>.</p>
+ *
+ * <p>The assets that cannot be bundled are kept as they are: absolute URLs, assets that cannot be located and
+ * stylesheets using relative <code>url()</code> references that would be broken by the new location.</p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class AssetPipeline
+{
+
+   /** Matches a relative stylesheet url reference. */
+   private static final Pattern RELATIVE_URL = Pattern.compile("url\\(\\s*['\"]?(?![a-zA-Z]+:|/|#)");
+
+   public enum Type
+   {
+
+      SCRIPT("text/javascript", ".js", ";\n")
+      {
+         @Override
+         public String minify(CharSequence s)
+         {
+            return Minifier.minifyScript(s);
+         }
+
+         @Override
+         boolean isRelocatable(CharSequence s)
+         {
+            return true;
+         }
+      },
+
+      STYLESHEET("text/css", ".css", "\n")
+      {
+         @Override
+         public String minify(CharSequence s)
+         {
+            return Minifier.minifyStylesheet(s);
+         }
+
+         @Override
+         boolean isRelocatable(CharSequence s)
+         {
+            return !RELATIVE_URL.matcher(s).find();
+         }
+      };
+
+      /** . */
+      final String contentType;
+
+      /** . */
+      final String extension;
+
+      /** . */
+      final String separator;
+
+      Type(String contentType, String extension, String separator)
+      {
+         this.contentType = contentType;
+         this.extension = extension;
+         this.separator = separator;
+      }
+
+      public abstract String minify(CharSequence s);
+
+      abstract boolean isRelocatable(CharSequence s);
+
+   }
+
+   /**
+    * An asset processed by the pipeline, either a bundle or a source kept as it is.
+    */
+   public static class Asset
+   {
+
+      /** . */
+      private final String source;
+
+      /** . */
+      private final Registration<Bundle> registration;
+
+      public Asset(String source)
+      {
+         this.source = source;
+         this.registration = null;
+      }
+
+      private Asset(Registration<Bundle> registration)
+      {
+         this.source = null;
+         this.registration = registration;
+      }
+
+      /**
+       * Returns the source or null when the asset is a bundle.
+       *
+       * @return the source
+       */
+      public String getSource()
+      {
+         return source;
+      }
+
+      /**
+       * Returns the bundle or null when the asset is a source.
+       *
+       * @return the bundle
+       */
+      public Bundle getBundle()
+      {
+         return registration != null ? registration.getRoute() : null;
+      }
+   }
+
+   /** . */
+   private final Router router;
+
+   /** . */
+   private final List<Registration<Bundle>> registrations;
+
+   public AssetPipeline(Router router)
+   {
+      this.router = router;
+      this.registrations = new ArrayList<Registration<Bundle>>();
+   }
+
+   /**
+    * Process the declared sources, the order of the sources is preserved by the returned assets.
+    *
+    * @param type the asset type
+    * @param sources the sources
+    * @return the processed assets
+    * @throws IOException any io exception
+    */
+   public List<Asset> process(Type type, String... sources) throws IOException
+   {
+      List<Asset> assets = new ArrayList<Asset>();
+      StringBuilder run = new StringBuilder();
+      for (String source : sources)
+      {
+         String content = load(source);
+         if (content != null && type.isRelocatable(content))
+         {
+            if (run.length() > 0)
+            {
+               run.append(type.separator);
+            }
+            run.append(content);
+         }
+         else
+         {
+            flush(type, run, assets);
+            assets.add(new Asset(source));
+         }
+      }
+      flush(type, run, assets);
+      return Collections.unmodifiableList(assets);
+   }
+
+   /**
+    * Cancel the bundles registered by this pipeline.
+    */
+   public void destroy()
+   {
+      for (Registration<Bundle> registration : registrations)
+      {
+         registration.cancel();
+      }
+      registrations.clear();
+   }
+
+   private void flush(Type type, StringBuilder run, List<Asset> assets) throws IOException
+   {
+      if (run.length() > 0)
+      {
+         final Bundle bundle = new Bundle(type.contentType, type.minify(run));
+         Registration<Bundle> registration = router.register(bundle.getHash() + type.extension, new Provider<Bundle>()
+         {
+            public Bundle get()
+            {
+               return bundle;
+            }
+         });
+         registrations.add(registration);
+         assets.add(new Asset(registration));
+         run.setLength(0);
+      }
+   }
+
+   private String load(String source) throws IOException
+   {
+      if (source.startsWith("/") || source.indexOf(':') != -1)
+      {
+         return null;
+      }
+      RouteContext context = router.getContext();
+      URL url = context != null ? context.getResource(source) : null;
+      if (url == null)
+      {
+         return null;
+      }
+      return new String(Tools.bytes(url.openStream()), "UTF-8");
+   }
+}
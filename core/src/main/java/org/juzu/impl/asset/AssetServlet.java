@@ -32,7 +32,7 @@ public class AssetServlet extends HttpServlet
    @Override
    public void init() throws ServletException
    {
-      getServletContext().setAttribute("asset.server", new Server());
+      getServletContext().setAttribute("asset.server", new Server(getServletContext()));
    }
 
    @Override
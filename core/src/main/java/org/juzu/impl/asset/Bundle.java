@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.asset;
+
+/**
+ * An immutable asset named after the hash of its content. Since the name changes whenever the content changes, the
+ * bundle can be cached by user agents for ever.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class Bundle extends StaticRoute
+{
+
+   /** One year, the maximum value recommended by RFC 2616. */
+   public static final String CACHE_CONTROL = "public, max-age=31536000";
+
+   public Bundle(String mimeType, String content)
+   {
+      super(mimeType, content);
+   }
+
+   @Override
+   protected String getCacheControl()
+   {
+      return CACHE_CONTROL;
+   }
+}
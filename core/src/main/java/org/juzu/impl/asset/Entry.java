@@ -16,7 +16,7 @@ class Entry<K, R extends Route>
    /** . */
    final R route;
    
-   /** . */
+   /** Guarded by the multiplexer lock. */
    final List<Registration> registrations;
 
    Entry(Multiplexer<?> multiplexer, K key, R route)
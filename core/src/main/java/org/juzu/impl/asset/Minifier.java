@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.asset;
+
+/**
+ * A conservative minifier removing the comments and the superfluous white spaces of scripts and stylesheets. It
+ * does not rename anything and keeps the line breaks of scripts that may end a statement so the semicolon insertion
+ * rules still apply.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class Minifier
+{
+
+   /** The chars around which a script does not need a space. */
+   private static final String SCRIPT_PUNCTUATION = "{}()[];,=:<>!&|?*%^~";
+
+   /** The chars around which a stylesheet does not need a space. */
+   private static final String STYLESHEET_PUNCTUATION = "{};,>";
+
+   /** The chars that cannot start a statement, a line break before them is not needed. */
+   private static final String SCRIPT_CLOSING = ";,)]}";
+
+   /** The chars that cannot end a statement, a line break after them is not needed. */
+   private static final String SCRIPT_OPENING = "{;,";
+
+   /** The chars after which a slash starts a regular expression literal. */
+   private static final String REGEXP_PREFIX = "(,=:[!&|?{};+-*%<>~^";
+
+   /** No pending white space. */
+   private static final int NONE = 0;
+
+   /** A pending space. */
+   private static final int SPACE = 1;
+
+   /** A pending line break. */
+   private static final int LINE_BREAK = 2;
+
+   private Minifier()
+   {
+   }
+
+   public static String minifyScript(CharSequence s)
+   {
+      StringBuilder out = new StringBuilder(s.length());
+      int pending = NONE;
+      int len = s.length();
+      int i = 0;
+      while (i < len)
+      {
+         char c = s.charAt(i);
+         if (c == '\n' || c == '\r')
+         {
+            pending = LINE_BREAK;
+            i++;
+         }
+         else if (Character.isWhitespace(c))
+         {
+            pending = Math.max(pending, SPACE);
+            i++;
+         }
+         else if (c == '/' && i + 1 < len && s.charAt(i + 1) == '/')
+         {
+            while (i < len && s.charAt(i) != '\n' && s.charAt(i) != '\r')
+            {
+               i++;
+            }
+         }
+         else if (c == '/' && i + 1 < len && s.charAt(i + 1) == '*')
+         {
+            int end = skipComment(s, i);
+            pending = Math.max(pending, containsLineBreak(s, i, end) ? LINE_BREAK : SPACE);
+            i = end;
+         }
+         else
+         {
+            int end;
+            if (c == '"' || c == '\'')
+            {
+               end = skipString(s, i);
+            }
+            else if (c == '/' && isRegExpAllowed(out))
+            {
+               end = skipRegExp(s, i);
+            }
+            else
+            {
+               end = i + 1;
+            }
+            if (out.length() > 0)
+            {
+               char last = out.charAt(out.length() - 1);
+               if (pending == LINE_BREAK && SCRIPT_CLOSING.indexOf(c) == -1 && SCRIPT_OPENING.indexOf(last) == -1)
+               {
+                  out.append('\n');
+               }
+               else if (pending != NONE && !isSeparated(last, c, SCRIPT_PUNCTUATION))
+               {
+                  out.append(' ');
+               }
+            }
+            out.append(s, i, end);
+            pending = NONE;
+            i = end;
+         }
+      }
+      return out.toString();
+   }
+
+   public static String minifyStylesheet(CharSequence s)
+   {
+      StringBuilder out = new StringBuilder(s.length());
+      boolean pending = false;
+      int len = s.length();
+      int i = 0;
+      while (i < len)
+      {
+         char c = s.charAt(i);
+         if (Character.isWhitespace(c))
+         {
+            pending = true;
+            i++;
+         }
+         else if (c == '/' && i + 1 < len && s.charAt(i + 1) == '*')
+         {
+            pending = true;
+            i = skipComment(s, i);
+         }
+         else
+         {
+            int end = (c == '"' || c == '\'') ? skipString(s, i) : i + 1;
+            if (out.length() > 0)
+            {
+               char last = out.charAt(out.length() - 1);
+               if (c == '}' && last == ';')
+               {
+                  out.setLength(out.length() - 1);
+               }
+               else if (pending && !isSeparated(last, c, STYLESHEET_PUNCTUATION) && last != ':')
+               {
+                  out.append(' ');
+               }
+            }
+            out.append(s, i, end);
+            pending = false;
+            i = end;
+         }
+      }
+      return out.toString();
+   }
+
+   private static boolean isSeparated(char last, char next, String punctuation)
+   {
+      if ((last == '+' || last == '-') && (next == '+' || next == '-'))
+      {
+         return false;
+      }
+      return punctuation.indexOf(last) != -1 || punctuation.indexOf(next) != -1;
+   }
+
+   private static boolean containsLineBreak(CharSequence s, int from, int to)
+   {
+      for (int i = from;i < to;i++)
+      {
+         char c = s.charAt(i);
+         if (c == '\n' || c == '\r')
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private static boolean isRegExpAllowed(StringBuilder out)
+   {
+      return out.length() == 0 || REGEXP_PREFIX.indexOf(out.charAt(out.length() - 1)) != -1;
+   }
+
+   private static int skipComment(CharSequence s, int from)
+   {
+      int len = s.length();
+      for (int i = from + 2;i + 1 < len;i++)
+      {
+         if (s.charAt(i) == '*' && s.charAt(i + 1) == '/')
+         {
+            return i + 2;
+         }
+      }
+      return len;
+   }
+
+   private static int skipString(CharSequence s, int from)
+   {
+      char quote = s.charAt(from);
+      int len = s.length();
+      for (int i = from + 1;i < len;i++)
+      {
+         char c = s.charAt(i);
+         if (c == '\\')
+         {
+            i++;
+         }
+         else if (c == quote || c == '\n')
+         {
+            return i + 1;
+         }
+      }
+      return len;
+   }
+
+   private static int skipRegExp(CharSequence s, int from)
+   {
+      int len = s.length();
+      boolean inClass = false;
+      for (int i = from + 1;i < len;i++)
+      {
+         char c = s.charAt(i);
+         if (c == '\\')
+         {
+            i++;
+         }
+         else if (c == '[')
+         {
+            inClass = true;
+         }
+         else if (c == ']')
+         {
+            inClass = false;
+         }
+         else if (c == '\n')
+         {
+            return i;
+         }
+         else if (c == '/' && !inClass)
+         {
+            return i + 1;
+         }
+      }
+      return len;
+   }
+}
@@ -6,16 +6,30 @@ import javax.inject.Provider;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.Map;
 
-/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+/**
+ * Maps keys to routes. Lookups are lock free: they read an immutable snapshot of the routes which is copied and
+ * republished by each registration or cancellation, those modifications are serialized by the multiplexer lock.
+ *
+ * <p>A route can be replaced by another route under the same key: the new route is published while the previous one
+ * remains alive until its registrations are cancelled. When the published route is cancelled first, the most recent
+ * live route of the key is published again.</p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
 abstract class Multiplexer<K>
 {
 
-   /** . */
-   final Map<K, Entry<K, ?>> map = new HashMap<K, Entry<K, ?>>();
-   
+   /** The current snapshot, never modified once published. */
+   private volatile Map<K, Entry<K, ?>> map = Collections.emptyMap();
+
+   /** The live entries of each key from the oldest to the published one, guarded by the multiplexer lock. */
+   private final Map<K, LinkedList<Entry<K, ?>>> entries = new HashMap<K, LinkedList<Entry<K, ?>>>();
+
    public Route get(K key)
    {
       Entry<K, ?> entry = map.get(key);
@@ -24,57 +38,136 @@ abstract class Multiplexer<K>
    
    public abstract RouteContext getContext(K key);
 
-   public <R extends Route> Registration<R> register(K key, final Class<R> routeType)
+   public <R extends Route> Registration<R> register(K key, Class<R> routeType)
    {
-      return register(key, new Provider<R>()
-      {
-         public R get()
-         {
-            try
-            {
-               return routeType.newInstance();
-            }
-            catch (InstantiationException e)
-            {
-               throw new UnsupportedOperationException("handle me gracefully", e);
-            }
-            catch (IllegalAccessException e)
-            {
-               throw new UnsupportedOperationException("handle me gracefully", e);
-            }
-         }
-      });
+      return register(key, provider(routeType));
    }
 
-   public <R extends Route> Registration<R> register(K key, Provider<R> routeProvider)
+   /**
+    * Registers the route published under a key, the route is created when no route is published.
+    *
+    * @param key the key
+    * @param routeProvider the provider creating the route
+    * @param <R> the route type
+    * @return the registration
+    */
+   public synchronized <R extends Route> Registration<R> register(K key, Provider<R> routeProvider)
    {
-      //
       Entry<K, R> entry = (Entry<K, R>)map.get(key);
-
-      //
       if (entry == null)
       {
-         R route = routeProvider.get();
+         entry = create(key, routeProvider);
+      }
+      return register(entry);
+   }
 
-         //
-         map.put(key, entry = new Entry<K, R>(this, key, route));
+   public <R extends Route> Registration<R> replace(K key, Class<R> routeType)
+   {
+      return replace(key, provider(routeType));
+   }
 
-         //
-         RouteContext context = getContext(key);
+   /**
+    * Creates a new route and publishes it under a key in place of the current route. The replaced route keeps
+    * serving its registrations and is destroyed when they are cancelled.
+    *
+    * @param key the key
+    * @param routeProvider the provider creating the route
+    * @param <R> the route type
+    * @return the registration of the new route
+    */
+   public synchronized <R extends Route> Registration<R> replace(K key, Provider<R> routeProvider)
+   {
+      return register(create(key, routeProvider));
+   }
 
-         //
-         route.init(context);
-      }
+   private <R extends Route> Entry<K, R> create(K key, Provider<R> routeProvider)
+   {
+      R route = routeProvider.get();
+
+      // Initialize the route before it becomes visible
+      route.init(getContext(key));
 
       //
+      Entry<K, R> entry = new Entry<K, R>(this, key, route);
+      LinkedList<Entry<K, ?>> live = entries.get(key);
+      if (live == null)
+      {
+         entries.put(key, live = new LinkedList<Entry<K, ?>>());
+      }
+      live.addLast(entry);
+      publish(key, entry);
+      return entry;
+   }
+
+   private <R extends Route> Registration<R> register(Entry<K, R> entry)
+   {
       Registration<R> registration = new Registration<R>(entry);
       entry.registrations.add(registration);
       return registration;
    }
 
+   private void publish(K key, Entry<K, ?> entry)
+   {
+      Map<K, Entry<K, ?>> copy = new HashMap<K, Entry<K, ?>>(map);
+      if (entry != null)
+      {
+         copy.put(key, entry);
+      }
+      else
+      {
+         copy.remove(key);
+      }
+      map = copy;
+   }
+
+   synchronized void cancel(Registration<?> registration)
+   {
+      Entry<K, ?> entry = (Entry<K, ?>)registration.entry;
+      if (entry.registrations.remove(registration) && entry.registrations.isEmpty())
+      {
+         LinkedList<Entry<K, ?>> live = entries.get(entry.key);
+         live.remove(entry);
+         if (live.isEmpty())
+         {
+            entries.remove(entry.key);
+         }
+
+         // Unpublish the route before it is destroyed
+         if (map.get(entry.key) == entry)
+         {
+            publish(entry.key, live.isEmpty() ? null : live.getLast());
+         }
+
+         //
+         entry.route.destroy();
+      }
+   }
+
    boolean serve(K key, Path next, HttpServletRequest req, HttpServletResponse resp) throws IOException
    {
       Route route = get(key);
       return route != null && route.serve(next, req, resp);
    }
+
+   private static <R extends Route> Provider<R> provider(final Class<R> routeType)
+   {
+      return new Provider<R>()
+      {
+         public R get()
+         {
+            try
+            {
+               return routeType.newInstance();
+            }
+            catch (InstantiationException e)
+            {
+               throw new UnsupportedOperationException("handle me gracefully", e);
+            }
+            catch (IllegalAccessException e)
+            {
+               throw new UnsupportedOperationException("handle me gracefully", e);
+            }
+         }
+      };
+   }
 }
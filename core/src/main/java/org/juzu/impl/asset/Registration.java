@@ -5,7 +5,7 @@ public final class Registration<R extends Route>
 {
 
    /** . */
-   private final Entry<?, R> entry;
+   final Entry<?, R> entry;
 
    Registration(Entry<?, R> entry)
    {
@@ -19,11 +19,6 @@ public final class Registration<R extends Route>
 
    public void cancel()
    {
-      entry.registrations.remove(this);
-      if (entry.registrations.size() == 0)
-      {
-         entry.route.destroy();
-         entry.multiplexer.map.remove(entry.key);
-      }
+      entry.multiplexer.cancel(this);
    }
 }
@@ -1,6 +1,7 @@
 package org.juzu.impl.asset;
 
 import java.io.IOException;
+import java.net.URL;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public abstract class RouteContext
@@ -14,5 +15,16 @@ public abstract class RouteContext
     */
    public abstract void renderURL(Appendable out) throws IOException;
 
+   /**
+    * Returns the URL of a resource of the web application hosting the asset server, this implementation returns null.
+    *
+    * @param path the resource path relative to the web application root
+    * @return the resource URL or null if the resource does not exist or cannot be located
+    * @throws java.io.IOException any io exception
+    */
+   public URL getResource(String path) throws IOException
+   {
+      return null;
+   }
 
 }
@@ -6,12 +6,13 @@ import javax.inject.Provider;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.net.URL;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class Router extends Route
 {
    
-   private final Multiplexer<String> mux = new Multiplexer<String>()
+   final Multiplexer<String> mux = new Multiplexer<String>()
    {
       @Override
       public RouteContext getContext(final String key)
@@ -25,6 +26,12 @@ public class Router extends Route
                out.append('/');
                out.append(key);
             }
+
+            @Override
+            public URL getResource(String path) throws IOException
+            {
+               return context.getResource(path);
+            }
          };
       }
    };
@@ -39,6 +46,16 @@ public class Router extends Route
       return mux.register(name, routeType);
    }
 
+   public <R extends Route> Registration<R> replace(String name, Provider<R> routeProvider)
+   {
+      return mux.replace(name, routeProvider);
+   }
+
+   public <R extends Route> Registration<R> replace(String name, Class<R> routeType)
+   {
+      return mux.replace(name, routeType);
+   }
+
    @Override
    public boolean serve(Path path, HttpServletRequest req, HttpServletResponse resp) throws IOException
    {
@@ -7,10 +7,12 @@ import org.juzu.request.HttpContext;
 import org.juzu.request.RequestContext;
 
 import javax.inject.Named;
+import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.net.URL;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class Server
@@ -46,10 +48,19 @@ public class Server
                out.append("/assets/");
                out.append(key);
             }
+
+            @Override
+            public URL getResource(String path) throws IOException
+            {
+               return servletContext != null ? servletContext.getResource(path.startsWith("/") ? path : "/" + path) : null;
+            }
          };
       }
    };
 
+   /** The optional servlet context resolving the web application resources. */
+   private final ServletContext servletContext;
+
    /** . */
    private final Router applicationRouter;
 
@@ -58,6 +69,12 @@ public class Server
 
    public Server()
    {
+      this(null);
+   }
+
+   public Server(ServletContext servletContext)
+   {
+      this.servletContext = servletContext;
       this.applicationRouter = mux.register(APPLICATION.value(), Router.class).getRoute();
       this.pluginRouter = mux.register(PLUGIN.value(), Router.class).getRoute();
    }
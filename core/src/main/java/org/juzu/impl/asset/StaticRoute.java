@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.asset;
+
+import org.juzu.impl.spi.request.ResourceValidators;
+import org.juzu.impl.utils.Path;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A route serving a content held in memory. The content is encoded once and compressed once when the gzip variant
+ * is smaller, serving a request only writes the bytes of the variant accepted by the user agent. Conditional
+ * requests are answered with a <i>304 Not Modified</i> response.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class StaticRoute extends Route
+{
+
+   /** . */
+   private final String mimeType;
+
+   /** . */
+   private final String contentType;
+
+   /** . */
+   private final byte[] content;
+
+   /** The gzip variant or null when compressing does not reduce the size. */
+   private final byte[] gzipContent;
+
+   /** . */
+   private final String etag;
+
+   /** . */
+   private final long lastModified;
+
+   /** . */
+   private final String lastModifiedHeader;
+
+   /**
+    * Creates a route serving a text content encoded with UTF-8, the last modification date is the creation date.
+    *
+    * @param mimeType the mime type
+    * @param content the text content
+    */
+   public StaticRoute(String mimeType, String content)
+   {
+      this(mimeType, "UTF-8", encode(content), System.currentTimeMillis());
+   }
+
+   /**
+    * Creates a route serving a content.
+    *
+    * @param mimeType the mime type
+    * @param charset the charset of the content or null
+    * @param content the content
+    * @param lastModified the last modification date
+    */
+   public StaticRoute(String mimeType, String charset, byte[] content, long lastModified)
+   {
+      byte[] gzipContent = gzip(content);
+      if (gzipContent.length >= content.length)
+      {
+         gzipContent = null;
+      }
+
+      // HTTP dates have a second precision
+      lastModified = (lastModified / 1000) * 1000;
+
+      //
+      this.mimeType = mimeType;
+      this.contentType = charset != null ? mimeType + ";charset=" + charset : mimeType;
+      this.content = content;
+      this.gzipContent = gzipContent;
+      this.etag = ResourceValidators.digest(content);
+      this.lastModified = lastModified;
+      this.lastModifiedHeader = ResourceValidators.formatDate(lastModified);
+   }
+
+   public String getContentType()
+   {
+      return mimeType;
+   }
+
+   public int getLength()
+   {
+      return content.length;
+   }
+
+   /**
+    * Returns the length of the gzip variant.
+    *
+    * @return the gzip variant length or <code>-1</code> when there is no such variant
+    */
+   public int getGzipLength()
+   {
+      return gzipContent != null ? gzipContent.length : -1;
+   }
+
+   /**
+    * Returns the hex encoded MD5 hash of the content used as entity tag.
+    *
+    * @return the content hash
+    */
+   public String getHash()
+   {
+      return etag;
+   }
+
+   public long getLastModified()
+   {
+      return lastModified;
+   }
+
+   /**
+    * Returns the <code>Cache-Control</code> header value, this implementation returns null.
+    *
+    * @return the cache control
+    */
+   protected String getCacheControl()
+   {
+      return null;
+   }
+
+   @Override
+   public boolean serve(Path path, HttpServletRequest req, HttpServletResponse resp) throws IOException
+   {
+      if (path.size() > 0)
+      {
+         return false;
+      }
+
+      // Each variant has its own entity tag
+      boolean gzip = gzipContent != null && acceptsGzip(req.getHeader("Accept-Encoding"));
+      byte[] bytes = gzip ? gzipContent : content;
+      String etag = gzip ? this.etag + "-gzip" : this.etag;
+
+      //
+      if (gzipContent != null)
+      {
+         resp.setHeader("Vary", "Accept-Encoding");
+      }
+      resp.setHeader("ETag", ResourceValidators.quote(etag));
+      resp.setHeader("Last-Modified", lastModifiedHeader);
+      String cacheControl = getCacheControl();
+      if (cacheControl != null)
+      {
+         resp.setHeader("Cache-Control", cacheControl);
+      }
+
+      //
+      long ifModifiedSince;
+      try
+      {
+         ifModifiedSince = req.getDateHeader("If-Modified-Since");
+      }
+      catch (IllegalArgumentException e)
+      {
+         ifModifiedSince = -1;
+      }
+      if (ResourceValidators.isNotModified(req.getHeader("If-None-Match"), ifModifiedSince, etag, lastModified))
+      {
+         resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      }
+      else
+      {
+         resp.setContentType(contentType);
+         if (gzip)
+         {
+            resp.setHeader("Content-Encoding", "gzip");
+         }
+         resp.setContentLength(bytes.length);
+         resp.getOutputStream().write(bytes);
+      }
+      return true;
+   }
+
+   /**
+    * Returns true when an <code>Accept-Encoding</code> header value accepts the gzip encoding.
+    *
+    * @param acceptEncoding the header value or null
+    * @return true when gzip is accepted
+    */
+   static boolean acceptsGzip(String acceptEncoding)
+   {
+      if (acceptEncoding != null)
+      {
+         for (String coding : acceptEncoding.split(","))
+         {
+            String name = coding;
+            String q = null;
+            int pos = coding.indexOf(';');
+            if (pos != -1)
+            {
+               name = coding.substring(0, pos);
+               String param = coding.substring(pos + 1).trim();
+               if (param.startsWith("q="))
+               {
+                  q = param.substring(2).trim();
+               }
+            }
+            name = name.trim();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip"))
+            {
+               try
+               {
+                  return q == null || Float.parseFloat(q) > 0;
+               }
+               catch (NumberFormatException e)
+               {
+                  return false;
+               }
+            }
+         }
+      }
+      return false;
+   }
+
+   private static byte[] encode(String s)
+   {
+      try
+      {
+         return s.getBytes("UTF-8");
+      }
+      catch (UnsupportedEncodingException e)
+      {
+         throw new AssertionError(e);
+      }
+   }
+
+   private static byte[] gzip(byte[] content)
+   {
+      try
+      {
+         ByteArrayOutputStream baos = new ByteArrayOutputStream(content.length / 2 + 32);
+         GZIPOutputStream out = new GZIPOutputStream(baos);
+         out.write(content);
+         out.close();
+         return baos.toByteArray();
+      }
+      catch (IOException e)
+      {
+         throw new AssertionError(e);
+      }
+   }
+}
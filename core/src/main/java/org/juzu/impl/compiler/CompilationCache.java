@@ -0,0 +1,489 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.compiler;
+
+import org.juzu.impl.fs.Visitor;
+import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.ReadWriteFileSystem;
+import org.juzu.impl.utils.Content;
+import org.juzu.impl.utils.Logger;
+import org.juzu.impl.utils.Spliterator;
+import org.juzu.impl.utils.Tools;
+
+import javax.annotation.processing.Processor;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A content addressed cache of compilation outputs stored in a directory. The key of an entry is the hash of the
+ * source path files, of the annotation processors and of a class path fingerprint, an entry is a zip archive holding
+ * the generated sources and the compiled classes. Since the processors generate resources that depend on the whole
+ * source path, a cached output is only reused when none of the source path files changed. The cache holds a bounded
+ * number of entries, the least recently used entries are deleted when an entry is stored.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class CompilationCache
+{
+
+   /** The default maximum number of entries. */
+   public static final int DEFAULT_MAX_ENTRIES = 16;
+
+   /** Changing the version invalidates the existing entries. */
+   private static final String VERSION = "1";
+
+   /** . */
+   private static final String CLASSES = "classes/";
+
+   /** . */
+   private static final String SOURCES = "sources/";
+
+   /** . */
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   /** . */
+   private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+   /**
+    * Computes the fingerprint of the class path of a class loader from the URL of the class loaders of its hierarchy
+    * and from the last modification date and the length of the files they point to.
+    *
+    * @param classLoader the class loader
+    * @return the fingerprint
+    */
+   public static String fingerprint(ClassLoader classLoader)
+   {
+      StringBuilder sb = new StringBuilder();
+      sb.append(System.getProperty("java.version"));
+      for (ClassLoader current = classLoader;current != null;current = current.getParent())
+      {
+         if (current instanceof URLClassLoader)
+         {
+            for (URL url : ((URLClassLoader)current).getURLs())
+            {
+               sb.append(';').append(url);
+               if ("file".equals(url.getProtocol()))
+               {
+                  File f = new File(url.getPath());
+                  sb.append(',').append(f.lastModified()).append(',').append(f.length());
+               }
+            }
+         }
+         else
+         {
+            sb.append(';').append(current.getClass().getName());
+         }
+      }
+      return sb.toString();
+   }
+
+   /** . */
+   private final File dir;
+
+   /** . */
+   private final String fingerprint;
+
+   /** . */
+   private final AtomicInteger hits;
+
+   /** . */
+   private final AtomicInteger misses;
+
+   /** . */
+   private final Logger logger;
+
+   /** . */
+   private int maxEntries;
+
+   public CompilationCache(File dir, String fingerprint, Logger logger)
+   {
+      if (dir == null)
+      {
+         throw new NullPointerException("No null dir accepted");
+      }
+      if (fingerprint == null)
+      {
+         throw new NullPointerException("No null fingerprint accepted");
+      }
+      if (logger == null)
+      {
+         throw new NullPointerException("No null logger accepted");
+      }
+
+      //
+      this.dir = dir;
+      this.fingerprint = fingerprint;
+      this.logger = logger;
+      this.hits = new AtomicInteger();
+      this.misses = new AtomicInteger();
+      this.maxEntries = DEFAULT_MAX_ENTRIES;
+   }
+
+   public File getDir()
+   {
+      return dir;
+   }
+
+   public Logger getLogger()
+   {
+      return logger;
+   }
+
+   public int getMaxEntries()
+   {
+      return maxEntries;
+   }
+
+   /**
+    * Sets the maximum number of entries, the least recently stored or loaded entries are deleted when an entry
+    * is stored and the maximum is exceeded.
+    *
+    * @param maxEntries the maximum number of entries
+    * @throws IllegalArgumentException if the maximum is not positive
+    */
+   public void setMaxEntries(int maxEntries) throws IllegalArgumentException
+   {
+      if (maxEntries < 1)
+      {
+         throw new IllegalArgumentException("Invalid max entries " + maxEntries);
+      }
+      this.maxEntries = maxEntries;
+   }
+
+   public int getHits()
+   {
+      return hits.get();
+   }
+
+   public int getMisses()
+   {
+      return misses.get();
+   }
+
+   /**
+    * Computes the key of the compilation of a source path.
+    *
+    * @param sourcePath the source path
+    * @param processors the annotation processors
+    * @return the key
+    * @throws IOException any io exception
+    */
+   public <P> String getKey(ReadFileSystem<P> sourcePath, Collection<Processor> processors) throws IOException
+   {
+      return getKey(sourcePath, processors, Collections.<String, String>emptyMap());
+   }
+
+   /**
+    * Computes the key of the compilation of a source path.
+    *
+    * @param sourcePath the source path
+    * @param processors the annotation processors
+    * @param processorOptions the annotation processor options
+    * @return the key
+    * @throws IOException any io exception
+    */
+   public <P> String getKey(final ReadFileSystem<P> sourcePath, Collection<Processor> processors, Map<String, String> processorOptions) throws IOException
+   {
+      final TreeMap<String, P> files = new TreeMap<String, P>();
+      sourcePath.traverse(new Visitor.Default<P>()
+      {
+         @Override
+         public void file(P file, String name) throws IOException
+         {
+            StringBuilder path = new StringBuilder();
+            sourcePath.pathOf(file, '/', path);
+            files.put(path.toString(), file);
+         }
+      });
+
+      //
+      TreeSet<String> processorTypes = new TreeSet<String>();
+      for (Processor processor : processors)
+      {
+         processorTypes.add(processor.getClass().getName());
+      }
+
+      //
+      MessageDigest md = createDigest();
+      update(md, VERSION);
+      update(md, fingerprint);
+      for (String processorType : processorTypes)
+      {
+         update(md, processorType);
+      }
+      for (Map.Entry<String, String> processorOption : new TreeMap<String, String>(processorOptions).entrySet())
+      {
+         update(md, processorOption.getKey());
+         update(md, processorOption.getValue());
+      }
+      for (String path : files.keySet())
+      {
+         update(md, path);
+         Content content = sourcePath.getContent(files.get(path));
+         md.update(Tools.bytes(content.getInputStream()));
+      }
+      return hex(md.digest());
+   }
+
+   /**
+    * Copies the cached output of a compilation to the output file systems. The entry is fully read before the outputs
+    * are written so a corrupted entry leaves the outputs untouched. A loaded entry becomes the most recently used one.
+    *
+    * @param key the compilation key
+    * @param sourceOutput the source output
+    * @param classOutput the class output
+    * @return true when the cache holds an entry for the key
+    * @throws IOException when the outputs cannot be written
+    */
+   public boolean load(String key, ReadWriteFileSystem<?> sourceOutput, ReadWriteFileSystem<?> classOutput) throws IOException
+   {
+      File f = new File(dir, key + ".zip");
+      if (f.isFile())
+      {
+         List<String> names = new ArrayList<String>();
+         List<Content> contents = new ArrayList<Content>();
+         try
+         {
+            ZipFile zip = new ZipFile(f);
+            try
+            {
+               for (Enumeration<? extends ZipEntry> e = zip.entries();e.hasMoreElements();)
+               {
+                  ZipEntry entry = e.nextElement();
+                  String name = entry.getName();
+                  if (name.startsWith(CLASSES) || name.startsWith(SOURCES))
+                  {
+                     Charset encoding = entry.getComment() != null ? Charset.forName(entry.getComment()) : null;
+                     InputStream in = zip.getInputStream(entry);
+                     try
+                     {
+                        names.add(name);
+                        contents.add(new Content(System.currentTimeMillis(), Tools.bytes(in), encoding));
+                     }
+                     finally
+                     {
+                        Tools.safeClose(in);
+                     }
+                  }
+               }
+            }
+            finally
+            {
+               zip.close();
+            }
+         }
+         catch (IOException e)
+         {
+            // A corrupted entry is a miss, it will be overwritten
+            logger.log("Discarding corrupted compilation cache entry " + f, e);
+            names = null;
+         }
+
+         //
+         if (names != null)
+         {
+            for (int i = 0;i < names.size();i++)
+            {
+               String name = names.get(i);
+               if (name.startsWith(CLASSES))
+               {
+                  write(classOutput, name.substring(CLASSES.length()), contents.get(i));
+               }
+               else
+               {
+                  write(sourceOutput, name.substring(SOURCES.length()), contents.get(i));
+               }
+            }
+            f.setLastModified(System.currentTimeMillis());
+            hits.incrementAndGet();
+            return true;
+         }
+      }
+      misses.incrementAndGet();
+      return false;
+   }
+
+   /**
+    * Stores the output of a compilation, the entry is written to a temporary file first and then renamed so a
+    * concurrent reader never observes a partial entry.
+    *
+    * @param key the compilation key
+    * @param sourceOutput the source output
+    * @param classOutput the class output
+    * @throws IOException any io exception
+    */
+   public void store(String key, ReadFileSystem<?> sourceOutput, ReadFileSystem<?> classOutput) throws IOException
+   {
+      if (!dir.exists() && !dir.mkdirs())
+      {
+         throw new IOException("Could not create cache directory " + dir);
+      }
+      File tmp = File.createTempFile(key, ".tmp", dir);
+      try
+      {
+         ZipOutputStream out = new ZipOutputStream(new FileOutputStream(tmp));
+         try
+         {
+            add(out, CLASSES, classOutput);
+            if (sourceOutput != classOutput)
+            {
+               add(out, SOURCES, sourceOutput);
+            }
+         }
+         finally
+         {
+            out.close();
+         }
+         File f = new File(dir, key + ".zip");
+         if (!tmp.renameTo(f))
+         {
+            // Another process may have stored the same entry
+            if (!f.delete() || !tmp.renameTo(f))
+            {
+               throw new IOException("Could not store cache entry " + f);
+            }
+         }
+      }
+      finally
+      {
+         if (tmp.exists())
+         {
+            tmp.delete();
+         }
+      }
+
+      //
+      prune();
+   }
+
+   /**
+    * Deletes the least recently used entries exceeding the maximum number of entries.
+    */
+   private void prune()
+   {
+      File[] entries = dir.listFiles(new FileFilter()
+      {
+         public boolean accept(File file)
+         {
+            return file.isFile() && file.getName().endsWith(".zip");
+         }
+      });
+      if (entries != null && entries.length > maxEntries)
+      {
+         Arrays.sort(entries, new Comparator<File>()
+         {
+            public int compare(File f1, File f2)
+            {
+               long l1 = f1.lastModified();
+               long l2 = f2.lastModified();
+               return l1 < l2 ? 1 : (l1 == l2 ? 0 : -1);
+            }
+         });
+         for (int i = maxEntries;i < entries.length;i++)
+         {
+            if (!entries[i].delete())
+            {
+               logger.log("Could not delete compilation cache entry " + entries[i]);
+            }
+         }
+      }
+   }
+
+   private <P> void add(final ZipOutputStream out, final String prefix, final ReadFileSystem<P> fs) throws IOException
+   {
+      fs.traverse(new Visitor.Default<P>()
+      {
+         @Override
+         public void file(P file, String name) throws IOException
+         {
+            StringBuilder path = new StringBuilder(prefix);
+            fs.pathOf(file, '/', path);
+            Content content = fs.getContent(file);
+            ZipEntry entry = new ZipEntry(path.toString());
+            if (content.getEncoding() != null)
+            {
+               entry.setComment(content.getEncoding().name());
+            }
+            out.putNextEntry(entry);
+            Tools.copy(content.getInputStream(), out);
+            out.closeEntry();
+         }
+      });
+   }
+
+   private static <P> void write(ReadWriteFileSystem<P> fs, String path, Content content) throws IOException
+   {
+      List<String> names = Spliterator.split(path, '/', new ArrayList<String>());
+      String name = names.remove(names.size() - 1);
+      P file = fs.makeFile(names, name);
+      fs.setContent(file, content);
+   }
+
+   private static void update(MessageDigest md, String s)
+   {
+      md.update(s.getBytes(UTF_8));
+      md.update((byte)0);
+   }
+
+   private static MessageDigest createDigest()
+   {
+      try
+      {
+         return MessageDigest.getInstance("SHA-1");
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new AssertionError(e);
+      }
+   }
+
+   private static String hex(byte[] hash)
+   {
+      char[] chars = new char[hash.length * 2];
+      for (int i = 0;i < hash.length;i++)
+      {
+         chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+         chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+      }
+      return new String(chars);
+   }
+}
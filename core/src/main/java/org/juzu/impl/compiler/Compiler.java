@@ -22,6 +22,7 @@ package org.juzu.impl.compiler;
 import org.juzu.impl.compiler.file.FileKey;
 import org.juzu.impl.compiler.file.SimpleFileManager;
 import org.juzu.impl.compiler.file.JavaFileObjectImpl;
+import org.juzu.impl.compiler.file.PackageIndex;
 import org.juzu.impl.fs.Visitor;
 import org.juzu.impl.spi.fs.ReadFileSystem;
 import org.juzu.impl.spi.fs.ReadWriteFileSystem;
@@ -42,7 +43,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -53,7 +56,7 @@ public class Compiler
 
    public static Builder builder()
    {
-      return new Builder(null, null, null, new ArrayList<SimpleFileSystem<?>>());
+      return new Builder(null, null, null, new ArrayList<SimpleFileSystem<?>>(), new LinkedHashMap<String, String>());
    }
 
    public static class Builder
@@ -74,17 +77,22 @@ public class Compiler
       /** . */
       private Processor processor;
 
+      /** . */
+      private Map<String, String> processorOptions;
+
       private Builder(
          ReadFileSystem<?> sourcePath,
          ReadWriteFileSystem<?> sourceOutput,
          ReadWriteFileSystem<?> classOutput,
-         List<SimpleFileSystem<?>> classPaths)
+         List<SimpleFileSystem<?>> classPaths,
+         Map<String, String> processorOptions)
       {
          this.sourcePath = sourcePath;
          this.sourceOutput = sourceOutput;
          this.classOutput = classOutput;
          this.classPaths = classPaths;
          this.processor = null;
+         this.processorOptions = processorOptions;
       }
 
       public Builder classOutput(ReadWriteFileSystem<?> classOutput)
@@ -123,6 +131,12 @@ public class Compiler
          return this;
       }
 
+      public Builder processorOption(String name, String value)
+      {
+         processorOptions.put(name, value);
+         return this;
+      }
+
       public Compiler build()
       {
          if (sourcePath == null)
@@ -147,6 +161,10 @@ public class Compiler
          {
             compiler.addAnnotationProcessor(processor);
          }
+         for (Map.Entry<String, String> processorOption : processorOptions.entrySet())
+         {
+            compiler.addProcessorOption(processorOption.getKey(), processorOption.getValue());
+         }
          return compiler;
       }
    }
@@ -163,6 +181,12 @@ public class Compiler
    /** . */
    private Set<Processor> processors;
 
+   /** . */
+   private Map<String, String> processorOptions;
+
+   /** . */
+   private CompilationCache cache;
+
    public Compiler(
       ReadFileSystem<?> sourcePath,
       ReadWriteFileSystem<?> output)
@@ -202,6 +226,7 @@ public class Compiler
          classOutput
       );
       this.processors = new HashSet<Processor>();
+      this.processorOptions = new LinkedHashMap<String, String>();
    }
 
    public void addAnnotationProcessor(Processor annotationProcessorType)
@@ -213,6 +238,57 @@ public class Compiler
       processors.add(annotationProcessorType);
    }
 
+   /**
+    * Adds an option passed to the annotation processors.
+    *
+    * @param name the option name
+    * @param value the option value
+    * @throws NullPointerException if any argument is null
+    */
+   public void addProcessorOption(String name, String value) throws NullPointerException
+   {
+      if (name == null)
+      {
+         throw new NullPointerException("No null option name allowed");
+      }
+      if (value == null)
+      {
+         throw new NullPointerException("No null option value allowed");
+      }
+      processorOptions.put(name, value);
+   }
+
+   public CompilationCache getCache()
+   {
+      return cache;
+   }
+
+   /**
+    * Sets the cache consulted before compiling the whole source path, the output of a successful compilation of the
+    * whole source path is stored in the cache.
+    *
+    * @param cache the cache or null
+    */
+   public void setCache(CompilationCache cache)
+   {
+      this.cache = cache;
+   }
+
+   /**
+    * Lists the packages of a class path file system with an index, the index can be shared by several compilers
+    * as long as the file system does not change.
+    *
+    * @param index the index
+    * @throws IllegalArgumentException if the indexed file system is not in the class path
+    */
+   public void addClassPathIndex(PackageIndex<?> index) throws IllegalArgumentException
+   {
+      if (!fileManager.classPath.setIndex(index))
+      {
+         throw new IllegalArgumentException("File system " + index.getFileSystem().getDescription() + " is not in the class path");
+      }
+   }
+
    public ReadWriteFileSystem<Object> getSourceOutput()
    {
       return (ReadWriteFileSystem<Object>)fileManager.sourceOutput.getFileSystem();
@@ -230,7 +306,39 @@ public class Compiler
 
    public List<CompilationError> compile() throws IOException
    {
-      return compile(getFromSourcePath(fileManager.sourcePath));
+      if (cache != null)
+      {
+         String key = cache.getKey((ReadFileSystem<?>)fileManager.sourcePath.getFileSystem(), processors, processorOptions);
+         if (cache.load(key, getSourceOutput(), getClassOutput()))
+         {
+            fileManager.sourceOutput.clearCache();
+            fileManager.classOutput.clearCache();
+
+            // Clear processors as we should not reuse them
+            processors.clear();
+
+            //
+            return Collections.emptyList();
+         }
+         List<CompilationError> errors = compile(getFromSourcePath(fileManager.sourcePath));
+         if (errors.isEmpty())
+         {
+            try
+            {
+               cache.store(key, getSourceOutput(), getClassOutput());
+            }
+            catch (IOException e)
+            {
+               // The compilation succeeded, it is not cached
+               cache.getLogger().log("Could not store compilation output in cache " + cache.getDir(), e);
+            }
+         }
+         return errors;
+      }
+      else
+      {
+         return compile(getFromSourcePath(fileManager.sourcePath));
+      }
    }
 
    private <P> Iterable<JavaFileObject> getFromSourcePath(SimpleFileManager<P> manager, String... compilationUnits) throws IOException
@@ -352,7 +460,12 @@ public class Compiler
       };
 
       //
-      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, listener, Collections.<String>emptyList(), null, compilationUnits);
+      List<String> options = new ArrayList<String>();
+      for (Map.Entry<String, String> processorOption : processorOptions.entrySet())
+      {
+         options.add("-A" + processorOption.getKey() + "=" + processorOption.getValue());
+      }
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, listener, options, null, compilationUnits);
       task.setProcessors(processors);
 
       // We don't use the return value because sometime it says it is failed although
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.compiler;
+
+import org.juzu.impl.fs.Change;
+import org.juzu.impl.fs.Visitor;
+import org.juzu.impl.spi.fs.ReadFileSystem;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Determines the compilation units to recompile after a set of changes happened in a source path, allowing to
+ * recompile a subset of an application against the output of a previous compilation.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class IncrementalCompilation
+{
+
+   /**
+    * <p>Returns the compilation units affected by the changes or null when the changes cannot be handled
+    * incrementally and the whole source path must be compiled.</p>
+    *
+    * <ul>
+    *    <li>An added or updated compilation unit is recompiled along with the units of its package, since they may
+    *    reference the other types it declares without naming it.</li>
+    *    <li>A recompiled unit causes the units referencing its simple name or the name of its generated companion to
+    *    be recompiled, transitively.</li>
+    *    <li>Another added or updated file such as a template is handled by recompiling the units referencing its
+    *    name, when no unit references it the package declarations are recompiled to trigger annotation processing.</li>
+    *    <li>Removing a file requires a full compilation since the previous outputs are not tracked.</li>
+    * </ul>
+    *
+    * @param sourcePath the source path
+    * @param changes the changes with paths relative to the source path root
+    * @param <P> the path generic type
+    * @return the compilation units paths or null
+    * @throws IOException any io exception
+    */
+   public static <P> Set<String> getCompilationUnits(ReadFileSystem<P> sourcePath, Map<String, Change> changes) throws IOException
+   {
+      if (changes.containsValue(Change.REMOVE))
+      {
+         return null;
+      }
+
+      //
+      Map<String, CharSequence> sources = getSources(sourcePath);
+      Set<String> units = new LinkedHashSet<String>();
+      LinkedList<String> names = new LinkedList<String>();
+      for (String path : changes.keySet())
+      {
+         String name = path.substring(path.lastIndexOf('/') + 1);
+         if (name.endsWith(".java"))
+         {
+            String packagePath = path.substring(0, path.lastIndexOf('/') + 1);
+            for (String source : sources.keySet())
+            {
+               if (source.startsWith(packagePath) && source.indexOf('/', packagePath.length()) == -1 && units.add(source))
+               {
+                  names.add(getName(source));
+               }
+            }
+            if (units.add(path))
+            {
+               names.add(getName(path));
+            }
+         }
+         else
+         {
+            Pattern pattern = Pattern.compile(Pattern.quote(name));
+            for (Map.Entry<String, CharSequence> source : sources.entrySet())
+            {
+               if (pattern.matcher(source.getValue()).find())
+               {
+                  units.add(source.getKey());
+               }
+            }
+         }
+      }
+
+      // Compute dependents
+      while (names.size() > 0)
+      {
+         String name = names.removeFirst();
+         if (!name.equals("package-info"))
+         {
+            Pattern pattern = Pattern.compile("\\b" + Pattern.quote(name) + "_?\\b");
+            for (Map.Entry<String, CharSequence> source : sources.entrySet())
+            {
+               String path = source.getKey();
+               if (!units.contains(path) && pattern.matcher(source.getValue()).find())
+               {
+                  units.add(path);
+                  names.add(getName(path));
+               }
+            }
+         }
+      }
+
+      // Trigger a processing round
+      if (units.isEmpty())
+      {
+         for (String path : sources.keySet())
+         {
+            if (path.endsWith("package-info.java"))
+            {
+               units.add(path);
+            }
+         }
+         if (units.isEmpty())
+         {
+            return null;
+         }
+      }
+
+      //
+      return units;
+   }
+
+   private static String getName(String path)
+   {
+      return path.substring(path.lastIndexOf('/') + 1, path.length() - ".java".length());
+   }
+
+   private static <P> Map<String, CharSequence> getSources(final ReadFileSystem<P> sourcePath) throws IOException
+   {
+      final Map<String, CharSequence> sources = new LinkedHashMap<String, CharSequence>();
+      sourcePath.traverse(new Visitor.Default<P>()
+      {
+         @Override
+         public void file(P file, String name) throws IOException
+         {
+            if (name.endsWith(".java"))
+            {
+               StringBuilder path = new StringBuilder();
+               sourcePath.pathOf(file, '/', path);
+               sources.put(path.toString(), sourcePath.getContent(file).getCharSequence());
+            }
+         }
+      });
+      return sources;
+   }
+}
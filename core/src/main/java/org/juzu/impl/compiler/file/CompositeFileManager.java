@@ -46,6 +46,35 @@ public class CompositeFileManager extends FileManager
       this.components = components;
    }
 
+   /**
+    * Sets the index of the component managing the file system indexed by the index.
+    *
+    * @param index the index
+    * @return true when a component manages the indexed file system
+    */
+   public boolean setIndex(PackageIndex<?> index)
+   {
+      boolean found = false;
+      for (FileManager component : components)
+      {
+         if (component instanceof SimpleFileManager<?>)
+         {
+            found |= setIndex((SimpleFileManager<?>)component, index);
+         }
+      }
+      return found;
+   }
+
+   private static <P> boolean setIndex(SimpleFileManager<P> component, PackageIndex<?> index)
+   {
+      if (component.getFileSystem() == index.getFileSystem())
+      {
+         component.setIndex((PackageIndex<P>)index);
+         return true;
+      }
+      return false;
+   }
+
    @Override
    public JavaFileObject getReadable(FileKey key) throws IOException
    {
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.compiler.file;
+
+import org.juzu.impl.spi.fs.SimpleFileSystem;
+import org.juzu.impl.utils.Spliterator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the packages of a file system that does not change, for instance a class path. The content of a
+ * package is read from the file system once at its first listing and then shared by the compilations listing the
+ * package until the index is cleared.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class PackageIndex<P>
+{
+
+   /** . */
+   private final SimpleFileSystem<P> fs;
+
+   /** . */
+   private final Map<String, Entry<P>> packages;
+
+   /** . */
+   private int lists;
+
+   /** . */
+   private int misses;
+
+   /** . */
+   private long time;
+
+   public PackageIndex(SimpleFileSystem<P> fs)
+   {
+      if (fs == null)
+      {
+         throw new NullPointerException("No null file system accepted");
+      }
+
+      //
+      this.fs = fs;
+      this.packages = new HashMap<String, Entry<P>>();
+   }
+
+   public SimpleFileSystem<P> getFileSystem()
+   {
+      return fs;
+   }
+
+   /**
+    * Returns the content of a package, the package is read from the file system when it is not yet indexed.
+    *
+    * @param packageName the package name
+    * @return the package entry
+    * @throws IOException any io exception
+    */
+   public synchronized Entry<P> get(String packageName) throws IOException
+   {
+      long time = System.nanoTime();
+      try
+      {
+         lists++;
+         Entry<P> entry = packages.get(packageName);
+         if (entry == null)
+         {
+            misses++;
+            entry = new Entry<P>();
+            P dir = fs.getPath(Spliterator.split(packageName, '.'));
+            if (dir != null && fs.isDir(dir))
+            {
+               for (Iterator<P> i = fs.getChildren(dir);i.hasNext();)
+               {
+                  P child = i.next();
+                  String name = fs.getName(child);
+                  if (fs.isDir(child))
+                  {
+                     entry.packages.add(packageName.length() == 0 ? name : packageName + "." + name);
+                  }
+                  else
+                  {
+                     entry.names.add(name);
+                     entry.files.add(child);
+                  }
+               }
+            }
+            packages.put(packageName, entry);
+         }
+         return entry;
+      }
+      finally
+      {
+         this.time += System.nanoTime() - time;
+      }
+   }
+
+   /**
+    * Clears the index, it must be invoked when the file system changes.
+    */
+   public synchronized void clear()
+   {
+      packages.clear();
+   }
+
+   /**
+    * Returns the number of package listings served by this index.
+    *
+    * @return the list count
+    */
+   public synchronized int getLists()
+   {
+      return lists;
+   }
+
+   /**
+    * Returns the number of package listings that read the file system.
+    *
+    * @return the miss count
+    */
+   public synchronized int getMisses()
+   {
+      return misses;
+   }
+
+   /**
+    * Returns the time spent listing packages in milliseconds.
+    *
+    * @return the time
+    */
+   public synchronized long getTime()
+   {
+      return time / 1000000;
+   }
+
+   @Override
+   public synchronized String toString()
+   {
+      return "PackageIndex[lists=" + lists + ",misses=" + misses + ",time=" + (time / 1000000) + "ms]";
+   }
+
+   public static class Entry<P>
+   {
+
+      /** The sub package names. */
+      final List<String> packages = new ArrayList<String>();
+
+      /** . */
+      final List<String> names = new ArrayList<String>();
+
+      /** . */
+      final List<P> files = new ArrayList<P>();
+
+      private Entry()
+      {
+      }
+
+      public List<String> getPackages()
+      {
+         return packages;
+      }
+
+      public List<String> getNames()
+      {
+         return names;
+      }
+   }
+}
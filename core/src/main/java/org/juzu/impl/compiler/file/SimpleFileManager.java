@@ -47,6 +47,9 @@ public class SimpleFileManager<P> extends FileManager
    /** . */
    final Map<FileKey, JavaFileObjectImpl<P>> entries;
 
+   /** The optional package index. */
+   private PackageIndex<P> index;
+
    public SimpleFileManager(SimpleFileSystem<P> fs)
    {
       this.fs = fs;
@@ -58,6 +61,26 @@ public class SimpleFileManager<P> extends FileManager
       return fs;
    }
 
+   public PackageIndex<P> getIndex()
+   {
+      return index;
+   }
+
+   /**
+    * Sets the index answering the package listings instead of the file system.
+    *
+    * @param index the index or null
+    * @throws IllegalArgumentException if the index does not index the file system of this manager
+    */
+   public void setIndex(PackageIndex<P> index) throws IllegalArgumentException
+   {
+      if (index != null && index.getFileSystem() != fs)
+      {
+         throw new IllegalArgumentException("The index " + index + " does not index the file system " + fs.getDescription());
+      }
+      this.index = index;
+   }
+
    public void clearCache()
    {
       entries.clear();
@@ -103,6 +126,11 @@ public class SimpleFileManager<P> extends FileManager
       boolean recurse,
       C to) throws IOException
    {
+      if (index != null)
+      {
+         list(index, packageName, kinds, recurse, to);
+         return to;
+      }
       Iterable<String> packageNames = Spliterator.split(packageName, '.');
       P dir = fs.getPath(packageNames);
       if (dir != null && fs.isDir(dir))
@@ -112,6 +140,37 @@ public class SimpleFileManager<P> extends FileManager
       return to;
    }
 
+   private void list(
+      PackageIndex<P> index,
+      String packageName,
+      Set<JavaFileObject.Kind> kinds,
+      boolean recurse,
+      Collection<JavaFileObject> to) throws IOException
+   {
+      PackageIndex.Entry<P> entry = index.get(packageName);
+      for (int i = 0;i < entry.names.size();i++)
+      {
+         FileKey key = FileKey.newName(packageName, entry.names.get(i));
+         if (kinds.contains(key.kind))
+         {
+            // The file is known, we don't need to resolve it again
+            JavaFileObjectImpl<P> readable = entries.get(key);
+            if (readable == null)
+            {
+               entries.put(key, readable = new JavaFileObjectImpl<P>(key, this, entry.files.get(i)));
+            }
+            to.add(readable);
+         }
+      }
+      if (recurse)
+      {
+         for (String child : entry.packages)
+         {
+            list(index, child, kinds, true, to);
+         }
+      }
+   }
+
    private void list(
       P root,
       Set<JavaFileObject.Kind> kinds,
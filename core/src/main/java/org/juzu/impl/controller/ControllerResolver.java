@@ -25,38 +25,100 @@ import org.juzu.impl.controller.descriptor.ControllerMethod;
 import org.juzu.request.Phase;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
- * Resolves controller method algorithm.
+ * Resolves controller method algorithm. The controller methods are indexed once by phase and method id, each entry
+ * of the index retains the candidate methods along with a bit set of their argument names, so the resolution of a
+ * method does not need to scan the controller methods nor to allocate objects.
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
 public class ControllerResolver
 {
 
-   /** . */
-   private final ControllerMethod[] methods;
+   /** The candidates indexed by phase and method id. */
+   private final EnumMap<Phase, Map<String, Candidates>> index;
 
-   /** . */
-   private final ApplicationDescriptor desc;
+   /** The candidates when no method id is specified. */
+   private final Candidates defaultCandidates;
 
    public ControllerResolver(ApplicationDescriptor desc) throws NullPointerException
    {
-      if (desc == null)
+      this(getControllerMethods(desc), desc.getDefaultController());
+   }
+
+   public ControllerResolver(List<ControllerMethod> methods, Class<?> defaultController) throws NullPointerException
+   {
+      if (methods == null)
       {
-         throw new NullPointerException("No null application descriptor accepted");
+         throw new NullPointerException("No null controller methods accepted");
       }
 
       //
-      List<ControllerMethod> methods = desc.getControllerMethods();
+      EnumMap<Phase, Map<String, List<ControllerMethod>>> tmp = new EnumMap<Phase, Map<String, List<ControllerMethod>>>(Phase.class);
+      List<ControllerMethod> indexMethods = new ArrayList<ControllerMethod>();
+      List<ControllerMethod> defaultIndexMethods = new ArrayList<ControllerMethod>();
+      for (ControllerMethod method : methods)
+      {
+         Map<String, List<ControllerMethod>> byId = tmp.get(method.getPhase());
+         if (byId == null)
+         {
+            tmp.put(method.getPhase(), byId = new LinkedHashMap<String, List<ControllerMethod>>());
+         }
+         List<ControllerMethod> list = byId.get(method.getId());
+         if (list == null)
+         {
+            byId.put(method.getId(), list = new ArrayList<ControllerMethod>());
+         }
+         list.add(method);
+
+         //
+         if (method.getPhase() == Phase.RENDER && method.getName().equals("index"))
+         {
+            indexMethods.add(method);
+            if (method.getType() == defaultController)
+            {
+               defaultIndexMethods.add(method);
+            }
+         }
+      }
+
+      //
+      EnumMap<Phase, Map<String, Candidates>> index = new EnumMap<Phase, Map<String, Candidates>>(Phase.class);
+      for (Map.Entry<Phase, Map<String, List<ControllerMethod>>> entry : tmp.entrySet())
+      {
+         HashMap<String, Candidates> byId = new HashMap<String, Candidates>();
+         for (Map.Entry<String, List<ControllerMethod>> entry2 : entry.getValue().entrySet())
+         {
+            byId.put(entry2.getKey(), new Candidates(entry2.getValue()));
+         }
+         index.put(entry.getKey(), byId);
+      }
+
+      // Any index method of the default controller takes precedence over the other index methods
+      if (defaultIndexMethods.size() > 0)
+      {
+         indexMethods = defaultIndexMethods;
+      }
 
       //
-      this.desc = desc;
-      this.methods = methods.toArray(new ControllerMethod[methods.size()]);
+      this.index = index;
+      this.defaultCandidates = indexMethods.size() > 0 ? new Candidates(indexMethods) : null;
+   }
+
+   private static List<ControllerMethod> getControllerMethods(ApplicationDescriptor desc) throws NullPointerException
+   {
+      if (desc == null)
+      {
+         throw new NullPointerException("No null application descriptor accepted");
+      }
+      return desc.getControllerMethods();
    }
 
    /**
@@ -105,118 +167,162 @@ public class ControllerResolver
       // todo : take in account multi valued parameters
       // todo : what happens with type conversion, somehow we should forbid m(String a) and m(int a)
 
-      class Match implements Comparable<Match>
+      //
+      Candidates candidates;
+      if (methodId == null)
+      {
+         if (phase != Phase.RENDER)
+         {
+            throw new IllegalArgumentException("Method id can only be null when the phase " + phase + " == " + Phase.RENDER);
+         }
+         candidates = defaultCandidates;
+      }
+      else
+      {
+         Map<String, Candidates> byId = index.get(phase);
+         candidates = byId != null ? byId.get(methodId) : null;
+      }
+
+      //
+      return candidates != null ? candidates.resolve(parameterNames) : null;
+   }
+
+   /**
+    * The methods retained for a phase and a method id. Each distinct argument name of the methods is assigned a bit,
+    * the arguments of a method are described by a mask when there are no more than 64 distinct names.
+    */
+   private static class Candidates
+   {
+
+      /** . */
+      private final ControllerMethod[] methods;
+
+      /** The argument names of each method. */
+      private final String[][] arguments;
+
+      /** The distinct argument names or null when they cannot fit in a mask. */
+      private final String[] names;
+
+      /** The argument mask of each method. */
+      private final long[] masks;
+
+      private Candidates(List<ControllerMethod> list)
       {
-         final ControllerMethod method;
-         final int score1;
-         final int score2;
-         final int score3;
-         Match(ControllerMethod method)
+         ControllerMethod[] methods = list.toArray(new ControllerMethod[list.size()]);
+         String[][] arguments = new String[methods.length][];
+         LinkedHashMap<String, Integer> bits = new LinkedHashMap<String, Integer>();
+         for (int i = 0;i < methods.length;i++)
          {
-            this.method = method;
-
-            // The number of matched parameters
-            HashSet<String> a = new HashSet<String>(parameterNames);
-            a.retainAll(method.getArgumentNames());
-            this.score1 = a.size();
-
-            // The number of unmatched arguments
-            a = new HashSet<String>(method.getArgumentNames());
-            a.removeAll(parameterNames);
-            this.score2 = a.size();
-
-            // The number of unmatched parameters
-            a = new HashSet<String>(parameterNames);
-            a.removeAll(method.getArgumentNames());
-            this.score3 = a.size();
+            Set<String> argumentNames = methods[i].getArgumentNames();
+            arguments[i] = argumentNames.toArray(new String[argumentNames.size()]);
+            for (String argumentName : arguments[i])
+            {
+               if (!bits.containsKey(argumentName))
+               {
+                  bits.put(argumentName, bits.size());
+               }
+            }
          }
-         public int compareTo(Match o)
+
+         //
+         String[] names;
+         long[] masks;
+         if (bits.size() <= 64)
          {
-            int delta = o.score1 - score1;
-            if (delta == 0)
+            names = bits.keySet().toArray(new String[bits.size()]);
+            masks = new long[methods.length];
+            for (int i = 0;i < methods.length;i++)
             {
-               delta = score2 - o.score2;
-               if (delta == 0)
+               for (String argumentName : arguments[i])
                {
-                  delta = score3 - o.score3;
+                  masks[i] |= 1L << bits.get(argumentName);
                }
             }
-            return delta;
          }
-         @Override
-         public String toString()
+         else
          {
-            return "Match[score1=" + score1 + ",score2=" + score2 + ",score3=" + score3 + ",method=" + method + "]";
+            names = null;
+            masks = null;
          }
+
+         //
+         this.methods = methods;
+         this.arguments = arguments;
+         this.names = names;
+         this.masks = masks;
       }
 
-      //
-      List<Match> matches = new ArrayList<Match>();
-      if (methodId == null)
+      /**
+       * Select the method with the greater number of matched parameters, among them the one with the lesser number
+       * of arguments is retained. The number of unmatched parameters is the same for all the methods and does not
+       * discriminate them.
+       *
+       * @param parameterNames the parameter names
+       * @return the selected method
+       * @throws AmbiguousResolutionException when two methods have the same score
+       */
+      private ControllerMethod resolve(Set<String> parameterNames) throws AmbiguousResolutionException
       {
-         if (phase != Phase.RENDER)
+         if (methods.length == 1)
          {
-            throw new IllegalArgumentException("Method id can only be null when the phase " + phase + " == " + Phase.RENDER);
+            return methods[0];
          }
-         else
+
+         //
+         long mask = 0;
+         if (names != null)
          {
-            for (ControllerMethod method : methods)
+            for (int i = 0;i < names.length;i++)
             {
-               if (method.getPhase() == Phase.RENDER && method.getName().equals("index"))
+               if (parameterNames.contains(names[i]))
                {
-                  matches.add(new Match(method));
-               }
-            }
-            for (int i = 0;i < matches.size();i++)
-            {
-               Match match = matches.get(i);
-               if (match.method.getType() == desc.getDefaultController())
-               {
-                  ArrayList<Match> sub = new ArrayList<Match>();
-                  for (int j = 0;j < matches.size();j++)
-                  {
-                     Match match2 = matches.get(j);
-                     if (match2.method.getType() == desc.getDefaultController())
-                     {
-                        sub.add(match2);
-                     }
-                  }
-                  matches = sub;
-                  break;
+                  mask |= 1L << i;
                }
             }
          }
-      }
-      else
-      {
-         for (ControllerMethod method : methods)
+
+         //
+         int best = -1;
+         int bestMatched = 0;
+         int bestSize = 0;
+         int tie = -1;
+         for (int i = 0;i < methods.length;i++)
          {
-            if (method.getPhase() == phase && method.getId().equals(methodId))
+            int matched = names != null ? Long.bitCount(mask & masks[i]) : count(arguments[i], parameterNames);
+            int size = arguments[i].length;
+            if (best == -1 || matched > bestMatched || (matched == bestMatched && size < bestSize))
             {
-               matches.add(new Match(method));
+               best = i;
+               bestMatched = matched;
+               bestSize = size;
+               tie = -1;
             }
+            else if (tie == -1 && matched == bestMatched && size == bestSize)
+            {
+               tie = i;
+            }
+         }
+
+         //
+         if (tie != -1)
+         {
+            throw new AmbiguousResolutionException("Two methods satisfies the index criteria: " +
+               methods[best] + " and " + methods[tie]);
          }
+         return methods[best];
       }
 
-      //
-      ControllerMethod found = null;
-      if (matches.size() > 0)
+      private static int count(String[] arguments, Set<String> parameterNames)
       {
-         Collections.sort(matches);
-         Match first = matches.get(0);
-         if (matches.size() > 1)
+         int count = 0;
+         for (String argument : arguments)
          {
-            Match second = matches.get(1);
-            if (first.compareTo(second) == 0)
+            if (parameterNames.contains(argument))
             {
-               throw new AmbiguousResolutionException("Two methods satisfies the index criteria: " +
-                  first.method + " and " + second.method);
+               count++;
             }
          }
-         found = first.method;
+         return count;
       }
-
-      //
-      return found;
    }
 }
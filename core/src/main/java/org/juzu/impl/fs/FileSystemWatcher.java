@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.fs;
+
+import org.juzu.impl.spi.fs.ReadFileSystem;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Watches a file system from a background thread that scans it at a fixed rate, the changes detected between two
+ * polls are accumulated and handed to the next {@link #poll()} invocation. Polling does not touch the file system
+ * and costs a volatile read when nothing changed.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class FileSystemWatcher<P>
+{
+
+   /** The default scan interval in milliseconds. */
+   public static final long DEFAULT_INTERVAL = 500;
+
+   /** . */
+   private final FileSystemScanner<P> scanner;
+
+   /** . */
+   private final long interval;
+
+   /** The changes not yet polled, guarded by this object. */
+   private Map<String, Change> pending;
+
+   /** True when there are pending changes. */
+   private volatile boolean dirty;
+
+   /** . */
+   private Thread thread;
+
+   public FileSystemWatcher(ReadFileSystem<P> fs)
+   {
+      this(fs, DEFAULT_INTERVAL);
+   }
+
+   public FileSystemWatcher(ReadFileSystem<P> fs, long interval)
+   {
+      if (interval <= 0)
+      {
+         throw new IllegalArgumentException("Interval must be positive");
+      }
+
+      //
+      this.scanner = new FileSystemScanner<P>(fs);
+      this.interval = interval;
+      this.pending = new LinkedHashMap<String, Change>();
+      this.dirty = false;
+   }
+
+   public ReadFileSystem<P> getFileSystem()
+   {
+      return scanner.getFileSystem();
+   }
+
+   public long getInterval()
+   {
+      return interval;
+   }
+
+   /**
+    * Takes the initial snapshot of the file system and starts the background scans.
+    *
+    * @throws IOException any io exception
+    * @throws IllegalStateException if the watcher is already started
+    */
+   public synchronized void start() throws IOException, IllegalStateException
+   {
+      if (thread != null)
+      {
+         throw new IllegalStateException("Already started");
+      }
+
+      // The initial snapshot is not a change
+      scan();
+      pending.clear();
+      dirty = false;
+
+      //
+      thread = new Thread("juzu-fs-watcher")
+      {
+         @Override
+         public void run()
+         {
+            while (!isInterrupted())
+            {
+               try
+               {
+                  Thread.sleep(interval);
+                  scan();
+               }
+               catch (InterruptedException e)
+               {
+                  break;
+               }
+               catch (IOException e)
+               {
+                  // Try again at the next scan
+               }
+            }
+         }
+      };
+      thread.setDaemon(true);
+      thread.start();
+   }
+
+   /**
+    * Stops the background scans.
+    */
+   public synchronized void stop()
+   {
+      if (thread != null)
+      {
+         thread.interrupt();
+         thread = null;
+      }
+   }
+
+   /**
+    * Scans the file system now and accumulates the changes with the pending changes, it is invoked by the background
+    * thread and can be invoked directly to force a scan.
+    *
+    * @throws IOException any io exception
+    */
+   public void scan() throws IOException
+   {
+      Map<String, Change> changes;
+      synchronized (scanner)
+      {
+         changes = scanner.scan();
+      }
+      if (changes.size() > 0)
+      {
+         synchronized (this)
+         {
+            merge(pending, changes);
+            dirty = pending.size() > 0;
+         }
+      }
+   }
+
+   /**
+    * Returns the changes detected since the last poll.
+    *
+    * @return the changes
+    */
+   public Map<String, Change> poll()
+   {
+      if (!dirty)
+      {
+         return Collections.emptyMap();
+      }
+      synchronized (this)
+      {
+         Map<String, Change> changes = pending;
+         pending = new LinkedHashMap<String, Change>();
+         dirty = false;
+         return changes;
+      }
+   }
+
+   /**
+    * Merge a change set into another one: a file added and then removed disappears, a file removed and then added
+    * is updated, an added file stays added when it is updated.
+    *
+    * @param to the change set to update
+    * @param from the more recent changes
+    */
+   public static void merge(Map<String, Change> to, Map<String, Change> from)
+   {
+      for (Map.Entry<String, Change> entry : from.entrySet())
+      {
+         String path = entry.getKey();
+         Change change = entry.getValue();
+         Change previous = to.get(path);
+         if (previous == null)
+         {
+            to.put(path, change);
+         }
+         else if (previous == Change.ADD)
+         {
+            if (change == Change.REMOVE)
+            {
+               to.remove(path);
+            }
+         }
+         else if (previous == Change.REMOVE)
+         {
+            if (change == Change.ADD)
+            {
+               to.put(path, Change.UPDATE);
+            }
+         }
+         else
+         {
+            to.put(path, change == Change.ADD ? Change.UPDATE : change);
+         }
+      }
+   }
+}
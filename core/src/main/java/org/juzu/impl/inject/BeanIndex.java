@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.inject;
+
+import org.juzu.impl.utils.JSON;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The index of the beans of an application computed at compilation time: the bean classes accepted by the
+ * application bean filter with their scope and their qualifiers. An inject implementation that discovers the beans
+ * by scanning the classes can use the index instead.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class BeanIndex implements Iterable<BeanIndex.Entry>, Serializable
+{
+
+   /**
+    * Creates an index from its JSON representation.
+    *
+    * @param json the list of entries
+    * @return the index
+    * @throws IllegalArgumentException when the json is not valid
+    */
+   public static BeanIndex create(List<?> json) throws IllegalArgumentException
+   {
+      BeanIndex index = new BeanIndex();
+      for (Object element : json)
+      {
+         if (!(element instanceof JSON))
+         {
+            throw new IllegalArgumentException("Invalid bean entry " + element);
+         }
+         JSON entry = (JSON)element;
+         String type = entry.getString("type");
+         if (type == null)
+         {
+            throw new IllegalArgumentException("Bean entry without type " + entry);
+         }
+         List<? extends String> qualifiers = entry.getList("qualifiers", String.class);
+         index.add(new Entry(type, entry.getString("scope"), qualifiers != null ? qualifiers : Collections.<String>emptyList()));
+      }
+      return index;
+   }
+
+   /** . */
+   private final LinkedHashMap<String, Entry> entries;
+
+   public BeanIndex()
+   {
+      this.entries = new LinkedHashMap<String, Entry>();
+   }
+
+   public void add(Entry entry)
+   {
+      entries.put(entry.type, entry);
+   }
+
+   public Entry get(String type)
+   {
+      return entries.get(type);
+   }
+
+   public boolean contains(String type)
+   {
+      return entries.containsKey(type);
+   }
+
+   public int size()
+   {
+      return entries.size();
+   }
+
+   /**
+    * Returns the binary names of the bean classes.
+    *
+    * @return the bean class names
+    */
+   public Collection<String> getTypes()
+   {
+      return Collections.unmodifiableCollection(entries.keySet());
+   }
+
+   public Iterator<Entry> iterator()
+   {
+      return Collections.unmodifiableCollection(entries.values()).iterator();
+   }
+
+   @Override
+   public String toString()
+   {
+      return "BeanIndex[" + entries.keySet() + "]";
+   }
+
+   public static class Entry implements Serializable
+   {
+
+      /** . */
+      private final String type;
+
+      /** . */
+      private final String scope;
+
+      /** . */
+      private final List<String> qualifiers;
+
+      /**
+       * Creates an entry.
+       *
+       * @param type the binary name of the bean class
+       * @param scope the name of the scope annotation or null
+       * @param qualifiers the names of the qualifier annotations
+       */
+      public Entry(String type, String scope, List<? extends String> qualifiers)
+      {
+         if (type == null)
+         {
+            throw new NullPointerException("No null type accepted");
+         }
+         if (qualifiers == null)
+         {
+            throw new NullPointerException("No null qualifiers accepted");
+         }
+
+         //
+         this.type = type;
+         this.scope = scope;
+         this.qualifiers = Collections.unmodifiableList(new ArrayList<String>(qualifiers));
+      }
+
+      public String getType()
+      {
+         return type;
+      }
+
+      public String getScope()
+      {
+         return scope;
+      }
+
+      public List<String> getQualifiers()
+      {
+         return qualifiers;
+      }
+
+      public JSON toJSON()
+      {
+         JSON json = new JSON().add("type", type);
+         if (scope != null)
+         {
+            json.add("scope", scope);
+         }
+         if (qualifiers.size() > 0)
+         {
+            json.add("qualifiers", qualifiers);
+         }
+         return json;
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (obj == this)
+         {
+            return true;
+         }
+         else if (obj instanceof Entry)
+         {
+            Entry that = (Entry)obj;
+            return type.equals(that.type) && (scope == null ? that.scope == null : scope.equals(that.scope)) && qualifiers.equals(that.qualifiers);
+         }
+         return false;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return type.hashCode();
+      }
+
+      @Override
+      public String toString()
+      {
+         return "BeanIndex.Entry[type=" + type + ",scope=" + scope + ",qualifiers=" + qualifiers + "]";
+      }
+   }
+}
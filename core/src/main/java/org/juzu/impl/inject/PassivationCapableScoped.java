@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.inject;
+
+/**
+ * A scoped value that can be passivated: the value is saved with an identifier of its bean, the identifier is
+ * used later to activate the value again with the {@link ScopedActivator} of the bean.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public interface PassivationCapableScoped extends Scoped
+{
+
+   /**
+    * Returns the key of the value in its scope.
+    *
+    * @return the key
+    */
+   Object getKey();
+
+   /**
+    * Returns the identifier of the bean of the value, the identifier must be stable across the restarts of the
+    * application.
+    *
+    * @return the identifier or null when the value cannot be passivated
+    */
+   String getId();
+
+}
@@ -76,6 +76,30 @@ public class ScopeController
       return ctx.getContextualValue(scope, key);
    }
 
+   /**
+    * Obtain a scoped object, the object is created by the factory when it does not exist. The factory is invoked
+    * once per key even when several threads concurrently obtain the object from the same scope.
+    *
+    * @param scope the scope
+    * @param key the key
+    * @param factory the factory
+    * @return the scoped object or null if the factory returned null
+    * @throws IllegalStateException if the scope is not active
+    */
+   public Scoped get(Scope scope, Object key, ScopedFactory factory) throws IllegalStateException
+   {
+      ScopingContext ctx = currentContext.get();
+      if (ctx == null)
+      {
+         throw new IllegalStateException("Context not active");
+      }
+      if (!ctx.isActive(scope))
+      {
+         throw new IllegalStateException("Context not active");
+      }
+      return ctx.getContextualValue(scope, key, factory);
+   }
+
    /**
     * Scope an object.
     *
@@ -2,24 +2,92 @@ package org.juzu.impl.inject;
 
 import javax.servlet.http.HttpSessionBindingEvent;
 import javax.servlet.http.HttpSessionBindingListener;
-import java.util.Collections;
-import java.util.HashMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * <p></p>An helper class for managing scoped entries. It implements the {@link HttpSessionBindingListener}
  * interface which invokes the {@link #close()} method when the servlet container invokes the
  * {@link #valueUnbound(javax.servlet.http.HttpSessionBindingEvent)} callback.</p>
  *
- * <p>At the moment we do not support serialization.</p>
+ * <p>A context can be shared by concurrent requests of the same session. Reading an existing entry does not lock,
+ * the {@link #get(Object, ScopedFactory)} method creates a missing entry once: a single thread invokes the factory
+ * while the other threads asking for the same key wait for its result. The creation of an entry may create other
+ * entries of the same context.</p>
+ *
+ * <p>The externalized form of a context is compact: it is made of the bean identifier and the serialized value of
+ * each {@link PassivationCapableScoped} entry, the other entries are not saved and will be created again after the
+ * context is read. The entries read are activated with the {@link ScopedActivator} of the current
+ * {@link ScopingContext} when the context is accessed for the first time.</p>
+ *
+ * <p>The {@link #flush()} method tells whether the externalized form changed since it was last invoked, it allows
+ * to notify the container only when the context needs to be replicated.</p>
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
-public final class ScopedContext implements HttpSessionBindingListener, Iterable<Scoped>
+public final class ScopedContext implements HttpSessionBindingListener, Iterable<Scoped>, Externalizable
 {
 
+   /** The monitors guarding the binding of a context to a session, they are striped by session identifier. */
+   private static final Object[] BIND_MONITORS = new Object[64];
+
+   static
+   {
+      for (int i = 0;i < BIND_MONITORS.length;i++)
+      {
+         BIND_MONITORS[i] = new Object();
+      }
+   }
+
+   /**
+    * Returns the monitor guarding the binding of the contexts of a session. The session object itself is not a
+    * reliable monitor since a container may return a different session object to each request of the same session.
+    *
+    * @param sessionId the session identifier
+    * @return the monitor
+    */
+   public static Object getBindMonitor(String sessionId)
+   {
+      return BIND_MONITORS[(sessionId.hashCode() & 0x7FFFFFFF) % BIND_MONITORS.length];
+   }
+
    /** . */
-   private HashMap<Object, Scoped> state;
+   private final ConcurrentHashMap<Object, Scoped> state = new ConcurrentHashMap<Object, Scoped>(8, 0.75f, 4);
+
+   /** The entries being created. */
+   private final ConcurrentHashMap<Object, Creation> creations = new ConcurrentHashMap<Object, Creation>(4, 0.75f, 4);
+
+   /** The entries read and not yet activated or null. */
+   private volatile Map<String, byte[]> passivated;
+
+   /** The externalized entries computed by the last flush or null. */
+   private volatile Map<String, byte[]> externalized;
+
+   /** True when entries were added or removed since the last flush. */
+   private volatile boolean dirty;
+
+   /** True when entries were accessed since the last flush. */
+   private volatile boolean accessed;
+
+   /** The size in bytes of the externalized entries. */
+   private volatile int length;
+
+   /** The number of entries read that could not be activated. */
+   private volatile int discardedSize;
 
    public Scoped get(Object key) throws NullPointerException
    {
@@ -27,7 +95,86 @@ public final class ScopedContext implements HttpSessionBindingListener, Iterable
       {
          throw new NullPointerException("No null key accepted");
       }
-      return state != null ? state.get(key) : null;
+      return lookup(key);
+   }
+
+   private Scoped lookup(Object key)
+   {
+      Scoped scoped = state.get(key);
+      if (scoped == null && passivated != null)
+      {
+         activate();
+         scoped = state.get(key);
+      }
+      if (scoped != null && !accessed)
+      {
+         // The value may be modified
+         accessed = true;
+      }
+      return scoped;
+   }
+
+   /**
+    * Returns the entry for the specified key, the entry is created by the factory when it does not exist.
+    *
+    * @param key the key
+    * @param factory the factory
+    * @return the entry or null if the factory returned null
+    * @throws NullPointerException if any argument is null
+    * @throws IllegalStateException if the creation of the entry requires the same entry
+    */
+   public Scoped get(Object key, ScopedFactory factory) throws NullPointerException, IllegalStateException
+   {
+      if (key == null)
+      {
+         throw new NullPointerException("No null key accepted");
+      }
+      if (factory == null)
+      {
+         throw new NullPointerException("No null factory accepted");
+      }
+      while (true)
+      {
+         Scoped scoped = lookup(key);
+         if (scoped != null)
+         {
+            return scoped;
+         }
+         Creation creation = new Creation();
+         Creation current = creations.putIfAbsent(key, creation);
+         if (current == null)
+         {
+            try
+            {
+               // The entry may have been created after our first read
+               scoped = state.get(key);
+               if (scoped == null)
+               {
+                  scoped = factory.create();
+                  if (scoped != null)
+                  {
+                     state.put(key, scoped);
+                     dirty = true;
+                  }
+               }
+               return scoped;
+            }
+            finally
+            {
+               creations.remove(key, creation);
+               creation.latch.countDown();
+            }
+         }
+         else if (current.owner == Thread.currentThread())
+         {
+            throw new IllegalStateException("Circular creation of the scoped entry " + key);
+         }
+         else
+         {
+            // Wait and read again, if the creation failed we will attempt it
+            current.await();
+         }
+      }
    }
 
    public void set(Object key, Scoped scoped) throws NullPointerException
@@ -38,29 +185,193 @@ public final class ScopedContext implements HttpSessionBindingListener, Iterable
       }
       if (scoped == null)
       {
-         if (state != null)
+         if (state.remove(key) != null)
          {
-            state.remove(key);
+            dirty = true;
          }
       }
       else
       {
-         if (state == null)
-         {
-            state = new HashMap<Object, Scoped>();
-         }
          state.put(key, scoped);
+         dirty = true;
       }
    }
    
    public int size()
    {
-      return state != null ? state.size() : 0;
+      return state.size();
+   }
+
+   /**
+    * Returns the size in bytes of the externalized entries computed by the last flush or by the last read.
+    *
+    * @return the size in bytes
+    */
+   public int getLength()
+   {
+      return length;
+   }
+
+   /**
+    * Returns the number of entries read that are not yet activated.
+    *
+    * @return the passivated entry count
+    */
+   public int getPassivatedSize()
+   {
+      Map<String, byte[]> entries = passivated;
+      return entries != null ? entries.size() : 0;
+   }
+
+   /**
+    * Returns the number of entries read that were discarded by the activation, because their value could not be read
+    * or because they do not match a bean any longer.
+    *
+    * @return the discarded entry count
+    */
+   public int getDiscardedSize()
+   {
+      return discardedSize;
+   }
+
+   /**
+    * Computes the externalized form of the entries when they were modified or accessed since the last flush.
+    *
+    * @return true if the externalized form changed since the last flush
+    */
+   public boolean flush()
+   {
+      if (!dirty && !accessed)
+      {
+         return false;
+      }
+      dirty = false;
+      accessed = false;
+      Map<String, byte[]> previous = externalized;
+      Map<String, byte[]> current = externalize();
+      externalized = current;
+      length = length(current);
+      return previous == null ? current.size() > 0 : !same(previous, current);
+   }
+
+   /**
+    * Activate the entries read with the specified activator, the entries that cannot be activated are discarded.
+    *
+    * @param activator the activator
+    */
+   public void activate(ScopedActivator activator)
+   {
+      Map<String, byte[]> entries = passivated;
+      if (entries != null)
+      {
+         synchronized (entries)
+         {
+            if (passivated == entries)
+            {
+               for (Map.Entry<String, byte[]> entry : entries.entrySet())
+               {
+                  PassivationCapableScoped scoped = null;
+                  try
+                  {
+                     Object value = read(entry.getValue(), activator.getClassLoader());
+                     scoped = activator.activate(entry.getKey(), value);
+                  }
+                  catch (Exception ignore)
+                  {
+                     // The entry is discarded
+                  }
+                  if (scoped != null)
+                  {
+                     state.putIfAbsent(scoped.getKey(), scoped);
+                  }
+                  else
+                  {
+                     discardedSize++;
+                     dirty = true;
+                  }
+               }
+               passivated = null;
+            }
+         }
+      }
+   }
+
+   private void activate()
+   {
+      ScopingContext context = ScopeController.INSTANCE.currentContext.get();
+      ScopedActivator activator = context != null ? context.getActivator() : null;
+      if (activator != null)
+      {
+         activate(activator);
+      }
+   }
+
+   private Map<String, byte[]> externalize()
+   {
+      Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+      Map<String, byte[]> passivated = this.passivated;
+      if (passivated != null)
+      {
+         entries.putAll(passivated);
+      }
+      for (Scoped scoped : state.values())
+      {
+         if (scoped instanceof PassivationCapableScoped)
+         {
+            String id = ((PassivationCapableScoped)scoped).getId();
+            Object value = scoped.get();
+            if (id != null && value instanceof Serializable)
+            {
+               try
+               {
+                  entries.put(id, write(value));
+               }
+               catch (IOException e)
+               {
+                  // The value graph is not serializable, it will be created again
+               }
+            }
+         }
+      }
+      return entries;
+   }
+
+   public void writeExternal(ObjectOutput out) throws IOException
+   {
+      Map<String, byte[]> entries = externalized;
+      if (entries == null || dirty || accessed)
+      {
+         entries = externalize();
+      }
+      out.writeInt(entries.size());
+      for (Map.Entry<String, byte[]> entry : entries.entrySet())
+      {
+         byte[] bytes = entry.getValue();
+         out.writeUTF(entry.getKey());
+         out.writeInt(bytes.length);
+         out.write(bytes);
+      }
+   }
+
+   public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+   {
+      int size = in.readInt();
+      Map<String, byte[]> entries = new LinkedHashMap<String, byte[]>(size);
+      for (int i = 0;i < size;i++)
+      {
+         String id = in.readUTF();
+         byte[] bytes = new byte[in.readInt()];
+         in.readFully(bytes);
+         entries.put(id, bytes);
+      }
+      externalized = entries;
+      length = length(entries);
+      passivated = size > 0 ? entries : null;
    }
 
    public Iterator<Scoped> iterator()
    {
-      return state == null ? Collections.<Scoped>emptyList().iterator() : state.values().iterator();
+      return state.values().iterator();
    }
 
    public void valueBound(HttpSessionBindingEvent event)
@@ -70,17 +381,30 @@ public final class ScopedContext implements HttpSessionBindingListener, Iterable
 
    public void valueUnbound(HttpSessionBindingEvent event)
    {
+      try
+      {
+         if (event.getSession().getAttribute(event.getName()) == this)
+         {
+            // The context is bound again for its replication
+            return;
+         }
+      }
+      catch (IllegalStateException ignore)
+      {
+         // The session is invalidated
+      }
       close();
    }
    
    public void close()
    {
-      if (state != null && state.size() > 0)
+      for (Object key : state.keySet())
       {
-         for (Iterator<Scoped> i = state.values().iterator();i.hasNext();)
+         // Only the thread removing the entry destroys it
+         Scoped scoped = state.remove(key);
+         if (scoped != null)
          {
-            Scoped scoped = i.next();
-            i.remove();
+            dirty = true;
             try
             {
                scoped.destroy();
@@ -95,4 +419,98 @@ public final class ScopedContext implements HttpSessionBindingListener, Iterable
          }
       }
    }
+
+   private static int length(Map<String, byte[]> entries)
+   {
+      int length = 0;
+      for (byte[] bytes : entries.values())
+      {
+         length += bytes.length;
+      }
+      return length;
+   }
+
+   private static boolean same(Map<String, byte[]> entries1, Map<String, byte[]> entries2)
+   {
+      if (entries1.size() != entries2.size())
+      {
+         return false;
+      }
+      for (Map.Entry<String, byte[]> entry : entries1.entrySet())
+      {
+         if (!Arrays.equals(entry.getValue(), entries2.get(entry.getKey())))
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static byte[] write(Object value) throws IOException
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(baos);
+      out.writeObject(value);
+      out.close();
+      return baos.toByteArray();
+   }
+
+   private static Object read(byte[] bytes, final ClassLoader classLoader) throws IOException, ClassNotFoundException
+   {
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))
+      {
+         @Override
+         protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+         {
+            try
+            {
+               return Class.forName(desc.getName(), false, classLoader);
+            }
+            catch (ClassNotFoundException e)
+            {
+               return super.resolveClass(desc);
+            }
+         }
+      };
+      try
+      {
+         return in.readObject();
+      }
+      finally
+      {
+         in.close();
+      }
+   }
+
+   /** The creation of an entry by a thread. */
+   private static class Creation
+   {
+
+      /** . */
+      final Thread owner = Thread.currentThread();
+
+      /** . */
+      final CountDownLatch latch = new CountDownLatch(1);
+
+      void await()
+      {
+         boolean interrupted = false;
+         while (true)
+         {
+            try
+            {
+               latch.await();
+               break;
+            }
+            catch (InterruptedException e)
+            {
+               interrupted = true;
+            }
+         }
+         if (interrupted)
+         {
+            Thread.currentThread().interrupt();
+         }
+      }
+   }
 }
@@ -27,8 +27,17 @@ public interface ScopingContext
 
    Scoped getContextualValue(Scope scope, Object key);
 
+   Scoped getContextualValue(Scope scope, Object key, ScopedFactory factory);
+
    void setContextualValue(Scope scope, Object key, Scoped value);
 
    boolean isActive(Scope scope);
 
+   /**
+    * Returns the activator of the passivated scoped values.
+    *
+    * @return the activator or null if values cannot be activated
+    */
+   ScopedActivator getActivator();
+
 }
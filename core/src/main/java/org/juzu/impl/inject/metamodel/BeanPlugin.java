@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.inject.metamodel;
+
+import org.juzu.impl.application.metamodel.ApplicationMetaModel;
+import org.juzu.impl.compiler.CompilationException;
+import org.juzu.impl.compiler.ElementHandle;
+import org.juzu.impl.inject.BeanIndex;
+import org.juzu.impl.model.meta.MetaModel;
+import org.juzu.impl.model.meta.MetaModelPlugin;
+import org.juzu.impl.model.processor.ProcessingContext;
+import org.juzu.impl.utils.JSON;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Indexes the bean classes of the compilation: the classes that the application bean filter accepts are recorded
+ * with their scope and qualifiers and emitted in the application config, so the inject implementation does not
+ * have to scan the classes at boot time.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class BeanPlugin extends MetaModelPlugin
+{
+
+   /** The annotations vetoing a bean. */
+   private static final Set<String> VETOES = new HashSet<String>(Arrays.asList(
+      "org.juzu.impl.inject.Export",
+      "javax.annotation.Generated"));
+
+   /** The annotations of controller methods. */
+   private static final Set<String> CONTROLLER_METHODS = new HashSet<String>(Arrays.asList(
+      "org.juzu.View",
+      "org.juzu.Action",
+      "org.juzu.Resource"));
+
+   /** . */
+   private static final Set<String> SCOPES = new HashSet<String>(Arrays.asList(
+      "javax.inject.Scope",
+      "javax.enterprise.context.NormalScope"));
+
+   /** . */
+   private static final Set<String> QUALIFIERS = Collections.singleton("javax.inject.Qualifier");
+
+   /** . */
+   private static final String DECORATOR = "javax.decorator.Decorator";
+
+   /** The beans of the previous and current compilations. */
+   private LinkedHashMap<ElementHandle.Class, BeanIndex.Entry> beans;
+
+   @Override
+   public void init(MetaModel model)
+   {
+      beans = new LinkedHashMap<ElementHandle.Class, BeanIndex.Entry>();
+   }
+
+   @Override
+   public void postActivate(MetaModel model)
+   {
+      // Remove the types that do not exist anymore
+      for (Iterator<ElementHandle.Class> i = beans.keySet().iterator();i.hasNext();)
+      {
+         ElementHandle.Class handle = i.next();
+         if (model.env.get(handle) == null)
+         {
+            MetaModel.log.log("Removing bean " + handle.getFQN());
+            i.remove();
+         }
+      }
+   }
+
+   @Override
+   public void processType(MetaModel model, TypeElement element) throws CompilationException
+   {
+      ElementHandle.Class handle = ElementHandle.Class.create(element);
+      BeanIndex.Entry entry = createEntry(model.env, element);
+      if (entry != null)
+      {
+         MetaModel.log.log("Indexing bean " + entry.getType());
+         beans.put(handle, entry);
+      }
+      else
+      {
+         beans.remove(handle);
+      }
+
+      // Member types
+      for (TypeElement memberElt : ElementFilter.typesIn(element.getEnclosedElements()))
+      {
+         processType(model, memberElt);
+      }
+   }
+
+   @Override
+   public void emitConfig(ApplicationMetaModel application, JSON json)
+   {
+      BeanIndex index = new BeanIndex();
+      for (BeanIndex.Entry entry : beans.values())
+      {
+         index.add(entry);
+      }
+      json.add("beans", index);
+   }
+
+   /**
+    * Returns the index entry of a type when it is a bean the application would accept, this matches the filter set
+    * by the application bootstrap.
+    *
+    * @param env the processing context
+    * @param element the type element
+    * @return the entry or null if the type is not a bean
+    */
+   static BeanIndex.Entry createEntry(ProcessingContext env, TypeElement element)
+   {
+      if (element.getKind() != ElementKind.CLASS)
+      {
+         return null;
+      }
+      Set<Modifier> modifiers = element.getModifiers();
+      if (element.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC))
+      {
+         return null;
+      }
+      String type = env.getBinaryName(element).toString();
+      if (type.startsWith("org.juzu."))
+      {
+         return null;
+      }
+
+      //
+      String scope = null;
+      List<String> qualifiers = new ArrayList<String>();
+      boolean decorator = false;
+      for (AnnotationMirror annotation : element.getAnnotationMirrors())
+      {
+         TypeElement annotationElt = (TypeElement)annotation.getAnnotationType().asElement();
+         String name = annotationElt.getQualifiedName().toString();
+         if (VETOES.contains(name))
+         {
+            return null;
+         }
+         else if (name.equals(DECORATOR))
+         {
+            decorator = true;
+         }
+         else if (isAnnotated(annotationElt, QUALIFIERS))
+         {
+            qualifiers.add(env.getBinaryName(annotationElt).toString());
+         }
+         else if (isAnnotated(annotationElt, SCOPES))
+         {
+            scope = env.getBinaryName(annotationElt).toString();
+         }
+      }
+
+      // Only decorators can be abstract
+      if (modifiers.contains(Modifier.ABSTRACT) && !decorator)
+      {
+         return null;
+      }
+
+      // Controllers are declared by the application
+      for (ExecutableElement methodElt : ElementFilter.methodsIn(env.getAllMembers(element)))
+      {
+         if (methodElt.getModifiers().contains(Modifier.PUBLIC) && isAnnotated(methodElt, CONTROLLER_METHODS))
+         {
+            return null;
+         }
+      }
+
+      //
+      return new BeanIndex.Entry(type, scope, qualifiers);
+   }
+
+   private static boolean isAnnotated(Element element, Set<String> annotationNames)
+   {
+      for (AnnotationMirror annotation : element.getAnnotationMirrors())
+      {
+         String name = ((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+         if (annotationNames.contains(name))
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+}
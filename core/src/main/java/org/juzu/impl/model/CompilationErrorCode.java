@@ -37,6 +37,8 @@ public enum CompilationErrorCode implements ErrorCode
 
    CANNOT_WRITE_TEMPLATE_SCRIPT("The template script %1$s cannot be written"),
 
+   CANNOT_COMPILE_TEMPLATE_SCRIPT("The template script %1$s cannot be compiled: %2$s"),
+
    CANNOT_WRITE_TEMPLATE_STUB("The template stub %1$s cannot be written"),
 
    CANNOT_WRITE_TEMPLATE_CLASS("The template class %1$s cannot be written"),
@@ -55,6 +57,8 @@ public enum CompilationErrorCode implements ErrorCode
 
    TEMPLATE_ILLEGAL_PATH("The reference to the template %1$s is malformed"),
 
+   TEMPLATE_ILLEGAL_TAG_ARGUMENT("The argument %2$s=%3$s of the tag %1$s is not valid"),
+
    ANNOTATION_UNSUPPORTED("The annotation of this element cannot be supported"),
 
    UNEXPECTED_ERROR("Unexpected error: %1$s");
@@ -28,6 +28,7 @@ import org.juzu.impl.compiler.ElementHandle;
 import org.juzu.impl.controller.metamodel.ControllerMetaModel;
 import org.juzu.impl.controller.metamodel.ControllerPlugin;
 import org.juzu.impl.controller.metamodel.ControllersMetaModel;
+import org.juzu.impl.inject.metamodel.BeanPlugin;
 import org.juzu.impl.template.metamodel.TemplatePlugin;
 import org.juzu.impl.template.metamodel.TemplateRefMetaModel;
 import org.juzu.impl.template.metamodel.TemplateRefsMetaModel;
@@ -38,6 +39,7 @@ import org.juzu.impl.utils.Logger;
 import org.juzu.impl.utils.QN;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -76,6 +78,7 @@ public final class MetaModel extends MetaModelObject
       addPlugin(new ApplicationPlugin());
       addPlugin(new ControllerPlugin());
       addPlugin(new TemplatePlugin());
+      addPlugin(new BeanPlugin());
    }
    
    public void addPlugin(MetaModelPlugin plugin)
@@ -110,6 +113,14 @@ public final class MetaModel extends MetaModelObject
       }
    }
 
+   public void processType(TypeElement element) throws CompilationException
+   {
+      for (MetaModelPlugin plugin : plugins)
+      {
+         plugin.processType(this, element);
+      }
+   }
+
    //
 
    public ApplicationMetaModel addApplication(String packageName, String applicationName)
@@ -5,6 +5,7 @@ import org.juzu.impl.compiler.CompilationException;
 import org.juzu.impl.utils.JSON;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
 import java.io.Serializable;
 import java.util.Map;
 
@@ -33,6 +34,10 @@ public abstract class MetaModelPlugin implements Serializable
    {
    }
 
+   public void processType(MetaModel model, TypeElement element) throws CompilationException
+   {
+   }
+
    public void processEvent(MetaModel model, MetaModelEvent event)
    {
    }
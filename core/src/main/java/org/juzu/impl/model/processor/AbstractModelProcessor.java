@@ -27,6 +27,7 @@ import org.juzu.View;
 import org.juzu.impl.compiler.BaseProcessor;
 import org.juzu.impl.model.CompilationErrorCode;
 import org.juzu.impl.model.meta.MetaModel;
+import org.juzu.impl.template.metamodel.TemplatePlugin;
 import org.juzu.impl.utils.ErrorCode;
 import org.juzu.impl.utils.Logger;
 import org.juzu.impl.utils.Tools;
@@ -40,12 +41,14 @@ import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -104,6 +107,12 @@ public abstract class AbstractModelProcessor extends BaseProcessor
 
    protected abstract MetaModel createHandler();
 
+   @Override
+   public Set<String> getSupportedOptions()
+   {
+      return Collections.singleton(TemplatePlugin.PRECOMPILE_OPTION);
+   }
+
    @Override
    protected ErrorCode decode(String key)
    {
@@ -205,6 +214,12 @@ public abstract class AbstractModelProcessor extends BaseProcessor
                }
             }
 
+            // The types of this round
+            for (TypeElement typeElt : ElementFilter.typesIn(roundEnv.getRootElements()))
+            {
+               model.processType(typeElt);
+            }
+
             //
             log.log("Post processing model");
             model.postProcess();
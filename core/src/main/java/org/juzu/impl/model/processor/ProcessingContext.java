@@ -143,6 +143,11 @@ public class ProcessingContext implements Filer, Elements
 
    // Various stuff ****************************************************************************************************
 
+   public String getOption(String name)
+   {
+      return env.getOptions().get(name);
+   }
+
    public <E extends Element> E get(ElementHandle<E> handle)
    {
       return handle.get(env);
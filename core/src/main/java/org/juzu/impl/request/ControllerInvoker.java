@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.request;
+
+import org.juzu.RequestLifeCycle;
+import org.juzu.impl.application.ApplicationException;
+import org.juzu.impl.controller.descriptor.ControllerMethod;
+import org.juzu.impl.spi.inject.InjectManager;
+import org.juzu.request.RequestContext;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a controller method. The controller bean is resolved once per controller type by the application and
+ * the reflective access check of the method is suppressed, so an invocation only creates the bean instance and
+ * calls the method.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ControllerInvoker<B, I>
+{
+
+   /** . */
+   private final InjectManager<B, I> manager;
+
+   /** . */
+   private final ControllerMethod method;
+
+   /** . */
+   private final Method target;
+
+   /** The resolved bean or null when the controller type is not a bean. */
+   private final B bean;
+
+   public ControllerInvoker(InjectManager<B, I> manager, ControllerMethod method, B bean) throws NullPointerException
+   {
+      if (manager == null)
+      {
+         throw new NullPointerException("No null manager accepted");
+      }
+      if (method == null)
+      {
+         throw new NullPointerException("No null method accepted");
+      }
+
+      //
+      Method target = method.getMethod();
+      try
+      {
+         target.setAccessible(true);
+      }
+      catch (SecurityException ignore)
+      {
+         // Keep the access check
+      }
+
+      //
+      this.manager = manager;
+      this.method = method;
+      this.target = target;
+      this.bean = bean;
+   }
+
+   public ControllerMethod getMethod()
+   {
+      return method;
+   }
+
+   public B getBean()
+   {
+      return bean;
+   }
+
+   /**
+    * Invoke the controller method on a new instance of the controller bean.
+    *
+    * @param context the request context
+    * @param args the method arguments
+    * @return the method returned value or null when the controller type is not a bean
+    * @throws ApplicationException wrap any exception thrown by the bean creation or the method invocation
+    */
+   public Object invoke(RequestContext context, Object[] args) throws ApplicationException
+   {
+      if (bean != null)
+      {
+         I instance = null;
+         try
+         {
+            Object o;
+            try
+            {
+               // Get the bean
+               instance = manager.create(bean);
+
+               // Get a reference
+               o = manager.get(bean, instance);
+            }
+            catch (InvocationTargetException e)
+            {
+               throw new ApplicationException(e.getCause());
+            }
+
+            // Begin request callback
+            if (o instanceof RequestLifeCycle)
+            {
+               ((RequestLifeCycle)o).beginRequest(context);
+            }
+
+            // Invoke method on controller
+            try
+            {
+               return target.invoke(o, args);
+            }
+            catch (InvocationTargetException e)
+            {
+               throw new ApplicationException(e.getCause());
+            }
+            catch (IllegalAccessException e)
+            {
+               throw new UnsupportedOperationException("hanle me gracefully", e);
+            }
+            finally
+            {
+               if (o instanceof RequestLifeCycle)
+               {
+                  try
+                  {
+                     ((RequestLifeCycle)o).endRequest(context);
+                  }
+                  catch (Exception e)
+                  {
+                     // Log me
+                  }
+               }
+            }
+         }
+         finally
+         {
+            if (instance != null)
+            {
+               manager.release(bean, instance);
+            }
+         }
+      }
+      else
+      {
+         return null;
+      }
+   }
+}
@@ -19,14 +19,14 @@
 
 package org.juzu.impl.request;
 
-import org.juzu.RequestLifeCycle;
 import org.juzu.Response;
 import org.juzu.impl.application.ApplicationContext;
 import org.juzu.impl.application.ApplicationException;
 import org.juzu.impl.controller.descriptor.ControllerMethod;
+import org.juzu.impl.inject.ScopedActivator;
 import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.impl.inject.ScopingContext;
-import org.juzu.impl.spi.inject.InjectManager;
 import org.juzu.impl.spi.request.ActionBridge;
 import org.juzu.impl.spi.request.RenderBridge;
 import org.juzu.impl.spi.request.RequestBridge;
@@ -38,7 +38,6 @@ import org.juzu.request.RequestContext;
 import org.juzu.request.ResourceContext;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
@@ -60,16 +59,23 @@ public class Request implements ScopingContext
    /** . */
    private final Object[] args;
 
+   /** . */
+   private final ControllerInvoker<?, ?> invoker;
+
    /** The response. */
    private Response response;
 
+   /** The request scoped values looked up by this request or null. */
+   private ScopedTable requestValues;
+
    public Request(
       ApplicationContext application,
-      ControllerMethod method,
+      ControllerInvoker<?, ?> invoker,
       Map<String, String[]> parameters,
       Object[] args, 
       RequestBridge bridge)
    {
+      ControllerMethod method = invoker.getMethod();
       RequestContext context;
       if (bridge instanceof RenderBridge)
       {
@@ -86,6 +92,7 @@ public class Request implements ScopingContext
 
       //
       this.context = context;
+      this.invoker = invoker;
       this.bridge = bridge;
       this.args = args;
       this.parameters = parameters;
@@ -118,6 +125,11 @@ public class Request implements ScopingContext
       return context;
    }
 
+   public ApplicationContext getApplication()
+   {
+      return application;
+   }
+
    public final Scoped getContextualValue(Scope scope, Object key)
    {
       switch (scope)
@@ -125,7 +137,7 @@ public class Request implements ScopingContext
          case FLASH:
             return bridge.getFlashValue(key);
          case REQUEST:
-            return bridge.getRequestValue(key);
+            return getRequestValue(key);
          case SESSION:
             return bridge.getSessionValue(key);
          case IDENTITY:
@@ -135,6 +147,23 @@ public class Request implements ScopingContext
       }
    }
 
+   public final Scoped getContextualValue(Scope scope, Object key, ScopedFactory factory)
+   {
+      switch (scope)
+      {
+         case FLASH:
+            return bridge.getFlashValue(key, factory);
+         case REQUEST:
+            return getRequestValue(key, factory);
+         case SESSION:
+            return bridge.getSessionValue(key, factory);
+         case IDENTITY:
+            return bridge.getIdentityValue(key, factory);
+         default:
+            throw new AssertionError();
+      }
+   }
+
    public final void setContextualValue(Scope scope, Object key, Scoped value)
    {
       switch (scope)
@@ -143,7 +172,7 @@ public class Request implements ScopingContext
             bridge.setFlashValue(key, value);
             break;
          case REQUEST:
-            bridge.setRequestValue(key, value);
+            setRequestValue(key, value);
             break;
          case SESSION:
             bridge.setSessionValue(key, value);
@@ -161,6 +190,69 @@ public class Request implements ScopingContext
       return scope.isActive(this);
    }
 
+   /**
+    * Returns a request scoped value: the values are stored by the bridge so they can be shared with the code that is
+    * not managed by the application and destroyed when the bridge is closed, the values are also kept in a table of
+    * this request so that looking up again a value does not involve the bridge.
+    *
+    * @param key the key
+    * @return the value or null
+    */
+   private Scoped getRequestValue(Object key)
+   {
+      Scoped scoped = requestValues != null ? requestValues.get(key) : null;
+      if (scoped == null)
+      {
+         scoped = bridge.getRequestValue(key);
+         if (scoped != null)
+         {
+            putRequestValue(key, scoped);
+         }
+      }
+      return scoped;
+   }
+
+   private Scoped getRequestValue(Object key, ScopedFactory factory)
+   {
+      Scoped scoped = requestValues != null ? requestValues.get(key) : null;
+      if (scoped == null)
+      {
+         scoped = bridge.getRequestValue(key, factory);
+         if (scoped != null)
+         {
+            putRequestValue(key, scoped);
+         }
+      }
+      return scoped;
+   }
+
+   private void setRequestValue(Object key, Scoped value)
+   {
+      if (value != null)
+      {
+         putRequestValue(key, value);
+      }
+      else if (requestValues != null)
+      {
+         requestValues.remove(key);
+      }
+      bridge.setRequestValue(key, value);
+   }
+
+   private void putRequestValue(Object key, Scoped value)
+   {
+      if (requestValues == null)
+      {
+         requestValues = new ScopedTable();
+      }
+      requestValues.put(key, value);
+   }
+
+   public ScopedActivator getActivator()
+   {
+      return application.getInjectManager();
+   }
+
    /** . */
    private int index = 0;
 
@@ -182,7 +274,7 @@ public class Request implements ScopingContext
       else if (index == application.getPlugins().size())
       {
          //
-         Object ret = doInvoke(this, args, application.getInjectManager());
+         Object ret = invoker.invoke(context, args);
 
          //
          if (ret instanceof Response)
@@ -213,77 +305,4 @@ public class Request implements ScopingContext
          }
       }
    }
-
-   private static <B, I> Object doInvoke(Request request, Object[] args, InjectManager<B, I> manager) throws ApplicationException
-   {
-      RequestContext context = request.getContext();
-      Class<?> type = context.getMethod().getType();
-      B bean = manager.resolveBean(type);
-
-      if (bean != null)
-      {
-         I instance = null;
-         try
-         {
-            Object o;
-            try
-            {
-               // Get the bean
-               instance = manager.create(bean);
-
-               // Get a reference
-               o = manager.get(bean, instance);
-            }
-            catch (InvocationTargetException e)
-            {
-               throw new ApplicationException(e.getCause());
-            }
-
-            // Begin request callback
-            if (o instanceof RequestLifeCycle)
-            {
-               ((RequestLifeCycle)o).beginRequest(context);
-            }
-
-            // Invoke method on controller
-            try
-            {
-               return context.getMethod().getMethod().invoke(o, args);
-            }
-            catch (InvocationTargetException e)
-            {
-               throw new ApplicationException(e.getCause());
-            }
-            catch (IllegalAccessException e)
-            {
-               throw new UnsupportedOperationException("hanle me gracefully", e);
-            }
-            finally
-            {
-               if (o instanceof RequestLifeCycle)
-               {
-                  try
-                  {
-                     ((RequestLifeCycle)o).endRequest(context);
-                  }
-                  catch (Exception e)
-                  {
-                     // Log me
-                  }
-               }
-            }
-         }
-         finally
-         {
-            if (instance != null)
-            {
-               manager.release(bean, instance);
-            }
-         }
-      }
-      else
-      {
-         return null;
-      }
-   }
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.request;
+
+import org.juzu.impl.inject.Scoped;
+
+/**
+ * A small open addressing table of the request scoped values of a {@link Request}. The table is confined to the
+ * thread processing the request, it probes linearly a power of two sized array from the hash code of the key: the
+ * keys provided by the inject implementations are long lived objects that compute their hash code once, a lookup
+ * costs an array access in the common case.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+final class ScopedTable
+{
+
+   /** . */
+   private static final int INITIAL_CAPACITY = 8;
+
+   /** . */
+   private Object[] keys;
+
+   /** . */
+   private Scoped[] values;
+
+   /** . */
+   private int size;
+
+   ScopedTable()
+   {
+      this.keys = new Object[INITIAL_CAPACITY];
+      this.values = new Scoped[INITIAL_CAPACITY];
+      this.size = 0;
+   }
+
+   int size()
+   {
+      return size;
+   }
+
+   Scoped get(Object key)
+   {
+      Object[] keys = this.keys;
+      int mask = keys.length - 1;
+      for (int i = index(key, mask);;i = (i + 1) & mask)
+      {
+         Object k = keys[i];
+         if (k == null)
+         {
+            return null;
+         }
+         else if (k == key || k.equals(key))
+         {
+            return values[i];
+         }
+      }
+   }
+
+   void put(Object key, Scoped value)
+   {
+      if (value == null)
+      {
+         remove(key);
+      }
+      else
+      {
+         // Keep the load factor under 1/2
+         if ((size + 1) * 2 > keys.length)
+         {
+            resize(keys.length * 2);
+         }
+         int mask = keys.length - 1;
+         for (int i = index(key, mask);;i = (i + 1) & mask)
+         {
+            Object k = keys[i];
+            if (k == null)
+            {
+               keys[i] = key;
+               values[i] = value;
+               size++;
+               return;
+            }
+            else if (k == key || k.equals(key))
+            {
+               values[i] = value;
+               return;
+            }
+         }
+      }
+   }
+
+   void remove(Object key)
+   {
+      int mask = keys.length - 1;
+      for (int i = index(key, mask);;i = (i + 1) & mask)
+      {
+         Object k = keys[i];
+         if (k == null)
+         {
+            return;
+         }
+         else if (k == key || k.equals(key))
+         {
+            keys[i] = null;
+            values[i] = null;
+            size--;
+
+            // Move back the following entries of the cluster that could not be found anymore
+            for (int j = (i + 1) & mask;keys[j] != null;j = (j + 1) & mask)
+            {
+               Object moved = keys[j];
+               Scoped value = values[j];
+               keys[j] = null;
+               values[j] = null;
+               for (int l = index(moved, mask);;l = (l + 1) & mask)
+               {
+                  if (keys[l] == null)
+                  {
+                     keys[l] = moved;
+                     values[l] = value;
+                     break;
+                  }
+               }
+            }
+            return;
+         }
+      }
+   }
+
+   private void resize(int capacity)
+   {
+      Object[] previousKeys = keys;
+      Scoped[] previousValues = values;
+      keys = new Object[capacity];
+      values = new Scoped[capacity];
+      int mask = capacity - 1;
+      for (int i = 0;i < previousKeys.length;i++)
+      {
+         Object key = previousKeys[i];
+         if (key != null)
+         {
+            for (int j = index(key, mask);;j = (j + 1) & mask)
+            {
+               if (keys[j] == null)
+               {
+                  keys[j] = key;
+                  values[j] = previousValues[i];
+                  break;
+               }
+            }
+         }
+      }
+   }
+
+   private static int index(Object key, int mask)
+   {
+      // Spread the high bits since the table is small
+      int h = key.hashCode();
+      h ^= (h >>> 16);
+      h ^= (h >>> 8);
+      return h & mask;
+   }
+}
@@ -189,10 +189,17 @@ public class ClassLoaderFileSystem extends SimpleFileSystem<String>
                      {
                         File f = new File(url2.toURI());
                         ZipFile jarFile = new ZipFile(f);
-                        for (Enumeration<? extends ZipEntry> en = jarFile.entries();en.hasMoreElements();)
+                        try
                         {
-                           ZipEntry jarEntry = en.nextElement();
-                           tmp.add(jarEntry.getName());
+                           for (Enumeration<? extends ZipEntry> en = jarFile.entries();en.hasMoreElements();)
+                           {
+                              ZipEntry jarEntry = en.nextElement();
+                              tmp.add(jarEntry.getName());
+                           }
+                        }
+                        finally
+                        {
+                           jarFile.close();
                         }
                      }
                      catch (URISyntaxException e1)
@@ -20,6 +20,7 @@
 package org.juzu.impl.spi.inject;
 
 import org.juzu.impl.inject.BeanFilter;
+import org.juzu.impl.inject.BeanIndex;
 import org.juzu.impl.request.Scope;
 import org.juzu.impl.spi.fs.ReadFileSystem;
 
@@ -92,6 +93,15 @@ public abstract class InjectBuilder
    
    public abstract InjectBuilder setFilter(BeanFilter filter);
 
+   /**
+    * Set the index of the beans found in the file systems, an implementation discovering the beans in the file
+    * systems should use it instead of scanning them.
+    *
+    * @param index the bean index
+    * @return this builder
+    */
+   public abstract InjectBuilder setBeanIndex(BeanIndex index);
+
    public abstract <B, I> InjectManager<B, I> create() throws Exception;
 
 }
@@ -19,10 +19,12 @@
 
 package org.juzu.impl.spi.inject;
 
+import org.juzu.impl.inject.ScopedActivator;
+
 import java.lang.reflect.InvocationTargetException;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-public interface InjectManager<B, I>
+public interface InjectManager<B, I> extends ScopedActivator
 {
 
    /**
@@ -20,6 +20,7 @@
 package org.juzu.impl.spi.inject.cdi;
 
 import org.juzu.impl.inject.BeanFilter;
+import org.juzu.impl.inject.BeanIndex;
 import org.juzu.impl.inject.ScopeController;
 import org.juzu.impl.request.Scope;
 import org.juzu.impl.spi.inject.InjectBuilder;
@@ -53,12 +54,16 @@ public class CDIBuilder extends InjectBuilder
    /** . */
    private BeanFilter filter;
 
+   /** . */
+   private BeanIndex index;
+
    public CDIBuilder()
    {
       this.scopes = new HashSet<Scope>();
       this.fileSystems = new ArrayList<ReadFileSystem<?>>();
       this.boundBeans = new ArrayList<AbstractBean>();
       this.filter = null;
+      this.index = null;
    }
 
    @Override
@@ -104,6 +109,13 @@ public class CDIBuilder extends InjectBuilder
       return this;
    }
 
+   @Override
+   public InjectBuilder setBeanIndex(BeanIndex index)
+   {
+      this.index = index;
+      return this;
+   }
+
    @Override
    public <T> InjectBuilder bindBean(Class<T> type, Iterable<Annotation> qualifiers, T instance)
    {
@@ -126,6 +138,10 @@ public class CDIBuilder extends InjectBuilder
       {
          container.addFileSystem(fs);
       }
+      if (index != null)
+      {
+         container.setBeanClasses(index.getTypes());
+      }
       return new CDIManager(container, filter, boundBeans);
    }
 }
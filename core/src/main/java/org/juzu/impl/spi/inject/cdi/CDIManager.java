@@ -21,6 +21,7 @@ package org.juzu.impl.spi.inject.cdi;
 
 import org.juzu.AmbiguousResolutionException;
 import org.juzu.impl.inject.BeanFilter;
+import org.juzu.impl.inject.PassivationCapableScoped;
 import org.juzu.impl.spi.inject.InjectImplementation;
 import org.juzu.impl.spi.inject.InjectManager;
 
@@ -168,6 +169,17 @@ public class CDIManager implements InjectManager<Bean<?>, CreationalContext<?>>
       }
    }
 
+   public PassivationCapableScoped activate(String id, Object value)
+   {
+      Bean<?> bean = manager.getPassivationCapableBean(id);
+      return bean != null ? activate(bean, value) : null;
+   }
+
+   private <T> CDIScoped<T> activate(Bean<T> bean, Object value)
+   {
+      return new CDIScoped<T>(bean, manager.createCreationalContext(bean), (T)value);
+   }
+
    public void shutdown()
    {
       container.stop();
@@ -1,12 +1,13 @@
 package org.juzu.impl.spi.inject.cdi;
 
-import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.PassivationCapableScoped;
 
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.PassivationCapable;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-class CDIScoped<T> implements Scoped
+class CDIScoped<T> implements PassivationCapableScoped
 {
 
    /** . */
@@ -30,6 +31,16 @@ class CDIScoped<T> implements Scoped
       return object;
    }
 
+   public Object getKey()
+   {
+      return contextual;
+   }
+
+   public String getId()
+   {
+      return contextual instanceof PassivationCapable ? ((PassivationCapable)contextual).getId() : null;
+   }
+
    public void destroy()
    {
       contextual.destroy(object, creationalContext);
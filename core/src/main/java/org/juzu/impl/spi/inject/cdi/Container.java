@@ -25,6 +25,7 @@ import org.juzu.impl.spi.fs.ReadFileSystem;
 
 import javax.enterprise.inject.spi.BeanManager;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -38,6 +39,9 @@ public abstract class Container
    /** . */
    private List<ReadFileSystem<?>> fileSystems;
 
+   /** The bean classes or null when they are found by scanning the file systems. */
+   private Collection<String> beanClasses;
+
    /** . */
    final Set<Scope> scopes;
 
@@ -60,7 +64,17 @@ public abstract class Container
       fileSystems.add(fileSystem);
    }
 
-   protected abstract void doStart(List<ReadFileSystem<?>> fileSystems) throws Exception;
+   /**
+    * Set the bean classes, the file systems are not scanned for classes anymore.
+    *
+    * @param beanClasses the bean class names
+    */
+   public void setBeanClasses(Collection<String> beanClasses)
+   {
+      this.beanClasses = beanClasses;
+   }
+
+   protected abstract void doStart(List<ReadFileSystem<?>> fileSystems, Collection<String> beanClasses) throws Exception;
 
    protected abstract void doStop();
 
@@ -69,7 +83,7 @@ public abstract class Container
       boot.set(this);
       try
       {
-         doStart(fileSystems);
+         doStart(fileSystems, beanClasses);
       }
       finally
       {
@@ -20,6 +20,8 @@
 package org.juzu.impl.spi.inject.cdi;
 
 import org.juzu.impl.inject.ScopeController;
+import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.impl.request.Scope;
 
 import javax.enterprise.context.ContextNotActiveException;
@@ -53,19 +55,25 @@ final class ContextImpl implements Context
       return scopeType;
    }
 
-   public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext)
+   public <T> T get(final Contextual<T> contextual, final CreationalContext<T> creationalContext)
    {
       try
       {
-         CDIScoped<T> scoped = (CDIScoped<T>)controller.get(scope, contextual);
-         if (scoped == null)
+         CDIScoped<T> scoped;
+         if (creationalContext != null)
          {
-            if (creationalContext != null)
+            scoped = (CDIScoped<T>)controller.get(scope, contextual, new ScopedFactory()
             {
-               T object = contextual.create(creationalContext);
-               scoped = new CDIScoped<T>(contextual, creationalContext, object);
-               controller.put(scope, contextual, scoped);
-            }
+               public Scoped create()
+               {
+                  T object = contextual.create(creationalContext);
+                  return new CDIScoped<T>(contextual, creationalContext, object);
+               }
+            });
+         }
+         else
+         {
+            scoped = (CDIScoped<T>)controller.get(scope, contextual);
          }
          return scoped != null ? scoped.object : null;
       }
@@ -59,33 +59,42 @@ class BeanDeploymentArchiveImpl implements BeanDeploymentArchive
    BeanDeploymentArchiveImpl(
       WeldContainer owner,
       String id,
-      List<ReadFileSystem<?>> fileSystems) throws IOException
+      List<ReadFileSystem<?>> fileSystems,
+      Collection<String> indexedClasses) throws IOException
    {
 
       // A bit unchecked but well it's ok here
       List<URL> xmlURLs = new ArrayList<URL>();
       List<URL> fsURLs = new ArrayList<URL>();
       final ArrayList<String> beanClasses = new ArrayList<String>();
+      if (indexedClasses != null)
+      {
+         beanClasses.addAll(indexedClasses);
+      }
       for (final ReadFileSystem fileSystem : fileSystems)
       {
-         fileSystem.traverse(new Visitor.Default()
+         // Scan only when there is no index
+         if (indexedClasses == null)
          {
-            @Override
-            public void file(Object file, String name) throws IOException
+            fileSystem.traverse(new Visitor.Default()
             {
-               if (name.endsWith(".class"))
+               @Override
+               public void file(Object file, String name) throws IOException
                {
-                  StringBuilder fqn = new StringBuilder();
-                  fileSystem.packageOf(file, '.', fqn);
-                  if (fqn.length() > 0)
+                  if (name.endsWith(".class"))
                   {
-                     fqn.append('.');
+                     StringBuilder fqn = new StringBuilder();
+                     fileSystem.packageOf(file, '.', fqn);
+                     if (fqn.length() > 0)
+                     {
+                        fqn.append('.');
+                     }
+                     fqn.append(name, 0, name.length() - ".class".length());
+                     beanClasses.add(fqn.toString());
                   }
-                  fqn.append(name, 0, name.length() - ".class".length());
-                  beanClasses.add(fqn.toString());
                }
-            }
-         });
+            });
+         }
 
          //
          // fsURLs.add(fileSystem.getURL());
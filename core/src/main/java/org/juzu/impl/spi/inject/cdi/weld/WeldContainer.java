@@ -53,9 +53,9 @@ public class WeldContainer extends Container
    private BeanManager manager;
 
    @Override
-   protected void doStart(List<ReadFileSystem<?>> fileSystems) throws Exception
+   protected void doStart(List<ReadFileSystem<?>> fileSystems, Collection<String> beanClasses) throws Exception
    {
-      final BeanDeploymentArchiveImpl bda = new BeanDeploymentArchiveImpl(this, "foo", fileSystems);
+      final BeanDeploymentArchiveImpl bda = new BeanDeploymentArchiveImpl(this, "foo", fileSystems, beanClasses);
 
       //
       Deployment deployment = new Deployment()
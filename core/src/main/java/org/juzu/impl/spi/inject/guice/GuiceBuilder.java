@@ -20,6 +20,7 @@
 package org.juzu.impl.spi.inject.guice;
 
 import org.juzu.impl.inject.BeanFilter;
+import org.juzu.impl.inject.BeanIndex;
 import org.juzu.impl.request.Scope;
 import org.juzu.impl.spi.inject.InjectBuilder;
 import org.juzu.impl.spi.inject.InjectManager;
@@ -105,6 +106,12 @@ public class GuiceBuilder extends InjectBuilder
       return this;
    }
 
+   @Override
+   public InjectBuilder setBeanIndex(BeanIndex index)
+   {
+      return this;
+   }
+
    @Override
    public InjectManager<?, ?> create()
    {
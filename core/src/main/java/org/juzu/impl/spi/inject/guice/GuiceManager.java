@@ -35,6 +35,7 @@ import com.google.inject.matcher.Matchers;
 import com.google.inject.name.Named;
 import com.google.inject.spi.TypeEncounter;
 import com.google.inject.spi.TypeListener;
+import org.juzu.impl.inject.PassivationCapableScoped;
 import org.juzu.impl.inject.ScopeController;
 import org.juzu.impl.request.Scope;
 import org.juzu.impl.spi.inject.InjectImplementation;
@@ -51,6 +52,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class GuiceManager implements InjectManager<GuiceBean, Object>
@@ -65,6 +67,9 @@ public class GuiceManager implements InjectManager<GuiceBean, Object>
    /** . */
    private final Map<String, Key<?>> nameMap;
 
+   /** The keys of the activated values by identifier. */
+   private final ConcurrentHashMap<String, Key<?>> idMap = new ConcurrentHashMap<String, Key<?>>();
+
    public GuiceManager(final GuiceBuilder bootstrap)
    {
 
@@ -284,6 +289,23 @@ public class GuiceManager implements InjectManager<GuiceBean, Object>
       }
    }
 
+   public PassivationCapableScoped activate(String id, Object value)
+   {
+      Key<?> key = idMap.get(id);
+      if (key == null)
+      {
+         for (Key<?> bindingKey : injector.getAllBindings().keySet())
+         {
+            if (bindingKey.toString().equals(id))
+            {
+               idMap.put(id, key = bindingKey);
+               break;
+            }
+         }
+      }
+      return key != null ? new GuiceScoped(key, value) : null;
+   }
+
    public void shutdown()
    {
       for (Binding<?> binding : injector.getAllBindings().values())
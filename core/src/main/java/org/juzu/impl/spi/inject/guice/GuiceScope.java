@@ -23,6 +23,8 @@ import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 import org.juzu.impl.inject.ScopeController;
+import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 
 /**
  * Integrate guice scope.
@@ -49,12 +51,13 @@ public class GuiceScope implements Scope
       {
          public T get()
          {
-            GuiceScoped scoped = (GuiceScoped)controller.get(scope, key);
-            if (scoped == null)
+            GuiceScoped scoped = (GuiceScoped)controller.get(scope, key, new ScopedFactory()
             {
-               scoped = new GuiceScoped(unscoped.get());
-               controller.put(scope, key, scoped);
-            }
+               public Scoped create()
+               {
+                  return new GuiceScoped(key, unscoped.get());
+               }
+            });
             return (T)scoped.o;
          }
       };
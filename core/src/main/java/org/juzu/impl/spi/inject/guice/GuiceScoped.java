@@ -1,6 +1,7 @@
 package org.juzu.impl.spi.inject.guice;
 
-import org.juzu.impl.inject.Scoped;
+import com.google.inject.Key;
+import org.juzu.impl.inject.PassivationCapableScoped;
 
 import javax.annotation.PreDestroy;
 import java.lang.reflect.InvocationTargetException;
@@ -8,14 +9,18 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-class GuiceScoped implements Scoped
+class GuiceScoped implements PassivationCapableScoped
 {
 
+   /** . */
+   final Key<?> key;
+
    /** . */
    final Object o;
 
-   GuiceScoped(Object o)
+   GuiceScoped(Key<?> key, Object o)
    {
+      this.key = key;
       this.o = o;
    }
 
@@ -24,6 +29,16 @@ class GuiceScoped implements Scoped
       return o;
    }
 
+   public Object getKey()
+   {
+      return key;
+   }
+
+   public String getId()
+   {
+      return key.toString();
+   }
+
    public void destroy()
    {
       GuiceManager.invokePreDestroy(o);
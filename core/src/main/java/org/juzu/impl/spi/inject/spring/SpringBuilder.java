@@ -20,6 +20,7 @@
 package org.juzu.impl.spi.inject.spring;
 
 import org.juzu.impl.inject.BeanFilter;
+import org.juzu.impl.inject.BeanIndex;
 import org.juzu.impl.inject.ScopeController;
 import org.juzu.impl.request.Scope;
 import org.juzu.impl.spi.fs.ReadFileSystem;
@@ -80,6 +81,12 @@ public class SpringBuilder extends InjectBuilder
       return this;
    }
 
+   @Override
+   public InjectBuilder setBeanIndex(BeanIndex index)
+   {
+      return this;
+   }
+
    @Override
    public <T> InjectBuilder declareBean(Class<T> type, Iterable<Annotation> qualifiers, Class<? extends T> implementationType)
    {
@@ -109,6 +116,17 @@ public class SpringBuilder extends InjectBuilder
    public <T> InjectBuilder bindBean(Class<T> type, Iterable<Annotation> qualifiers, T instance)
    {
       String name = "" + Math.random();
+      if (qualifiers != null)
+      {
+         for (Annotation qualifier : qualifiers)
+         {
+            if (qualifier instanceof Named)
+            {
+               name = ((Named)qualifier).value();
+               break;
+            }
+         }
+      }
       beans.put(name, new SingletonBean(instance, qualifiers));
       return this;
    }
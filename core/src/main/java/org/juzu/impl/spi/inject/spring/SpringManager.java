@@ -20,6 +20,7 @@
 package org.juzu.impl.spi.inject.spring;
 
 import org.juzu.AmbiguousResolutionException;
+import org.juzu.impl.inject.PassivationCapableScoped;
 import org.juzu.impl.spi.inject.InjectImplementation;
 import org.juzu.impl.spi.inject.InjectManager;
 import org.springframework.beans.BeanInstantiationException;
@@ -131,6 +132,20 @@ public class SpringManager implements InjectManager<String, Object>
       }
    }
 
+   public PassivationCapableScoped activate(String id, Object value)
+   {
+      if (factory.containsBeanDefinition(id))
+      {
+         SpringScoped scoped = new SpringScoped(factory, id);
+         scoped.o = value;
+         return scoped;
+      }
+      else
+      {
+         return null;
+      }
+   }
+
    public void shutdown()
    {
       factory.destroySingletons();
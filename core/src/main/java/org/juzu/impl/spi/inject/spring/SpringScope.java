@@ -20,10 +20,15 @@
 package org.juzu.impl.spi.inject.spring;
 
 import org.juzu.impl.inject.ScopeController;
+import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.Scope;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 class SpringScope implements Scope
 {
@@ -37,6 +42,16 @@ class SpringScope implements Scope
    /** . */
    private final ScopeController controller;
 
+   /** The scoped objects being created by the current thread. */
+   private final ThreadLocal<Map<String, SpringScoped>> creating = new ThreadLocal<Map<String, SpringScoped>>()
+   {
+      @Override
+      protected Map<String, SpringScoped> initialValue()
+      {
+         return new HashMap<String, SpringScoped>();
+      }
+   };
+
    SpringScope(DefaultListableBeanFactory factory, org.juzu.impl.request.Scope scope, ScopeController controller)
    {
       this.factory = factory;
@@ -44,21 +59,30 @@ class SpringScope implements Scope
       this.controller = controller;
    }
 
-   public Object get(String name, ObjectFactory<?> objectFactory)
+   public Object get(final String name, final ObjectFactory<?> objectFactory)
    {
-      SpringScoped scoped = (SpringScoped)controller.get(scope, name);
-      if (scoped == null)
+      SpringScoped scoped = (SpringScoped)controller.get(scope, name, new ScopedFactory()
       {
-         // We register first the scoped object
-         // as creating the object from the factory
-         // will make a call in the method registerDestructionCallback
-         scoped = new SpringScoped(factory, name);
-         controller.put(scope, name, scoped);
-
-         // Create the object, it will likely create a registerDestructionCallback invocation
-         // to set the callback when the object will need to be destroyed
-         scoped.o = objectFactory.getObject();
-      }
+         public Scoped create()
+         {
+            // The scoped object is not yet registered in the scope when the object is created from the factory
+            // and the creation will make a call in the method registerDestructionCallback
+            SpringScoped scoped = new SpringScoped(factory, name);
+            Map<String, SpringScoped> map = creating.get();
+            map.put(name, scoped);
+            try
+            {
+               // Create the object, it will likely create a registerDestructionCallback invocation
+               // to set the callback when the object will need to be destroyed
+               scoped.o = objectFactory.getObject();
+            }
+            finally
+            {
+               map.remove(name);
+            }
+            return scoped;
+         }
+      });
       return scoped.o;
    }
 
@@ -70,7 +94,11 @@ class SpringScope implements Scope
 
    public void registerDestructionCallback(String name, Runnable callback)
    {
-      SpringScoped scoped = (SpringScoped)controller.get(scope, name);
+      SpringScoped scoped = creating.get().get(name);
+      if (scoped == null)
+      {
+         scoped = (SpringScoped)controller.get(scope, name);
+      }
       if (scoped != null)
       {
          scoped.destructionCallback = callback;
@@ -1,10 +1,10 @@
 package org.juzu.impl.spi.inject.spring;
 
-import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.PassivationCapableScoped;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-class SpringScoped implements Scoped
+class SpringScoped implements PassivationCapableScoped
 {
 
    /** . */
@@ -32,11 +32,26 @@ class SpringScoped implements Scoped
       return o;
    }
 
+   public Object getKey()
+   {
+      return bean;
+   }
+
+   public String getId()
+   {
+      return bean;
+   }
+
    public void destroy()
    {
       if (destructionCallback != null)
       {
          destructionCallback.run();
       }
+      else if (o != null)
+      {
+         // An activated object has no destruction callback
+         factory.destroyBean(bean, o);
+      }
    }
 }
@@ -21,6 +21,7 @@ package org.juzu.impl.spi.request;
 
 import org.juzu.Response;
 import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.request.HttpContext;
 import org.juzu.request.SecurityContext;
 import org.juzu.request.WindowContext;
@@ -41,18 +42,26 @@ public interface RequestBridge
 
    Scoped getFlashValue(Object key);
 
+   Scoped getFlashValue(Object key, ScopedFactory factory);
+
    void setFlashValue(Object key, Scoped value);
 
    Scoped getRequestValue(Object key);
 
+   Scoped getRequestValue(Object key, ScopedFactory factory);
+
    void setRequestValue(Object key, Scoped value);
 
    Scoped getSessionValue(Object key);
 
+   Scoped getSessionValue(Object key, ScopedFactory factory);
+
    void setSessionValue(Object key, Scoped value);
 
    Scoped getIdentityValue(Object key);
 
+   Scoped getIdentityValue(Object key, ScopedFactory factory);
+
    void setIdentityValue(Object key, Scoped value);
 
    HttpContext getHttpContext();
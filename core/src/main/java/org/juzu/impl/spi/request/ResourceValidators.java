@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.request;
+
+import org.juzu.Response;
+import org.juzu.text.CharArray;
+import org.juzu.text.WriterPrinter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Helpers for the validation of resource responses with conditional requests.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ResourceValidators
+{
+
+   /** . */
+   private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+   /**
+    * Renders the content of a response.
+    *
+    * @param content the content
+    * @return the rendered content
+    * @throws IOException any io exception
+    */
+   public static CharArray render(Response.Content content) throws IOException
+   {
+      StringBuilder buffer = new StringBuilder();
+      content.send(new WriterPrinter(buffer));
+      return new CharArray.Simple(buffer.toString());
+   }
+
+   /**
+    * Computes an entity tag from the MD5 hash of the content bytes.
+    *
+    * @param content the content
+    * @return the entity tag
+    * @throws IOException any io exception
+    */
+   public static String digest(CharArray content) throws IOException
+   {
+      final MessageDigest md = createDigest();
+      content.write(new OutputStream()
+      {
+         @Override
+         public void write(int b)
+         {
+            md.update((byte)b);
+         }
+
+         @Override
+         public void write(byte[] b, int off, int len)
+         {
+            md.update(b, off, len);
+         }
+      });
+      return hex(md.digest());
+   }
+
+   /**
+    * Computes an entity tag from the MD5 hash of the content bytes.
+    *
+    * @param content the content
+    * @return the entity tag
+    */
+   public static String digest(byte[] content)
+   {
+      MessageDigest md = createDigest();
+      md.update(content);
+      return hex(md.digest());
+   }
+
+   private static MessageDigest createDigest()
+   {
+      try
+      {
+         return MessageDigest.getInstance("MD5");
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new AssertionError(e);
+      }
+   }
+
+   private static String hex(byte[] hash)
+   {
+      char[] chars = new char[hash.length * 2];
+      for (int i = 0;i < hash.length;i++)
+      {
+         chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+         chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+      }
+      return new String(chars);
+   }
+
+   /**
+    * Returns the quoted value of an entity tag.
+    *
+    * @param etag the entity tag
+    * @return the quoted entity tag
+    */
+   public static String quote(String etag)
+   {
+      return "\"" + etag + "\"";
+   }
+
+   /**
+    * Evaluates the preconditions of a request: when the <code>If-None-Match</code> header is present it is matched
+    * against the entity tag, otherwise the <code>If-Modified-Since</code> header is compared to the last modification
+    * date, with a second precision.
+    *
+    * @param ifNoneMatch the <code>If-None-Match</code> header value or null
+    * @param ifModifiedSince the <code>If-Modified-Since</code> date or <code>-1</code>
+    * @param etag the entity tag or null
+    * @param lastModified the last modification date or <code>-1</code>
+    * @return true when the resource is not modified
+    */
+   public static boolean isNotModified(String ifNoneMatch, long ifModifiedSince, String etag, long lastModified)
+   {
+      if (ifNoneMatch != null)
+      {
+         return etag != null && matches(ifNoneMatch, etag);
+      }
+      else
+      {
+         return ifModifiedSince >= 0 && lastModified >= 0 && lastModified / 1000 <= ifModifiedSince / 1000;
+      }
+   }
+
+   /**
+    * Matches an <code>If-None-Match</code> header value with the weak comparison.
+    *
+    * @param ifNoneMatch the header value
+    * @param etag the entity tag without quotes
+    * @return true if the header matches the entity tag
+    */
+   public static boolean matches(String ifNoneMatch, String etag)
+   {
+      for (String tag : ifNoneMatch.split(","))
+      {
+         tag = tag.trim();
+         if (tag.equals("*"))
+         {
+            return true;
+         }
+         if (tag.startsWith("W/"))
+         {
+            tag = tag.substring(2);
+         }
+         if (tag.length() >= 2 && tag.charAt(0) == '"' && tag.charAt(tag.length() - 1) == '"')
+         {
+            tag = tag.substring(1, tag.length() - 1);
+         }
+         if (tag.equals(etag))
+         {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Formats an HTTP date.
+    *
+    * @param date the date in milliseconds
+    * @return the formatted date
+    */
+   public static String formatDate(long date)
+   {
+      return createDateFormat().format(new Date(date));
+   }
+
+   /**
+    * Parses an HTTP date.
+    *
+    * @param s the value to parse
+    * @return the date in milliseconds or <code>-1</code> if the value is null or cannot be parsed
+    */
+   public static long parseDate(String s)
+   {
+      if (s != null)
+      {
+         try
+         {
+            return createDateFormat().parse(s).getTime();
+         }
+         catch (ParseException ignore)
+         {
+         }
+      }
+      return -1;
+   }
+
+   private static SimpleDateFormat createDateFormat()
+   {
+      SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+      format.setTimeZone(TimeZone.getTimeZone("GMT"));
+      return format;
+   }
+}
@@ -22,6 +22,7 @@ package org.juzu.impl.spi.request.portlet;
 import org.juzu.Response;
 import org.juzu.request.Phase;
 import org.juzu.impl.spi.request.MimeBridge;
+import org.juzu.text.OutputStreamPrinter;
 import org.juzu.text.Printer;
 import org.juzu.text.WriterPrinter;
 
@@ -30,6 +31,7 @@ import javax.portlet.MimeResponse;
 import javax.portlet.PortletRequest;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.nio.charset.Charset;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
@@ -55,9 +57,31 @@ abstract class PortletMimeBridge<Rq extends PortletRequest, Rs extends MimeRespo
       else
       {
          this.writer = null;
-         this.printer = new WriterPrinter(response.getWriter());
+         this.printer = createPrinter(response);
       }
    }
+
+   private static Printer createPrinter(MimeResponse response) throws IOException
+   {
+      String encoding = response.getCharacterEncoding();
+      if (encoding != null)
+      {
+         try
+         {
+            Charset charset = Charset.forName(encoding);
+            if (charset.name().equals("UTF-8"))
+            {
+               // Write bytes so the pre-encoded template text is copied as is
+               return new OutputStreamPrinter(charset, response.getPortletOutputStream());
+            }
+         }
+         catch (IllegalArgumentException ignore)
+         {
+            // Unsupported or illegal name, let the portal writer handle it
+         }
+      }
+      return new WriterPrinter(response.getWriter());
+   }
    
    public void commit() throws IOException
    {
@@ -104,5 +104,6 @@ public class PortletRenderBridge extends PortletMimeBridge<RenderRequest, Render
       {
          context.close();
       }
+      replicate();
    }
 }
@@ -21,6 +21,7 @@ package org.juzu.impl.spi.request.portlet;
 
 import org.juzu.impl.inject.ScopedContext;
 import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.impl.spi.request.RequestBridge;
 import org.juzu.request.HttpContext;
 import org.juzu.request.SecurityContext;
@@ -109,9 +110,14 @@ abstract class PortletRequestBridge<Rq extends PortletRequest, Rs extends Portle
       return context != null ? context.get(key) : null;
    }
 
+   public final Scoped getRequestValue(Object key, ScopedFactory factory)
+   {
+      return getRequestContext(true).get(key, factory);
+   }
+
    public final void setRequestValue(Object key, Scoped value)
    {
-      if (value != null)
+      if (value == null)
       {
          ScopedContext context = getRequestContext(false);
          if (context != null)
@@ -131,6 +137,11 @@ abstract class PortletRequestBridge<Rq extends PortletRequest, Rs extends Portle
       return context != null ? context.get(key) : null;
    }
 
+   public final Scoped getFlashValue(Object key, ScopedFactory factory)
+   {
+      return getFlashContext(true).get(key, factory);
+   }
+
    public final void setFlashValue(Object key, Scoped value)
    {
       if (value == null)
@@ -153,6 +164,11 @@ abstract class PortletRequestBridge<Rq extends PortletRequest, Rs extends Portle
       return context != null ? context.get(key) : null;
    }
 
+   public final Scoped getSessionValue(Object key, ScopedFactory factory)
+   {
+      return getSessionContext(true).get(key, factory);
+   }
+
    public final void setSessionValue(Object key, Scoped value)
    {
       if (value == null)
@@ -174,6 +190,11 @@ abstract class PortletRequestBridge<Rq extends PortletRequest, Rs extends Portle
       return null;
    }
 
+   public final Scoped getIdentityValue(Object key, ScopedFactory factory)
+   {
+      return factory.create();
+   }
+
    public final void setIdentityValue(Object key, Scoped value)
    {
    }
@@ -185,6 +206,37 @@ abstract class PortletRequestBridge<Rq extends PortletRequest, Rs extends Portle
       {
          context.close();
       }
+      replicate();
+   }
+
+   /**
+    * Binds again the session contexts whose externalized form changed during the request, the container replicates
+    * the contexts that are bound again and does not replicate the others.
+    */
+   protected final void replicate()
+   {
+      PortletSession session = request.getPortletSession(false);
+      if (session != null)
+      {
+         try
+         {
+            replicate(session, "org.juzu.flash_scope");
+            replicate(session, "org.juzu.session_scope");
+         }
+         catch (IllegalStateException ignore)
+         {
+            // The session was invalidated during the request
+         }
+      }
+   }
+
+   private void replicate(PortletSession session, String name)
+   {
+      ScopedContext context = (ScopedContext)session.getAttribute(name);
+      if (context != null && context.flush())
+      {
+         session.setAttribute(name, context);
+      }
    }
 
    protected final ScopedContext getRequestContext(boolean create)
@@ -199,29 +251,32 @@ abstract class PortletRequestBridge<Rq extends PortletRequest, Rs extends Portle
 
    protected final ScopedContext getFlashContext(boolean create)
    {
-      ScopedContext context = null;
-      PortletSession session = request.getPortletSession(create);
-      if (session != null)
-      {
-         context = (ScopedContext)session.getAttribute("org.juzu.flash_scope");
-         if (context == null && create)
-         {
-            session.setAttribute("org.juzu.flash_scope", context = new ScopedContext());
-         }
-      }
-      return context;
+      return getSessionContext("org.juzu.flash_scope", create);
    }
 
    protected final ScopedContext getSessionContext(boolean create)
+   {
+      return getSessionContext("org.juzu.session_scope", create);
+   }
+
+   private ScopedContext getSessionContext(String name, boolean create)
    {
       ScopedContext context = null;
       PortletSession session = request.getPortletSession(create);
       if (session != null)
       {
-         context = (ScopedContext)session.getAttribute("org.juzu.session_scope");
+         context = (ScopedContext)session.getAttribute(name);
          if (context == null && create)
          {
-            session.setAttribute("org.juzu.session_scope", context = new ScopedContext());
+            // Concurrent requests of the same session must not replace each other context
+            synchronized (ScopedContext.getBindMonitor(session.getId()))
+            {
+               context = (ScopedContext)session.getAttribute(name);
+               if (context == null)
+               {
+                  session.setAttribute(name, context = new ScopedContext());
+               }
+            }
          }
       }
       return context;
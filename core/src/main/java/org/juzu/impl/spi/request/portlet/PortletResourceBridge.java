@@ -21,6 +21,8 @@ package org.juzu.impl.spi.request.portlet;
 
 import org.juzu.Response;
 import org.juzu.impl.spi.request.ResourceBridge;
+import org.juzu.impl.spi.request.ResourceValidators;
+import org.juzu.text.CharArray;
 
 import javax.portlet.ResourceRequest;
 import javax.portlet.ResourceResponse;
@@ -46,6 +48,47 @@ public class PortletResourceBridge extends PortletMimeBridge<ResourceRequest, Re
          {
             this.response.setProperty(ResourceResponse.HTTP_STATUS_CODE, Integer.toString(status));
          }
+         else
+         {
+            CharArray content = null;
+            String etag = resource.getETag();
+            if (etag == null && resource.getDigest())
+            {
+               content = ResourceValidators.render(resource);
+               etag = ResourceValidators.digest(content);
+            }
+            long lastModified = resource.getLastModified();
+
+            //
+            if (resource.getCacheControl() != null)
+            {
+               this.response.setProperty("Cache-Control", resource.getCacheControl());
+            }
+            if (etag != null)
+            {
+               this.response.getCacheControl().setETag(ResourceValidators.quote(etag));
+            }
+            if (lastModified >= 0)
+            {
+               this.response.setProperty("Last-Modified", ResourceValidators.formatDate(lastModified));
+            }
+
+            //
+            long ifModifiedSince = ResourceValidators.parseDate(request.getProperty("If-Modified-Since"));
+            if (ResourceValidators.isNotModified(request.getETag(), ifModifiedSince, etag, lastModified))
+            {
+               this.response.getCacheControl().setUseCachedContent(true);
+               this.response.setProperty(ResourceResponse.HTTP_STATUS_CODE, "304");
+               return;
+            }
+
+            //
+            if (content != null)
+            {
+               getPrinter().write(content);
+               return;
+            }
+         }
       }
       
       //
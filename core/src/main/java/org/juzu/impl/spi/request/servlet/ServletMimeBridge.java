@@ -20,9 +20,14 @@
 package org.juzu.impl.spi.request.servlet;
 
 import org.juzu.impl.spi.request.MimeBridge;
+import org.juzu.text.OutputStreamPrinter;
+import org.juzu.text.Printer;
+import org.juzu.text.WriterPrinter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
@@ -33,4 +38,42 @@ public abstract class ServletMimeBridge extends ServletRequestBridge implements
    {
       super(req, resp, parameters);
    }
+
+   /**
+    * Create the printer for sending the response content. When the response charset is <code>UTF-8</code> the
+    * printer writes bytes to the response output stream so the pre-encoded template text is copied without any
+    * encoding, otherwise the printer writes to the response writer.
+    *
+    * @return the printer
+    * @throws IOException any io exception
+    */
+   protected Printer createPrinter() throws IOException
+   {
+      Charset charset = getCharset();
+      if (charset != null && charset.name().equals("UTF-8"))
+      {
+         return new OutputStreamPrinter(charset, resp.getOutputStream());
+      }
+      else
+      {
+         return new WriterPrinter(resp.getWriter());
+      }
+   }
+
+   private Charset getCharset()
+   {
+      String encoding = resp.getCharacterEncoding();
+      if (encoding != null)
+      {
+         try
+         {
+            return Charset.forName(encoding);
+         }
+         catch (IllegalArgumentException ignore)
+         {
+            // Unsupported or illegal name, let the container writer handle it
+         }
+      }
+      return null;
+   }
 }
@@ -22,21 +22,27 @@ package org.juzu.impl.spi.request.servlet;
 import org.juzu.Response;
 import org.juzu.impl.inject.ScopedContext;
 import org.juzu.impl.spi.request.RenderBridge;
-import org.juzu.text.WriterPrinter;
+import org.juzu.text.Printer;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.Collection;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ServletRenderBridge extends ServletMimeBridge implements RenderBridge
 {
-   ServletRenderBridge(HttpServletRequest req, HttpServletResponse resp, Map<String, String[]> parameters)
+
+   /** The streaming buffer size, zero when the response is not streamed. */
+   private final int streamingBufferSize;
+
+   ServletRenderBridge(HttpServletRequest req, HttpServletResponse resp, Map<String, String[]> parameters, int streamingBufferSize)
    {
       super(req, resp, parameters);
+
+      //
+      this.streamingBufferSize = streamingBufferSize;
    }
 
    public void setTitle(String title)
@@ -49,14 +55,20 @@ public class ServletRenderBridge extends ServletMimeBridge implements RenderBrid
       Response.Content.Render render = (Response.Render)response;
       resp.setContentType("text/html");
 
+      // Bound the response buffer, the container sends a chunk each time it is full
+      if (streamingBufferSize > 0)
+      {
+         resp.setBufferSize(streamingBufferSize);
+      }
+
       //
-      PrintWriter writer = resp.getWriter();
+      Printer printer = createPrinter();
 
       //
-      writer.println("<!DOCTYPE html>");
-      writer.println("<html>");
+      printer.write("<!DOCTYPE html>\n");
+      printer.write("<html>\n");
       
-      writer.println("<head>");
+      printer.write("<head>\n");
       Collection<String> stylesheets = render.getStylesheets();
       if (stylesheets.size() > 0)
       {
@@ -64,11 +76,11 @@ public class ServletRenderBridge extends ServletMimeBridge implements RenderBrid
          {
             int pos = stylesheet.lastIndexOf('.');
             String ext = pos == -1 ? "css" : stylesheet.substring(pos + 1);
-            writer.print("<link rel=\"stylesheet\" type=\"text/");
-            writer.print(ext);
-            writer.print("\" href=\"");
-            writer.print(stylesheet);
-            writer.println("\"></link>");
+            printer.write("<link rel=\"stylesheet\" type=\"text/");
+            printer.write(ext);
+            printer.write("\" href=\"");
+            printer.write(stylesheet);
+            printer.write("\"></link>\n");
          }
       }
       Collection<String> scripts = render.getScripts();
@@ -76,22 +88,28 @@ public class ServletRenderBridge extends ServletMimeBridge implements RenderBrid
       {
          for (String script : scripts)
          {
-            writer.print("<script type=\"text/javascript\" src=\"");
-            writer.print(script);
-            writer.println("\"></script>");
+            printer.write("<script type=\"text/javascript\" src=\"");
+            printer.write(script);
+            printer.write("\"></script>\n");
          }
       }
-      writer.println("</head>");
+      printer.write("</head>\n");
       
       //
-      writer.println("<body>");
+      printer.write("<body>\n");
+
+      // Send the head so the client starts to load the assets while the body is rendered
+      if (streamingBufferSize > 0)
+      {
+         resp.flushBuffer();
+      }
 
       // Send response
-      render.send(new WriterPrinter(writer));
+      render.send(printer);
 
       //
-      writer.println("</body>");
-      writer.println("</html>");
+      printer.write("</body>\n");
+      printer.write("</html>\n");
    }
 
    @Override
@@ -102,5 +120,6 @@ public class ServletRenderBridge extends ServletMimeBridge implements RenderBrid
       {
          context.close();
       }
+      replicate();
    }
 }
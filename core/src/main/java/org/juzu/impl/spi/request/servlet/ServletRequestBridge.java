@@ -21,6 +21,7 @@ package org.juzu.impl.spi.request.servlet;
 
 import org.juzu.Response;
 import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.impl.inject.ScopedContext;
 import org.juzu.impl.spi.request.RequestBridge;
 import org.juzu.request.HttpContext;
@@ -28,6 +29,7 @@ import org.juzu.request.Phase;
 import org.juzu.request.SecurityContext;
 import org.juzu.request.WindowContext;
 
+import javax.servlet.ServletConfig;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -41,9 +43,63 @@ import java.util.Map;
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public abstract class ServletRequestBridge implements RequestBridge, HttpContext, WindowContext
 {
+
+   /** The servlet init parameter configuring the streaming buffer size of the render responses. */
+   public static final String STREAMING_BUFFER_SIZE = "juzu.streaming_buffer_size";
+
+   /**
+    * Returns the streaming buffer size configured by the {@link #STREAMING_BUFFER_SIZE} init parameter of a servlet.
+    *
+    * @param config the servlet config
+    * @return the streaming buffer size or zero when the render responses are not streamed
+    * @throws IllegalArgumentException if the parameter value is not a positive integer
+    */
+   public static int getStreamingBufferSize(ServletConfig config) throws IllegalArgumentException
+   {
+      String value = config.getInitParameter(STREAMING_BUFFER_SIZE);
+      if (value == null)
+      {
+         return 0;
+      }
+      try
+      {
+         int size = Integer.parseInt(value.trim());
+         if (size < 0)
+         {
+            throw new IllegalArgumentException("Streaming buffer size cannot be negative " + value);
+         }
+         return size;
+      }
+      catch (NumberFormatException e)
+      {
+         throw new IllegalArgumentException("Invalid streaming buffer size " + value, e);
+      }
+   }
    
    public static ServletRequestBridge create(HttpServletRequest req, HttpServletResponse resp)
    {
+      return create(req, resp, 0);
+   }
+
+   /**
+    * Create a bridge for a servlet request. When a streaming buffer size is specified, a render response is streamed:
+    * the page head is flushed to the client before the body is rendered and the body is sent by chunks of the
+    * buffer size.
+    *
+    * @param req the servlet request
+    * @param resp the servlet response
+    * @param streamingBufferSize the streaming buffer size or zero to not stream the render responses
+    * @return the bridge
+    * @throws IllegalArgumentException if the streaming buffer size is negative
+    */
+   public static ServletRequestBridge create(HttpServletRequest req, HttpServletResponse resp, int streamingBufferSize) throws IllegalArgumentException
+   {
+      if (streamingBufferSize < 0)
+      {
+         throw new IllegalArgumentException("Streaming buffer size cannot be negative " + streamingBufferSize);
+      }
+
+      //
       Phase phase = Phase.RENDER;
       Map<String, String[]> parameters = new HashMap<String, String[]>();
       for (Map.Entry<String, String[]> entry : ((Map<String, String[]>)req.getParameterMap()).entrySet())
@@ -64,7 +120,7 @@ public abstract class ServletRequestBridge implements RequestBridge, HttpContext
       switch (phase)
       {
          case RENDER:
-            return new ServletRenderBridge(req, resp, parameters);
+            return new ServletRenderBridge(req, resp, parameters, streamingBufferSize);
          case ACTION:
             return new ServletActionBridge(req, resp, parameters);
          case RESOURCE:
@@ -159,9 +215,14 @@ public abstract class ServletRequestBridge implements RequestBridge, HttpContext
       return context != null ? context.get(key) : null;
    }
 
+   public final Scoped getRequestValue(Object key, ScopedFactory factory)
+   {
+      return getRequestContext(true).get(key, factory);
+   }
+
    public final void setRequestValue(Object key, Scoped value)
    {
-      if (value != null)
+      if (value == null)
       {
          ScopedContext context = getRequestContext(false);
          if (context != null)
@@ -181,6 +242,11 @@ public abstract class ServletRequestBridge implements RequestBridge, HttpContext
       return context != null ? context.get(key) : null;
    }
 
+   public final Scoped getFlashValue(Object key, ScopedFactory factory)
+   {
+      return getFlashContext(true).get(key, factory);
+   }
+
    public final void setFlashValue(Object key, Scoped value)
    {
       if (value == null)
@@ -203,6 +269,11 @@ public abstract class ServletRequestBridge implements RequestBridge, HttpContext
       return context != null ? context.get(key) : null;
    }
 
+   public final Scoped getSessionValue(Object key, ScopedFactory factory)
+   {
+      return getSessionContext(true).get(key, factory);
+   }
+
    public final void setSessionValue(Object key, Scoped value)
    {
       if (value == null)
@@ -224,6 +295,11 @@ public abstract class ServletRequestBridge implements RequestBridge, HttpContext
       return null;
    }
 
+   public final Scoped getIdentityValue(Object key, ScopedFactory factory)
+   {
+      return factory.create();
+   }
+
    public final void setIdentityValue(Object key, Scoped value)
    {
    }
@@ -275,6 +351,37 @@ public abstract class ServletRequestBridge implements RequestBridge, HttpContext
       {
          context.close();
       }
+      replicate();
+   }
+
+   /**
+    * Binds again the session contexts whose externalized form changed during the request, the container replicates
+    * the contexts that are bound again and does not replicate the others.
+    */
+   protected final void replicate()
+   {
+      HttpSession session = req.getSession(false);
+      if (session != null)
+      {
+         try
+         {
+            replicate(session, "org.juzu.flash_scope");
+            replicate(session, "org.juzu.session_scope");
+         }
+         catch (IllegalStateException ignore)
+         {
+            // The session was invalidated during the request
+         }
+      }
+   }
+
+   private void replicate(HttpSession session, String name)
+   {
+      ScopedContext context = (ScopedContext)session.getAttribute(name);
+      if (context != null && context.flush())
+      {
+         session.setAttribute(name, context);
+      }
    }
 
    protected final ScopedContext getRequestContext(boolean create)
@@ -289,29 +396,32 @@ public abstract class ServletRequestBridge implements RequestBridge, HttpContext
 
    protected final ScopedContext getFlashContext(boolean create)
    {
-      ScopedContext context = null;
-      HttpSession session = req.getSession(create);
-      if (session != null)
-      {
-         context = (ScopedContext)session.getAttribute("org.juzu.flash_scope");
-         if (context == null && create)
-         {
-            session.setAttribute("org.juzu.flash_scope", context = new ScopedContext());
-         }
-      }
-      return context;
+      return getSessionContext("org.juzu.flash_scope", create);
    }
 
    protected final ScopedContext getSessionContext(boolean create)
+   {
+      return getSessionContext("org.juzu.session_scope", create);
+   }
+
+   private ScopedContext getSessionContext(String name, boolean create)
    {
       ScopedContext context = null;
       HttpSession session = req.getSession(create);
       if (session != null)
       {
-         context = (ScopedContext)session.getAttribute("org.juzu.session_scope");
+         context = (ScopedContext)session.getAttribute(name);
          if (context == null && create)
          {
-            session.setAttribute("org.juzu.session_scope", context = new ScopedContext());
+            // Concurrent requests of the same session must not replace each other context
+            synchronized (ScopedContext.getBindMonitor(session.getId()))
+            {
+               context = (ScopedContext)session.getAttribute(name);
+               if (context == null)
+               {
+                  session.setAttribute(name, context = new ScopedContext());
+               }
+            }
          }
       }
       return context;
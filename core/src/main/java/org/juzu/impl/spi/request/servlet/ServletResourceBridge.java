@@ -21,12 +21,13 @@ package org.juzu.impl.spi.request.servlet;
 
 import org.juzu.Response;
 import org.juzu.impl.spi.request.ResourceBridge;
-import org.juzu.text.WriterPrinter;
+import org.juzu.impl.spi.request.ResourceValidators;
+import org.juzu.text.CharArray;
+import org.juzu.text.Printer;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
@@ -39,6 +40,7 @@ public class ServletResourceBridge extends ServletMimeBridge implements Resource
 
    public void setResponse(Response response) throws IllegalStateException, IOException
    {
+      CharArray content = null;
       if (response instanceof Response.Content.Resource)
       {
          Response.Content.Resource resource = (Response.Content.Resource)response;
@@ -47,15 +49,60 @@ public class ServletResourceBridge extends ServletMimeBridge implements Resource
          {
             resp.setStatus(status);
          }
+         else
+         {
+            String etag = resource.getETag();
+            if (etag == null && resource.getDigest())
+            {
+               content = ResourceValidators.render(resource);
+               etag = ResourceValidators.digest(content);
+            }
+            long lastModified = resource.getLastModified();
+
+            //
+            if (resource.getCacheControl() != null)
+            {
+               resp.setHeader("Cache-Control", resource.getCacheControl());
+            }
+            if (etag != null)
+            {
+               resp.setHeader("ETag", ResourceValidators.quote(etag));
+            }
+            if (lastModified >= 0)
+            {
+               resp.setDateHeader("Last-Modified", lastModified);
+            }
+
+            //
+            long ifModifiedSince;
+            try
+            {
+               ifModifiedSince = req.getDateHeader("If-Modified-Since");
+            }
+            catch (IllegalArgumentException e)
+            {
+               ifModifiedSince = -1;
+            }
+            if (ResourceValidators.isNotModified(req.getHeader("If-None-Match"), ifModifiedSince, etag, lastModified))
+            {
+               resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+               return;
+            }
+         }
       }
 
       //
       resp.setContentType("text/html");
 
-      //
-      PrintWriter writer = resp.getWriter();
-
       // Send response
-      ((Response.Resource)response).send(new WriterPrinter(writer));
+      Printer printer = createPrinter();
+      if (content != null)
+      {
+         printer.write(content);
+      }
+      else
+      {
+         ((Response.Resource)response).send(printer);
+      }
    }
 }
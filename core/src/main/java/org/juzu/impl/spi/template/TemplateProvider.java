@@ -19,6 +19,11 @@
 
 package org.juzu.impl.spi.template;
 
+import org.juzu.impl.utils.FQN;
+
+import javax.lang.model.util.Elements;
+import java.util.Map;
+
 /**
  * A provider for templating system.
  *
@@ -29,8 +34,37 @@ public abstract class TemplateProvider
 
    public abstract Class<? extends TemplateStub> getTemplateStubType();
 
-   public abstract TemplateEmitter createEmitter();
+   public abstract TemplateEmitter createEmitter(FQN name);
 
    public abstract String getTargetExtension();
 
+   /**
+    * Returns the name of the Java class emitted for a template when the provider emits a Java compilation unit
+    * compiled along with the application, or null when it emits a script written as a resource. The default
+    * implementation returns null.
+    *
+    * @param name the template name
+    * @return the emitted class name or null
+    */
+   public FQN getSourceName(FQN name)
+   {
+      return null;
+   }
+
+   /**
+    * Compiles the script emitted for a template to bytecode at build time, the returned classes are
+    * written in the class output so the stub does not need to compile the script at runtime. The default
+    * implementation returns null, meaning that the provider does not support it.
+    *
+    * @param elements the elements of the current compilation, used to resolve the types not yet compiled
+    * @param name the template name
+    * @param script the emitted script
+    * @return the bytecode of the compiled classes keyed by class name or null
+    * @throws Exception any exception that prevented the script compilation
+    */
+   public Map<String, byte[]> compile(Elements elements, FQN name, String script) throws Exception
+   {
+      return null;
+   }
+
 }
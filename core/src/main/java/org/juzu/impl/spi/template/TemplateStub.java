@@ -32,6 +32,17 @@ import java.io.IOException;
 public abstract class TemplateStub
 {
 
+   /**
+    * Initialize the stub, the application calls this method once before the stub instance is shared
+    * by the concurrent renderings of the template. The default implementation does nothing.
+    *
+    * @param loader the application class loader
+    * @throws Exception any exception that would prevent the stub to be used
+    */
+   public void init(ClassLoader loader) throws Exception
+   {
+   }
+
    /**
     * Renders the template.
     *
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.gtmpl;
+
+import groovyjarjarasm.asm.ClassWriter;
+import groovyjarjarasm.asm.Opcodes;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+
+/**
+ * A class loader that defines an empty placeholder class for the types of the current compilation that are
+ * not yet compiled. Groovy dispatches calls dynamically so the script bytecode only refers to these types
+ * by name and the real classes are used at runtime.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class ElementClassLoader extends ClassLoader
+{
+
+   /** . */
+   private final Elements elements;
+
+   ElementClassLoader(ClassLoader parent, Elements elements)
+   {
+      super(parent);
+
+      //
+      this.elements = elements;
+   }
+
+   @Override
+   protected Class<?> findClass(String name) throws ClassNotFoundException
+   {
+      TypeElement element = elements.getTypeElement(name.replace('$', '.'));
+      if (element != null)
+      {
+         int access = Opcodes.ACC_PUBLIC;
+         if (element.getKind() == ElementKind.INTERFACE || element.getKind() == ElementKind.ANNOTATION_TYPE)
+         {
+            access |= Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT;
+         }
+         ClassWriter writer = new ClassWriter(0);
+         writer.visit(Opcodes.V1_5, access, name.replace('.', '/'), null, "java/lang/Object", null);
+         writer.visitEnd();
+         byte[] bytes = writer.toByteArray();
+         return defineClass(name, bytes, 0, bytes.length);
+      }
+      else
+      {
+         throw new ClassNotFoundException(name);
+      }
+   }
+}
@@ -21,6 +21,7 @@ package org.juzu.impl.spi.template.gtmpl;
 
 import org.juzu.impl.spi.template.TemplateEmitter;
 import org.juzu.impl.template.SectionType;
+import org.juzu.impl.utils.FQN;
 import org.juzu.impl.utils.Tools;
 import org.juzu.text.Location;
 
@@ -35,6 +36,9 @@ import java.util.Map;
 public class GroovyTemplateEmitter extends TemplateEmitter
 {
 
+   /** The template name. */
+   private final FQN name;
+
    /** . */
    private StringBuilder out = new StringBuilder();
 
@@ -62,8 +66,9 @@ public class GroovyTemplateEmitter extends TemplateEmitter
    /** . */
    private final int[] closureCountStack = new int[200];
 
-   public GroovyTemplateEmitter()
+   public GroovyTemplateEmitter(FQN name)
    {
+      this.name = name;
    }
 
    @Override
@@ -71,12 +76,18 @@ public class GroovyTemplateEmitter extends TemplateEmitter
    {
       StringBuilder builder = new StringBuilder();
 
+      // Declare the package on the first line to keep the line table valid
+      if (!name.getPackageName().isEmpty())
+      {
+         builder.append("package ").append(name.getPackageName()).append(";");
+      }
+
       // Add main stuff
       builder.append(out.toString());
 
       //
       builder.append("\n");
-      builder.append("public static class Constants\n");
+      builder.append("public static class ").append(GroovyTemplateStub.getConstantsName(name.getSimpleName())).append("\n");
       builder.append("{\n");
 
       // Add text constant
@@ -124,10 +135,10 @@ public class GroovyTemplateEmitter extends TemplateEmitter
       return builder.toString();
    }
 
-   public GroovyTemplateStub build(String templateId)
+   public GroovyTemplateStub build()
    {
       final String script = toString();
-      return new GroovyTemplateStub(templateId)
+      return new GroovyTemplateStub(name.getFullName())
       {
          @Override
          public String getScript()
@@ -176,7 +187,7 @@ public class GroovyTemplateEmitter extends TemplateEmitter
    public void appendText(String text)
    {
       TextConstant m = new TextConstant("s" + methodCount++, text);
-      out.append(";out.print(Constants.").append(m.name).append(");\n");
+      out.append(";out.print(").append(GroovyTemplateStub.getConstantsName(name.getSimpleName())).append(".").append(m.name).append(");\n");
       textMethods.add(m);
       lineNumber++;
    }
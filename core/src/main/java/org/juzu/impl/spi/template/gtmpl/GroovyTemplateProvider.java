@@ -19,9 +19,19 @@
 
 package org.juzu.impl.spi.template.gtmpl;
 
+import groovy.lang.GroovyClassLoader;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
 import org.juzu.impl.spi.template.TemplateEmitter;
 import org.juzu.impl.spi.template.TemplateProvider;
 import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.impl.utils.FQN;
+
+import javax.lang.model.util.Elements;
+import java.util.HashMap;
+import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class GroovyTemplateProvider extends TemplateProvider
@@ -34,9 +44,9 @@ public class GroovyTemplateProvider extends TemplateProvider
    }
 
    @Override
-   public TemplateEmitter createEmitter()
+   public TemplateEmitter createEmitter(FQN name)
    {
-      return new GroovyTemplateEmitter();
+      return new GroovyTemplateEmitter(name);
    }
 
    @Override
@@ -44,4 +54,26 @@ public class GroovyTemplateProvider extends TemplateProvider
    {
       return "groovy";
    }
+
+   @Override
+   public Map<String, byte[]> compile(Elements elements, FQN name, String script) throws Exception
+   {
+      CompilerConfiguration config = new CompilerConfiguration();
+      config.setScriptBaseClass(BaseScript.class.getName());
+
+      // The types of the current compilation are not yet loadable, they are resolved with placeholders
+      ElementClassLoader parent = new ElementClassLoader(GroovyTemplateProvider.class.getClassLoader(), elements);
+      CompilationUnit unit = new CompilationUnit(config, null, new GroovyClassLoader(parent, config));
+      unit.addSource(GroovyTemplateStub.getScriptName(name.getSimpleName()) + ".groovy", script);
+      unit.compile(Phases.CLASS_GENERATION);
+
+      //
+      Map<String, byte[]> classes = new HashMap<String, byte[]>();
+      for (Object o : unit.getClasses())
+      {
+         GroovyClass compiled = (GroovyClass)o;
+         classes.put(compiled.getName(), compiled.getBytes());
+      }
+      return classes;
+   }
 }
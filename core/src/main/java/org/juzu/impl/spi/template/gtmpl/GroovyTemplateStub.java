@@ -39,11 +39,11 @@ public abstract class GroovyTemplateStub extends TemplateStub
    /** . */
    protected final String templateId;
 
-   /** . */
-   private Class<?> scriptClass;
+   /** The compiled script class, written last so it publishes the location table as well. */
+   private volatile Class<?> scriptClass;
 
    /** . */
-   private HashMap<Integer, Foo> locationTable;
+   private volatile HashMap<Integer, Foo> locationTable;
 
    protected GroovyTemplateStub()
    {
@@ -58,25 +58,73 @@ public abstract class GroovyTemplateStub extends TemplateStub
       this.locationTable = null;
    }
 
+   /**
+    * Returns the simple name of the script class of a template.
+    *
+    * @param templateName the template simple name
+    * @return the script class simple name
+    */
+   public static String getScriptName(String templateName)
+   {
+      return templateName + "_script";
+   }
+
+   /**
+    * Returns the simple name of the class holding the constants of a template script.
+    *
+    * @param templateName the template simple name
+    * @return the constants class simple name
+    */
+   public static String getConstantsName(String templateName)
+   {
+      return templateName + "_constants";
+   }
+
+   @Override
+   public synchronized void init(ClassLoader loader) throws Exception
+   {
+      if (scriptClass == null)
+      {
+         int pos = templateId.lastIndexOf('.');
+         String prefix = templateId.substring(0, pos + 1);
+         String templateName = templateId.substring(pos + 1);
+
+         //
+         Class<?> scriptClass;
+         try
+         {
+            // The script may have been compiled at build time
+            scriptClass = loader.loadClass(prefix + getScriptName(templateName));
+         }
+         catch (ClassNotFoundException e)
+         {
+            CompilerConfiguration config = new CompilerConfiguration();
+            config.setScriptBaseClass(BaseScript.class.getName());
+            String script = getScript();
+            GroovyCodeSource gcs = new GroovyCodeSource(new ByteArrayInputStream(script.getBytes()), getScriptName(templateName) + ".groovy", "/groovy/shell");
+            GroovyClassLoader groovyLoader = new GroovyClassLoader(loader, config);
+            scriptClass = groovyLoader.parseClass(gcs, false);
+         }
+         Class<?> constants = scriptClass.getClassLoader().loadClass(prefix + getConstantsName(templateName));
+         locationTable = (HashMap<Integer, Foo>)constants.getField("TABLE").get(null);
+         this.scriptClass = scriptClass;
+      }
+   }
+
    private Class<?> getScriptClass()
    {
+      Class<?> scriptClass = this.scriptClass;
       if (scriptClass == null)
       {
-         CompilerConfiguration config = new CompilerConfiguration();
-         config.setScriptBaseClass(BaseScript.class.getName());
-         String script = getScript();
-         GroovyCodeSource gcs = new GroovyCodeSource(new ByteArrayInputStream(script.getBytes()), "myscript", "/groovy/shell");
-         GroovyClassLoader loader = new GroovyClassLoader(Thread.currentThread().getContextClassLoader(), config);
          try
          {
-            scriptClass = loader.parseClass(gcs, false);
-            Class<?> constants = scriptClass.getClassLoader().loadClass("Constants");
-            locationTable = (HashMap<Integer, Foo>)constants.getField("TABLE").get(null);
+            init(Thread.currentThread().getContextClassLoader());
          }
          catch (Exception e)
          {
             throw new UnsupportedOperationException("handle me gracefully", e);
          }
+         scriptClass = this.scriptClass;
       }
       return scriptClass;
    }
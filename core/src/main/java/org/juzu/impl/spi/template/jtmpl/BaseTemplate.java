@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.jtmpl;
+
+import org.juzu.UndeclaredIOException;
+import org.juzu.impl.application.ApplicationException;
+import org.juzu.template.Renderable;
+import org.juzu.template.TagHandler;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.CharArray;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.text.DateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The base class of the classes generated by the {@link JavaTemplateEmitter}, it provides the statically typed
+ * methods the generated code calls.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public abstract class BaseTemplate
+{
+
+   protected BaseTemplate()
+   {
+   }
+
+   public abstract void render(TemplateRenderContext renderContext) throws IOException;
+
+   protected static void print(TemplateRenderContext renderContext, CharArray chars) throws IOException
+   {
+      renderContext.getPrinter().write(chars);
+   }
+
+   protected static void print(TemplateRenderContext renderContext, String s) throws IOException
+   {
+      renderContext.getPrinter().write(s == null ? "null" : s);
+   }
+
+   protected static void print(TemplateRenderContext renderContext, char c) throws IOException
+   {
+      renderContext.getPrinter().write(c);
+   }
+
+   protected static void print(TemplateRenderContext renderContext, int i) throws IOException
+   {
+      renderContext.getPrinter().write(Integer.toString(i));
+   }
+
+   protected static void print(TemplateRenderContext renderContext, long l) throws IOException
+   {
+      renderContext.getPrinter().write(Long.toString(l));
+   }
+
+   protected static void print(TemplateRenderContext renderContext, boolean b) throws IOException
+   {
+      renderContext.getPrinter().write(b ? "true" : "false");
+   }
+
+   protected static void print(TemplateRenderContext renderContext, double d) throws IOException
+   {
+      renderContext.getPrinter().write(Double.toString(d));
+   }
+
+   protected static void print(TemplateRenderContext renderContext, Object o) throws IOException
+   {
+      if (o instanceof CharArray)
+      {
+         renderContext.getPrinter().write((CharArray)o);
+      }
+      else if (o instanceof Date)
+      {
+         Locale locale = renderContext.getLocale();
+         if (locale != null)
+         {
+            DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.MEDIUM, locale);
+            renderContext.getPrinter().write(dateFormat.format((Date)o));
+         }
+         else
+         {
+            renderContext.getPrinter().write(o.toString());
+         }
+      }
+      else
+      {
+         renderContext.getPrinter().write(o == null ? "null" : o.toString());
+      }
+   }
+
+   protected static Object getAttribute(TemplateRenderContext renderContext, String name)
+   {
+      Map<String, ?> attributes = renderContext.getAttributes();
+      return attributes != null ? attributes.get(name) : null;
+   }
+
+   protected static Object resolveBean(TemplateRenderContext renderContext, String name)
+   {
+      try
+      {
+         return renderContext.resolveBean(name);
+      }
+      catch (ApplicationException e)
+      {
+         Throwable cause = e.getCause();
+         if (cause instanceof RuntimeException)
+         {
+            throw (RuntimeException)cause;
+         }
+         else if (cause instanceof Error)
+         {
+            throw (Error)cause;
+         }
+         else
+         {
+            throw new UndeclaredThrowableException(cause);
+         }
+      }
+   }
+
+   protected static void renderTag(TemplateRenderContext renderContext, TagHandler handler, Renderable body, Map<String, String> args) throws IOException
+   {
+      handler.render(renderContext, body, args);
+   }
+
+   /**
+    * The body of a tag, the generated code implements the {@link #doRender(TemplateRenderContext)} method and the
+    * body wraps its io exceptions in an {@link UndeclaredIOException}.
+    */
+   protected abstract static class Body implements Renderable
+   {
+
+      public final void render(TemplateRenderContext context) throws UndeclaredIOException
+      {
+         try
+         {
+            doRender(context);
+         }
+         catch (IOException e)
+         {
+            throw new UndeclaredIOException(e);
+         }
+      }
+
+      protected abstract void doRender(TemplateRenderContext renderContext) throws IOException;
+   }
+
+   protected static Map<String, String> args(String... pairs)
+   {
+      if (pairs.length == 0)
+      {
+         return null;
+      }
+      else
+      {
+         HashMap<String, String> args = new HashMap<String, String>();
+         for (int i = 0;i < pairs.length;i += 2)
+         {
+            args.put(pairs[i], pairs[i + 1]);
+         }
+         return Collections.unmodifiableMap(args);
+      }
+   }
+}
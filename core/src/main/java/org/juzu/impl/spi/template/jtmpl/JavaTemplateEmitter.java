@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.jtmpl;
+
+import org.juzu.impl.spi.template.TemplateEmitter;
+import org.juzu.impl.tags.ParamTag;
+import org.juzu.impl.template.SectionType;
+import org.juzu.impl.utils.FQN;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.CharArray;
+import org.juzu.text.Location;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emits a Java class from a template, each node of the template becomes a statically typed call of the
+ * {@link BaseTemplate} class. Tag bodies are emitted as anonymous {@link BaseTemplate.Body} classes, therefore the
+ * local variables of the scriptlets used in a tag body must be declared final. A parameter is a final local variable
+ * of the type given by the <code>type</code> argument of its tag, for instance <code>#{param name=foo type=String/}</code>,
+ * it is an <code>Object</code> when no type is given.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JavaTemplateEmitter extends TemplateEmitter
+{
+
+   /** The template name. */
+   private final FQN name;
+
+   /** The render method body. */
+   private final StringBuilder out = new StringBuilder();
+
+   /** The static fields. */
+   private final StringBuilder fields = new StringBuilder();
+
+   /** . */
+   private int constantCount = 0;
+
+   /** . */
+   private int argsCount = 0;
+
+   /** . */
+   private int tagIndex = -1;
+
+   /** Tells which opened tags are parameter declarations. */
+   private final boolean[] paramStack = new boolean[200];
+
+   public JavaTemplateEmitter(FQN name)
+   {
+      this.name = name;
+   }
+
+   @Override
+   public String toString()
+   {
+      StringBuilder builder = new StringBuilder();
+      if (!name.getPackageName().isEmpty())
+      {
+         builder.append("package ").append(name.getPackageName()).append(";\n");
+      }
+      builder.append("public class ").append(JavaTemplateStub.getScriptName(name.getSimpleName())).
+         append(" extends ").append(BaseTemplate.class.getName()).append("\n");
+      builder.append("{\n");
+      builder.append(fields);
+      builder.append("public void render(").append(TemplateRenderContext.class.getName()).append(" renderContext) throws ").
+         append(IOException.class.getName()).append("\n");
+      builder.append("{\n");
+      builder.append(out);
+      builder.append("}\n");
+      builder.append("}\n");
+      return builder.toString();
+   }
+
+   public void startScriptlet(Location beginPosition)
+   {
+   }
+
+   public void appendScriptlet(String scriptlet)
+   {
+      out.append(scriptlet);
+   }
+
+   public void endScriptlet()
+   {
+      out.append("\n");
+   }
+
+   public void startExpression(Location beginPosition)
+   {
+      out.append("print(renderContext, (");
+   }
+
+   public void appendExpression(String expr)
+   {
+      out.append(expr);
+   }
+
+   public void endExpression()
+   {
+      out.append("));\n");
+   }
+
+   public void appendText(String text)
+   {
+      String constant = "s" + constantCount++;
+      fields.append("private static final ").append(CharArray.Simple.class.getName()).append(" ").append(constant).
+         append(" = new ").append(CharArray.Simple.class.getName()).append("(");
+      literal(text, fields);
+      fields.append(");\n");
+      out.append("print(renderContext, ").append(constant).append(");\n");
+   }
+
+   public void appendLineBreak(SectionType currentType, Location position)
+   {
+      switch (currentType)
+      {
+         case SCRIPTLET:
+         case EXPR:
+            out.append("\n");
+            break;
+         default:
+            throw new AssertionError();
+      }
+   }
+
+   @Override
+   public void url(String typeName, String methodName, List<String> args)
+   {
+      out.append("print(renderContext, ").append(typeName).append(".").append(methodName).append("(");
+      for (int i = 0;i < args.size();i++)
+      {
+         if (i > 0)
+         {
+            out.append(",");
+         }
+         out.append(args.get(i));
+      }
+      out.append("));\n");
+   }
+
+   @Override
+   public void openTag(String className, Map<String, String> args) throws IOException
+   {
+      boolean param = ParamTag.class.getName().equals(className);
+      paramStack[++tagIndex] = param;
+      if (param)
+      {
+         // Parameters are declared as local variables of the declared type or Object
+         String paramName = args.get("name");
+         String paramType = args.get("type");
+         if (paramType != null)
+         {
+            out.append("final ").append(paramType).append(" ").append(paramName).append(" = (").append(paramType).append(")");
+         }
+         else
+         {
+            out.append("final Object ").append(paramName).append(" = ");
+         }
+         out.append("getAttribute(renderContext, ");
+         literal(paramName, out);
+         out.append(");\n");
+      }
+      else
+      {
+         out.append("renderTag(renderContext, new ").append(className).append("(), new ").append(BaseTemplate.Body.class.getCanonicalName()).append("()\n");
+         out.append("{\n");
+         out.append("protected void doRender(").append(TemplateRenderContext.class.getName()).append(" renderContext) throws ").
+            append(IOException.class.getName()).append("\n");
+         out.append("{\n");
+      }
+   }
+
+   @Override
+   public void closeTag(String className, Map<String, String> args) throws IOException
+   {
+      if (!paramStack[tagIndex--])
+      {
+         out.append("}\n");
+         out.append("}, ");
+         if (args == null || args.isEmpty())
+         {
+            out.append("null");
+         }
+         else
+         {
+            String constant = "a" + argsCount++;
+            fields.append("private static final java.util.Map<String, String> ").append(constant).append(" = args(");
+            int index = 0;
+            for (Map.Entry<String, String> entry : args.entrySet())
+            {
+               if (index++ > 0)
+               {
+                  fields.append(", ");
+               }
+               literal(entry.getKey(), fields);
+               fields.append(", ");
+               literal(entry.getValue(), fields);
+            }
+            fields.append(");\n");
+            out.append(constant);
+         }
+         out.append(");\n");
+      }
+   }
+
+   @Override
+   public void tag(String tagName, Map<String, String> args)
+   {
+   }
+
+   private static void literal(String s, StringBuilder sb)
+   {
+      sb.append('"');
+      for (int i = 0;i < s.length();i++)
+      {
+         char c = s.charAt(i);
+         switch (c)
+         {
+            case '\n':
+               sb.append("\\n");
+               break;
+            case '\r':
+               sb.append("\\r");
+               break;
+            case '\t':
+               sb.append("\\t");
+               break;
+            case '"':
+               sb.append("\\\"");
+               break;
+            case '\\':
+               sb.append("\\\\");
+               break;
+            default:
+               if (c < 0x20 || c > 0x7E)
+               {
+                  sb.append(String.format("\\u%04X", (int)c));
+               }
+               else
+               {
+                  sb.append(c);
+               }
+         }
+      }
+      sb.append('"');
+   }
+}
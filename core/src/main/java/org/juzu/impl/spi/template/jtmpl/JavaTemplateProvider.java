@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.jtmpl;
+
+import org.juzu.impl.spi.template.TemplateEmitter;
+import org.juzu.impl.spi.template.TemplateProvider;
+import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.impl.utils.FQN;
+
+/**
+ * A template provider that compiles templates to Java classes, the scriptlets and the expressions
+ * of the template are Java code. The parameters are typed by the <code>type</code> argument of their
+ * <code>param</code> tag, see {@link JavaTemplateEmitter}.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JavaTemplateProvider extends TemplateProvider
+{
+
+   @Override
+   public Class<? extends TemplateStub> getTemplateStubType()
+   {
+      return JavaTemplateStub.class;
+   }
+
+   @Override
+   public TemplateEmitter createEmitter(FQN name)
+   {
+      return new JavaTemplateEmitter(name);
+   }
+
+   @Override
+   public String getTargetExtension()
+   {
+      return "java";
+   }
+
+   @Override
+   public FQN getSourceName(FQN name)
+   {
+      return new FQN(name.getPackageName(), JavaTemplateStub.getScriptName(name.getSimpleName()));
+   }
+}
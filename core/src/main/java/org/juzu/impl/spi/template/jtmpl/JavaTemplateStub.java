@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.template.jtmpl;
+
+import org.juzu.UndeclaredIOException;
+import org.juzu.impl.spi.template.TemplateStub;
+import org.juzu.template.TemplateExecutionException;
+import org.juzu.template.TemplateRenderContext;
+
+import java.io.IOException;
+
+/**
+ * The stub of a template compiled to a Java class, the rendering is delegated to the {@link BaseTemplate}
+ * subclass generated for the template.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public abstract class JavaTemplateStub extends TemplateStub
+{
+
+   /**
+    * Returns the simple name of the class generated for a template.
+    *
+    * @param templateName the template simple name
+    * @return the generated class simple name
+    */
+   public static String getScriptName(String templateName)
+   {
+      return templateName + "_script";
+   }
+
+   /** . */
+   protected final String templateId;
+
+   /** . */
+   private volatile BaseTemplate template;
+
+   protected JavaTemplateStub()
+   {
+      String name = getClass().getName();
+      this.templateId = name.substring(0, name.length() - 1); // Remove trailing _
+   }
+
+   @Override
+   public synchronized void init(ClassLoader loader) throws Exception
+   {
+      if (template == null)
+      {
+         int pos = templateId.lastIndexOf('.');
+         String name = templateId.substring(0, pos + 1) + getScriptName(templateId.substring(pos + 1));
+         template = (BaseTemplate)loader.loadClass(name).newInstance();
+      }
+   }
+
+   @Override
+   public void render(TemplateRenderContext renderContext) throws TemplateExecutionException, IOException
+   {
+      BaseTemplate template = this.template;
+      if (template == null)
+      {
+         try
+         {
+            init(Thread.currentThread().getContextClassLoader());
+         }
+         catch (Exception e)
+         {
+            throw new UnsupportedOperationException("handle me gracefully", e);
+         }
+         template = this.template;
+      }
+
+      //
+      try
+      {
+         template.render(renderContext);
+      }
+      catch (UndeclaredIOException e)
+      {
+         throw (IOException)e.getCause();
+      }
+      catch (TemplateExecutionException e)
+      {
+         throw e;
+      }
+      catch (RuntimeException e)
+      {
+         throw new TemplateExecutionException(templateId, null, null, e);
+      }
+   }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.tags;
+
+import org.juzu.impl.application.FragmentCache;
+import org.juzu.impl.compiler.CompilationException;
+import org.juzu.impl.inject.ScopeController;
+import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.model.CompilationErrorCode;
+import org.juzu.impl.request.Scope;
+import org.juzu.impl.template.ASTNode;
+import org.juzu.impl.template.compiler.ExtendedTagHandler;
+import org.juzu.impl.template.compiler.ProcessPhase;
+import org.juzu.impl.template.compiler.Template;
+import org.juzu.template.Renderable;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.text.CharArray;
+import org.juzu.text.Printer;
+import org.juzu.text.WriterPrinter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Caches the rendered body of the tag in the fragment cache of the application. The tag arguments are:
+ *
+ * <ul>
+ *    <li><code>key</code>: the fragment key</li>
+ *    <li><code>ttl</code>: the optional fragment time to live in seconds</li>
+ *    <li><code>scope</code>: the optional key scope among <code>application</code> (the default),
+ *    <code>session</code> and <code>locale</code></li>
+ * </ul>
+ *
+ * Only the output of the body is cached, the other effects of the body (such as setting the title) happen
+ * only when the body is rendered.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class CacheTag extends ExtendedTagHandler
+{
+
+   @Override
+   public void compile(ProcessPhase phase, ASTNode.Tag tag, Template t) throws CompilationException
+   {
+      Map<String, String> args = tag.getArgs();
+      String key = args.get("key");
+      if (key == null || key.length() == 0)
+      {
+         throw new CompilationException(CompilationErrorCode.TEMPLATE_ILLEGAL_TAG_ARGUMENT, tag.getName(), "key", key);
+      }
+      String ttl = args.get("ttl");
+      if (ttl != null)
+      {
+         try
+         {
+            if (Integer.parseInt(ttl) < 0)
+            {
+               throw new CompilationException(CompilationErrorCode.TEMPLATE_ILLEGAL_TAG_ARGUMENT, tag.getName(), "ttl", ttl);
+            }
+         }
+         catch (NumberFormatException e)
+         {
+            throw new CompilationException(CompilationErrorCode.TEMPLATE_ILLEGAL_TAG_ARGUMENT, tag.getName(), "ttl", ttl);
+         }
+      }
+      String scope = args.get("scope");
+      if (scope != null && !scope.equals("application") && !scope.equals("session") && !scope.equals("locale"))
+      {
+         throw new CompilationException(CompilationErrorCode.TEMPLATE_ILLEGAL_TAG_ARGUMENT, tag.getName(), "scope", scope);
+      }
+   }
+
+   @Override
+   public void render(TemplateRenderContext context, Renderable body, Map<String, String> args) throws IOException
+   {
+      FragmentCache cache = context.getFragmentCache();
+      if (cache == null)
+      {
+         body.render(context);
+         return;
+      }
+
+      //
+      Object scope;
+      String scopeName = args.get("scope");
+      if ("session".equals(scopeName))
+      {
+         if (!ScopeController.INSTANCE.isActive(Scope.SESSION))
+         {
+            body.render(context);
+            return;
+         }
+         Scoped scoped = ScopeController.INSTANCE.get(Scope.SESSION, cache);
+         if (scoped == null)
+         {
+            ScopeController.INSTANCE.put(Scope.SESSION, cache, scoped = cache.createSessionScope());
+         }
+         scope = scoped;
+      }
+      else if ("locale".equals(scopeName))
+      {
+         scope = context.getLocale();
+      }
+      else
+      {
+         scope = null;
+      }
+
+      //
+      FragmentCache.Key key = new FragmentCache.Key(args.get("key"), scope);
+      CharArray fragment = cache.get(key);
+      if (fragment == null)
+      {
+         StringBuilder buffer = new StringBuilder();
+         Printer printer = context.setPrinter(new WriterPrinter(buffer));
+         try
+         {
+            body.render(context);
+         }
+         finally
+         {
+            context.setPrinter(printer);
+         }
+         fragment = new CharArray.Simple(buffer.toString());
+         String ttl = args.get("ttl");
+         cache.put(key, fragment, ttl != null ? Integer.parseInt(ttl) * 1000L : 0);
+      }
+      context.getPrinter().write(fragment);
+   }
+}
@@ -26,6 +26,9 @@ import java.util.regex.Pattern;
 public class TemplatePlugin extends MetaModelPlugin
 {
 
+   /** The processor option that enables the compilation of the template scripts at build time. */
+   public static final String PRECOMPILE_OPTION = "juzu.template.precompile";
+
    /** . */
    public static final Pattern TEMPLATE_PATH_PATTERN = Pattern.compile("([^/].*/|)([^./]+)\\.([a-zA-Z]+)");
 
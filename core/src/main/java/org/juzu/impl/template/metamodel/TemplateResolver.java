@@ -48,12 +48,15 @@ import javax.tools.FileObject;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -87,6 +90,12 @@ public class TemplateResolver implements Serializable
    /** . */
    private Map<FQN, FileObject> classCache;
 
+   /** The scripts generated by a previous compilation, they survive passivation. */
+   private Set<String> scripts;
+
+   /** The controllers the scripts were generated against. */
+   private String controllers;
+
    public TemplateResolver(ApplicationMetaModel application)
    {
       if (application == null)
@@ -100,6 +109,8 @@ public class TemplateResolver implements Serializable
       this.resourceCache = new HashMap<String, FileObject>();
       this.stubCache = new HashMap<FQN, FileObject>();
       this.classCache = new HashMap<FQN, FileObject>();
+      this.scripts = new HashSet<String>();
+      this.controllers = null;
    }
 
    public Collection<Template> getTemplates()
@@ -133,12 +144,14 @@ public class TemplateResolver implements Serializable
          {
             // That will generate a template not found error
             i.remove();
+            scripts.remove(template.getFQN().getFullName() + ".groovy");
             log.log("Detected template removal " + template.getFQN());
          }
          else if (content.getLastModified() > template.getLastModified())
          {
             // That will force the regeneration of the template
             i.remove();
+            scripts.remove(template.getFQN().getFullName() + ".groovy");
             log.log("Detected stale template " + template.getFQN());
          }
          else
@@ -147,6 +160,15 @@ public class TemplateResolver implements Serializable
          }
       }
 
+      // Scripts resolve controller method invocations, they are stale when the controllers change
+      String controllers = application.getControllers().toJSON().toString();
+      if (!controllers.equals(this.controllers))
+      {
+         log.log("Detected controller changes, evicting scripts " + scripts);
+         scripts.clear();
+         this.controllers = controllers;
+      }
+
       // Build missing templates
       log.log("Building missing templates");
       Map<String, Template> copy = new HashMap<String, Template>(templates);
@@ -209,13 +231,26 @@ public class TemplateResolver implements Serializable
 
             // If it's the cache we do nothing
             String key = template.getFQN().getFullName() + ".groovy";
+            if (!resourceCache.containsKey(key) && scripts.contains(key))
+            {
+               FileObject scriptFile = getScript(template, provider, context);
+               if (scriptFile != null)
+               {
+                  log.log("Template " + key + " was generated by a previous compilation");
+                  resourceCache.put(key, scriptFile);
+               }
+               else
+               {
+                  scripts.remove(key);
+               }
+            }
             if (!resourceCache.containsKey(key))
             {
                //
                Writer writer = null;
                try
                {
-                  TemplateEmitter generator = provider.createEmitter();
+                  TemplateEmitter generator = provider.createEmitter(template.getFQN());
                   ASTNode.Template ast = template.getAST();
                   EmitPhase tcc = new EmitPhase(new EmitContext()
                   {
@@ -245,16 +280,36 @@ public class TemplateResolver implements Serializable
                   tcc.emit(generator, ast);
 
                   //
-                  FileObject scriptFile = context.createResource(StandardLocation.CLASS_OUTPUT, template.getFQN().getPackageName(), template.getFQN().getSimpleName() + "." + provider.getTargetExtension(), elements);
+                  FileObject scriptFile;
+                  FQN sourceName = provider.getSourceName(template.getFQN());
+                  if (sourceName != null)
+                  {
+                     scriptFile = context.createSourceFile(sourceName.getFullName(), elements);
+                  }
+                  else
+                  {
+                     scriptFile = context.createResource(StandardLocation.CLASS_OUTPUT, template.getFQN().getPackageName(), template.getFQN().getSimpleName() + "." + provider.getTargetExtension(), elements);
+                  }
+                  String script = generator.toString();
                   writer = scriptFile.openWriter();
-                  writer.write(generator.toString());
-
-                  // Put it in cache
-                  resourceCache.put(key, scriptFile);
+                  writer.write(script);
 
                   //
                   log.log("Generated template script " + template.getFQN().getFullName() + " as " + scriptFile.toUri() +
                      " with originating elements " + Arrays.asList(elements));
+
+                  //
+                  if (Boolean.parseBoolean(context.getOption(TemplatePlugin.PRECOMPILE_OPTION)))
+                  {
+                     compileScript(template, provider, script, context, elements);
+                  }
+
+                  // Put it in cache
+                  resourceCache.put(key, scriptFile);
+                  if (sourceName == null)
+                  {
+                     scripts.add(key);
+                  }
                }
                catch (IOException e)
                {
@@ -276,6 +331,78 @@ public class TemplateResolver implements Serializable
       });
    }
 
+   /**
+    * Returns the script previously generated in the class output or null when it cannot be found. Only scripts
+    * that are resources are returned since the script sources must be processed by the compiler.
+    *
+    * @param template the template
+    * @param provider the template provider
+    * @param context the processing context
+    * @return the script file
+    */
+   private FileObject getScript(Template template, TemplateProvider provider, ProcessingContext context)
+   {
+      if (provider.getSourceName(template.getFQN()) == null)
+      {
+         InputStream in = null;
+         try
+         {
+            FileObject scriptFile = context.getResource(StandardLocation.CLASS_OUTPUT, template.getFQN().getPackageName(), template.getFQN().getSimpleName() + "." + provider.getTargetExtension());
+            in = scriptFile.openInputStream();
+            return scriptFile;
+         }
+         catch (IOException ignore)
+         {
+         }
+         finally
+         {
+            Tools.safeClose(in);
+         }
+      }
+      return null;
+   }
+
+   private void compileScript(Template template, TemplateProvider provider, String script, ProcessingContext context, Element[] elements)
+   {
+      Map<String, byte[]> classes;
+      try
+      {
+         classes = provider.compile(context, template.getFQN(), script);
+      }
+      catch (Exception e)
+      {
+         throw new CompilationException(e, CompilationErrorCode.CANNOT_COMPILE_TEMPLATE_SCRIPT, template.getPath(), e.getMessage());
+      }
+
+      //
+      if (classes != null)
+      {
+         for (Map.Entry<String, byte[]> entry : classes.entrySet())
+         {
+            OutputStream out = null;
+            try
+            {
+               JavaFileObject classFile = context.createClassFile(entry.getKey(), elements);
+               out = classFile.openOutputStream();
+               out.write(entry.getValue());
+               log.log("Compiled template script class " + entry.getKey() + " as " + classFile.toUri());
+            }
+            catch (IOException e)
+            {
+               throw new CompilationException(e, CompilationErrorCode.CANNOT_WRITE_TEMPLATE_SCRIPT, template.getPath());
+            }
+            finally
+            {
+               Tools.safeClose(out);
+            }
+         }
+      }
+      else
+      {
+         log.log("Template provider for " + template.getPath() + " does not support script compilation");
+      }
+   }
+
    private void resolvedQualified(Template template, ProcessingContext context, Element[] elements)
    {
       if (classCache.containsKey(template.getFQN()))
@@ -19,12 +19,8 @@
 
 package org.juzu.impl.utils;
 
-import javax.script.Bindings;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
-import javax.script.SimpleBindings;
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -32,36 +28,15 @@ import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicReference;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public final class JSON
 {
 
-   /** . */
-   private static final ScriptEngine engine;
-
-   static
-   {
-      try
-      {
-         String init = Tools.read(Tools.class.getResource("json.js"));
-         ScriptEngine tmp = new ScriptEngineManager().getEngineByName("JavaScript");
-         tmp.eval(init);
-         engine = tmp;
-      }
-      catch (Exception e)
-      {
-         // Unexpected
-         throw new AssertionError(e);
-      }
-   }
-
    private static final Set<Class<?>> simpleTypes = new HashSet<Class<?>>(Arrays.asList(
       Integer.class,
       Long.class,
@@ -176,7 +151,7 @@ public final class JSON
       }
       else
       {
-         engine.put(name, null);
+         entries.put(name, null);
       }
       return this;
    }
@@ -325,131 +300,129 @@ public final class JSON
 
    public static <A extends Appendable> A toString(Object o, A appendable, int indent) throws IOException
    {
-      return toString(o, appendable, 0, indent);
+      write(o, new JSONWriter(appendable, indent));
+      return appendable;
    }
 
-   private static <A extends Appendable> A toString(Object o, A appendable, final int margin, final int indent) throws IOException
+   /**
+    * Writes a value with a writer.
+    *
+    * @param o the value
+    * @param writer the writer
+    * @throws IOException any io exception
+    */
+   public static void write(Object o, JSONWriter writer) throws IOException
    {
       if (o == null)
       {
-         appendable.append("null");
+         writer.nullValue();
       }
       else if (o instanceof JSON)
       {
-         JSON m = (JSON)o;
-         appendable.append('{');
-         for (Iterator<? extends Map.Entry<?, ?>> iterator = m.entries.entrySet().iterator();iterator.hasNext();)
+         writer.beginObject();
+         for (Map.Entry<String, Object> entry : ((JSON)o).entries.entrySet())
          {
-            Map.Entry<?, ?> entry = iterator.next();
-            if (indent > 0)
-            {
-               appendable.append('\n');
-               pad(appendable, margin + indent);
-            }
-            appendable.append('"');
-            appendable.append(entry.getKey().toString());
-            appendable.append("\":");
-            toString(entry.getValue(), appendable, margin + indent, indent);
-            if (iterator.hasNext())
-            {
-               appendable.append(',');
-            }
-            else if (indent > 0)
-            {
-               appendable.append('\n');
-               pad(appendable, margin);
-            }
+            writer.name(entry.getKey());
+            write(entry.getValue(), writer);
          }
-         appendable.append('}');
+         writer.endObject();
       }
       else if (o instanceof List)
       {
-         appendable.append('[');
-         List<?> list = (List<?>)o;
-         for (Iterator<?> i = list.iterator();i.hasNext();)
+         writer.beginArray();
+         for (Object element : (List<?>)o)
          {
-            Object e = i.next();
-            if (indent > 0)
-            {
-               appendable.append('\n');
-               pad(appendable, margin + indent);
-            }
-            toString(e, appendable, margin + indent, indent);
-            if (i.hasNext())
-            {
-               appendable.append(',');
-            }
-            else if (indent > 0)
-            {
-               appendable.append('\n');
-               pad(appendable, margin);
-            }
+            write(element, writer);
          }
-         appendable.append(']');
+         writer.endArray();
       }
-      else if (o instanceof Boolean || o instanceof Number)
+      else if (o instanceof Boolean)
       {
-         appendable.append(o.toString());
+         writer.value((Boolean)o);
       }
-      else
+      else if (o instanceof Number)
       {
-         appendable.append('"');
-         CharSequence s = o instanceof CharSequence ? (CharSequence)o : o.toString();
-         for (int i = 0, len = s.length();i < len;i++)
-         {
-            char c = s.charAt(i);
-            switch (c)
-            {
-               case '"':
-                  appendable.append("\\\"");
-                  break;
-               case '\n':
-                  appendable.append("\\n");
-                  break;
-               case '\r':
-                  appendable.append("\\r");
-                  break;
-               case '\b':
-                  appendable.append("\\b");
-                  break;
-               case '\f':
-                  appendable.append("\\f");
-                  break;
-               case '\t':
-                  appendable.append("\\t");
-                  break;
-               default:
-                  appendable.append(c);
-            }
-         }
-         appendable.append('"');
+         writer.value((Number)o);
       }
-
-      //
-      return appendable;
-   }
-
-   private static void pad(Appendable appendable, int size) throws IOException
-   {
-      while (size-- > 0)
+      else
       {
-         appendable.append(' ');
+         writer.value(o.toString());
       }
    }
 
-   public static Object parse(String json)
+   /**
+    * Parses a JSON document: objects are returned as {@link JSON} objects, arrays as lists, numbers as integers
+    * when possible.
+    *
+    * @param json the document
+    * @return the parsed value
+    * @throws IllegalArgumentException when the document is malformed
+    */
+   public static Object parse(String json) throws IllegalArgumentException
    {
       try
       {
-         Bindings bindings = new SimpleBindings();
-         String eval = "var tmp = (" + json + ");var o = new java.util.concurrent.atomic.AtomicReference(tmp.toJava());";
-         engine.eval(eval, bindings);
-         AtomicReference ret = (AtomicReference)bindings.get("o");
-         return ret.get();
+         return parse(new JSONReader(json));
       }
-      catch (ScriptException e)
+      catch (IOException e)
       {
+         // Cannot happen
          throw new AssertionError(e);
       }
    }
+
+   public static Object parse(Reader json) throws IOException, IllegalArgumentException
+   {
+      return parse(new JSONReader(json));
+   }
+
+   private static Object parse(JSONReader reader) throws IOException, IllegalArgumentException
+   {
+      Object value = read(reader, reader.next());
+
+      // Check there is nothing after the value
+      reader.next();
+      return value;
+   }
+
+   /**
+    * Reads the value starting with the current event of a reader.
+    *
+    * @param reader the reader
+    * @param event the current event
+    * @return the value
+    * @throws IOException any io exception
+    * @throws IllegalArgumentException when the document is malformed
+    */
+   public static Object read(JSONReader reader, JSONReader.Event event) throws IOException, IllegalArgumentException
+   {
+      switch (event)
+      {
+         case START_OBJECT:
+            JSON json = new JSON();
+            while ((event = reader.next()) == JSONReader.Event.NAME)
+            {
+               String name = reader.getString();
+               json.entries.put(name, read(reader, reader.next()));
+            }
+            return json;
+         case START_ARRAY:
+            ArrayList<Object> list = new ArrayList<Object>();
+            while ((event = reader.next()) != JSONReader.Event.END_ARRAY)
+            {
+               list.add(read(reader, event));
+            }
+            return list;
+         case STRING:
+            return reader.getString();
+         case NUMBER:
+            return reader.getNumber();
+         case BOOLEAN:
+            return reader.getBoolean();
+         case NULL:
+            return null;
+         default:
+            throw new IllegalArgumentException("Unexpected event " + event);
+      }
+   }
 }
@@ -0,0 +1,603 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * <p>A streaming JSON pull parser, the document is consumed one event at a time. The parser reads its input through
+ * a buffer and reuses a single builder for the string and number values.</p>
+ *
+ * <p>The parser is lenient in the same way the JavaScript parser it replaces is: strings can be delimited by single
+ * quotes and object names can be unquoted identifiers.</p>
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JSONReader
+{
+
+   public enum Event
+   {
+      START_OBJECT,
+      END_OBJECT,
+      START_ARRAY,
+      END_ARRAY,
+      NAME,
+      STRING,
+      NUMBER,
+      BOOLEAN,
+      NULL,
+      END
+   }
+
+   /** . */
+   private static final int EMPTY_DOCUMENT = 0;
+
+   /** . */
+   private static final int NONEMPTY_DOCUMENT = 1;
+
+   /** . */
+   private static final int EMPTY_OBJECT = 2;
+
+   /** . */
+   private static final int DANGLING_NAME = 3;
+
+   /** . */
+   private static final int NONEMPTY_OBJECT = 4;
+
+   /** . */
+   private static final int EMPTY_ARRAY = 5;
+
+   /** . */
+   private static final int NONEMPTY_ARRAY = 6;
+
+   /** . */
+   private final Reader reader;
+
+   /** . */
+   private final char[] buffer;
+
+   /** . */
+   private int pos;
+
+   /** . */
+   private int limit;
+
+   /** The number of chars consumed before the buffer. */
+   private int offset;
+
+   /** The states of the enclosing values. */
+   private int[] stack;
+
+   /** . */
+   private int depth;
+
+   /** The value of the current event. */
+   private final StringBuilder value;
+
+   /** . */
+   private Event event;
+
+   public JSONReader(CharSequence s)
+   {
+      this(new StringReader(s.toString()), Math.max(16, Math.min(s.length(), 1024)));
+   }
+
+   public JSONReader(Reader reader)
+   {
+      this(reader, 1024);
+   }
+
+   private JSONReader(Reader reader, int size)
+   {
+      this.reader = reader;
+      this.buffer = new char[size];
+      this.pos = 0;
+      this.limit = 0;
+      this.offset = 0;
+      this.stack = new int[8];
+      this.stack[0] = EMPTY_DOCUMENT;
+      this.depth = 1;
+      this.value = new StringBuilder();
+      this.event = null;
+   }
+
+   /**
+    * Returns the current event.
+    *
+    * @return the current event or null when the document was not yet read
+    */
+   public Event getEvent()
+   {
+      return event;
+   }
+
+   /**
+    * Returns the value of a {@link Event#NAME}, {@link Event#STRING}, {@link Event#NUMBER} or {@link Event#BOOLEAN}
+    * event as a string.
+    *
+    * @return the current string value
+    * @throws IllegalStateException when the current event has no value
+    */
+   public String getString() throws IllegalStateException
+   {
+      if (event != Event.NAME && event != Event.STRING && event != Event.NUMBER && event != Event.BOOLEAN)
+      {
+         throw new IllegalStateException("No string value for event " + event);
+      }
+      return value.toString();
+   }
+
+   /**
+    * Returns the value of a {@link Event#NUMBER} event: an integer when the value is an integer that fits, a long
+    * when it is a larger integer and otherwise a double.
+    *
+    * @return the current number value
+    * @throws IllegalStateException when the current event is not a number
+    */
+   public Number getNumber() throws IllegalStateException
+   {
+      if (event != Event.NUMBER)
+      {
+         throw new IllegalStateException("No number value for event " + event);
+      }
+      int len = value.length();
+      boolean integer = len < 19;
+      for (int i = 0;i < len && integer;i++)
+      {
+         char c = value.charAt(i);
+         integer = c != '.' && c != 'e' && c != 'E';
+      }
+      if (integer)
+      {
+         long l = Long.parseLong(value.toString());
+         if (l >= Integer.MIN_VALUE && l <= Integer.MAX_VALUE)
+         {
+            return (int)l;
+         }
+         else
+         {
+            return l;
+         }
+      }
+      else
+      {
+         return Double.valueOf(value.toString());
+      }
+   }
+
+   /**
+    * Returns the value of a {@link Event#BOOLEAN} event.
+    *
+    * @return the current boolean value
+    * @throws IllegalStateException when the current event is not a boolean
+    */
+   public boolean getBoolean() throws IllegalStateException
+   {
+      if (event != Event.BOOLEAN)
+      {
+         throw new IllegalStateException("No boolean value for event " + event);
+      }
+      return value.charAt(0) == 't';
+   }
+
+   /**
+    * Reads the next event.
+    *
+    * @return the next event
+    * @throws IOException any io exception
+    * @throws IllegalArgumentException when the document is malformed
+    */
+   public Event next() throws IOException, IllegalArgumentException
+   {
+      int c;
+      switch (stack[depth - 1])
+      {
+         case EMPTY_DOCUMENT:
+            stack[depth - 1] = NONEMPTY_DOCUMENT;
+            return event = readValue(nextNonWhitespace());
+         case NONEMPTY_DOCUMENT:
+            if (nextNonWhitespace() != -1)
+            {
+               throw malformed("Unexpected content after the document");
+            }
+            return event = Event.END;
+         case EMPTY_OBJECT:
+            c = nextNonWhitespace();
+            if (c == '}')
+            {
+               depth--;
+               return event = Event.END_OBJECT;
+            }
+            return event = readName(c);
+         case NONEMPTY_OBJECT:
+            c = nextNonWhitespace();
+            if (c == '}')
+            {
+               depth--;
+               return event = Event.END_OBJECT;
+            }
+            else if (c != ',')
+            {
+               throw malformed("Was expecting , or }");
+            }
+            return event = readName(nextNonWhitespace());
+         case DANGLING_NAME:
+            if (nextNonWhitespace() != ':')
+            {
+               throw malformed("Was expecting :");
+            }
+            stack[depth - 1] = NONEMPTY_OBJECT;
+            return event = readValue(nextNonWhitespace());
+         case EMPTY_ARRAY:
+            c = nextNonWhitespace();
+            if (c == ']')
+            {
+               depth--;
+               return event = Event.END_ARRAY;
+            }
+            stack[depth - 1] = NONEMPTY_ARRAY;
+            return event = readValue(c);
+         case NONEMPTY_ARRAY:
+            c = nextNonWhitespace();
+            if (c == ']')
+            {
+               depth--;
+               return event = Event.END_ARRAY;
+            }
+            else if (c != ',')
+            {
+               throw malformed("Was expecting , or ]");
+            }
+            return event = readValue(nextNonWhitespace());
+         default:
+            throw new AssertionError();
+      }
+   }
+
+   /**
+    * Skips the current value, when the current event starts an object or an array the reader is positioned on the
+    * event that ends it.
+    *
+    * @throws IOException any io exception
+    * @throws IllegalArgumentException when the document is malformed
+    */
+   public void skip() throws IOException, IllegalArgumentException
+   {
+      if (event == Event.START_OBJECT || event == Event.START_ARRAY)
+      {
+         int target = depth - 1;
+         while (depth > target)
+         {
+            next();
+         }
+      }
+   }
+
+   private Event readName(int c) throws IOException
+   {
+      if (c == '"' || c == '\'')
+      {
+         readString((char)c);
+      }
+      else if (c != -1 && Character.isJavaIdentifierStart(c))
+      {
+         readWord(c);
+      }
+      else
+      {
+         throw malformed("Was expecting a name");
+      }
+      stack[depth - 1] = DANGLING_NAME;
+      return Event.NAME;
+   }
+
+   private Event readValue(int c) throws IOException
+   {
+      switch (c)
+      {
+         case '{':
+            push(EMPTY_OBJECT);
+            return Event.START_OBJECT;
+         case '[':
+            push(EMPTY_ARRAY);
+            return Event.START_ARRAY;
+         case '"':
+         case '\'':
+            readString((char)c);
+            return Event.STRING;
+         case -1:
+            throw malformed("Unexpected end of document");
+         default:
+            if (c == '-' || (c >= '0' && c <= '9'))
+            {
+               readNumber(c);
+               return Event.NUMBER;
+            }
+            else if (Character.isJavaIdentifierStart(c))
+            {
+               readWord(c);
+               if (equals("true") || equals("false"))
+               {
+                  return Event.BOOLEAN;
+               }
+               else if (equals("null"))
+               {
+                  return Event.NULL;
+               }
+               else
+               {
+                  throw malformed("Unexpected value " + value);
+               }
+            }
+            else
+            {
+               throw malformed("Unexpected character " + (char)c);
+            }
+      }
+   }
+
+   private void push(int state)
+   {
+      if (depth == stack.length)
+      {
+         int[] tmp = new int[depth * 2];
+         System.arraycopy(stack, 0, tmp, 0, depth);
+         stack = tmp;
+      }
+      stack[depth++] = state;
+   }
+
+   private void readString(char quote) throws IOException
+   {
+      value.setLength(0);
+      while (true)
+      {
+         // Copy the chars up to the next quote or escape at once
+         int start = pos;
+         while (pos < limit)
+         {
+            char c = buffer[pos];
+            if (c == quote || c == '\\')
+            {
+               break;
+            }
+            pos++;
+         }
+         value.append(buffer, start, pos - start);
+         if (pos == limit)
+         {
+            if (!fill())
+            {
+               throw malformed("Unterminated string");
+            }
+            continue;
+         }
+         int c = buffer[pos++];
+         if (c == quote)
+         {
+            return;
+         }
+         else if (c == '\\')
+         {
+            c = read();
+            switch (c)
+            {
+               case 'b':
+                  value.append('\b');
+                  break;
+               case 'f':
+                  value.append('\f');
+                  break;
+               case 'n':
+                  value.append('\n');
+                  break;
+               case 'r':
+                  value.append('\r');
+                  break;
+               case 't':
+                  value.append('\t');
+                  break;
+               case 'u':
+                  int code = 0;
+                  for (int i = 0;i < 4;i++)
+                  {
+                     int digit = Character.digit(read(), 16);
+                     if (digit == -1)
+                     {
+                        throw malformed("Malformed unicode escape");
+                     }
+                     code = code * 16 + digit;
+                  }
+                  value.append((char)code);
+                  break;
+               case -1:
+                  throw malformed("Unterminated string");
+               default:
+                  value.append((char)c);
+                  break;
+            }
+         }
+      }
+   }
+
+   private void readNumber(int c) throws IOException
+   {
+      value.setLength(0);
+      if (c == '-')
+      {
+         value.append('-');
+         c = read();
+      }
+
+      // The integer part has no leading zero
+      if (c == '0')
+      {
+         value.append('0');
+      }
+      else if (c >= '1' && c <= '9')
+      {
+         value.append((char)c);
+         readDigits();
+      }
+      else
+      {
+         throw malformed("Malformed number");
+      }
+
+      //
+      if (peek() == '.')
+      {
+         value.append('.');
+         pos++;
+         if (readDigits() == 0)
+         {
+            throw malformed("Malformed number");
+         }
+      }
+
+      //
+      c = peek();
+      if (c == 'e' || c == 'E')
+      {
+         value.append((char)c);
+         pos++;
+         c = peek();
+         if (c == '+' || c == '-')
+         {
+            value.append((char)c);
+            pos++;
+         }
+         if (readDigits() == 0)
+         {
+            throw malformed("Malformed number");
+         }
+      }
+
+      //
+      c = peek();
+      if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')
+      {
+         throw malformed("Malformed number");
+      }
+   }
+
+   private int readDigits() throws IOException
+   {
+      int count = 0;
+      for (int c = peek();c >= '0' && c <= '9';c = peek())
+      {
+         value.append((char)c);
+         pos++;
+         count++;
+      }
+      return count;
+   }
+
+   private void readWord(int c) throws IOException
+   {
+      value.setLength(0);
+      value.append((char)c);
+      while (true)
+      {
+         c = peek();
+         if (c != -1 && Character.isJavaIdentifierPart(c))
+         {
+            value.append((char)c);
+            pos++;
+         }
+         else
+         {
+            break;
+         }
+      }
+   }
+
+   private boolean equals(String s)
+   {
+      int len = s.length();
+      if (value.length() != len)
+      {
+         return false;
+      }
+      for (int i = 0;i < len;i++)
+      {
+         if (value.charAt(i) != s.charAt(i))
+         {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private int nextNonWhitespace() throws IOException
+   {
+      while (true)
+      {
+         int c = read();
+         if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+         {
+            return c;
+         }
+      }
+   }
+
+   private int peek() throws IOException
+   {
+      if (pos == limit && !fill())
+      {
+         return -1;
+      }
+      return buffer[pos];
+   }
+
+   private int read() throws IOException
+   {
+      if (pos == limit && !fill())
+      {
+         return -1;
+      }
+      return buffer[pos++];
+   }
+
+   private boolean fill() throws IOException
+   {
+      offset += limit;
+      pos = limit = 0;
+      int n;
+      while ((n = reader.read(buffer, 0, buffer.length)) == 0)
+      {
+         // Try again
+      }
+      if (n == -1)
+      {
+         return false;
+      }
+      limit = n;
+      return true;
+   }
+
+   private IllegalArgumentException malformed(String msg)
+   {
+      return new IllegalArgumentException(msg + " at position " + (offset + pos));
+   }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.utils;
+
+import java.io.IOException;
+
+/**
+ * A streaming JSON writer appending a document to an {@link Appendable}. When an indentation is specified, each
+ * member of an object or an array is written on its own line.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JSONWriter
+{
+
+   /** . */
+   private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+   /** . */
+   private final Appendable out;
+
+   /** . */
+   private final int indent;
+
+   /** For each enclosing value, true when it has no member yet. */
+   private boolean[] empty;
+
+   /** . */
+   private int depth;
+
+   /** True when a name was written and its value is expected. */
+   private boolean named;
+
+   public JSONWriter(Appendable out)
+   {
+      this(out, 0);
+   }
+
+   public JSONWriter(Appendable out, int indent)
+   {
+      this.out = out;
+      this.indent = indent;
+      this.empty = new boolean[8];
+      this.depth = 0;
+      this.named = false;
+   }
+
+   public JSONWriter beginObject() throws IOException
+   {
+      member();
+      out.append('{');
+      push();
+      return this;
+   }
+
+   public JSONWriter endObject() throws IOException
+   {
+      pop();
+      out.append('}');
+      return this;
+   }
+
+   public JSONWriter beginArray() throws IOException
+   {
+      member();
+      out.append('[');
+      push();
+      return this;
+   }
+
+   public JSONWriter endArray() throws IOException
+   {
+      pop();
+      out.append(']');
+      return this;
+   }
+
+   public JSONWriter name(String name) throws IOException
+   {
+      member();
+      string(name);
+      out.append(':');
+      named = true;
+      return this;
+   }
+
+   public JSONWriter value(String value) throws IOException
+   {
+      if (value == null)
+      {
+         return nullValue();
+      }
+      member();
+      string(value);
+      return this;
+   }
+
+   /**
+    * Writes a number value.
+    *
+    * @param value the number or null
+    * @return this writer
+    * @throws IOException any io exception
+    * @throws IllegalArgumentException when the number is not finite as JSON has no representation for it
+    */
+   public JSONWriter value(Number value) throws IOException, IllegalArgumentException
+   {
+      if (value == null)
+      {
+         return nullValue();
+      }
+      if ((value instanceof Double || value instanceof Float) && (Double.isNaN(value.doubleValue()) || Double.isInfinite(value.doubleValue())))
+      {
+         throw new IllegalArgumentException("No JSON value for number " + value);
+      }
+      member();
+      out.append(value.toString());
+      return this;
+   }
+
+   public JSONWriter value(boolean value) throws IOException
+   {
+      member();
+      out.append(value ? "true" : "false");
+      return this;
+   }
+
+   public JSONWriter nullValue() throws IOException
+   {
+      member();
+      out.append("null");
+      return this;
+   }
+
+   private void member() throws IOException
+   {
+      if (named)
+      {
+         named = false;
+      }
+      else if (depth > 0)
+      {
+         if (empty[depth - 1])
+         {
+            empty[depth - 1] = false;
+         }
+         else
+         {
+            out.append(',');
+         }
+         newLine(depth);
+      }
+   }
+
+   private void push()
+   {
+      if (depth == empty.length)
+      {
+         boolean[] tmp = new boolean[depth * 2];
+         System.arraycopy(empty, 0, tmp, 0, depth);
+         empty = tmp;
+      }
+      empty[depth++] = true;
+   }
+
+   private void pop() throws IOException
+   {
+      if (!empty[--depth])
+      {
+         newLine(depth);
+      }
+   }
+
+   private void newLine(int level) throws IOException
+   {
+      if (indent > 0)
+      {
+         out.append('\n');
+         for (int size = level * indent;size > 0;size--)
+         {
+            out.append(' ');
+         }
+      }
+   }
+
+   private void string(CharSequence s) throws IOException
+   {
+      out.append('"');
+      int len = s.length();
+      int start = 0;
+      for (int i = 0;i < len;i++)
+      {
+         char c = s.charAt(i);
+         String replacement;
+         switch (c)
+         {
+            case '"':
+               replacement = "\\\"";
+               break;
+            case '\\':
+               replacement = "\\\\";
+               break;
+            case '\n':
+               replacement = "\\n";
+               break;
+            case '\r':
+               replacement = "\\r";
+               break;
+            case '\b':
+               replacement = "\\b";
+               break;
+            case '\f':
+               replacement = "\\f";
+               break;
+            case '\t':
+               replacement = "\\t";
+               break;
+            default:
+               if (c < 0x20 || c == 0x2028 || c == 0x2029)
+               {
+                  replacement = null;
+               }
+               else
+               {
+                  continue;
+               }
+         }
+
+         // Flush the chars that do not need escaping at once
+         out.append(s, start, i);
+         start = i + 1;
+         if (replacement != null)
+         {
+            out.append(replacement);
+         }
+         else
+         {
+            out.append("\\u").append(HEX[c >> 12]).append(HEX[(c >> 8) & 0xF]).append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+         }
+      }
+      out.append(s, start, len);
+      out.append('"');
+   }
+}
@@ -57,7 +57,8 @@ public class AjaxPlugin extends Plugin
       @Named("application") Router application)
    {
       this.pluginRegistration = plugin.register("ajax.js", PluginAsset.class);
-      this.applicationRegistration = application.register("ajax.js", new ApplicationAsset(desc));
+      // The script of a previous deployment of the application is replaced
+      this.applicationRegistration = application.replace("ajax.js", new ApplicationAsset(desc));
    }
 
    @PreDestroy
@@ -1,21 +1,16 @@
 package org.juzu.plugin.ajax;
 
 import org.juzu.impl.application.metadata.ApplicationDescriptor;
-import org.juzu.impl.asset.Route;
+import org.juzu.impl.asset.StaticRoute;
 import org.juzu.impl.controller.descriptor.ControllerMethod;
-import org.juzu.impl.utils.Path;
 
 import javax.inject.Provider;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-public class ApplicationAsset extends Route implements Provider<ApplicationAsset>
+public class ApplicationAsset extends StaticRoute implements Provider<ApplicationAsset>
 {
 
    /** . */
@@ -26,7 +21,20 @@ public class ApplicationAsset extends Route implements Provider<ApplicationAsset
 
    public ApplicationAsset(ApplicationDescriptor desc)
    {
+      this(desc, getTable(desc));
+   }
+
+   private ApplicationAsset(ApplicationDescriptor desc, Map<String, ControllerMethod> table)
+   {
+      super("text/javascript", getScript(desc.getName(), table));
+
       //
+      this.desc = desc;
+      this.table = table;
+   }
+
+   private static Map<String, ControllerMethod> getTable(ApplicationDescriptor desc)
+   {
       Map<String, ControllerMethod> table = new HashMap<String, ControllerMethod>();
       for (ControllerMethod cm : desc.getControllerMethods())
       {
@@ -36,24 +44,17 @@ public class ApplicationAsset extends Route implements Provider<ApplicationAsset
             table.put(cm.getName(), cm);
          }
       }
-
-      //
-      this.desc = desc;
-      this.table = table;
+      return table;
    }
 
-   @Override
-   public boolean serve(Path path, HttpServletRequest req, HttpServletResponse resp) throws IOException
+   private static String getScript(String scope, Map<String, ControllerMethod> table)
    {
-      String scope = desc.getName();
-
-      resp.setContentType("text/javascript");
-      PrintWriter printer = resp.getWriter();
+      StringBuilder printer = new StringBuilder();
 
       //
-      printer.println("HTMLElement.prototype." + scope + "=function(){");
-      printer.println("var capture=this;");
-      printer.println("return {");
+      printer.append("HTMLElement.prototype.").append(scope).append("=function(){\n");
+      printer.append("var capture=this;\n");
+      printer.append("return {\n");
 
       //
       Iterator<Map.Entry<String, ControllerMethod>> entryIterator = table.entrySet().iterator();
@@ -61,22 +62,22 @@ public class ApplicationAsset extends Route implements Provider<ApplicationAsset
       {
          Map.Entry<String, ControllerMethod> entry = entryIterator.next();
 
-         printer.println(entry.getKey() + ":function(){");
-         printer.println("return capture.foo(\"" + entry.getValue().getId() + "\");");
-         printer.println("}");
+         printer.append(entry.getKey()).append(":function(){\n");
+         printer.append("return capture.foo(\"").append(entry.getValue().getId()).append("\");\n");
+         printer.append("}\n");
 
          if (entryIterator.hasNext())
          {
-            printer.println(",");
+            printer.append(",\n");
          }
       }
 
       //
-      printer.println("};");
-      printer.println("};");
+      printer.append("};\n");
+      printer.append("};\n");
 
       //
-      return true;
+      return printer.toString();
    }
 
    public ApplicationAsset get()
@@ -1,16 +1,12 @@
 package org.juzu.plugin.ajax;
 
-import org.juzu.impl.asset.Route;
-import org.juzu.impl.utils.Path;
+import org.juzu.impl.asset.StaticRoute;
 import org.juzu.impl.utils.Tools;
 
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-public class PluginAsset extends Route
+public class PluginAsset extends StaticRoute
 {
 
    /** . */
@@ -28,12 +24,8 @@ public class PluginAsset extends Route
       }
    }
 
-   @Override
-   public boolean serve(Path path, HttpServletRequest req, HttpServletResponse resp) throws IOException
+   public PluginAsset()
    {
-      resp.setContentType("text/javascript");
-      PrintWriter writer = resp.getWriter();
-      writer.print(scriptJS);
-      return true;
+      super("text/javascript", scriptJS);
    }
 }
@@ -3,13 +3,25 @@ package org.juzu.plugin.asset;
 import org.juzu.Response;
 import org.juzu.impl.application.ApplicationException;
 import org.juzu.impl.application.metadata.ApplicationDescriptor;
+import org.juzu.impl.asset.AssetPipeline;
+import org.juzu.impl.asset.Bundle;
+import org.juzu.impl.asset.Router;
+import org.juzu.impl.asset.Server;
 import org.juzu.impl.request.Request;
+import org.juzu.impl.spi.inject.InjectManager;
 import org.juzu.plugin.Plugin;
 import org.juzu.request.Phase;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+@Singleton
 public class AssetPlugin extends Plugin
 {
 
@@ -17,20 +29,34 @@ public class AssetPlugin extends Plugin
    private static final String[] EMPTY_STRING_ARRAY = new String[0];
 
    /** . */
-   private final String[] scripts;
+   private final String applicationName;
 
-   /** . */
-   private final String[] stylesheets;
+   /** The sources when the assets are bundled. */
+   private final String[] scriptSources;
+
+   /** The sources when the assets are bundled. */
+   private final String[] stylesheetSources;
+
+   /** The assets, resolved at the first render when the assets are bundled. */
+   private volatile List<AssetPipeline.Asset> scripts;
+
+   /** The assets, resolved at the first render when the assets are bundled. */
+   private volatile List<AssetPipeline.Asset> stylesheets;
+
+   /** The pipeline when the assets are bundled. */
+   private AssetPipeline pipeline;
 
    @Inject
    public AssetPlugin(ApplicationDescriptor desc)
    {
       String[] scripts;
       String[] stylesheets;
+      boolean bundle;
       Class<?> packageClass = desc.getPackageClass();
       Assets assets = packageClass.getAnnotation(Assets.class);
       if (assets != null)
       {
+         bundle = assets.bundle();
          Script[] scriptDecls = assets.scripts();
          if (scriptDecls.length > 0)
          {
@@ -60,13 +86,87 @@ public class AssetPlugin extends Plugin
       }
       else
       {
+         bundle = false;
          scripts = EMPTY_STRING_ARRAY;
          stylesheets = EMPTY_STRING_ARRAY;
       }
 
       //
-      this.stylesheets = stylesheets;
-      this.scripts = scripts;
+      this.applicationName = desc.getName();
+      if (bundle)
+      {
+         // The application router is only available with an asset server, it is resolved at the first render
+         this.scriptSources = scripts;
+         this.stylesheetSources = stylesheets;
+      }
+      else
+      {
+         this.scriptSources = null;
+         this.stylesheetSources = null;
+         this.scripts = sources(scripts);
+         this.stylesheets = sources(stylesheets);
+      }
+   }
+
+   private synchronized void bundle(InjectManager<?, ?> manager) throws ApplicationException
+   {
+      if (scripts == null)
+      {
+         Router router = resolveRouter(manager);
+         if (router == null)
+         {
+            throw new ApplicationException(new IllegalStateException("The assets of the application " + applicationName +
+               " cannot be bundled without an asset server, declare the asset servlet or set @Assets(bundle = false)"));
+         }
+         try
+         {
+            AssetPipeline pipeline = new AssetPipeline(router);
+            this.stylesheets = pipeline.process(AssetPipeline.Type.STYLESHEET, stylesheetSources);
+            this.scripts = pipeline.process(AssetPipeline.Type.SCRIPT, scriptSources);
+            this.pipeline = pipeline;
+         }
+         catch (IOException e)
+         {
+            throw new ApplicationException(e);
+         }
+      }
+   }
+
+   private static <B, I> Router resolveRouter(InjectManager<B, I> manager) throws ApplicationException
+   {
+      B bean = manager.resolveBean(Server.APPLICATION.value());
+      if (bean != null)
+      {
+         try
+         {
+            I instance = manager.create(bean);
+            return (Router)manager.get(bean, instance);
+         }
+         catch (InvocationTargetException e)
+         {
+            throw new ApplicationException(e.getCause());
+         }
+      }
+      return null;
+   }
+
+   private static List<AssetPipeline.Asset> sources(String[] sources)
+   {
+      AssetPipeline.Asset[] assets = new AssetPipeline.Asset[sources.length];
+      for (int i = 0;i < sources.length;i++)
+      {
+         assets[i] = new AssetPipeline.Asset(sources[i]);
+      }
+      return Arrays.asList(assets);
+   }
+
+   @PreDestroy
+   public synchronized void destroy()
+   {
+      if (pipeline != null)
+      {
+         pipeline.destroy();
+      }
    }
 
    @Override
@@ -78,34 +178,53 @@ public class AssetPlugin extends Plugin
       if (request.getContext().getPhase() == Phase.RENDER)
       {
          Response response = request.getResponse();
-         if (response instanceof Response.Render && (scripts.length > 0 || stylesheets.length > 0))
+         if (response instanceof Response.Render && scripts == null)
+         {
+            bundle(request.getApplication().getInjectManager());
+         }
+         if (response instanceof Response.Render && (scripts.size() > 0 || stylesheets.size() > 0))
          {
             Response.Render render = (Response.Render)response;
-            for (String script : scripts)
+            String contextPath = request.getContext().getHttpContext().getContextPath();
+            for (AssetPipeline.Asset script : scripts)
             {
-               if (script.startsWith("http://") || script.startsWith("https://") || script.startsWith("/"))
-               {
-                  render.addScript(script);
-               }
-               else 
-               {
-                  
-                  render.addScript(request.getContext().getHttpContext().getContextPath() + "/" + script); 
-               }
+               render.addScript(renderURL(contextPath, script));
             }
-            for (String stylesheet : stylesheets)
+            for (AssetPipeline.Asset stylesheet : stylesheets)
             {
-               if (stylesheet.startsWith("http://") || stylesheet.startsWith("https://") || stylesheet.startsWith("/"))
-               {
-                  render.addStylesheet(stylesheet);
-               }
-               else
-               {
-
-                  render.addStylesheet(request.getContext().getHttpContext().getContextPath() + "/" + stylesheet);
-               }
+               render.addStylesheet(renderURL(contextPath, stylesheet));
             }
          }
       }
    }
+
+   private static String renderURL(String contextPath, AssetPipeline.Asset asset) throws ApplicationException
+   {
+      Bundle bundle = asset.getBundle();
+      if (bundle != null)
+      {
+         try
+         {
+            StringBuilder sb = new StringBuilder();
+            bundle.getContext().renderURL(sb);
+            return sb.toString();
+         }
+         catch (IOException e)
+         {
+            throw new ApplicationException(e);
+         }
+      }
+      else
+      {
+         String source = asset.getSource();
+         if (source.startsWith("http://") || source.startsWith("https://") || source.startsWith("/"))
+         {
+            return source;
+         }
+         else
+         {
+            return contextPath + "/" + source;
+         }
+      }
+   }
 }
@@ -19,4 +19,13 @@ public @interface Assets
 
    Stylesheet[] stylesheets() default {};
 
+   /**
+    * When true the assets located in the web application are bundled at the first render: the consecutive scripts
+    * and the consecutive stylesheets are concatenated, minified and served by the asset server under a name derived
+    * from their content, allowing user agents to cache them for ever. Bundling requires the asset server.
+    *
+    * @return true when the assets are bundled
+    */
+   boolean bundle() default false;
+
 }
@@ -59,11 +59,17 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class JuzuPortlet implements Portlet, ResourceServingPortlet
 {
 
+   /**
+    * The prefix of the portlet context attribute telling whether a portlet application is ready, the attribute
+    * value is a {@link Readiness} reflecting the current state of the application.
+    */
+   public static final String READY_ATTRIBUTE_PREFIX = "juzu.ready.";
+
    /** . */
    private PortletConfig config;
 
    /** . */
-   private ApplicationRuntime<?, String, String> runtime;
+   private volatile ApplicationRuntime<?, String, String> runtime;
 
    /** . */
    private boolean prod;
@@ -71,6 +77,12 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
    /** . */
    private String appName;
 
+   /** . */
+   private boolean warmUp;
+
+   /** The directory of the dev mode compilation cache or null. */
+   private File compilationCache;
+
    /** . */
    private InjectImplementation injectImpl;
 
@@ -130,6 +142,9 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
 
       //
       this.appName = config.getInitParameter("juzu.app_name");
+      this.warmUp = "true".equalsIgnoreCase(config.getInitParameter("juzu.warm_up"));
+      String compilationCache = config.getInitParameter("juzu.compilation_cache");
+      this.compilationCache = compilationCache != null ? new File(compilationCache.trim()) : null;
       this.prod = !("dev".equals(runMode));
       this.injectImpl = injectImpl;
       this.libs = WarFileSystem.create(config.getPortletContext(), "/WEB-INF/lib/");
@@ -141,6 +156,9 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
       {
          log.log("Error when compiling application " + errors);
       }
+
+      // Let the web application report the readiness of the node
+      config.getPortletContext().setAttribute(READY_ATTRIBUTE_PREFIX + config.getPortletName(), new Readiness());
    }
 
    private Collection<CompilationError> boot() throws PortletException
@@ -159,6 +177,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
             {
                runtime = new ApplicationRuntime.Dynamic<String, String, String>(log);
                ReadFileSystem<String> fss = WarFileSystem.create(config.getPortletContext(), "/WEB-INF/src/");
+               ((ApplicationRuntime.Dynamic<String, String, String>)runtime).setCacheDir(compilationCache);
                ((ApplicationRuntime.Dynamic<String, String, String>)runtime).init(Thread.currentThread().getContextClassLoader(), fss);
             }
             catch (Exception e)
@@ -176,6 +195,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
          runtime.setInjectImplementation(injectImpl);
          runtime.setName(appName);
          runtime.setAssetServer(server);
+         runtime.setWarmUp(warmUp);
       }
 
       //
@@ -194,7 +214,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
       PortletActionBridge bridge = new PortletActionBridge(request, response);
       try
       {
-         runtime.getContext().invoke(bridge);
+         runtime.invoke(bridge);
       }
       catch (ApplicationException e)
       {
@@ -243,7 +263,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
                   PortletRenderBridge bridge = new PortletRenderBridge(request, response, !prod);
                   try
                   {
-                     runtime.getContext().invoke(bridge);
+                     runtime.invoke(bridge);
                      bridge.commit();
                   }
                   catch (ApplicationException e)
@@ -297,7 +317,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
                   PortletResourceBridge bridge = new PortletResourceBridge(request, response, !prod);
                   try
                   {
-                     runtime.getContext().invoke(bridge);
+                     runtime.invoke(bridge);
                      bridge.commit();
                   }
                   catch (ApplicationException e)
@@ -526,5 +546,34 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet
 
    public void destroy()
    {
+      config.getPortletContext().removeAttribute(READY_ATTRIBUTE_PREFIX + config.getPortletName());
+      if (runtime != null)
+      {
+         runtime.shutdown();
+      }
+   }
+
+   /**
+    * The live readiness of the portlet application: it is evaluated on each access and therefore reflects the
+    * later boots of the application.
+    */
+   public class Readiness
+   {
+
+      private Readiness()
+      {
+      }
+
+      public boolean isReady()
+      {
+         ApplicationRuntime<?, String, String> current = runtime;
+         return current != null && current.isReady();
+      }
+
+      @Override
+      public String toString()
+      {
+         return Boolean.toString(isReady());
+      }
    }
 }
@@ -20,6 +20,7 @@
 package org.juzu.template;
 
 import org.juzu.impl.application.ApplicationException;
+import org.juzu.impl.application.FragmentCache;
 import org.juzu.impl.spi.template.TemplateStub;
 import org.juzu.text.Printer;
 
@@ -84,6 +85,30 @@ public class TemplateRenderContext
       return printer;
    }
 
+   /**
+    * Replace the printer of the current rendering, the replaced printer is returned so it can be restored.
+    *
+    * @param printer the new printer
+    * @return the replaced printer
+    * @throws IllegalStateException if the context is not rendering
+    */
+   public Printer setPrinter(Printer printer) throws IllegalStateException
+   {
+      if (this.printer == null)
+      {
+         throw new IllegalStateException("Not rendering");
+      }
+      if (printer == null)
+      {
+         throw new NullPointerException("No null printer accepted");
+      }
+
+      //
+      Printer previous = this.printer;
+      this.printer = printer;
+      return previous;
+   }
+
    public String getTitle()
    {
       return title;
@@ -104,6 +129,11 @@ public class TemplateRenderContext
       return null;
    }
 
+   public FragmentCache getFragmentCache()
+   {
+      return null;
+   }
+
    public void render(Printer printer) throws IOException
    {
       if (this.printer != null)
@@ -22,6 +22,7 @@ package org.juzu.text;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
@@ -61,8 +62,13 @@ public interface CharArray
       {
          try
          {
+            ByteBuffer buffer = UTF_8.newEncoder().encode(CharBuffer.wrap(sequence));
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+
+            //
             this.chars = sequence;
-            this.bytes = UTF_8.newEncoder().encode(CharBuffer.wrap(chars)).array();
+            this.bytes = bytes;
          }
          catch (CharacterCodingException e)
          {
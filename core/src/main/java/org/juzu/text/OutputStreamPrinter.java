@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A printer writing bytes to an output stream. The pre-encoded bytes of a {@link CharArray} are copied as is when
+ * the printer charset is <code>UTF-8</code>, any other text is encoded with the printer charset. A high surrogate
+ * ending a write is kept until the next write, so a surrogate pair can be written one char at a time.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class OutputStreamPrinter implements Printer
+{
+
+   /** . */
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   /** . */
+   private final OutputStream out;
+
+   /** . */
+   private final CharsetEncoder encoder;
+
+   /** . */
+   private final boolean utf8;
+
+   /** . */
+   private final ByteBuffer buffer;
+
+   /** . */
+   private final byte[] bytes;
+
+   /** The high surrogate ending the last write or <code>0</code>. */
+   private char pending;
+
+   public OutputStreamPrinter(Charset charset, OutputStream out)
+   {
+      if (charset == null)
+      {
+         throw new NullPointerException("No null charset accepted");
+      }
+      if (out == null)
+      {
+         throw new NullPointerException("No null output stream accepted");
+      }
+
+      //
+      this.out = out;
+      this.encoder = charset.newEncoder().
+         onMalformedInput(CodingErrorAction.REPLACE).
+         onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.utf8 = UTF_8.equals(charset);
+      this.bytes = new byte[512];
+      this.buffer = ByteBuffer.wrap(bytes);
+   }
+
+   public void write(char c) throws IOException
+   {
+      if (c < 0x80 && utf8 && pending == 0)
+      {
+         out.write(c);
+      }
+      else
+      {
+         encode(CharBuffer.wrap(new char[]{c}));
+      }
+   }
+
+   public void write(CharSequence s) throws IOException
+   {
+      encode(CharBuffer.wrap(s));
+   }
+
+   public void write(String s) throws IOException
+   {
+      encode(CharBuffer.wrap(s));
+   }
+
+   public void write(CharArray chars) throws IOException
+   {
+      if (utf8)
+      {
+         if (pending != 0)
+         {
+            // The high surrogate is not followed by a low surrogate
+            encode(CharBuffer.wrap(new char[]{pending}), true);
+         }
+         chars.write(out);
+      }
+      else
+      {
+         StringBuilder sb = new StringBuilder(chars.getLength());
+         chars.write(sb);
+         encode(CharBuffer.wrap(sb));
+      }
+   }
+
+   private void encode(CharBuffer chars) throws IOException
+   {
+      if (pending != 0)
+      {
+         CharBuffer joined = CharBuffer.allocate(chars.remaining() + 1);
+         joined.put(pending).put(chars).flip();
+         chars = joined;
+      }
+      encode(chars, false);
+   }
+
+   private void encode(CharBuffer chars, boolean endOfInput) throws IOException
+   {
+      pending = 0;
+      int last = chars.limit() - 1;
+      if (!endOfInput && last >= chars.position() && Character.isHighSurrogate(chars.get(last)))
+      {
+         // Keep the high surrogate until the next write
+         pending = chars.get(last);
+         chars.limit(last);
+      }
+
+      //
+      encoder.reset();
+      while (true)
+      {
+         CoderResult result = encoder.encode(chars, buffer, true);
+         drain();
+         if (result.isUnderflow())
+         {
+            break;
+         }
+      }
+      while (encoder.flush(buffer).isOverflow())
+      {
+         drain();
+      }
+      drain();
+   }
+
+   private void drain() throws IOException
+   {
+      if (buffer.position() > 0)
+      {
+         out.write(bytes, 0, buffer.position());
+         buffer.clear();
+      }
+   }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.impl.application.metadata.ApplicationDescriptor;
+import org.juzu.impl.asset.Registration;
+import org.juzu.impl.asset.Route;
+import org.juzu.impl.asset.Router;
+import org.juzu.impl.asset.Server;
+import org.juzu.impl.compiler.CompilationError;
+import org.juzu.impl.fs.Change;
+import org.juzu.impl.spi.fs.ram.RAMFile;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.impl.spi.inject.InjectManager;
+import org.juzu.impl.spi.request.RequestBridge;
+import org.juzu.impl.utils.Path;
+import org.juzu.plugin.Plugin;
+import org.juzu.template.Template;
+import org.juzu.template.TemplateRenderContext;
+import org.juzu.test.AbstractTestCase;
+
+import javax.inject.Provider;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ApplicationRuntimeTestCase extends AbstractTestCase
+{
+
+   public void testSwap() throws Exception
+   {
+      ApplicationRuntime.Static<Object, Object, Object> runtime = new ApplicationRuntime.Static<Object, Object, Object>(NOOP_LOGGER);
+      MockContext first = new MockContext();
+      MockContext second = new MockContext();
+
+      //
+      runtime.publish(runtime.new Deployment(first, null));
+      assertSame(first, runtime.getContext());
+      runtime.invoke(null);
+      assertEquals(1, first.invocations.get());
+
+      //
+      runtime.publish(runtime.new Deployment(second, null));
+      assertSame(second, runtime.getContext());
+      assertEquals(1, first.shutdowns.get());
+      runtime.invoke(null);
+      assertEquals(1, first.invocations.get());
+      assertEquals(1, second.invocations.get());
+
+      //
+      runtime.shutdown();
+      assertNull(runtime.getContext());
+      assertEquals(1, second.shutdowns.get());
+      try
+      {
+         runtime.invoke(null);
+         fail();
+      }
+      catch (IllegalStateException expected)
+      {
+      }
+   }
+
+   public void testReady() throws Exception
+   {
+      ApplicationRuntime.Static<Object, Object, Object> runtime = new ApplicationRuntime.Static<Object, Object, Object>(NOOP_LOGGER);
+      assertFalse(runtime.isReady());
+      runtime.publish(runtime.new Deployment(new MockContext(), null));
+      assertTrue(runtime.isReady());
+      runtime.shutdown();
+      assertFalse(runtime.isReady());
+   }
+
+   public void testDrain() throws Exception
+   {
+      final ApplicationRuntime.Static<Object, Object, Object> runtime = new ApplicationRuntime.Static<Object, Object, Object>(NOOP_LOGGER);
+      final CountDownLatch entered = new CountDownLatch(1);
+      final CountDownLatch leave = new CountDownLatch(1);
+      MockContext first = new MockContext()
+      {
+         @Override
+         public void invoke(RequestBridge bridge) throws ApplicationException
+         {
+            super.invoke(bridge);
+            entered.countDown();
+            try
+            {
+               leave.await();
+            }
+            catch (InterruptedException e)
+            {
+               throw new AssertionError(e);
+            }
+         }
+      };
+      MockContext second = new MockContext();
+
+      //
+      runtime.publish(runtime.new Deployment(first, null));
+      Thread request = new Thread()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               runtime.invoke(null);
+            }
+            catch (ApplicationException e)
+            {
+               throw new AssertionError(e);
+            }
+         }
+      };
+      request.start();
+      assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+      // The new context serves requests while the previous one is still used
+      runtime.publish(runtime.new Deployment(second, null));
+      runtime.invoke(null);
+      assertEquals(1, second.invocations.get());
+      assertEquals(0, first.shutdowns.get());
+
+      // The previous context is released by the last request using it
+      leave.countDown();
+      request.join(10000);
+      assertFalse(request.isAlive());
+      assertEquals(1, first.shutdowns.get());
+      assertEquals(0, second.shutdowns.get());
+   }
+
+   public void testFirstBoot() throws Exception
+   {
+      final DynamicRuntime runtime = new DynamicRuntime();
+      try
+      {
+         final AtomicReference<Collection<CompilationError>> result = new AtomicReference<Collection<CompilationError>>();
+         Thread request = new Thread()
+         {
+            @Override
+            public void run()
+            {
+               try
+               {
+                  result.set(runtime.boot());
+               }
+               catch (Exception e)
+               {
+                  throw new AssertionError(e);
+               }
+            }
+         };
+         request.start();
+         assertNotNull(runtime.builds.poll(10, TimeUnit.SECONDS));
+
+         // The first request waits for the build as there is no application to serve it
+         request.join(100);
+         assertTrue(request.isAlive());
+         assertNull(runtime.getContext());
+
+         //
+         runtime.outcomes.add(Collections.<CompilationError>emptyList());
+         request.join(10000);
+         assertFalse(request.isAlive());
+         assertEquals(Collections.<CompilationError>emptyList(), result.get());
+         assertEquals(1, runtime.contexts.size());
+         assertSame(runtime.contexts.get(0), runtime.getContext());
+      }
+      finally
+      {
+         runtime.shutdown();
+      }
+   }
+
+   public void testCompilationErrors() throws Exception
+   {
+      DynamicRuntime runtime = new DynamicRuntime();
+      try
+      {
+         List<CompilationError> errors = Collections.singletonList(new CompilationError(null, Collections.<String>emptyList(), "A.java", null, null, "error"));
+         runtime.outcomes.add(errors);
+         assertEquals(errors, runtime.boot());
+         assertNotNull(runtime.builds.poll());
+         assertNull(runtime.getContext());
+
+         // No build happens until the sources change
+         assertEquals(errors, runtime.boot());
+         assertNull(runtime.builds.poll());
+
+         //
+         runtime.update("class A { }");
+         runtime.outcomes.add(Collections.<CompilationError>emptyList());
+         assertEquals(Collections.<CompilationError>emptyList(), runtime.boot());
+         assertEquals(Collections.singletonMap("A.java", Change.UPDATE), runtime.builds.poll());
+         assertEquals(1, runtime.contexts.size());
+         assertSame(runtime.contexts.get(0), runtime.getContext());
+      }
+      finally
+      {
+         runtime.shutdown();
+      }
+   }
+
+   public void testRebuild() throws Exception
+   {
+      DynamicRuntime runtime = new DynamicRuntime();
+      try
+      {
+         runtime.outcomes.add(Collections.<CompilationError>emptyList());
+         assertEquals(Collections.<CompilationError>emptyList(), runtime.boot());
+         MockContext first = runtime.contexts.get(0);
+
+         // The build happens in the background, the previous application serves the requests meanwhile
+         runtime.update("class A { }");
+         assertNull(runtime.boot());
+         assertNotNull(runtime.builds.poll(10, TimeUnit.SECONDS));
+         runtime.invoke(null);
+         assertEquals(1, first.invocations.get());
+         assertSame(first, runtime.getContext());
+
+         //
+         runtime.outcomes.add(Collections.<CompilationError>emptyList());
+         assertEquals(Collections.<CompilationError>emptyList(), runtime.awaitBuild());
+         MockContext second = runtime.contexts.get(1);
+         assertSame(second, runtime.getContext());
+         assertEquals(1, first.shutdowns.get());
+         runtime.invoke(null);
+         assertEquals(1, first.invocations.get());
+         assertEquals(1, second.invocations.get());
+      }
+      finally
+      {
+         runtime.shutdown();
+      }
+   }
+
+   public void testReloadAssets() throws Exception
+   {
+      Server server = new Server();
+      DynamicRuntime runtime = new DynamicRuntime();
+      runtime.setAssetServer(server);
+      try
+      {
+         runtime.outcomes.add(Collections.<CompilationError>emptyList());
+         assertEquals(Collections.<CompilationError>emptyList(), runtime.boot());
+         MockContext first = runtime.contexts.get(0);
+         assertTrue(server.getApplicationRouter().serve(Path.parse("app/ajax.js", '/'), null, null));
+         assertEquals(1, first.served.get());
+
+         //
+         runtime.update("class A { }");
+         assertNull(runtime.boot());
+         runtime.outcomes.add(Collections.<CompilationError>emptyList());
+         assertEquals(Collections.<CompilationError>emptyList(), runtime.awaitBuild());
+         MockContext second = runtime.contexts.get(1);
+
+         // The route of the new application is served and the route of the previous one is destroyed
+         assertTrue(server.getApplicationRouter().serve(Path.parse("app/ajax.js", '/'), null, null));
+         assertEquals(1, first.served.get());
+         assertEquals(1, second.served.get());
+         assertTrue(first.script.getRoute().destroyed);
+         assertFalse(second.script.getRoute().destroyed);
+
+         //
+         runtime.shutdown();
+         assertTrue(second.script.getRoute().destroyed);
+         assertFalse(server.getApplicationRouter().serve(Path.parse("app/ajax.js", '/'), null, null));
+      }
+      finally
+      {
+         runtime.shutdown();
+      }
+   }
+
+   /**
+    * A dynamic runtime whose builds are controlled by the test: each compilation reports its changes and waits
+    * for the outcome provided by the test, each deployment is a mock context that registers an asset route.
+    */
+   private static class DynamicRuntime extends ApplicationRuntime.Dynamic<Object, Object, RAMPath>
+   {
+
+      /** . */
+      final BlockingQueue<Map<String, Change>> builds = new LinkedBlockingQueue<Map<String, Change>>();
+
+      /** . */
+      final BlockingQueue<List<CompilationError>> outcomes = new LinkedBlockingQueue<List<CompilationError>>();
+
+      /** . */
+      final List<MockContext> contexts = new Vector<MockContext>();
+
+      /** . */
+      private final RAMFile source;
+
+      private DynamicRuntime() throws Exception
+      {
+         super(NOOP_LOGGER);
+
+         //
+         RAMFileSystem fs = new RAMFileSystem();
+         source = fs.addFile(fs.getRoot(), "A.java");
+         source.update("class A {}");
+         init(ApplicationRuntimeTestCase.class.getClassLoader(), fs);
+      }
+
+      void update(String content) throws Exception
+      {
+         waitForOneMillis();
+         source.update(content);
+         waitForOneMillis();
+         getDevWatcher().scan();
+      }
+
+      Collection<CompilationError> awaitBuild() throws Exception
+      {
+         long deadline = System.currentTimeMillis() + 10000;
+         while (System.currentTimeMillis() < deadline)
+         {
+            Collection<CompilationError> result = boot();
+            if (result != null)
+            {
+               return result;
+            }
+            Thread.sleep(10);
+         }
+         throw new AssertionError("Build not completed");
+      }
+
+      @Override
+      List<CompilationError> compile(Map<String, Change> changes) throws Exception
+      {
+         builds.add(changes);
+         List<CompilationError> outcome = outcomes.poll(10, TimeUnit.SECONDS);
+         if (outcome == null)
+         {
+            throw new AssertionError("No build outcome");
+         }
+         return outcome;
+      }
+
+      @Override
+      Deployment deploy() throws Exception
+      {
+         MockContext context = new MockContext();
+         Registration<Router> assets = null;
+         if (assetServer != null)
+         {
+            assets = registerAssets("app");
+            context.script = assets.getRoute().replace("ajax.js", new Script(context));
+         }
+         contexts.add(context);
+         return new Deployment(context, assets);
+      }
+   }
+
+   private static class Script extends Route implements Provider<Script>
+   {
+
+      /** . */
+      private final MockContext context;
+
+      /** . */
+      volatile boolean destroyed;
+
+      private Script(MockContext context)
+      {
+         this.context = context;
+      }
+
+      public Script get()
+      {
+         return this;
+      }
+
+      @Override
+      public void destroy()
+      {
+         destroyed = true;
+      }
+
+      @Override
+      public boolean serve(Path path, HttpServletRequest req, HttpServletResponse resp) throws IOException
+      {
+         context.served.incrementAndGet();
+         return true;
+      }
+   }
+
+   private static class MockContext extends ApplicationContext
+   {
+
+      /** . */
+      final AtomicInteger invocations = new AtomicInteger();
+
+      /** . */
+      final AtomicInteger shutdowns = new AtomicInteger();
+
+      /** . */
+      final AtomicInteger served = new AtomicInteger();
+
+      /** The asset route cancelled with the context. */
+      volatile Registration<Script> script;
+
+      /** . */
+      final InjectManager injectManager = (InjectManager)Proxy.newProxyInstance(
+         InjectManager.class.getClassLoader(),
+         new Class[]{InjectManager.class},
+         new InvocationHandler()
+         {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+               if (method.getName().equals("shutdown"))
+               {
+                  shutdowns.incrementAndGet();
+                  if (script != null)
+                  {
+                     script.cancel();
+                  }
+                  return null;
+               }
+               throw new UnsupportedOperationException(method.getName());
+            }
+         });
+
+      @Override
+      public ClassLoader getClassLoader()
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public List<Plugin> getPlugins()
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public ApplicationDescriptor getDescriptor()
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Object resolveBean(String name) throws ApplicationException
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public TemplateRenderContext render(Template template, Map<String, ?> parameters, Locale locale)
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public InjectManager getInjectManager()
+      {
+         return injectManager;
+      }
+
+      @Override
+      public void invoke(RequestBridge bridge) throws ApplicationException
+      {
+         invocations.incrementAndGet();
+      }
+   }
+}
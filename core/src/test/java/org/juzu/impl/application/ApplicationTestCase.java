@@ -22,10 +22,17 @@ package org.juzu.impl.application;
 import org.juzu.impl.application.metadata.ApplicationDescriptor;
 import org.juzu.impl.compiler.CompilationError;
 import org.juzu.impl.controller.descriptor.ControllerMethod;
+import org.juzu.impl.request.ControllerInvoker;
+import org.juzu.impl.spi.inject.InjectManager;
 import org.juzu.test.AbstractTestCase;
 import org.juzu.test.CompilerHelper;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ApplicationTestCase extends AbstractTestCase
@@ -43,6 +50,42 @@ public class ApplicationTestCase extends AbstractTestCase
       assertSame(aClass, desc.getDefaultController());
    }
 
+   public void testInvokers() throws Exception
+   {
+      CompilerHelper<?, ?> compiler = compiler("application", "invoker");
+      compiler.assertCompile();
+      Class<?> appClass = compiler.assertClass("application.invoker.InvokerApplication");
+      Class<?> aClass = compiler.assertClass("application.invoker.A");
+      Class<?> bClass = compiler.assertClass("application.invoker.B");
+      ApplicationDescriptor desc = (ApplicationDescriptor)appClass.getDeclaredField("DESCRIPTOR").get(null);
+
+      //
+      final Map<Class<?>, Integer> resolutions = new HashMap<Class<?>, Integer>();
+      InjectManager<?, ?> manager = (InjectManager<?, ?>)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{InjectManager.class}, new InvocationHandler()
+      {
+         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+         {
+            if (method.getName().equals("resolveBean") && args[0] instanceof Class<?>)
+            {
+               Class<?> type = (Class<?>)args[0];
+               Integer count = resolutions.get(type);
+               resolutions.put(type, count == null ? 1 : count + 1);
+               return type.getSimpleName();
+            }
+            throw new UnsupportedOperationException(method.getName());
+         }
+      });
+
+      // The bean is resolved once per controller type and shared by the invokers of its methods
+      Map<ControllerMethod, ControllerInvoker<?, ?>> invokers = InternalApplicationContext.getInvokers(manager, desc);
+      assertEquals(3, invokers.size());
+      assertEquals((Integer)1, resolutions.get(aClass));
+      assertEquals((Integer)1, resolutions.get(bClass));
+      assertEquals("A", invokers.get(desc.getControllerMethod(aClass, "index")).getBean());
+      assertEquals("A", invokers.get(desc.getControllerMethod(aClass, "other")).getBean());
+      assertEquals("B", invokers.get(desc.getControllerMethod(bClass, "foo")).getBean());
+   }
+
    public void _testMethodId() throws Exception
    {
       CompilerHelper<?, ?> compiler = compiler("application", "method", "id");
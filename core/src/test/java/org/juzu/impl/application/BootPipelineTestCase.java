@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.test.AbstractTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class BootPipelineTestCase extends AbstractTestCase
+{
+
+   public void testConcurrentStages() throws Exception
+   {
+      BootPipeline pipeline = new BootPipeline();
+      try
+      {
+         final CountDownLatch latch = new CountDownLatch(2);
+         Callable<Boolean> stage = new Callable<Boolean>()
+         {
+            public Boolean call() throws Exception
+            {
+               latch.countDown();
+               return latch.await(10, TimeUnit.SECONDS);
+            }
+         };
+         Future<Boolean> a = pipeline.submit("a", stage);
+         Future<Boolean> b = pipeline.submit("b", stage);
+         assertTrue(BootPipeline.get(a));
+         assertTrue(BootPipeline.get(b));
+      }
+      finally
+      {
+         pipeline.shutdown();
+      }
+   }
+
+   public void testReport() throws Exception
+   {
+      BootPipeline pipeline = new BootPipeline();
+      try
+      {
+         final CountDownLatch latch = new CountDownLatch(1);
+         Future<Void> running = pipeline.submit("running", new Callable<Void>()
+         {
+            public Void call() throws Exception
+            {
+               latch.await();
+               return null;
+            }
+         });
+         assertEquals("done", pipeline.run("done", new Callable<String>()
+         {
+            public String call() throws Exception
+            {
+               return "done";
+            }
+         }));
+         assertEquals(-1L, (long)pipeline.getTiming("running"));
+         assertTrue(pipeline.getTiming("done") >= 0);
+         assertNull(pipeline.getTiming("unknown"));
+         String report = pipeline.getReport();
+         assertTrue(report, report.matches("running=running, done=\\d+ms, total=\\d+ms"));
+
+         //
+         latch.countDown();
+         BootPipeline.get(running);
+         assertTrue(pipeline.getTiming("running") >= 0);
+      }
+      finally
+      {
+         pipeline.shutdown();
+      }
+   }
+
+   public void testGroup() throws Exception
+   {
+      BootPipeline pipeline = new BootPipeline();
+      try
+      {
+         List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+         for (int i = 0;i < 10;i++)
+         {
+            final int value = i;
+            tasks.add(new Callable<Integer>()
+            {
+               public Integer call() throws Exception
+               {
+                  return value;
+               }
+            });
+         }
+         List<Future<Integer>> futures = pipeline.submit("group", tasks);
+         assertEquals(10, futures.size());
+         for (int i = 0;i < 10;i++)
+         {
+            assertEquals(i, (int)BootPipeline.get(futures.get(i)));
+         }
+         assertTrue(pipeline.getTiming("group") >= 0);
+
+         //
+         assertEquals(0, pipeline.submit("empty", Collections.<Callable<Integer>>emptyList()).size());
+         assertEquals(0L, (long)pipeline.getTiming("empty"));
+      }
+      finally
+      {
+         pipeline.shutdown();
+      }
+   }
+
+   public void testFailure() throws Exception
+   {
+      BootPipeline pipeline = new BootPipeline();
+      try
+      {
+         final IOException failure = new IOException();
+         Future<Void> future = pipeline.submit("failure", new Callable<Void>()
+         {
+            public Void call() throws Exception
+            {
+               throw failure;
+            }
+         });
+         try
+         {
+            BootPipeline.get(future);
+            fail();
+         }
+         catch (IOException e)
+         {
+            assertSame(failure, e);
+         }
+         assertTrue(pipeline.getTiming("failure") >= 0);
+      }
+      finally
+      {
+         pipeline.shutdown();
+      }
+   }
+}
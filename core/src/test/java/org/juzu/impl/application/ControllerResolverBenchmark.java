@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.AmbiguousResolutionException;
+import org.juzu.impl.controller.ControllerResolver;
+import org.juzu.impl.controller.descriptor.ControllerMethod;
+import org.juzu.impl.controller.descriptor.ControllerParameter;
+import org.juzu.impl.utils.Cardinality;
+import org.juzu.request.Phase;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compares the {@link ControllerResolver} with the linear scan algorithm it replaced, run it with
+ * <code>java org.juzu.impl.application.ControllerResolverBenchmark [controllers] [iterations]</code>.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ControllerResolverBenchmark
+{
+
+   public static void main(String[] args) throws Exception
+   {
+      int controllers = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+      //
+      List<ControllerMethod> methods = createMethods(controllers);
+      ControllerResolver resolver = new ControllerResolver(methods, ControllerResolverBenchmark.class);
+      List<Object[]> requests = createRequests(controllers);
+
+      //
+      for (int i = 0;i < 3;i++)
+      {
+         long linear = run(iterations, requests, methods, null);
+         long indexed = run(iterations, requests, methods, resolver);
+         System.out.println(methods.size() + " methods, " + requests.size() * iterations + " resolutions: linear=" +
+            linear / 1000000 + "ms indexed=" + indexed / 1000000 + "ms");
+      }
+   }
+
+   private static long run(int iterations, List<Object[]> requests, List<ControllerMethod> methods, ControllerResolver resolver)
+   {
+      long time = -System.nanoTime();
+      int count = 0;
+      for (int i = 0;i < iterations;i++)
+      {
+         for (Object[] request : requests)
+         {
+            String methodId = (String)request[0];
+            @SuppressWarnings("unchecked") Set<String> parameterNames = (Set<String>)request[1];
+            ControllerMethod method = resolver != null ?
+               resolver.resolve(Phase.RENDER, methodId, parameterNames) :
+               resolve(methods, ControllerResolverBenchmark.class, Phase.RENDER, methodId, parameterNames);
+            if (method != null)
+            {
+               count++;
+            }
+         }
+      }
+      time += System.nanoTime();
+      if (count == 0)
+      {
+         throw new AssertionError();
+      }
+      return time;
+   }
+
+   public void index()
+   {
+   }
+
+   public void m()
+   {
+   }
+
+   /**
+    * Creates the methods of a number of controllers, each controller has an <code>index</code> method and
+    * overloaded <code>m</code> methods with zero, one and two arguments.
+    *
+    * @param controllers the number of controllers
+    * @return the methods
+    * @throws Exception any exception
+    */
+   static List<ControllerMethod> createMethods(int controllers) throws Exception
+   {
+      Method index = ControllerResolverBenchmark.class.getMethod("index");
+      Method m = ControllerResolverBenchmark.class.getMethod("m");
+      List<ControllerMethod> methods = new ArrayList<ControllerMethod>();
+      for (int i = 0;i < controllers;i++)
+      {
+         Class<?> type = i == 0 ? ControllerResolverBenchmark.class : Object.class;
+         methods.add(new ControllerMethod("C" + i + ".index", Phase.RENDER, type, index, Collections.<ControllerParameter>emptyList()));
+         methods.add(new ControllerMethod("C" + i + ".m", Phase.RENDER, type, m, Collections.<ControllerParameter>emptyList()));
+         methods.add(new ControllerMethod("C" + i + ".m", Phase.RENDER, type, m, parameters("foo")));
+         methods.add(new ControllerMethod("C" + i + ".m", Phase.RENDER, type, m, parameters("foo", "bar")));
+         methods.add(new ControllerMethod("C" + i + ".m", Phase.ACTION, type, m, parameters("foo")));
+      }
+      return methods;
+   }
+
+   /**
+    * Creates the resolution requests as pairs of method id and parameter names.
+    *
+    * @param controllers the number of controllers
+    * @return the requests
+    */
+   static List<Object[]> createRequests(int controllers)
+   {
+      List<Object[]> requests = new ArrayList<Object[]>();
+      for (int i = 0;i < controllers;i += Math.max(1, controllers / 10))
+      {
+         requests.add(new Object[]{"C" + i + ".index", Collections.<String>emptySet()});
+         requests.add(new Object[]{"C" + i + ".m", Collections.<String>emptySet()});
+         requests.add(new Object[]{"C" + i + ".m", Collections.singleton("bar")});
+         requests.add(new Object[]{"C" + i + ".m", new HashSet<String>(Arrays.asList("foo", "bar", "juu"))});
+         requests.add(new Object[]{"C" + i + ".unknown", Collections.<String>emptySet()});
+      }
+      return requests;
+   }
+
+   private static List<ControllerParameter> parameters(String... names)
+   {
+      List<ControllerParameter> parameters = new ArrayList<ControllerParameter>();
+      for (String name : names)
+      {
+         parameters.add(new ControllerParameter(name, Cardinality.SINGLE));
+      }
+      return parameters;
+   }
+
+   /**
+    * The linear scan resolution algorithm that scores every method for each request.
+    */
+   static ControllerMethod resolve(
+      List<ControllerMethod> methods,
+      Class<?> defaultController,
+      Phase phase,
+      String methodId,
+      final Set<String> parameterNames) throws AmbiguousResolutionException
+   {
+      class Match implements Comparable<Match>
+      {
+         final ControllerMethod method;
+         final int score1;
+         final int score2;
+         final int score3;
+         Match(ControllerMethod method)
+         {
+            this.method = method;
+            HashSet<String> a = new HashSet<String>(parameterNames);
+            a.retainAll(method.getArgumentNames());
+            this.score1 = a.size();
+            a = new HashSet<String>(method.getArgumentNames());
+            a.removeAll(parameterNames);
+            this.score2 = a.size();
+            a = new HashSet<String>(parameterNames);
+            a.removeAll(method.getArgumentNames());
+            this.score3 = a.size();
+         }
+         public int compareTo(Match o)
+         {
+            int delta = o.score1 - score1;
+            if (delta == 0)
+            {
+               delta = score2 - o.score2;
+               if (delta == 0)
+               {
+                  delta = score3 - o.score3;
+               }
+            }
+            return delta;
+         }
+      }
+
+      //
+      List<Match> matches = new ArrayList<Match>();
+      if (methodId == null)
+      {
+         for (ControllerMethod method : methods)
+         {
+            if (method.getPhase() == Phase.RENDER && method.getName().equals("index"))
+            {
+               matches.add(new Match(method));
+            }
+         }
+         for (Match match : matches)
+         {
+            if (match.method.getType() == defaultController)
+            {
+               ArrayList<Match> sub = new ArrayList<Match>();
+               for (Match match2 : matches)
+               {
+                  if (match2.method.getType() == defaultController)
+                  {
+                     sub.add(match2);
+                  }
+               }
+               matches = sub;
+               break;
+            }
+         }
+      }
+      else
+      {
+         for (ControllerMethod method : methods)
+         {
+            if (method.getPhase() == phase && method.getId().equals(methodId))
+            {
+               matches.add(new Match(method));
+            }
+         }
+      }
+
+      //
+      if (matches.size() > 0)
+      {
+         Collections.sort(matches);
+         Match first = matches.get(0);
+         if (matches.size() > 1 && first.compareTo(matches.get(1)) == 0)
+         {
+            throw new AmbiguousResolutionException("Two methods satisfies the index criteria: " +
+               first.method + " and " + matches.get(1).method);
+         }
+         return first.method;
+      }
+      return null;
+   }
+}
@@ -29,6 +29,8 @@ import org.juzu.test.AbstractTestCase;
 import org.juzu.test.CompilerHelper;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ControllerResolverTestCase extends AbstractTestCase
@@ -143,6 +145,40 @@ public class ControllerResolverTestCase extends AbstractTestCase
    }
 
 
+   /**
+    * The indexed resolution resolves the same methods than the linear scan algorithm.
+    *
+    * @throws Exception any exception
+    */
+   public void testIndexedResolution() throws Exception
+   {
+      List<ControllerMethod> methods = ControllerResolverBenchmark.createMethods(20);
+      ControllerResolver resolver = new ControllerResolver(methods, ControllerResolverBenchmark.class);
+      for (Object[] request : ControllerResolverBenchmark.createRequests(20))
+      {
+         String methodId = (String)request[0];
+         @SuppressWarnings("unchecked") Set<String> parameterNames = (Set<String>)request[1];
+         for (Phase phase : new Phase[]{Phase.RENDER, Phase.ACTION})
+         {
+            ControllerMethod expected = ControllerResolverBenchmark.resolve(methods, ControllerResolverBenchmark.class, phase, methodId, parameterNames);
+            assertSame(expected, resolver.resolve(phase, methodId, parameterNames));
+         }
+      }
+      ControllerMethod expected = ControllerResolverBenchmark.resolve(methods, ControllerResolverBenchmark.class, Phase.RENDER, null, Collections.<String>emptySet());
+      assertNotNull(expected);
+      assertSame(expected, resolver.resolve(Phase.RENDER, null, Collections.<String>emptySet()));
+
+      // No default controller index method
+      resolver = new ControllerResolver(methods, null);
+      try
+      {
+         resolver.resolve(Phase.RENDER, null, Collections.<String>emptySet());
+         fail();
+      }
+      catch (AmbiguousResolutionException e)
+      {
+      }
+   }
 
    public void testResolution() throws Exception
    {
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.impl.inject.Scoped;
+import org.juzu.test.AbstractTestCase;
+import org.juzu.text.CharArray;
+
+import java.util.Locale;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class FragmentCacheTestCase extends AbstractTestCase
+{
+
+   public void testGetPut() throws Exception
+   {
+      FragmentCache cache = new FragmentCache(10);
+      FragmentCache.Key key = new FragmentCache.Key("foo", null);
+      assertNull(cache.get(key));
+      CharArray fragment = new CharArray.Simple("abc");
+      cache.put(key, fragment, 0);
+      assertSame(fragment, cache.get(new FragmentCache.Key("foo", null)));
+      assertNull(cache.get(new FragmentCache.Key("foo", Locale.FRENCH)));
+      assertEquals(1, cache.getHitCount());
+      assertEquals(2, cache.getMissCount());
+      assertEquals(3, cache.getSize());
+      assertEquals(1, cache.getCount());
+   }
+
+   public void testEviction() throws Exception
+   {
+      FragmentCache cache = new FragmentCache(10);
+      FragmentCache.Key a = new FragmentCache.Key("a", null);
+      FragmentCache.Key b = new FragmentCache.Key("b", null);
+      FragmentCache.Key c = new FragmentCache.Key("c", null);
+      cache.put(a, new CharArray.Simple("aaaa"), 0);
+      cache.put(b, new CharArray.Simple("bbbb"), 0);
+
+      // Use a so b is the least recently used
+      assertNotNull(cache.get(a));
+      cache.put(c, new CharArray.Simple("cccc"), 0);
+      assertNotNull(cache.get(a));
+      assertNull(cache.get(b));
+      assertNotNull(cache.get(c));
+      assertEquals(8, cache.getSize());
+      assertEquals(1, cache.getEvictionCount());
+
+      // Too large
+      cache.put(b, new CharArray.Simple("bbbbbbbbbbb"), 0);
+      assertNull(cache.get(b));
+      assertEquals(8, cache.getSize());
+   }
+
+   public void testExpiration() throws Exception
+   {
+      FragmentCache cache = new FragmentCache(10);
+      FragmentCache.Key key = new FragmentCache.Key("foo", null);
+      cache.put(key, new CharArray.Simple("abc"), 1);
+      waitForOneMillis();
+      waitForOneMillis();
+      assertNull(cache.get(key));
+      assertEquals(0, cache.getSize());
+   }
+
+   public void testSessionScope() throws Exception
+   {
+      FragmentCache cache = new FragmentCache(10);
+      Scoped session = cache.createSessionScope();
+      FragmentCache.Key key = new FragmentCache.Key("foo", session);
+      cache.put(key, new CharArray.Simple("abc"), 0);
+      cache.put(new FragmentCache.Key("foo", null), new CharArray.Simple("def"), 0);
+      assertNotNull(cache.get(key));
+      session.destroy();
+      assertNull(cache.get(key));
+      assertNotNull(cache.get(new FragmentCache.Key("foo", null)));
+      assertEquals(3, cache.getSize());
+   }
+}
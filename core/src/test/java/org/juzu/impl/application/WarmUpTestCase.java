@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.application;
+
+import org.juzu.test.AbstractInjectTestCase;
+import org.juzu.test.protocol.mock.MockApplication;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class WarmUpTestCase extends AbstractInjectTestCase
+{
+
+   public void testWarmUp() throws Exception
+   {
+      MockApplication<?> app = application("template", "relativepath").init();
+      InternalApplicationContext context = (InternalApplicationContext)app.getContext();
+      assertEquals(0, context.getTemplateStubs().getSize());
+
+      //
+      ApplicationRuntime.Static<Object, Object, Object> runtime = new ApplicationRuntime.Static<Object, Object, Object>(NOOP_LOGGER);
+      runtime.setWarmUp(true);
+      warmUp(runtime, context);
+      assertEquals(1, context.getTemplateStubs().getSize());
+      assertEquals(1, context.getTemplateStubs().getMissCount());
+
+      // The render is served by the initialized stub
+      assertEquals("relative_path_template", app.client().render().getContent());
+      assertEquals(1, context.getTemplateStubs().getMissCount());
+      assertEquals(1, context.getTemplateStubs().getHitCount());
+   }
+
+   public void testNoWarmUp() throws Exception
+   {
+      MockApplication<?> app = application("template", "relativepath").init();
+      InternalApplicationContext context = (InternalApplicationContext)app.getContext();
+
+      //
+      ApplicationRuntime.Static<Object, Object, Object> runtime = new ApplicationRuntime.Static<Object, Object, Object>(NOOP_LOGGER);
+      warmUp(runtime, context);
+      assertEquals(0, context.getTemplateStubs().getSize());
+   }
+
+   private void warmUp(ApplicationRuntime<?, ?, ?> runtime, InternalApplicationContext context) throws Exception
+   {
+      BootPipeline pipeline = new BootPipeline();
+      try
+      {
+         runtime.warmUp(pipeline, context);
+      }
+      finally
+      {
+         pipeline.shutdown();
+      }
+   }
+}
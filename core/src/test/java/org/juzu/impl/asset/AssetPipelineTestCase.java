@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.asset;
+
+import org.juzu.test.AbstractTestCase;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class AssetPipelineTestCase extends AbstractTestCase
+{
+
+   public void testMinifyScript() throws Exception
+   {
+      assertEquals("var a=1;", Minifier.minifyScript("  var a = 1 ;  // one\n"));
+      assertEquals("var a=b + +c;", Minifier.minifyScript("var a = b + +c;"));
+      assertEquals("a()\nb()", Minifier.minifyScript("a() /* first\n */ b()"));
+      assertEquals("s=\"a  // b\";", Minifier.minifyScript("s = \"a  // b\";"));
+      assertEquals("r=/[/]  \\//g;", Minifier.minifyScript("r = /[/]  \\//g;"));
+      assertEquals("x=a / 2 / b;", Minifier.minifyScript("x = a / 2 / b;"));
+      assertEquals("return\n{a:1};", Minifier.minifyScript("return\n{\n   a: 1\n}\n;"));
+   }
+
+   public void testMinifyStylesheet() throws Exception
+   {
+      assertEquals("body{color:red;margin:0 auto}", Minifier.minifyStylesheet("/* c */\nbody {\n   color: red;\n   margin: 0 auto;\n}\n"));
+      assertEquals("a :hover,b>c{content:\"a  ;  b\"}", Minifier.minifyStylesheet("a :hover, b > c { content: \"a  ;  b\"; }"));
+      assertEquals("@media screen and (max-width:10px){p{x:y}}", Minifier.minifyStylesheet("@media screen and (max-width: 10px) { p { x: y } }"));
+   }
+
+   public void testBundle() throws Exception
+   {
+      Router router = createRouter();
+      AssetPipeline pipeline = new AssetPipeline(router);
+      List<AssetPipeline.Asset> assets = pipeline.process(AssetPipeline.Type.SCRIPT, "a.js", "b.js", "http://www.acme.com/c.js", "missing.js");
+      assertEquals(3, assets.size());
+      Bundle bundle = assets.get(0).getBundle();
+      assertNotNull(bundle);
+      assertEquals("text/javascript", bundle.getContentType());
+      assertEquals("function a()\n{return 1;};var b=a();".length(), bundle.getLength());
+      StringBuilder url = new StringBuilder();
+      bundle.getContext().renderURL(url);
+      assertEquals("/assets/application/app/" + bundle.getHash() + ".js", url.toString());
+      assertSame(bundle, router.mux.get(bundle.getHash() + ".js"));
+      assertEquals("http://www.acme.com/c.js", assets.get(1).getSource());
+      assertEquals("missing.js", assets.get(2).getSource());
+
+      // Same content gives the same name
+      List<AssetPipeline.Asset> again = new AssetPipeline(router).process(AssetPipeline.Type.SCRIPT, "a.js", "b.js");
+      assertEquals(bundle.getHash(), again.get(0).getBundle().getHash());
+
+      //
+      pipeline.destroy();
+      assertNotNull(router.mux.get(bundle.getHash() + ".js"));
+   }
+
+   public void testRelativeURL() throws Exception
+   {
+      Router router = createRouter();
+      AssetPipeline pipeline = new AssetPipeline(router);
+      List<AssetPipeline.Asset> assets = pipeline.process(AssetPipeline.Type.STYLESHEET, "main.css", "relative.css");
+      assertEquals(2, assets.size());
+      assertEquals("text/css", assets.get(0).getBundle().getContentType());
+      assertEquals("relative.css", assets.get(1).getSource());
+      pipeline.destroy();
+      assertNull(router.mux.get(assets.get(0).getBundle().getHash() + ".css"));
+   }
+
+   private Router createRouter()
+   {
+      Router router = new Router();
+      router.init(new RouteContext()
+      {
+         @Override
+         public void renderURL(Appendable out) throws IOException
+         {
+            out.append("/assets/application/app");
+         }
+
+         @Override
+         public URL getResource(String path) throws IOException
+         {
+            return AssetPipelineTestCase.class.getResource("/asset/pipeline/" + path);
+         }
+      });
+      return router;
+   }
+}
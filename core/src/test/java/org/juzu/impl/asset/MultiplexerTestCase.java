@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.asset;
+
+import org.juzu.impl.utils.Path;
+import org.juzu.test.AbstractTestCase;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class MultiplexerTestCase extends AbstractTestCase
+{
+
+   public static class Counter extends Route
+   {
+
+      /** . */
+      static final AtomicInteger live = new AtomicInteger();
+
+      /** . */
+      boolean initialized;
+
+      /** . */
+      boolean destroyed;
+
+      @Override
+      public void init()
+      {
+         initialized = true;
+         live.incrementAndGet();
+      }
+
+      @Override
+      public void destroy()
+      {
+         destroyed = true;
+         live.decrementAndGet();
+      }
+
+      @Override
+      public boolean serve(Path path, HttpServletRequest req, HttpServletResponse resp) throws IOException
+      {
+         return initialized && !destroyed;
+      }
+   }
+
+   public void testRegistration() throws Exception
+   {
+      Router router = createRouter();
+      Registration<Counter> r1 = router.register("foo", Counter.class);
+      Registration<Counter> r2 = router.register("foo", Counter.class);
+      Counter route = r1.getRoute();
+      assertSame(route, r2.getRoute());
+      assertSame(route, router.mux.get("foo"));
+      assertTrue(route.initialized);
+
+      //
+      r1.cancel();
+      assertSame(route, router.mux.get("foo"));
+      assertFalse(route.destroyed);
+
+      // Cancelling twice has no effect
+      r1.cancel();
+      assertSame(route, router.mux.get("foo"));
+
+      //
+      r2.cancel();
+      assertNull(router.mux.get("foo"));
+      assertTrue(route.destroyed);
+   }
+
+   public void testReplace() throws Exception
+   {
+      Router router = createRouter();
+      Registration<Counter> r1 = router.register("foo", Counter.class);
+      Counter first = r1.getRoute();
+
+      // The new route is published, the replaced route stays alive
+      Registration<Counter> r2 = router.replace("foo", Counter.class);
+      Counter second = r2.getRoute();
+      assertNotSame(first, second);
+      assertSame(second, router.mux.get("foo"));
+      assertFalse(first.destroyed);
+
+      // A registration joins the published route
+      Registration<Counter> r3 = router.register("foo", Counter.class);
+      assertSame(second, r3.getRoute());
+
+      // The replaced route is destroyed with its last registration
+      r1.cancel();
+      assertTrue(first.destroyed);
+      assertSame(second, router.mux.get("foo"));
+
+      //
+      r2.cancel();
+      r3.cancel();
+      assertTrue(second.destroyed);
+      assertNull(router.mux.get("foo"));
+   }
+
+   public void testCancelReplacement() throws Exception
+   {
+      Router router = createRouter();
+      Registration<Counter> r1 = router.register("foo", Counter.class);
+      Registration<Counter> r2 = router.replace("foo", Counter.class);
+
+      // Cancelling the replacement publishes the previous route again
+      r2.cancel();
+      assertTrue(r2.getRoute().destroyed);
+      assertSame(r1.getRoute(), router.mux.get("foo"));
+      assertFalse(r1.getRoute().destroyed);
+
+      //
+      r1.cancel();
+      assertNull(router.mux.get("foo"));
+   }
+
+   public void testConcurrentRegistration() throws Exception
+   {
+      final Router router = createRouter();
+      final int writers = 4;
+      final int iterations = 2000;
+      final CountDownLatch done = new CountDownLatch(writers);
+      final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+      List<Thread> threads = new ArrayList<Thread>();
+      for (int i = 0;i < writers;i++)
+      {
+         final String key = "route" + (i % 2);
+         threads.add(new Thread()
+         {
+            @Override
+            public void run()
+            {
+               try
+               {
+                  for (int j = 0;j < iterations;j++)
+                  {
+                     Registration<Counter> registration = router.register(key, Counter.class);
+                     if (!registration.getRoute().serve(null, null, null))
+                     {
+                        throw new AssertionError("Registered route is not live");
+                     }
+                     registration.cancel();
+                  }
+               }
+               catch (Throwable t)
+               {
+                  failure.compareAndSet(null, t);
+               }
+               finally
+               {
+                  done.countDown();
+               }
+            }
+         });
+      }
+      threads.add(new Thread()
+      {
+         @Override
+         public void run()
+         {
+            try
+            {
+               while (done.getCount() > 0)
+               {
+                  for (int i = 0;i < 2;i++)
+                  {
+                     Route route = router.mux.get("route" + i);
+                     if (route != null && !((Counter)route).initialized)
+                     {
+                        throw new AssertionError("Route published before its initialization");
+                     }
+                  }
+               }
+            }
+            catch (Throwable t)
+            {
+               failure.compareAndSet(null, t);
+            }
+         }
+      });
+      for (Thread thread : threads)
+      {
+         thread.start();
+      }
+      for (Thread thread : threads)
+      {
+         thread.join();
+      }
+
+      //
+      if (failure.get() != null)
+      {
+         throw new AssertionError(failure.get());
+      }
+      assertNull(router.mux.get("route0"));
+      assertNull(router.mux.get("route1"));
+      assertEquals(0, Counter.live.get());
+   }
+
+   private Router createRouter()
+   {
+      Router router = new Router();
+      router.init(new RouteContext()
+      {
+         @Override
+         public void renderURL(Appendable out) throws IOException
+         {
+            out.append("/assets");
+         }
+      });
+      return router;
+   }
+}
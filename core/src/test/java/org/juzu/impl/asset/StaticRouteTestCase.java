@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.asset;
+
+import org.juzu.impl.spi.request.ResourceValidators;
+import org.juzu.impl.utils.Path;
+import org.juzu.impl.utils.Tools;
+import org.juzu.test.AbstractTestCase;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class StaticRouteTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private static final String CONTENT;
+
+   static
+   {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0;i < 100;i++)
+      {
+         sb.append("var a").append(i).append(" = \"\u00e9\";\n");
+      }
+      CONTENT = sb.toString();
+   }
+
+   public void testIdentity() throws Exception
+   {
+      StaticRoute route = new StaticRoute("text/javascript", CONTENT);
+      Exchange exchange = new Exchange();
+      assertTrue(route.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals(200, exchange.status);
+      assertEquals("text/javascript;charset=UTF-8", exchange.contentType);
+      assertEquals(route.getLength(), exchange.contentLength);
+      assertEquals(CONTENT, new String(exchange.body.toByteArray(), "UTF-8"));
+      assertEquals("\"" + route.getHash() + "\"", exchange.responseHeaders.get("ETag"));
+      assertEquals(ResourceValidators.formatDate(route.getLastModified()), exchange.responseHeaders.get("Last-Modified"));
+      assertEquals("Accept-Encoding", exchange.responseHeaders.get("Vary"));
+      assertEquals(null, exchange.responseHeaders.get("Content-Encoding"));
+      assertEquals(null, exchange.responseHeaders.get("Cache-Control"));
+   }
+
+   public void testGzip() throws Exception
+   {
+      StaticRoute route = new StaticRoute("text/javascript", CONTENT);
+      assertTrue(route.getGzipLength() > 0);
+      assertTrue(route.getGzipLength() < route.getLength());
+      Exchange exchange = new Exchange();
+      exchange.requestHeaders.put("Accept-Encoding", "deflate, gzip;q=0.8");
+      assertTrue(route.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals("gzip", exchange.responseHeaders.get("Content-Encoding"));
+      assertEquals(route.getGzipLength(), exchange.contentLength);
+      assertEquals("\"" + route.getHash() + "-gzip\"", exchange.responseHeaders.get("ETag"));
+      byte[] bytes = Tools.bytes(new GZIPInputStream(new ByteArrayInputStream(exchange.body.toByteArray())));
+      assertEquals(CONTENT, new String(bytes, "UTF-8"));
+   }
+
+   public void testNotModified() throws Exception
+   {
+      StaticRoute route = new StaticRoute("text/javascript", CONTENT);
+
+      //
+      Exchange exchange = new Exchange();
+      exchange.requestHeaders.put("If-None-Match", "\"" + route.getHash() + "\"");
+      assertTrue(route.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals(304, exchange.status);
+      assertEquals(0, exchange.body.size());
+
+      // The gzip variant has another entity tag
+      exchange = new Exchange();
+      exchange.requestHeaders.put("If-None-Match", "\"" + route.getHash() + "\"");
+      exchange.requestHeaders.put("Accept-Encoding", "gzip");
+      assertTrue(route.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals(200, exchange.status);
+
+      //
+      exchange = new Exchange();
+      exchange.requestHeaders.put("If-Modified-Since", ResourceValidators.formatDate(route.getLastModified()));
+      assertTrue(route.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals(304, exchange.status);
+
+      // A malformed date is ignored
+      exchange = new Exchange();
+      exchange.requestHeaders.put("If-Modified-Since", "yesterday");
+      assertTrue(route.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals(200, exchange.status);
+      assertEquals(CONTENT, new String(exchange.body.toByteArray(), "UTF-8"));
+   }
+
+   public void testSmallContent() throws Exception
+   {
+      StaticRoute route = new StaticRoute("text/css", "a{}");
+      assertEquals(-1, route.getGzipLength());
+      Exchange exchange = new Exchange();
+      exchange.requestHeaders.put("Accept-Encoding", "gzip");
+      assertTrue(route.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals(null, exchange.responseHeaders.get("Content-Encoding"));
+      assertEquals(null, exchange.responseHeaders.get("Vary"));
+      assertEquals("a{}", exchange.body.toString("UTF-8"));
+   }
+
+   public void testBundle() throws Exception
+   {
+      Bundle bundle = new Bundle("text/javascript", CONTENT);
+      Exchange exchange = new Exchange();
+      assertTrue(bundle.serve(Path.parse("", '/'), exchange.request(), exchange.response()));
+      assertEquals(Bundle.CACHE_CONTROL, exchange.responseHeaders.get("Cache-Control"));
+      assertFalse(bundle.serve(Path.parse("foo", '/'), exchange.request(), exchange.response()));
+   }
+
+   public void testAcceptsGzip() throws Exception
+   {
+      assertFalse(StaticRoute.acceptsGzip(null));
+      assertFalse(StaticRoute.acceptsGzip("identity"));
+      assertTrue(StaticRoute.acceptsGzip("gzip"));
+      assertTrue(StaticRoute.acceptsGzip("deflate, GZIP"));
+      assertTrue(StaticRoute.acceptsGzip("x-gzip;q=0.5"));
+      assertFalse(StaticRoute.acceptsGzip("gzip;q=0"));
+      assertFalse(StaticRoute.acceptsGzip("gzip;q=0.0, deflate"));
+   }
+
+   private static class Exchange
+   {
+
+      /** . */
+      final Map<String, String> requestHeaders = new HashMap<String, String>();
+
+      /** . */
+      final Map<String, String> responseHeaders = new HashMap<String, String>();
+
+      /** . */
+      final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+      /** . */
+      int status = 200;
+
+      /** . */
+      String contentType;
+
+      /** . */
+      int contentLength = -1;
+
+      HttpServletRequest request()
+      {
+         return (HttpServletRequest)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletRequest.class}, new InvocationHandler()
+         {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+               String name = method.getName();
+               if (name.equals("getHeader"))
+               {
+                  return requestHeaders.get(args[0]);
+               }
+               else if (name.equals("getDateHeader"))
+               {
+                  String value = requestHeaders.get(args[0]);
+                  if (value == null)
+                  {
+                     return -1L;
+                  }
+                  long date = ResourceValidators.parseDate(value);
+                  if (date == -1)
+                  {
+                     throw new IllegalArgumentException("Invalid date " + value);
+                  }
+                  return date;
+               }
+               throw new UnsupportedOperationException(name);
+            }
+         });
+      }
+
+      HttpServletResponse response()
+      {
+         return (HttpServletResponse)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletResponse.class}, new InvocationHandler()
+         {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+               String name = method.getName();
+               if (name.equals("setHeader"))
+               {
+                  responseHeaders.put((String)args[0], (String)args[1]);
+               }
+               else if (name.equals("setStatus"))
+               {
+                  status = (Integer)args[0];
+               }
+               else if (name.equals("setContentType"))
+               {
+                  contentType = (String)args[0];
+               }
+               else if (name.equals("setContentLength"))
+               {
+                  contentLength = (Integer)args[0];
+               }
+               else if (name.equals("getOutputStream"))
+               {
+                  return new ServletOutputStream()
+                  {
+                     @Override
+                     public void write(int b)
+                     {
+                        body.write(b);
+                     }
+                  };
+               }
+               else
+               {
+                  throw new UnsupportedOperationException(name);
+               }
+               return null;
+            }
+         });
+      }
+   }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.compiler;
+
+import org.juzu.impl.spi.fs.ReadFileSystem;
+import org.juzu.impl.spi.fs.disk.DiskFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.impl.utils.Content;
+import org.juzu.impl.utils.Tools;
+import org.juzu.test.AbstractTestCase;
+
+import javax.annotation.processing.Processor;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class CompilationCacheTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private File dir;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      dir = File.createTempFile("cache", "");
+      assertTrue(dir.delete());
+      assertTrue(dir.mkdirs());
+   }
+
+   @Override
+   protected void tearDown() throws Exception
+   {
+      File[] files = dir.listFiles();
+      if (files != null)
+      {
+         for (File file : files)
+         {
+            file.delete();
+         }
+      }
+      dir.delete();
+   }
+
+   public void testStore() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      RAMPath a = fs.getRoot().addDir("foo").addFile("A.java").update("package foo; public class A {}");
+      CompilationCache cache = new CompilationCache(dir, "cp", NOOP_LOGGER);
+      String key = cache.getKey(fs, Collections.<Processor>emptyList());
+      assertEquals(key, cache.getKey(fs, Collections.<Processor>emptyList()));
+      assertFalse(key.equals(new CompilationCache(dir, "cp2", NOOP_LOGGER).getKey(fs, Collections.<Processor>emptyList())));
+      assertFalse(key.equals(cache.getKey(fs, Collections.<Processor>emptyList(), Collections.singletonMap("foo", "bar"))));
+      assertFalse(cache.load(key, new RAMFileSystem(), new RAMFileSystem()));
+      assertEquals(1, cache.getMisses());
+
+      //
+      RAMFileSystem sourceOutput = new RAMFileSystem();
+      sourceOutput.getRoot().addDir("foo").addFile("B.java").update("package foo; public class B {}");
+      RAMFileSystem classOutput = new RAMFileSystem();
+      RAMPath bar = classOutput.getRoot().addDir("foo").addDir("bar");
+      bar.addFile("A.class").update("a");
+      bar.addFile("B.class").update("b");
+      cache.store(key, sourceOutput, classOutput);
+
+      //
+      sourceOutput = new RAMFileSystem();
+      classOutput = new RAMFileSystem();
+      assertTrue(cache.load(key, sourceOutput, classOutput));
+      assertEquals(1, cache.getHits());
+      assertEquals(1, sourceOutput.size(ReadFileSystem.FILE));
+      assertEquals("package foo; public class B {}", sourceOutput.getContent("foo", "B.java").getCharSequence().toString());
+      assertEquals(2, classOutput.size(ReadFileSystem.FILE));
+      assertEquals("a", classOutput.getContent("foo", "bar", "A.class").getCharSequence().toString());
+      assertEquals("b", classOutput.getContent("foo", "bar", "B.class").getCharSequence().toString());
+
+      // Changing a source changes the key
+      a.update("package foo; public class A { int a; }");
+      assertFalse(key.equals(cache.getKey(fs, Collections.<Processor>emptyList())));
+   }
+
+   public void testReuse() throws Exception
+   {
+      DiskFileSystem fs = diskFS("compiler", "processor");
+      CompilationCache cache = new CompilationCache(dir, "cp", NOOP_LOGGER);
+
+      //
+      Compiler compiler = new Compiler(fs, new RAMFileSystem(), new RAMFileSystem());
+      compiler.setCache(cache);
+      CompilationTestCase.ProcessorImpl processor = new CompilationTestCase.ProcessorImpl();
+      compiler.addAnnotationProcessor(processor);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertEquals(0, cache.getHits());
+      assertEquals(1, cache.getMisses());
+      assertEquals(2, processor.names.size());
+      Content a = compiler.getClassOutput().getContent("compiler", "processor", "A.class");
+      assertNotNull(a);
+
+      // The output is restored without running the processor
+      compiler = new Compiler(fs, new RAMFileSystem(), new RAMFileSystem());
+      compiler.setCache(cache);
+      processor = new CompilationTestCase.ProcessorImpl();
+      compiler.addAnnotationProcessor(processor);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertEquals(1, cache.getHits());
+      assertEquals(1, cache.getMisses());
+      assertEquals(0, processor.names.size());
+      assertEquals(2, compiler.getClassOutput().size(ReadFileSystem.FILE));
+      assertEquals(1, compiler.getSourceOutput().size(ReadFileSystem.FILE));
+      Content cached = compiler.getClassOutput().getContent("compiler", "processor", "A.class");
+      assertNotNull(cached);
+      assertTrue(Arrays.equals(Tools.bytes(a.getInputStream()), Tools.bytes(cached.getInputStream())));
+   }
+
+   public void testInvalidate() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      RAMPath a = fs.getRoot().addDir("foo").addFile("A.java").update("package foo; public class A {}");
+      CompilationCache cache = new CompilationCache(dir, "cp", NOOP_LOGGER);
+
+      //
+      Compiler compiler = new Compiler(fs, new RAMFileSystem());
+      compiler.setCache(cache);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertEquals(1, cache.getMisses());
+
+      // A source change is a miss
+      a.update("package foo; public class A { int a; }");
+      compiler = new Compiler(fs, new RAMFileSystem());
+      compiler.setCache(cache);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertEquals(0, cache.getHits());
+      assertEquals(2, cache.getMisses());
+
+      // A class path change is a miss
+      cache = new CompilationCache(dir, "cp2", NOOP_LOGGER);
+      compiler = new Compiler(fs, new RAMFileSystem());
+      compiler.setCache(cache);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertEquals(0, cache.getHits());
+      assertEquals(1, cache.getMisses());
+
+      // A failed compilation is not stored
+      a.update("package foo; public class A extends Missing {}");
+      compiler = new Compiler(fs, new RAMFileSystem());
+      compiler.setCache(cache);
+      assertEquals(1, compiler.compile().size());
+      assertEquals(3, dir.listFiles().length);
+   }
+
+   public void testCorrupted() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      fs.getRoot().addDir("foo").addFile("A.java").update("package foo; public class A {}");
+      CompilationCache cache = new CompilationCache(dir, "cp", NOOP_LOGGER);
+      String key = cache.getKey(fs, Collections.<Processor>emptyList());
+      FileOutputStream out = new FileOutputStream(new File(dir, key + ".zip"));
+      out.write("corrupted".getBytes());
+      out.close();
+
+      // A corrupted entry is a miss that leaves the outputs untouched
+      RAMFileSystem sourceOutput = new RAMFileSystem();
+      RAMFileSystem classOutput = new RAMFileSystem();
+      assertFalse(cache.load(key, sourceOutput, classOutput));
+      assertEquals(1, cache.getMisses());
+      assertEquals(0, sourceOutput.size(ReadFileSystem.FILE));
+      assertEquals(0, classOutput.size(ReadFileSystem.FILE));
+   }
+
+   public void testPrune() throws Exception
+   {
+      CompilationCache cache = new CompilationCache(dir, "cp", NOOP_LOGGER);
+      cache.setMaxEntries(2);
+      RAMFileSystem output = new RAMFileSystem();
+      output.getRoot().addDir("foo").addFile("A.class").update("aaa");
+      cache.store("aaa", output, output);
+      new File(dir, "aaa.zip").setLastModified(System.currentTimeMillis() - 3000);
+      cache.store("bbb", output, output);
+      new File(dir, "bbb.zip").setLastModified(System.currentTimeMillis() - 2000);
+
+      // Loading an entry makes it the most recently used
+      assertTrue(cache.load("aaa", new RAMFileSystem(), new RAMFileSystem()));
+      cache.store("ccc", output, output);
+      assertTrue(new File(dir, "aaa.zip").exists());
+      assertFalse(new File(dir, "bbb.zip").exists());
+      assertTrue(new File(dir, "ccc.zip").exists());
+      assertEquals(2, dir.listFiles().length);
+   }
+
+   public void testStoreFailure() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      fs.getRoot().addDir("foo").addFile("A.java").update("package foo; public class A {}");
+      File file = new File(dir, "file");
+      assertTrue(file.createNewFile());
+      CompilationCache cache = new CompilationCache(new File(file, "cache"), "cp", NOOP_LOGGER);
+
+      // The compilation succeeds when its output cannot be stored
+      Compiler compiler = new Compiler(fs, new RAMFileSystem());
+      compiler.setCache(cache);
+      assertEquals(Collections.<CompilationError>emptyList(), compiler.compile());
+      assertNotNull(compiler.getClassOutput().getContent("foo", "A.class"));
+   }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.compiler;
+
+import org.juzu.impl.fs.Change;
+import org.juzu.impl.spi.fs.ram.RAMDir;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.test.AbstractTestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class IncrementalCompilationTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private RAMFileSystem sources;
+
+   @Override
+   protected void setUp() throws Exception
+   {
+      sources = new RAMFileSystem();
+      RAMDir foo = sources.addDir(sources.getRoot(), "foo");
+      foo.addFile("package-info.java").update("package foo;");
+      foo.addFile("A.java").update("package foo; public class A {}");
+      foo.addFile("D.java").update("package foo; public class D { String path = \"index.gtmpl\"; }");
+      RAMDir templates = foo.addDir("templates");
+      templates.addFile("index.gtmpl").update("hello");
+      RAMDir bar = sources.addDir(sources.getRoot(), "bar");
+      bar.addFile("B.java").update("package bar; public class B { foo.A a; }");
+      bar.addFile("E.java").update("package bar; public class E { Object o = foo.A_.class; }");
+      bar.addFile("AB.java").update("package bar; public class AB { String a = \"ABA\"; }");
+      RAMDir juu = sources.addDir(sources.getRoot(), "juu");
+      juu.addFile("C.java").update("package juu; public class C { bar.B b; }");
+      RAMDir indirect = sources.addDir(sources.getRoot(), "indirect");
+      indirect.addFile("F.java").update("package indirect; public class F {} class G {}");
+      indirect.addFile("H.java").update("package indirect; public class H { G g; }");
+   }
+
+   public void testUpdateUnit() throws Exception
+   {
+      assertEquals(set("foo/package-info.java", "foo/A.java", "foo/D.java", "bar/B.java", "bar/E.java", "juu/C.java"), units("foo/A.java", Change.UPDATE));
+      assertEquals(set("juu/C.java"), units("juu/C.java", Change.UPDATE));
+   }
+
+   public void testAddUnit() throws Exception
+   {
+      assertEquals(set("bar/AB.java", "bar/B.java", "bar/E.java", "juu/C.java"), units("bar/AB.java", Change.ADD));
+   }
+
+   public void testIndirectReference() throws Exception
+   {
+      // The type G declared by F is referenced without naming F
+      assertEquals(set("indirect/F.java", "indirect/H.java"), units("indirect/F.java", Change.UPDATE));
+   }
+
+   public void testUpdateTemplate() throws Exception
+   {
+      assertEquals(set("foo/D.java"), units("foo/templates/index.gtmpl", Change.UPDATE));
+   }
+
+   public void testUnreferencedResource() throws Exception
+   {
+      assertEquals(set("foo/package-info.java"), units("foo/templates/other.gtmpl", Change.ADD));
+   }
+
+   public void testRemove() throws Exception
+   {
+      assertNull(units("juu/C.java", Change.REMOVE));
+      assertNull(units("foo/templates/index.gtmpl", Change.REMOVE));
+   }
+
+   private Set<String> units(String path, Change change) throws Exception
+   {
+      Map<String, Change> changes = Collections.singletonMap(path, change);
+      return IncrementalCompilation.getCompilationUnits(sources, changes);
+   }
+
+   private static Set<String> set(String... paths)
+   {
+      return new HashSet<String>(Arrays.asList(paths));
+   }
+}
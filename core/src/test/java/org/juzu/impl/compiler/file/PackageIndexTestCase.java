@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.compiler.file;
+
+import org.juzu.impl.spi.fs.SimpleFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.test.AbstractTestCase;
+
+import javax.tools.JavaFileObject;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class PackageIndexTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private static final Set<JavaFileObject.Kind> CLASS = EnumSet.of(JavaFileObject.Kind.CLASS);
+
+   public void testList() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      RAMPath foo = fs.getRoot().addDir("foo");
+      foo.addFile("A.class").update("a");
+      foo.addFile("b.txt").update("b");
+      foo.addDir("bar").addFile("C.class").update("c");
+
+      //
+      PackageIndex<RAMPath> index = new PackageIndex<RAMPath>(fs);
+      SimpleFileManager<RAMPath> manager = new SimpleFileManager<RAMPath>(fs);
+      manager.setIndex(index);
+      assertEquals(names(new SimpleFileManager<RAMPath>(fs).list("foo", CLASS, false, new ArrayList<JavaFileObject>())), names(manager.list("foo", CLASS, false, new ArrayList<JavaFileObject>())));
+      assertEquals(1, index.getLists());
+      assertEquals(1, index.getMisses());
+
+      // Another manager reuses the index
+      manager = new SimpleFileManager<RAMPath>(fs);
+      manager.setIndex(index);
+      assertEquals(names(new SimpleFileManager<RAMPath>(fs).list("foo", CLASS, true, new ArrayList<JavaFileObject>())), names(manager.list("foo", CLASS, true, new ArrayList<JavaFileObject>())));
+      assertEquals(3, index.getLists());
+      assertEquals(2, index.getMisses());
+
+      // The index does not see the changes until it is cleared
+      foo.addFile("D.class").update("d");
+      assertEquals(1, manager.list("foo", CLASS, false, new ArrayList<JavaFileObject>()).size());
+      index.clear();
+      assertEquals(2, manager.list("foo", CLASS, false, new ArrayList<JavaFileObject>()).size());
+      assertEquals(3, index.getMisses());
+
+      // Missing package
+      assertEquals(0, manager.list("juu", CLASS, true, new ArrayList<JavaFileObject>()).size());
+   }
+
+   public void testWrongFileSystem() throws Exception
+   {
+      SimpleFileManager<RAMPath> manager = new SimpleFileManager<RAMPath>(new RAMFileSystem());
+      try
+      {
+         manager.setIndex(new PackageIndex<RAMPath>(new RAMFileSystem()));
+         fail();
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+   }
+
+   public void testComposite() throws Exception
+   {
+      RAMFileSystem fs1 = new RAMFileSystem();
+      fs1.getRoot().addDir("foo").addFile("A.class").update("a");
+      RAMFileSystem fs2 = new RAMFileSystem();
+      fs2.getRoot().addDir("foo").addFile("B.class").update("b");
+      List<SimpleFileSystem<?>> classPath = new ArrayList<SimpleFileSystem<?>>();
+      classPath.add(fs1);
+      classPath.add(fs2);
+      CompositeFileManager manager = new CompositeFileManager(classPath);
+      PackageIndex<RAMPath> index = new PackageIndex<RAMPath>(fs2);
+      assertTrue(manager.setIndex(index));
+      assertFalse(manager.setIndex(new PackageIndex<RAMPath>(new RAMFileSystem())));
+      assertEquals(2, manager.list("foo", CLASS, false, new ArrayList<JavaFileObject>()).size());
+      assertEquals(1, index.getMisses());
+   }
+
+   private static List<String> names(List<JavaFileObject> files)
+   {
+      List<String> names = new ArrayList<String>();
+      for (JavaFileObject file : files)
+      {
+         names.add(((JavaFileObjectImpl<?>)file).getKey().fqn);
+      }
+      return names;
+   }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.fs;
+
+import org.juzu.impl.spi.fs.ram.RAMFile;
+import org.juzu.impl.spi.fs.ram.RAMFileSystem;
+import org.juzu.impl.spi.fs.ram.RAMPath;
+import org.juzu.test.AbstractTestCase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class WatcherTestCase extends AbstractTestCase
+{
+
+   public void testPoll() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      RAMFile foo = fs.addFile(fs.getRoot(), "foo.txt");
+      FileSystemWatcher<RAMPath> watcher = new FileSystemWatcher<RAMPath>(fs, Long.MAX_VALUE);
+      try
+      {
+         watcher.start();
+         assertEquals(Collections.<String, Change>emptyMap(), watcher.poll());
+
+         // Changes accumulate until the next poll
+         waitForOneMillis();
+         fs.addFile(fs.getRoot(), "bar.txt");
+         watcher.scan();
+         waitForOneMillis();
+         foo.update("value");
+         watcher.scan();
+         Map<String, Change> expected = new HashMap<String, Change>();
+         expected.put("bar.txt", Change.ADD);
+         expected.put("foo.txt", Change.UPDATE);
+         assertEquals(expected, watcher.poll());
+         assertEquals(Collections.<String, Change>emptyMap(), watcher.poll());
+      }
+      finally
+      {
+         watcher.stop();
+      }
+   }
+
+   public void testBackgroundScan() throws Exception
+   {
+      RAMFileSystem fs = new RAMFileSystem();
+      FileSystemWatcher<RAMPath> watcher = new FileSystemWatcher<RAMPath>(fs, 10);
+      try
+      {
+         watcher.start();
+         waitForOneMillis();
+         fs.addFile(fs.getRoot(), "foo.txt");
+         Map<String, Change> changes = Collections.emptyMap();
+         for (long timeout = System.currentTimeMillis() + 5000;changes.isEmpty() && System.currentTimeMillis() < timeout;)
+         {
+            Thread.sleep(10);
+            changes = watcher.poll();
+         }
+         assertEquals(Collections.singletonMap("foo.txt", Change.ADD), changes);
+      }
+      finally
+      {
+         watcher.stop();
+      }
+   }
+
+   public void testMerge() throws Exception
+   {
+      assertMerge(Change.ADD, Change.ADD, Change.UPDATE);
+      assertMerge(null, Change.ADD, Change.REMOVE);
+      assertMerge(Change.UPDATE, Change.REMOVE, Change.ADD);
+      assertMerge(Change.REMOVE, Change.REMOVE, Change.UPDATE);
+      assertMerge(Change.REMOVE, Change.UPDATE, Change.REMOVE);
+      assertMerge(Change.UPDATE, Change.UPDATE, Change.UPDATE);
+   }
+
+   private void assertMerge(Change expected, Change first, Change second)
+   {
+      Map<String, Change> to = new HashMap<String, Change>();
+      FileSystemWatcher.merge(to, Collections.singletonMap("foo", first));
+      FileSystemWatcher.merge(to, Collections.singletonMap("foo", second));
+      assertEquals(expected, to.get("foo"));
+   }
+}
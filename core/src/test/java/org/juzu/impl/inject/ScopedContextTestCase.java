@@ -0,0 +1,555 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.inject;
+
+import org.juzu.impl.request.Scope;
+import org.juzu.test.AbstractTestCase;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionBindingEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ScopedContextTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private static final int THREADS = 16;
+
+   public void testCreate() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      Counter factory = new Counter("foo");
+      Scoped scoped = context.get("foo", factory);
+      assertNotNull(scoped);
+      assertSame(scoped, context.get("foo"));
+      assertSame(scoped, context.get("foo", factory));
+      assertEquals(1, factory.count.get());
+      assertEquals(1, context.size());
+   }
+
+   public void testCreateNull() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      Scoped scoped = context.get("foo", new ScopedFactory()
+      {
+         public Scoped create()
+         {
+            return null;
+         }
+      });
+      assertNull(scoped);
+      assertEquals(0, context.size());
+   }
+
+   public void testCreateFailure() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      try
+      {
+         context.get("foo", new ScopedFactory()
+         {
+            public Scoped create()
+            {
+               throw new RuntimeException();
+            }
+         });
+         fail();
+      }
+      catch (RuntimeException ignore)
+      {
+      }
+      assertEquals(0, context.size());
+
+      // The creation can be attempted again
+      assertNotNull(context.get("foo", new Counter("foo")));
+   }
+
+   public void testNestedCreate() throws Exception
+   {
+      final ScopedContext context = new ScopedContext();
+      final Counter bar = new Counter("bar");
+      Scoped foo = context.get("foo", new ScopedFactory()
+      {
+         public Scoped create()
+         {
+            context.get("bar", bar);
+            return new Value("foo");
+         }
+      });
+      assertNotNull(foo);
+      assertNotNull(context.get("bar"));
+      assertEquals(2, context.size());
+   }
+
+   public void testCircularCreate() throws Exception
+   {
+      final ScopedContext context = new ScopedContext();
+      try
+      {
+         context.get("foo", new ScopedFactory()
+         {
+            public Scoped create()
+            {
+               return context.get("foo", this);
+            }
+         });
+         fail();
+      }
+      catch (IllegalStateException ignore)
+      {
+      }
+      assertEquals(0, context.size());
+   }
+
+   public void testConcurrentCreate() throws Exception
+   {
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      try
+      {
+         for (int round = 0;round < 50;round++)
+         {
+            final ScopedContext context = new ScopedContext();
+            final Counter[] factories = new Counter[4];
+            for (int i = 0;i < factories.length;i++)
+            {
+               factories[i] = new Counter("key" + i);
+            }
+
+            // Release all the threads at once, the factories are slow enough to make the creations overlap
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<Scoped[]>> futures = new ArrayList<Future<Scoped[]>>();
+            for (int i = 0;i < THREADS;i++)
+            {
+               final int offset = i;
+               futures.add(executor.submit(new Callable<Scoped[]>()
+               {
+                  public Scoped[] call() throws Exception
+                  {
+                     start.await();
+                     Scoped[] values = new Scoped[factories.length];
+                     for (int j = 0;j < factories.length;j++)
+                     {
+                        int index = (offset + j) % factories.length;
+                        values[index] = context.get(factories[index].key, factories[index]);
+                     }
+                     return values;
+                  }
+               }));
+            }
+            start.countDown();
+
+            //
+            Scoped[] expected = null;
+            for (Future<Scoped[]> future : futures)
+            {
+               Scoped[] values = future.get(10, TimeUnit.SECONDS);
+               if (expected == null)
+               {
+                  expected = values;
+               }
+               for (int j = 0;j < values.length;j++)
+               {
+                  assertNotNull(values[j]);
+                  assertSame(expected[j], values[j]);
+               }
+            }
+            for (Counter factory : factories)
+            {
+               assertEquals(1, factory.count.get());
+            }
+            assertEquals(factories.length, context.size());
+         }
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testConcurrentClose() throws Exception
+   {
+      final ScopedContext context = new ScopedContext();
+      final AtomicInteger destroyed = new AtomicInteger();
+      for (int i = 0;i < 100;i++)
+      {
+         context.set(i, new Value(i)
+         {
+            @Override
+            public void destroy()
+            {
+               destroyed.incrementAndGet();
+            }
+         });
+      }
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      try
+      {
+         final CountDownLatch start = new CountDownLatch(1);
+         List<Future<?>> futures = new ArrayList<Future<?>>();
+         for (int i = 0;i < THREADS;i++)
+         {
+            futures.add(executor.submit(new Callable<Object>()
+            {
+               public Object call() throws Exception
+               {
+                  start.await();
+                  context.close();
+                  return null;
+               }
+            }));
+         }
+         start.countDown();
+         for (Future<?> future : futures)
+         {
+            future.get(10, TimeUnit.SECONDS);
+         }
+      }
+      finally
+      {
+         executor.shutdownNow();
+      }
+      assertEquals(100, destroyed.get());
+      assertEquals(0, context.size());
+   }
+
+   public void testExternalize() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      context.set("foo", new Bean("foo", "bar"));
+      context.set("juu", new Value("daa"));
+      ScopedContext copy = copy(context);
+      assertEquals(0, copy.size());
+      assertEquals(1, copy.getPassivatedSize());
+      assertTrue(copy.getLength() > 0);
+
+      //
+      copy.activate(new Activator());
+      assertEquals(0, copy.getPassivatedSize());
+      assertEquals(1, copy.size());
+      Bean bean = (Bean)copy.get("foo");
+      assertEquals("foo", bean.getKey());
+      assertEquals(Collections.singletonList("bar"), bean.get());
+   }
+
+   public void testExternalizeUnknown() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      context.set("foo", new Bean("foo", "bar"));
+      ScopedContext copy = copy(context);
+      copy.activate(new Activator()
+      {
+         @Override
+         public PassivationCapableScoped activate(String id, Object value)
+         {
+            return null;
+         }
+      });
+      assertEquals(0, copy.getPassivatedSize());
+      assertEquals(1, copy.getDiscardedSize());
+      assertEquals(0, copy.size());
+      assertTrue(copy.flush());
+   }
+
+   public void testActivateFailure() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      context.set("foo", new Bean("foo", "bar"));
+      ScopedContext copy = copy(context);
+      copy.activate(new Activator()
+      {
+         @Override
+         public PassivationCapableScoped activate(String id, Object value)
+         {
+            throw new RuntimeException();
+         }
+      });
+      assertEquals(0, copy.getPassivatedSize());
+      assertEquals(1, copy.getDiscardedSize());
+      assertEquals(0, copy.size());
+   }
+
+   public void testActivateOnAccess() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      context.set("foo", new Bean("foo", "bar"));
+      ScopedContext copy = copy(context);
+
+      // Not activated without an activator
+      assertNull(copy.get("foo"));
+      assertEquals(1, copy.getPassivatedSize());
+
+      //
+      ScopeController.begin(new ScopingContext()
+      {
+         public Scoped getContextualValue(Scope scope, Object key)
+         {
+            throw new UnsupportedOperationException();
+         }
+         public Scoped getContextualValue(Scope scope, Object key, ScopedFactory factory)
+         {
+            throw new UnsupportedOperationException();
+         }
+         public void setContextualValue(Scope scope, Object key, Scoped value)
+         {
+            throw new UnsupportedOperationException();
+         }
+         public boolean isActive(Scope scope)
+         {
+            return true;
+         }
+         public ScopedActivator getActivator()
+         {
+            return new Activator();
+         }
+      });
+      try
+      {
+         Counter factory = new Counter("foo");
+         Scoped scoped = copy.get("foo", factory);
+         assertTrue(scoped instanceof Bean);
+         assertEquals(0, factory.count.get());
+         assertEquals(0, copy.getPassivatedSize());
+      }
+      finally
+      {
+         ScopeController.end();
+      }
+   }
+
+   public void testPassivatedEntriesAreKept() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      context.set("foo", new Bean("foo", "bar"));
+      ScopedContext copy = copy(copy(context));
+      assertEquals(1, copy.getPassivatedSize());
+      assertEquals(copy(context).getLength(), copy.getLength());
+   }
+
+   public void testFlush() throws Exception
+   {
+      ScopedContext context = new ScopedContext();
+      assertFalse(context.flush());
+
+      // Adding an entry
+      Bean bean = new Bean("foo", "bar");
+      context.set("foo", bean);
+      assertTrue(context.flush());
+      assertFalse(context.flush());
+      int length = context.getLength();
+      assertTrue(length > 0);
+
+      // Accessing an entry without modifying it
+      assertSame(bean, context.get("foo"));
+      assertFalse(context.flush());
+
+      // Modifying an entry
+      ((List<String>)context.get("foo").get()).add("juu");
+      assertTrue(context.flush());
+      assertTrue(context.getLength() > length);
+
+      // Entries that cannot be passivated do not change the externalized form
+      context.set("juu", new Value("daa"));
+      assertFalse(context.flush());
+
+      // Removing an entry
+      context.set("foo", null);
+      assertTrue(context.flush());
+      assertEquals(0, context.getLength());
+   }
+
+   public void testRebind() throws Exception
+   {
+      final ScopedContext context = new ScopedContext();
+      final AtomicInteger destroyed = new AtomicInteger();
+      context.set("foo", new Value("foo")
+      {
+         @Override
+         public void destroy()
+         {
+            destroyed.incrementAndGet();
+         }
+      });
+      final Map<String, Object> attributes = new HashMap<String, Object>();
+      HttpSession session = (HttpSession)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpSession.class}, new InvocationHandler()
+      {
+         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+         {
+            if (method.getName().equals("getAttribute"))
+            {
+               return attributes.get(args[0]);
+            }
+            throw new UnsupportedOperationException(method.getName());
+         }
+      });
+
+      // Bound again
+      attributes.put("org.juzu.session_scope", context);
+      context.valueUnbound(new HttpSessionBindingEvent(session, "org.juzu.session_scope"));
+      assertEquals(0, destroyed.get());
+      assertEquals(1, context.size());
+
+      // Removed
+      attributes.remove("org.juzu.session_scope");
+      context.valueUnbound(new HttpSessionBindingEvent(session, "org.juzu.session_scope"));
+      assertEquals(1, destroyed.get());
+      assertEquals(0, context.size());
+   }
+
+   public void testBindMonitor() throws Exception
+   {
+      // The monitor depends on the session identifier only
+      Object monitor = ScopedContext.getBindMonitor(new String("session"));
+      assertNotNull(monitor);
+      assertSame(monitor, ScopedContext.getBindMonitor(new String("session")));
+      assertNotNull(ScopedContext.getBindMonitor("" + Integer.MIN_VALUE));
+   }
+
+   private static ScopedContext copy(ScopedContext context) throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(baos);
+      out.writeObject(context);
+      out.close();
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+      return (ScopedContext)in.readObject();
+   }
+
+   private static class Activator implements ScopedActivator
+   {
+      public ClassLoader getClassLoader()
+      {
+         return Thread.currentThread().getContextClassLoader();
+      }
+
+      public PassivationCapableScoped activate(String id, Object value)
+      {
+         return new Bean(id, (ArrayList<String>)value);
+      }
+   }
+
+   private static class Bean implements PassivationCapableScoped
+   {
+
+      /** . */
+      private final String id;
+
+      /** . */
+      private final ArrayList<String> value;
+
+      private Bean(String id, String value)
+      {
+         this(id, new ArrayList<String>(Collections.singletonList(value)));
+      }
+
+      private Bean(String id, ArrayList<String> value)
+      {
+         this.id = id;
+         this.value = value;
+      }
+
+      public Object getKey()
+      {
+         return id;
+      }
+
+      public String getId()
+      {
+         return id;
+      }
+
+      public Object get()
+      {
+         return value;
+      }
+
+      public void destroy()
+      {
+      }
+   }
+
+   private static class Value implements Scoped
+   {
+
+      /** . */
+      private final Object value;
+
+      private Value(Object value)
+      {
+         this.value = value;
+      }
+
+      public Object get()
+      {
+         return value;
+      }
+
+      public void destroy()
+      {
+      }
+   }
+
+   private static class Counter implements ScopedFactory
+   {
+
+      /** . */
+      private final String key;
+
+      /** . */
+      private final AtomicInteger count = new AtomicInteger();
+
+      private Counter(String key)
+      {
+         this.key = key;
+      }
+
+      public Scoped create()
+      {
+         count.incrementAndGet();
+         try
+         {
+            Thread.sleep(1);
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+         }
+         return new Value(key);
+      }
+   }
+}
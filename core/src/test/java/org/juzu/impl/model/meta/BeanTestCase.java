@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.model.meta;
+
+import org.juzu.impl.inject.BeanIndex;
+import org.juzu.impl.model.processor.MainProcessor;
+import org.juzu.impl.utils.JSON;
+import org.juzu.impl.utils.Tools;
+import org.juzu.test.AbstractTestCase;
+import org.juzu.test.CompilerHelper;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class BeanTestCase extends AbstractTestCase
+{
+
+   public void testIndex() throws Exception
+   {
+      CompilerHelper<File, File> helper = compiler("model", "meta", "bean").with(new MainProcessor());
+      helper.assertCompile();
+
+      //
+      BeanIndex index = index(helper);
+      assertEquals(new HashSet<String>(Arrays.asList("model.meta.bean.A", "model.meta.bean.A$Nested", "model.meta.bean.G")), new HashSet<String>(index.getTypes()));
+      assertEquals(new BeanIndex.Entry("model.meta.bean.A", "org.juzu.RequestScoped", Arrays.asList("javax.inject.Named")), index.get("model.meta.bean.A"));
+      assertEquals(new BeanIndex.Entry("model.meta.bean.G", null, Collections.<String>emptyList()), index.get("model.meta.bean.G"));
+   }
+
+   public void testRemove() throws Exception
+   {
+      CompilerHelper<File, File> helper = compiler("model", "meta", "bean").with(new MainProcessor());
+      helper.assertCompile();
+      assertTrue(index(helper).contains("model.meta.bean.G"));
+
+      //
+      assertTrue(helper.getSourcePath().getPath("model", "meta", "bean", "G.java").delete());
+      assertTrue(helper.getClassOutput().getPath("model", "meta", "bean", "G.class").delete());
+
+      //
+      helper.with(new MainProcessor()).addClassPath(helper.getClassOutput()).assertCompile();
+      BeanIndex index = index(helper);
+      assertFalse(index.contains("model.meta.bean.G"));
+      assertTrue(index.contains("model.meta.bean.A"));
+   }
+
+   private BeanIndex index(CompilerHelper<File, File> helper) throws Exception
+   {
+      File config = helper.getClassOutput().getPath("model", "meta", "bean", "config.json");
+      JSON json = (JSON)JSON.parse(Tools.read(config));
+      return BeanIndex.create(json.getList("beans"));
+   }
+}
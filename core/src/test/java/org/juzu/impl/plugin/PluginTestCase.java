@@ -19,12 +19,15 @@
 
 package org.juzu.impl.plugin;
 
+import org.juzu.impl.application.ApplicationException;
 import org.juzu.test.AbstractInjectTestCase;
 import org.juzu.test.Registry;
 import org.juzu.test.protocol.mock.MockApplication;
 import org.juzu.test.protocol.mock.MockClient;
 import org.juzu.test.protocol.mock.MockRenderBridge;
 
+import java.util.Arrays;
+
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class PluginTestCase extends AbstractInjectTestCase
 {
@@ -50,4 +53,32 @@ public class PluginTestCase extends AbstractInjectTestCase
       MockRenderBridge render = client.render();
       assertEquals("pass", render.getContent());
    }
+
+   public void testAssetWithoutServer() throws Exception
+   {
+      MockApplication<?> app = application("plugin", "asset").init();
+
+      //
+      MockClient client = app.client();
+      MockRenderBridge render = client.render();
+      assertEquals(Arrays.asList("/jquery.js"), render.getScripts());
+      assertEquals(Arrays.asList("/main.css", "/main.less"), render.getStylesheets());
+   }
+
+   public void testBundleWithoutServer() throws Exception
+   {
+      MockApplication<?> app = application("plugin", "bundle").init();
+
+      //
+      MockClient client = app.client();
+      try
+      {
+         client.render();
+         fail();
+      }
+      catch (ApplicationException e)
+      {
+         assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+   }
 }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.request;
+
+import org.juzu.impl.inject.Scoped;
+import org.juzu.test.AbstractTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ScopedTableTestCase extends AbstractTestCase
+{
+
+   public void testPutGet() throws Exception
+   {
+      ScopedTable table = new ScopedTable();
+      assertNull(table.get("foo"));
+      Value foo = new Value();
+      table.put("foo", foo);
+      assertSame(foo, table.get("foo"));
+      assertEquals(1, table.size());
+      Value bar = new Value();
+      table.put("foo", bar);
+      assertSame(bar, table.get("foo"));
+      assertEquals(1, table.size());
+      table.put("foo", null);
+      assertNull(table.get("foo"));
+      assertEquals(0, table.size());
+   }
+
+   public void testCollisions() throws Exception
+   {
+      ScopedTable table = new ScopedTable();
+      Key[] keys = new Key[20];
+      Value[] values = new Value[keys.length];
+      for (int i = 0;i < keys.length;i++)
+      {
+         keys[i] = new Key(i, 0);
+         table.put(keys[i], values[i] = new Value());
+      }
+      for (int i = 0;i < keys.length;i++)
+      {
+         assertSame(values[i], table.get(keys[i]));
+      }
+
+      // Removing in the middle of the cluster must keep the following entries reachable
+      table.remove(keys[3]);
+      assertNull(table.get(keys[3]));
+      for (int i = 0;i < keys.length;i++)
+      {
+         if (i != 3)
+         {
+            assertSame(values[i], table.get(keys[i]));
+         }
+      }
+      assertEquals(keys.length - 1, table.size());
+   }
+
+   public void testRandom() throws Exception
+   {
+      Random random = new Random(0);
+      ScopedTable table = new ScopedTable();
+      Map<Key, Value> expected = new HashMap<Key, Value>();
+      for (int i = 0;i < 10000;i++)
+      {
+         int id = random.nextInt(64);
+         Key key = new Key(id, id % 8);
+         switch (random.nextInt(3))
+         {
+            case 0:
+               Value value = new Value();
+               table.put(key, value);
+               expected.put(key, value);
+               break;
+            case 1:
+               table.remove(key);
+               expected.remove(key);
+               break;
+            default:
+               assertSame(expected.get(key), table.get(key));
+               break;
+         }
+         assertEquals(expected.size(), table.size());
+      }
+      for (Map.Entry<Key, Value> entry : expected.entrySet())
+      {
+         assertSame(entry.getValue(), table.get(entry.getKey()));
+      }
+   }
+
+   private static class Key
+   {
+
+      /** . */
+      private final int id;
+
+      /** . */
+      private final int hash;
+
+      private Key(int id, int hash)
+      {
+         this.id = id;
+         this.hash = hash;
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         return obj instanceof Key && ((Key)obj).id == id;
+      }
+   }
+
+   private static class Value implements Scoped
+   {
+      public Object get()
+      {
+         return this;
+      }
+
+      public void destroy()
+      {
+      }
+   }
+}
@@ -19,7 +19,9 @@
 
 package org.juzu.impl.spi.inject;
 
+import org.juzu.impl.inject.ScopedActivator;
 import org.juzu.impl.inject.Scoped;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.impl.inject.ScopingContext;
 import org.juzu.impl.request.Scope;
 
@@ -38,6 +40,21 @@ public class ScopingContextImpl implements ScopingContext
       return entries.get(new ScopedKey(scope, key));
    }
 
+   public Scoped getContextualValue(Scope scope, Object key, ScopedFactory factory)
+   {
+      ScopedKey scopedKey = new ScopedKey(scope, key);
+      Scoped scoped = entries.get(scopedKey);
+      if (scoped == null)
+      {
+         scoped = factory.create();
+         if (scoped != null)
+         {
+            entries.put(scopedKey, scoped);
+         }
+      }
+      return scoped;
+   }
+
    public void setContextualValue(Scope scope, Object key, Scoped value)
    {
       if (value != null)
@@ -55,6 +72,11 @@ public class ScopingContextImpl implements ScopingContext
       return true;
    }
 
+   public ScopedActivator getActivator()
+   {
+      return null;
+   }
+
    public Map<ScopedKey, Scoped> getEntries()
    {
       return entries;
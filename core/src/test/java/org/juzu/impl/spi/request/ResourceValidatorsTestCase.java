@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.request;
+
+import org.juzu.Response;
+import org.juzu.test.AbstractTestCase;
+import org.juzu.text.CharArray;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ResourceValidatorsTestCase extends AbstractTestCase
+{
+
+   public void testDigest() throws Exception
+   {
+      CharArray content = ResourceValidators.render(Response.ok("hello"));
+      assertEquals("5d41402abc4b2a76b9719d911017c592", ResourceValidators.digest(content));
+      assertEquals("d41d8cd98f00b204e9800998ecf8427e", ResourceValidators.digest(new CharArray.Simple("")));
+   }
+
+   public void testMatches() throws Exception
+   {
+      assertTrue(ResourceValidators.matches("\"abc\"", "abc"));
+      assertTrue(ResourceValidators.matches("W/\"abc\"", "abc"));
+      assertTrue(ResourceValidators.matches("\"def\", \"abc\"", "abc"));
+      assertTrue(ResourceValidators.matches("*", "abc"));
+      assertFalse(ResourceValidators.matches("\"def\"", "abc"));
+      assertFalse(ResourceValidators.matches("", "abc"));
+   }
+
+   public void testNotModified() throws Exception
+   {
+      assertTrue(ResourceValidators.isNotModified("\"abc\"", -1, "abc", -1));
+      assertFalse(ResourceValidators.isNotModified("\"abc\"", -1, null, -1));
+      assertFalse(ResourceValidators.isNotModified(null, -1, "abc", -1));
+
+      // The entity tag takes precedence over the date
+      assertFalse(ResourceValidators.isNotModified("\"def\"", 2000, "abc", 1000));
+
+      // Date with second precision
+      assertTrue(ResourceValidators.isNotModified(null, 1000, null, 1999));
+      assertFalse(ResourceValidators.isNotModified(null, 1000, null, 2000));
+      assertFalse(ResourceValidators.isNotModified(null, 1000, null, -1));
+   }
+
+   public void testDate() throws Exception
+   {
+      assertEquals("Sun, 06 Nov 1994 08:49:37 GMT", ResourceValidators.formatDate(784111777000L));
+      assertEquals(784111777000L, ResourceValidators.parseDate("Sun, 06 Nov 1994 08:49:37 GMT"));
+      assertEquals(-1, ResourceValidators.parseDate("foo"));
+      assertEquals(-1, ResourceValidators.parseDate(null));
+   }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.spi.request.servlet;
+
+import org.juzu.Response;
+import org.juzu.test.AbstractTestCase;
+import org.juzu.text.Printer;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ServletRenderBridgeTestCase extends AbstractTestCase
+{
+
+   public void testStreaming() throws Exception
+   {
+      Exchange exchange = new Exchange();
+      ServletRenderBridge bridge = new ServletRenderBridge(exchange.request(), exchange.response(), new HashMap<String, String[]>(), 1024);
+      CommittedRender render = new CommittedRender(exchange.response());
+      render.addScript("/a.js");
+      bridge.setResponse(render);
+      assertEquals(1024, exchange.bufferSize);
+      assertTrue(render.committed);
+
+      // The head was sent before the body was rendered
+      String s = exchange.body.toString("UTF-8");
+      int head = s.indexOf("/a.js");
+      assertTrue(head != -1);
+      assertTrue(head < s.indexOf("pass"));
+   }
+
+   public void testBuffered() throws Exception
+   {
+      Exchange exchange = new Exchange();
+      ServletRenderBridge bridge = new ServletRenderBridge(exchange.request(), exchange.response(), new HashMap<String, String[]>(), 0);
+      CommittedRender render = new CommittedRender(exchange.response());
+      bridge.setResponse(render);
+      assertEquals(-1, exchange.bufferSize);
+      assertFalse(render.committed);
+      assertTrue(exchange.body.toString("UTF-8").contains("pass"));
+   }
+
+   public void testConfiguration() throws Exception
+   {
+      assertEquals(0, ServletRequestBridge.getStreamingBufferSize(config(null)));
+      assertEquals(4096, ServletRequestBridge.getStreamingBufferSize(config(" 4096 ")));
+      try
+      {
+         ServletRequestBridge.getStreamingBufferSize(config("-1"));
+         fail();
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+      try
+      {
+         ServletRequestBridge.getStreamingBufferSize(config("foo"));
+         fail();
+      }
+      catch (IllegalArgumentException expected)
+      {
+      }
+   }
+
+   private static ServletConfig config(final String streamingBufferSize)
+   {
+      return (ServletConfig)Proxy.newProxyInstance(ServletRenderBridgeTestCase.class.getClassLoader(), new Class[]{ServletConfig.class}, new InvocationHandler()
+      {
+         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+         {
+            if (method.getName().equals("getInitParameter") && ServletRequestBridge.STREAMING_BUFFER_SIZE.equals(args[0]))
+            {
+               return streamingBufferSize;
+            }
+            return null;
+         }
+      });
+   }
+
+   private static class CommittedRender extends Response.Render
+   {
+
+      /** . */
+      private final HttpServletResponse resp;
+
+      /** Whether the response was committed when the body was rendered. */
+      boolean committed;
+
+      CommittedRender(HttpServletResponse resp)
+      {
+         this.resp = resp;
+      }
+
+      @Override
+      public String getTitle()
+      {
+         return null;
+      }
+
+      @Override
+      public void send(Printer printer) throws IOException
+      {
+         committed = resp.isCommitted();
+         printer.write("pass");
+      }
+   }
+
+   private static class Exchange
+   {
+
+      /** . */
+      final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+      /** . */
+      int bufferSize = -1;
+
+      /** . */
+      boolean committed;
+
+      HttpServletRequest request()
+      {
+         return (HttpServletRequest)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletRequest.class}, new InvocationHandler()
+         {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+               throw new UnsupportedOperationException(method.getName());
+            }
+         });
+      }
+
+      HttpServletResponse response()
+      {
+         return (HttpServletResponse)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletResponse.class}, new InvocationHandler()
+         {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+               String name = method.getName();
+               if (name.equals("setContentType"))
+               {
+                  return null;
+               }
+               else if (name.equals("getCharacterEncoding"))
+               {
+                  return "UTF-8";
+               }
+               else if (name.equals("setBufferSize"))
+               {
+                  bufferSize = (Integer)args[0];
+                  return null;
+               }
+               else if (name.equals("flushBuffer"))
+               {
+                  committed = true;
+                  return null;
+               }
+               else if (name.equals("isCommitted"))
+               {
+                  return committed;
+               }
+               else if (name.equals("getOutputStream"))
+               {
+                  return new ServletOutputStream()
+                  {
+                     @Override
+                     public void write(int b)
+                     {
+                        body.write(b);
+                     }
+                  };
+               }
+               throw new UnsupportedOperationException(name);
+            }
+         });
+      }
+   }
+}
@@ -21,6 +21,7 @@ package org.juzu.impl.template;
 
 import org.juzu.impl.template.compiler.EmitContext;
 import org.juzu.impl.template.compiler.EmitPhase;
+import org.juzu.impl.utils.FQN;
 import org.juzu.impl.utils.MethodInvocation;
 import org.juzu.impl.spi.template.gtmpl.GroovyTemplateStub;
 import org.juzu.impl.spi.template.gtmpl.GroovyTemplateEmitter;
@@ -43,7 +44,7 @@ public abstract class AbstractTemplateTestCase extends AbstractTestCase
 
    public GroovyTemplateStub template(final String text) throws IOException
    {
-      GroovyTemplateEmitter generator = new GroovyTemplateEmitter();
+      GroovyTemplateEmitter generator = new GroovyTemplateEmitter(new FQN("template_" + Math.abs(new Random().nextLong())));
       try
       {
          EmitPhase tcc = new EmitPhase(new EmitContext()
@@ -74,7 +75,7 @@ public abstract class AbstractTemplateTestCase extends AbstractTestCase
       {
          throw failure(e);
       }
-      return generator.build("template_" + Math.abs(new Random().nextLong()));
+      return generator.build();
    }
 
    public String render(String template) throws IOException, TemplateExecutionException
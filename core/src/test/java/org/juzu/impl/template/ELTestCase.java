@@ -19,6 +19,8 @@
 
 package org.juzu.impl.template;
 
+import org.juzu.impl.application.InternalApplicationContext;
+import org.juzu.impl.application.NamedBeanRegistry;
 import org.juzu.test.AbstractInjectTestCase;
 import org.juzu.test.protocol.mock.MockApplication;
 import org.juzu.test.protocol.mock.MockClient;
@@ -37,4 +39,22 @@ public class ELTestCase extends AbstractInjectTestCase
       MockRenderBridge render = client.render();
       assertEquals("A", render.getContent());
    }
+
+   public void testNamedBeanRegistry() throws Exception
+   {
+      MockApplication<?> app = application("template", "el").init();
+      NamedBeanRegistry beans = ((InternalApplicationContext)app.getContext()).getNamedBeans();
+
+      // The request scoped bean is obtained for each request
+      MockClient client = app.client();
+      assertEquals("A", client.render().getContent());
+      assertEquals("A", client.render().getContent());
+
+      //
+      NamedBeanRegistry.Slot slot = beans.resolveSlot("a");
+      assertTrue(slot.isBean());
+      assertSame(slot, beans.resolveSlot("a"));
+      assertFalse(beans.resolveSlot("b").isBean());
+      assertNull(beans.resolve("b"));
+   }
 }
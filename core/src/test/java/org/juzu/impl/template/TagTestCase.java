@@ -19,6 +19,8 @@
 
 package org.juzu.impl.template;
 
+import org.juzu.impl.application.FragmentCache;
+import org.juzu.impl.application.InternalApplicationContext;
 import org.juzu.impl.spi.inject.InjectImplementation;
 import org.juzu.impl.spi.template.gtmpl.GroovyTemplateEmitter;
 import org.juzu.impl.template.compiler.EmitContext;
@@ -73,6 +75,25 @@ public class TagTestCase extends AbstractInjectTestCase
       assertEquals("foo", out);
    }
 
+   public void testCache() throws Exception
+   {
+      MockApplication<?> app = application("template", "tag", "cache").init();
+      FragmentCache cache = ((InternalApplicationContext)app.getContext()).getFragmentCache();
+
+      //
+      MockClient client = app.client();
+      assertEquals("1-1", client.render().getContent());
+      assertEquals(0, cache.getHitCount());
+      assertEquals(1, cache.getMissCount());
+      assertEquals("1-2", client.render().getContent());
+      assertEquals(1, cache.getHitCount());
+      assertEquals(1, cache.getCount());
+
+      //
+      cache.clear();
+      assertEquals("3-3", client.render().getContent());
+   }
+
    public void testTitle() throws Exception
    {
       MockApplication<?> app = application("template", "tag", "title").init();
@@ -148,6 +169,6 @@ public class TagTestCase extends AbstractInjectTestCase
       
       // Now emit the template
       EmitPhase emit = new EmitPhase(new EmitContext());
-      emit.emit(new GroovyTemplateEmitter(), template.getAST());
+      emit.emit(new GroovyTemplateEmitter(template.getFQN()), template.getAST());
    }
 }
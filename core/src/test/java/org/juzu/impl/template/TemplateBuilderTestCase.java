@@ -24,6 +24,7 @@ import org.juzu.impl.template.compiler.EmitContext;
 import org.juzu.impl.template.compiler.EmitPhase;
 import org.juzu.impl.spi.template.gtmpl.GroovyTemplateStub;
 import org.juzu.impl.spi.template.gtmpl.GroovyTemplateEmitter;
+import org.juzu.impl.utils.FQN;
 import org.juzu.template.TemplateRenderContext;
 import org.juzu.text.WriterPrinter;
 
@@ -37,9 +38,9 @@ public class TemplateBuilderTestCase extends TestCase
 
    public void testFoo() throws Exception
    {
-      GroovyTemplateEmitter generator = new GroovyTemplateEmitter();
+      GroovyTemplateEmitter generator = new GroovyTemplateEmitter(new FQN("template_" + Math.abs(new Random().nextLong())));
       new EmitPhase(new EmitContext()).emit(generator, ASTNode.Template.parse("a<%=foo%>c"));
-      GroovyTemplateStub s = generator.build("template_" + Math.abs(new Random().nextLong()));
+      GroovyTemplateStub s = generator.build();
       StringWriter out = new StringWriter();
       new TemplateRenderContext(s, Collections.singletonMap("foo", "b")).render(new WriterPrinter(out));
       assertEquals("abc", out.toString());
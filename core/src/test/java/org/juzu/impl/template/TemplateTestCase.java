@@ -19,12 +19,24 @@
 
 package org.juzu.impl.template;
 
+import org.juzu.impl.application.InternalApplicationContext;
+import org.juzu.impl.application.TemplateStubRegistry;
 import org.juzu.impl.compiler.Compiler;
 import org.juzu.impl.spi.inject.InjectImplementation;
+import org.juzu.impl.spi.template.gtmpl.GroovyTemplateStub;
+import org.juzu.impl.template.metamodel.TemplatePlugin;
+import org.juzu.template.TemplateRenderContext;
 import org.juzu.test.AbstractInjectTestCase;
 import org.juzu.test.CompilerHelper;
 import org.juzu.test.protocol.mock.MockApplication;
 import org.juzu.test.protocol.mock.MockClient;
+import org.juzu.test.protocol.mock.MockRenderBridge;
+import org.juzu.text.WriterPrinter;
+
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
    public class TemplateTestCase extends AbstractInjectTestCase
@@ -59,6 +71,39 @@ import org.juzu.test.protocol.mock.MockClient;
 */
    }
 
+   public void testPrecompile() throws Exception
+   {
+      CompilerHelper<?, ?> helper = compiler("template", "simple");
+      helper.getBuilder().processorOption(TemplatePlugin.PRECOMPILE_OPTION, "true");
+      helper.assertCompile();
+      assertNotNull(helper.getClassOutput().getPath("template", "simple", "templates", "index_script.class"));
+
+      // The stub loads the precompiled script instead of compiling it
+      final List<String> missing = new ArrayList<String>();
+      ClassLoader loader = new ClassLoader(helper.getClassLoader())
+      {
+         @Override
+         protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+         {
+            try
+            {
+               return super.loadClass(name, resolve);
+            }
+            catch (ClassNotFoundException e)
+            {
+               missing.add(name);
+               throw e;
+            }
+         }
+      };
+      GroovyTemplateStub stub = (GroovyTemplateStub)helper.assertClass("template.simple.templates.index").newInstance();
+      stub.init(loader);
+      assertFalse(missing.contains("template.simple.templates.index_script"));
+      StringWriter out = new StringWriter();
+      new TemplateRenderContext(stub).render(new WriterPrinter(out));
+      assertEquals("hello", out.toString());
+   }
+
    public void testRelativePath() throws Exception
    {
       MockApplication<?> app = application("template", "relativepath").init();
@@ -77,6 +122,82 @@ import org.juzu.test.protocol.mock.MockClient;
       }
    }
 
+   public void testJava() throws Exception
+   {
+      MockApplication<?> app = application("template", "java").init();
+      MockClient client = app.client();
+      assertEquals("012java_template", client.render().getContent());
+   }
+
+   public void testJavaInclude() throws Exception
+   {
+      MockApplication<?> app = application("template", "jtmpl", "include").init();
+      MockClient client = app.client();
+      assertEquals("foo", client.render().getContent());
+   }
+
+   public void testJavaDecorate() throws Exception
+   {
+      MockApplication<?> app = application("template", "jtmpl", "decorate").init();
+      MockClient client = app.client();
+      assertEquals("<foo>bar</foo>", client.render().getContent());
+   }
+
+   public void testJavaURL() throws Exception
+   {
+      MockApplication<?> app = application("template", "jtmpl", "url").init();
+      MockClient client = app.client();
+      String url = client.render().getContent();
+      assertEquals("foo_value", ((MockRenderBridge)client.invoke(url)).getContent());
+   }
+
+   public void testJavaParam() throws Exception
+   {
+      if (getDI() != InjectImplementation.INJECT_GUICE)
+      {
+         MockApplication<?> app = application("template", "jtmpl", "param").init();
+         MockClient client = app.client();
+         assertEquals("FOO_VALUE-3", client.render().getContent());
+      }
+   }
+
+   public void testJavaBean() throws Exception
+   {
+      MockApplication<?> app = application("template", "jtmpl", "bean").init();
+      MockClient client = app.client();
+      assertEquals("A", client.render().getContent());
+   }
+
+   public void testJavaLiteral() throws Exception
+   {
+      MockApplication<?> app = application("template", "jtmpl", "literal").init();
+      MockClient client = app.client();
+      // The UTF-8 template is decoded with the platform charset
+      String text = new String("caf\u00E9 \u20AC".getBytes("UTF-8"), Charset.defaultCharset());
+      assertEquals("<a href=\"foo\">\\n</a>\n\t" + text, client.render().getContent());
+   }
+
+   public void testJavaUndeclaredIOE() throws Exception
+   {
+      MockApplication<?> app = application("template", "jtmpl", "ioe").init();
+      MockClient client = app.client();
+      assertEquals("pass", client.render().getContent());
+   }
+
+   public void testStubRegistry() throws Exception
+   {
+      MockApplication<?> app = application("template", "relativepath").init();
+      TemplateStubRegistry stubs = ((InternalApplicationContext)app.getContext()).getTemplateStubs();
+      MockClient client = app.client();
+      assertEquals("relative_path_template", client.render().getContent());
+      assertEquals(1, stubs.getMissCount());
+      assertEquals(0, stubs.getHitCount());
+      assertEquals("relative_path_template", client.render().getContent());
+      assertEquals(1, stubs.getMissCount());
+      assertEquals(1, stubs.getHitCount());
+      assertEquals(1, stubs.getSize());
+   }
+
    public void testUndeclaredIOE() throws Exception
    {
       MockApplication<?> app = application("template", "ioe").init();
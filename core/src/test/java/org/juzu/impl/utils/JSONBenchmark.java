@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.impl.utils;
+
+import javax.script.Bindings;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.SimpleBindings;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compares the {@link JSON} parser with the JavaScript engine based parser it replaced, run it with
+ * <code>java org.juzu.impl.utils.JSONBenchmark [entries] [iterations]</code>.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class JSONBenchmark
+{
+
+   public static void main(String[] args) throws Exception
+   {
+      int entries = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+      int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+
+      //
+      JSON json = new JSON();
+      for (int i = 0;i < entries;i++)
+      {
+         json.add("app" + i, new JSON().add("name", "Application" + i).add("package", "org.example.app" + i).add("index", i));
+      }
+      String s = json.toString();
+
+      //
+      long time = -System.nanoTime();
+      ScriptEngine engine = new ScriptEngineManager().getEngineByName("JavaScript");
+      if (engine != null)
+      {
+         engine.eval(Tools.read(JSONBenchmark.class.getResource("json.js")));
+      }
+      time += System.nanoTime();
+      if (engine != null)
+      {
+         System.out.println("JavaScript engine started in " + time / 1000000 + "ms");
+      }
+      else
+      {
+         System.out.println("No JavaScript engine available");
+      }
+
+      //
+      for (int i = 0;i < 3;i++)
+      {
+         StringBuilder sb = new StringBuilder().append(s.length()).append(" chars, ").append(iterations).append(" parses:");
+         if (engine != null)
+         {
+            sb.append(" script=").append(run(iterations, s, engine) / 1000000).append("ms");
+         }
+         sb.append(" native=").append(run(iterations, s, null) / 1000000).append("ms");
+         System.out.println(sb);
+      }
+   }
+
+   private static long run(int iterations, String s, ScriptEngine engine) throws Exception
+   {
+      long time = -System.nanoTime();
+      int count = 0;
+      for (int i = 0;i < iterations;i++)
+      {
+         JSON json = (JSON)(engine != null ? parse(engine, s) : JSON.parse(s));
+         count += json.names().size();
+      }
+      time += System.nanoTime();
+      if (count == 0)
+      {
+         throw new AssertionError();
+      }
+      return time;
+   }
+
+   /**
+    * The JavaScript engine based parser.
+    */
+   private static Object parse(ScriptEngine engine, String json) throws Exception
+   {
+      Bindings bindings = new SimpleBindings();
+      String eval = "var tmp = (" + json + ");var o = new java.util.concurrent.atomic.AtomicReference(tmp.toJava());";
+      engine.eval(eval, bindings);
+      AtomicReference ret = (AtomicReference)bindings.get("o");
+      return ret.get();
+   }
+}
@@ -21,6 +21,8 @@ package org.juzu.impl.utils;
 
 import junit.framework.TestCase;
 
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -100,8 +102,147 @@ public class JSONTestCase extends TestCase
    {
       assertEquals("0", JSON.toString(0, new StringBuilder()).toString());
       assertEquals("0", JSON.toString(0L, new StringBuilder()).toString());
+      for (Number number : new Number[]{Double.NaN, Double.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY})
+      {
+         try
+         {
+            new JSONWriter(new StringBuilder()).value(number);
+            fail("Was expecting " + number + " to fail");
+         }
+         catch (IllegalArgumentException ignore)
+         {
+         }
+      }
    }
    
+   public void testRoundTrip() throws Exception
+   {
+      JSON json = new JSON().
+         add("string", "a\"b\\c/d\n\u00e9\u0001\u2028").
+         add("integer", -12).
+         add("long", 12345678901L).
+         add("boolean", true).
+         add("null", (Object)null).
+         add("empty", new JSON()).
+         add("list", Arrays.asList(1, "two", Arrays.asList(), new JSON().add("three", false)));
+      for (int indent = 0;indent < 3;indent++)
+      {
+         String s = JSON.toString(json, new StringBuilder(), indent).toString();
+         assertEquals(json, JSON.parse(s));
+         assertEquals(s, JSON.toString(JSON.parse(s), new StringBuilder(), indent).toString());
+      }
+   }
+
+   public void testWriteIndent() throws Exception
+   {
+      JSON json = new JSON().add("a", Arrays.asList(1, 2)).add("b", new JSON()).add("c", new JSON().add("d", "e"));
+      assertEquals("{\n  \"a\":[\n    1,\n    2\n  ],\n  \"b\":{},\n  \"c\":{\n    \"d\":\"e\"\n  }\n}", json.toString(new StringBuilder(), 2).toString());
+   }
+
+   public void testReadNested() throws Exception
+   {
+      JSON json = (JSON)JSON.parse(" { \"a\" : [ 1 , { \"b\" : null } , [ ] ] , c : 'd' } ");
+      assertEquals(Arrays.asList("a", "c"), new ArrayList<String>(json.names()));
+      List<?> a = json.getList("a");
+      assertEquals(3, a.size());
+      assertEquals(1, a.get(0));
+      assertEquals(new JSON().add("b", (Object)null), a.get(1));
+      assertEquals(Collections.emptyList(), a.get(2));
+      assertEquals("d", json.getString("c"));
+   }
+
+   public void testReadNumbers() throws Exception
+   {
+      assertEquals(-5, JSON.parse("-5"));
+      assertEquals(Integer.MAX_VALUE, JSON.parse("" + Integer.MAX_VALUE));
+      assertEquals(Integer.MAX_VALUE + 1L, JSON.parse("" + (Integer.MAX_VALUE + 1L)));
+      assertEquals(1.5D, JSON.parse("1.5"));
+      assertEquals(100D, JSON.parse("1e2"));
+      assertEquals(0, JSON.parse("-0"));
+      assertEquals(0.25D, JSON.parse("25E-2"));
+      assertEquals(-1.5D, JSON.parse("-0.15e+1"));
+      assertEquals(Arrays.asList(1, 2), JSON.parse("[1,2]"));
+   }
+
+   public void testReadUnicodeEscape() throws Exception
+   {
+      assertEquals("\u00e9/", JSON.parse("\"\\u00E9\\/\""));
+   }
+
+   public void testPullParser() throws Exception
+   {
+      JSONReader reader = new JSONReader(new StringReader("{\"a\":[true,{\"skipped\":[1,2]},\"b\"],\"c\":3}"));
+      assertEquals(JSONReader.Event.START_OBJECT, reader.next());
+      assertEquals(JSONReader.Event.NAME, reader.next());
+      assertEquals("a", reader.getString());
+      assertEquals(JSONReader.Event.START_ARRAY, reader.next());
+      assertEquals(JSONReader.Event.BOOLEAN, reader.next());
+      assertTrue(reader.getBoolean());
+      assertEquals(JSONReader.Event.START_OBJECT, reader.next());
+      reader.skip();
+      assertEquals(JSONReader.Event.END_OBJECT, reader.getEvent());
+      assertEquals(JSONReader.Event.STRING, reader.next());
+      assertEquals("b", reader.getString());
+      assertEquals(JSONReader.Event.END_ARRAY, reader.next());
+      assertEquals(JSONReader.Event.NAME, reader.next());
+      assertEquals("c", reader.getString());
+      assertEquals(JSONReader.Event.NUMBER, reader.next());
+      assertEquals(3, reader.getNumber());
+      assertEquals(JSONReader.Event.END_OBJECT, reader.next());
+      assertEquals(JSONReader.Event.END, reader.next());
+   }
+
+   public void testStreaming() throws Exception
+   {
+      // Larger than the reader buffer
+      List<String> list = new ArrayList<String>();
+      for (int i = 0;i < 1000;i++)
+      {
+         list.add("value\\" + i);
+      }
+      String s = JSON.toString(list, new StringBuilder()).toString();
+      assertEquals(list, JSON.parse(new StringReader(s)));
+   }
+
+   public void testStreamWriter() throws Exception
+   {
+      StringBuilder sb = new StringBuilder();
+      new JSONWriter(sb).beginObject().name("a").beginArray().value(1).value("b").nullValue().endArray().name("c").value(false).endObject();
+      assertEquals("{\"a\":[1,\"b\",null],\"c\":false}", sb.toString());
+   }
+
+   public void testMalformed() throws Exception
+   {
+      String[] malformed = {"", "{", "[1,]", "{\"a\"}", "{\"a\":1,}", "\"abc", "tru", "-", "[1 2]", "{} {}", "{1:2}",
+         "1.2.3", "1e", "1-2", "--1", "01", "1.", ".5", "-a", "1e+", "[1.e2]"};
+      for (String s : malformed)
+      {
+         try
+         {
+            JSON.parse(s);
+            fail("Was expecting " + s + " to fail");
+         }
+         catch (IllegalArgumentException ignore)
+         {
+         }
+      }
+   }
+
+   public void testSkipMalformedNumber() throws Exception
+   {
+      JSONReader reader = new JSONReader("[{\"a\":[1.2.3]}]");
+      assertEquals(JSONReader.Event.START_ARRAY, reader.next());
+      assertEquals(JSONReader.Event.START_OBJECT, reader.next());
+      try
+      {
+         reader.skip();
+         fail();
+      }
+      catch (IllegalArgumentException ignore)
+      {
+      }
+   }
+
    public void testToJSON() throws Exception
    {
       class Foo
@@ -25,6 +25,7 @@ import org.juzu.impl.spi.fs.ReadFileSystem;
 import org.juzu.impl.spi.fs.disk.DiskFileSystem;
 import org.juzu.impl.spi.inject.InjectImplementation;
 import org.juzu.impl.utils.JSON;
+import org.juzu.impl.utils.Logger;
 import org.juzu.impl.utils.Tools;
 import org.juzu.test.protocol.mock.MockApplication;
 
@@ -35,6 +36,18 @@ import java.io.IOException;
 public abstract class AbstractTestCase extends TestCase
 {
 
+   /** A logger discarding the messages. */
+   public static final Logger NOOP_LOGGER = new Logger()
+   {
+      public void log(CharSequence msg)
+      {
+      }
+
+      public void log(CharSequence msg, Throwable t)
+      {
+      }
+   };
+
    /**
     * Wait for at least one millisecond, based on the current time clock.
     *
@@ -82,6 +82,9 @@ public class InvocationServlet extends HttpServlet
    /** . */
    private MockApplication<?> application;
 
+   /** . */
+   private int streamingBufferSize;
+
    @Override
    public void init() throws ServletException
    {
@@ -102,6 +105,7 @@ public class InvocationServlet extends HttpServlet
 
          //
          this.application = application;
+         this.streamingBufferSize = ServletRequestBridge.getStreamingBufferSize(getServletConfig());
       }
       catch (Exception e)
       {
@@ -135,7 +139,7 @@ public class InvocationServlet extends HttpServlet
       }
       else
       {
-         ServletRequestBridge bridge = ServletRequestBridge.create(req, resp);
+         ServletRequestBridge bridge = ServletRequestBridge.create(req, resp, streamingBufferSize);
          ApplicationContext context = application.getContext();
          context.invoke(bridge);
       }
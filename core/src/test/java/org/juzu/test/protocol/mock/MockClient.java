@@ -21,6 +21,7 @@ package org.juzu.test.protocol.mock;
 
 import org.juzu.impl.inject.Scoped;
 import org.juzu.impl.inject.ScopedContext;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.impl.utils.JSON;
 import org.juzu.impl.utils.Tools;
 import org.juzu.request.Phase;
@@ -137,6 +138,15 @@ public class MockClient
       return flash != null ? flash.get(key) : null;
    }
 
+   public Scoped getFlashValue(Object key, ScopedFactory factory)
+   {
+      if (flash == null)
+      {
+         flash = new ScopedContext();
+      }
+      return flash.get(key, factory);
+   }
+
    public void setFlashValue(Object key, Scoped value)
    {
       if (flash == null)
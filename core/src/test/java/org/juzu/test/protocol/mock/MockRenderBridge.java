@@ -23,6 +23,8 @@ import org.juzu.Response;
 import org.juzu.impl.spi.request.RenderBridge;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class MockRenderBridge extends MockMimeBridge implements RenderBridge
@@ -31,6 +33,12 @@ public class MockRenderBridge extends MockMimeBridge implements RenderBridge
    /** . */
    private String title;
 
+   /** . */
+   private final List<String> scripts = new ArrayList<String>();
+
+   /** . */
+   private final List<String> stylesheets = new ArrayList<String>();
+
    public MockRenderBridge(MockClient client)
    {
       super(client);
@@ -46,6 +54,16 @@ public class MockRenderBridge extends MockMimeBridge implements RenderBridge
       this.title = title;
    }
 
+   public List<String> getScripts()
+   {
+      return scripts;
+   }
+
+   public List<String> getStylesheets()
+   {
+      return stylesheets;
+   }
+
    @Override
    public void setResponse(Response response) throws IllegalStateException, IOException
    {
@@ -56,6 +74,8 @@ public class MockRenderBridge extends MockMimeBridge implements RenderBridge
       {
          Response.Content.Render stream = (Response.Content.Render)response;
          title = stream.getTitle();
+         scripts.addAll(stream.getScripts());
+         stylesheets.addAll(stream.getStylesheets());
       }
    }
 }
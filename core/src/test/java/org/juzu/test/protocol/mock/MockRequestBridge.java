@@ -21,6 +21,7 @@ package org.juzu.test.protocol.mock;
 
 import org.juzu.impl.inject.Scoped;
 import org.juzu.impl.inject.ScopedContext;
+import org.juzu.impl.inject.ScopedFactory;
 import org.juzu.impl.spi.request.RequestBridge;
 import org.juzu.impl.utils.Tools;
 
@@ -80,6 +81,11 @@ public abstract class MockRequestBridge implements RequestBridge
       return client.getFlashValue(key);
    }
 
+   public Scoped getFlashValue(Object key, ScopedFactory factory)
+   {
+      return client.getFlashValue(key, factory);
+   }
+
    public void setFlashValue(Object key, Scoped value)
    {
       client.setFlashValue(key, value);
@@ -90,6 +96,11 @@ public abstract class MockRequestBridge implements RequestBridge
       return attributes.get(key);
    }
 
+   public Scoped getRequestValue(Object key, ScopedFactory factory)
+   {
+      return attributes.get(key, factory);
+   }
+
    public void setRequestValue(Object key, Scoped value)
    {
       if (value != null)
@@ -107,6 +118,11 @@ public abstract class MockRequestBridge implements RequestBridge
       return client.getSession().get(key);
    }
 
+   public Scoped getSessionValue(Object key, ScopedFactory factory)
+   {
+      return client.getSession().get(key, factory);
+   }
+
    public void setSessionValue(Object key, Scoped value)
    {
       if (value != null)
@@ -124,6 +140,11 @@ public abstract class MockRequestBridge implements RequestBridge
       return null;
    }
 
+   public Scoped getIdentityValue(Object key, ScopedFactory factory)
+   {
+      return factory.create();
+   }
+
    public void setIdentityValue(Object key, Scoped value)
    {
    }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.juzu.text;
+
+import org.juzu.test.AbstractTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class OutputStreamPrinterTestCase extends AbstractTestCase
+{
+
+   /** . */
+   private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+   /** . */
+   private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+   public void testCharArray() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      CharArray.Simple chars = new CharArray.Simple("a\u00e9b");
+      chars.write(baos);
+      assertEquals("a\u00e9b", new String(baos.toByteArray(), "UTF-8"));
+      assertEquals(4, baos.size());
+   }
+
+   public void testUTF8() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(UTF_8, baos);
+      printer.write('a');
+      printer.write('\u00e9');
+      printer.write("b\u20ac");
+      printer.write(new StringBuilder("c"));
+      printer.write(new CharArray.Simple("d\u00e9"));
+      assertEquals("a\u00e9b\u20accd\u00e9", new String(baos.toByteArray(), "UTF-8"));
+   }
+
+   public void testCharset() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(ISO_8859_1, baos);
+      printer.write('\u00e9');
+      printer.write(new CharArray.Simple("a\u00e9"));
+      printer.write("\u20ac");
+      assertEquals("\u00e9a\u00e9?", new String(baos.toByteArray(), "ISO-8859-1"));
+   }
+
+   public void testSurrogatePair() throws Exception
+   {
+      String s = "a\ud834\udd1eb";
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(UTF_8, baos);
+      for (int i = 0;i < s.length();i++)
+      {
+         printer.write(s.charAt(i));
+      }
+      printer.write("\ud834");
+      printer.write(new StringBuilder("\udd1e"));
+      assertEquals(s + "\ud834\udd1e", new String(baos.toByteArray(), "UTF-8"));
+   }
+
+   public void testUnpairedSurrogate() throws Exception
+   {
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(UTF_8, baos);
+      printer.write('\ud834');
+      printer.write('a');
+      printer.write('\ud834');
+      printer.write(new CharArray.Simple("b"));
+      assertEquals("?a?b", new String(baos.toByteArray(), "UTF-8"));
+   }
+
+   public void testLargeText() throws Exception
+   {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0;i < 2000;i++)
+      {
+         sb.append(i % 2 == 0 ? 'a' : '\u00e9');
+      }
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      OutputStreamPrinter printer = new OutputStreamPrinter(UTF_8, baos);
+      printer.write(sb.toString());
+      assertEquals(sb.toString(), new String(baos.toByteArray(), "UTF-8"));
+   }
+}
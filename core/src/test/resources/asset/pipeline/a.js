@@ -0,0 +1,5 @@
+function a()
+{
+   // Returns one
+   return 1;
+}
@@ -0,0 +1,2 @@
+/* Calls a */
+var b = a();
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2011 eXo Platform SAS.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package template.jtmpl.bean;
+
+import org.juzu.Path;
+import org.juzu.RequestScoped;
+import org.juzu.View;
+import org.juzu.template.Template;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+@Named("a")
+@RequestScoped
+public class A
+{
+
+   @Inject
+   @Path("index.jtmpl")
+   Template index;
+
+   String value;
+
+   public String getValue()
+   {
+      return value;
+   }
+
+   @View
+   public void index()
+   {
+      value = "A";
+      index.render();
+   }
+}